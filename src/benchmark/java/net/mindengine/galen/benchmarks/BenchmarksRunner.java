@@ -0,0 +1,53 @@
+/*******************************************************************************
+* Copyright 2015 Ivan Shubin http://mindengine.net
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*   http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.benchmarks;
+
+import java.io.File;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs all JMH benchmarks matching the given regex and stores the results in JSON file
+ * so that they could be compared between different commits.
+ * Usage: BenchmarksRunner [include-regex] [result-file]
+ */
+public class BenchmarksRunner {
+
+    private static final String DEFAULT_INCLUDE = ".*";
+    private static final String DEFAULT_RESULT_FILE = "target/benchmarks/jmh-result.json";
+
+    public static void main(String[] args) throws RunnerException {
+        String include = args.length > 0 ? args[0] : DEFAULT_INCLUDE;
+        String resultFile = args.length > 1 ? args[1] : DEFAULT_RESULT_FILE;
+
+        File resultDir = new File(resultFile).getAbsoluteFile().getParentFile();
+        if (resultDir != null && !resultDir.exists()) {
+            resultDir.mkdirs();
+        }
+
+        Options options = new OptionsBuilder()
+                .include(BenchmarksRunner.class.getPackage().getName() + "\\." + include)
+                .resultFormat(ResultFormatType.JSON)
+                .result(resultFile)
+                .build();
+
+        new Runner(options).run();
+    }
+}
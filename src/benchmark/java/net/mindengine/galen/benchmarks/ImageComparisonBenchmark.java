@@ -0,0 +1,113 @@
+/*******************************************************************************
+* Copyright 2015 Ivan Shubin http://mindengine.net
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*   http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.benchmarks;
+
+import static java.util.Arrays.asList;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+import net.mindengine.galen.components.validation.MockedPage;
+import net.mindengine.galen.components.validation.MockedPageElement;
+import net.mindengine.galen.page.PageElement;
+import net.mindengine.galen.specs.SpecImage;
+import net.mindengine.galen.specs.page.Locator;
+import net.mindengine.galen.specs.reader.page.PageSpec;
+import net.mindengine.galen.validation.PageValidation;
+import net.mindengine.galen.validation.ValidationResult;
+import net.mindengine.galen.validation.specs.ImageMismatchCounter;
+import net.mindengine.rainbow4j.ComparisonOptions;
+import net.mindengine.rainbow4j.ImageCompareResult;
+import net.mindengine.rainbow4j.Rainbow4J;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures comparison of images from src/test/resources/imgs both directly and via image spec validation
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class ImageComparisonBenchmark {
+
+    @Param({"/imgs/button-sample-correct.png", "/imgs/button-sample-incorrect.png"})
+    public String sampleImagePath;
+
+    private BufferedImage pageImage;
+    private BufferedImage sampleImage;
+    private Rectangle elementArea;
+    private Rectangle sampleArea;
+    private ComparisonOptions options;
+
+    private PageValidation pageValidation;
+    private SpecImage specImage;
+
+    @Setup
+    public void setUp() throws IOException {
+        pageImage = Rainbow4J.loadImage(getClass().getResource("/imgs/page-screenshot.png").getFile());
+        sampleImage = Rainbow4J.loadImage(getClass().getResource(sampleImagePath).getFile());
+
+        elementArea = new Rectangle(100, 90, 100, 40);
+        sampleArea = new Rectangle(0, 0, sampleImage.getWidth(), sampleImage.getHeight());
+
+        options = new ComparisonOptions();
+        options.setTolerance(5);
+
+        HashMap<String, PageElement> elements = new HashMap<String, PageElement>();
+        elements.put("object", new MockedPageElement(elementArea.x, elementArea.y, elementArea.width, elementArea.height));
+        MockedPage page = new MockedPage(elements, pageImage);
+
+        PageSpec pageSpec = new PageSpec();
+        pageSpec.getObjects().put("object", new Locator("id", "object"));
+        pageValidation = new PageValidation(null, page, pageSpec, null, null);
+
+        specImage = new SpecImage();
+        specImage.setImagePaths(asList(sampleImagePath));
+        specImage.setErrorRate(new SpecImage.ErrorRate(1.0, SpecImage.ErrorRateType.PIXELS));
+        specImage.setTolerance(5);
+    }
+
+    @Benchmark
+    public ImageCompareResult compareWithRainbow4J() throws IOException {
+        return Rainbow4J.compare(pageImage, sampleImage, elementArea, sampleArea, options);
+    }
+
+    @Benchmark
+    public long countMismatchingPixels() {
+        return ImageMismatchCounter.countMismatchingPixels(pageImage, sampleImage, elementArea, sampleArea, options, ImageMismatchCounter.NO_LIMIT);
+    }
+
+    @Benchmark
+    public ValidationResult checkImageSpec() {
+        return pageValidation.check("object", specImage);
+    }
+}
@@ -0,0 +1,101 @@
+/*******************************************************************************
+* Copyright 2015 Ivan Shubin http://mindengine.net
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*   http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.benchmarks;
+
+import java.io.IOException;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import net.mindengine.galen.browser.SeleniumBrowser;
+import net.mindengine.galen.components.mocks.driver.MockedDriver;
+import net.mindengine.galen.page.Page;
+import net.mindengine.galen.specs.Spec;
+import net.mindengine.galen.specs.reader.SpecReader;
+import net.mindengine.galen.specs.reader.page.PageSpec;
+import net.mindengine.galen.specs.reader.page.PageSpecReader;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures reading of page specs from src/test/resources/specs and parsing of single spec lines
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class SpecParsingBenchmark {
+
+    private static final String[] SPEC_LINES = {
+        "inside: object 10 to 30px left",
+        "near: button 10 to 20px left, 5px top",
+        "width: 100% of screen/width",
+        "height: 10 to 40 px",
+        "above: footer 20px",
+        "aligned horizontally all: menu 2px",
+        "text is: Welcome",
+        "css font-size is: 18px",
+        "centered horizontally inside: container 1px",
+        "contains partly: menu-item-1, menu-item-2, menu-item-3",
+        "color scheme: 10% white, 4 to 5 % #3A70D0, ~ 30% black",
+        "image: file imgs/button.png, error 4%, tolerance 10"
+    };
+
+    @State(Scope.Benchmark)
+    public static class PageSpecState {
+
+        @Param({
+            "/specs/galen4j/sample-spec-with-error.spec",
+            "/specs/spec-sections-advanced.spec",
+            "/specs/spec-variables.spec",
+            "/specs/spec-conditional-or.spec",
+            "/specs/components/spec-for-component-test-main.spec"
+        })
+        public String specPath;
+
+        private Page page;
+
+        @Setup
+        public void setUp() {
+            page = new SeleniumBrowser(new MockedDriver("/mocks/pages/base-page.json")).getPage();
+        }
+    }
+
+    @Benchmark
+    public PageSpec readPageSpec(PageSpecState state) throws IOException {
+        return new PageSpecReader(new Properties(), state.page).read(state.specPath);
+    }
+
+    @Benchmark
+    public void readSpecLines(Blackhole blackhole) throws IOException {
+        SpecReader specReader = new SpecReader(new Properties());
+        for (String specLine : SPEC_LINES) {
+            Spec spec = specReader.read(specLine);
+            blackhole.consume(spec);
+        }
+    }
+}
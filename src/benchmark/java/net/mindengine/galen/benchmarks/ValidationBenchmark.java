@@ -0,0 +1,84 @@
+/*******************************************************************************
+* Copyright 2015 Ivan Shubin http://mindengine.net
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*   http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.benchmarks;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import net.mindengine.galen.browser.SeleniumBrowser;
+import net.mindengine.galen.components.mocks.driver.MockedDriver;
+import net.mindengine.galen.page.selenium.SeleniumPage;
+import net.mindengine.galen.specs.reader.page.PageSpec;
+import net.mindengine.galen.specs.reader.page.PageSpecReader;
+import net.mindengine.galen.validation.PageValidation;
+import net.mindengine.galen.validation.SectionValidation;
+import net.mindengine.galen.validation.ValidationResult;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures validation of page specs against pages of MockedDriver.
+ * Each invocation uses a new page so that page elements are searched again as it happens in real checks
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class ValidationBenchmark {
+
+    /**
+     * Pairs of spec path and mocked page separated with "|"
+     */
+    @Param({
+        "/specs/galen4j/sample-spec-with-error.spec|/mocks/pages/galen4j-sample-page.json",
+        "/specs/galen4j/pagedump.spec|/mocks/pages/galen4j-pagedump.json"
+    })
+    public String specAndPage;
+
+    private MockedDriver driver;
+    private SeleniumBrowser browser;
+    private PageSpec pageSpec;
+
+    @Setup
+    public void setUp() throws IOException {
+        String[] parts = specAndPage.split("\\|");
+
+        driver = new MockedDriver(parts[1]);
+        browser = new SeleniumBrowser(driver);
+        pageSpec = new PageSpecReader(new Properties(), browser.getPage()).read(parts[0]);
+    }
+
+    @Benchmark
+    public List<ValidationResult> checkLayout() {
+        SeleniumPage page = new SeleniumPage(driver);
+        PageValidation pageValidation = new PageValidation(browser, page, pageSpec, null, null);
+        return new SectionValidation(pageSpec.getSections(), pageValidation, null).check();
+    }
+}
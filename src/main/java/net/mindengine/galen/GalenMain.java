@@ -20,19 +20,21 @@ import static java.util.Arrays.asList;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
+import java.io.FileReader;
 import java.io.IOException;
 import java.io.StringWriter;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
-import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.Properties;
 import java.util.regex.Pattern;
 
 import net.mindengine.galen.api.Galen;
 import net.mindengine.galen.browser.Browser;
+import net.mindengine.galen.browser.BrowserFactory;
+import net.mindengine.galen.browser.BrowserPool;
+import net.mindengine.galen.browser.PageDumpBrowserFactory;
 import net.mindengine.galen.browser.SeleniumBrowserFactory;
 import net.mindengine.galen.config.GalenConfig;
 import net.mindengine.galen.javascript.GalenJsExecutor;
@@ -49,7 +51,10 @@ import net.mindengine.galen.runner.EventHandler;
 import net.mindengine.galen.runner.GalenArguments;
 import net.mindengine.galen.runner.JsTestCollector;
 import net.mindengine.galen.runner.SuiteListener;
+import net.mindengine.galen.runner.TestDurationHistory;
+import net.mindengine.galen.runner.TestScheduler;
 import net.mindengine.galen.runner.events.TestFilterEvent;
+import net.mindengine.galen.specs.reader.page.CompiledPageSpec;
 import net.mindengine.galen.suite.GalenPageAction;
 import net.mindengine.galen.suite.GalenPageTest;
 import net.mindengine.galen.suite.actions.GalenPageActionCheck;
@@ -70,6 +75,7 @@ public class GalenMain {
 
     public void execute(GalenArguments arguments) throws Exception {
         if (arguments.getAction() != null) {
+            applyValidationLimits(arguments);
 
             FailureListener failureListener = new FailureListener();
             CombinedListener combinedListener = createListeners(arguments);
@@ -86,6 +92,8 @@ public class GalenMain {
                 performConfig();
             } else if ("dump".equals(arguments.getAction())) {
                 performPageDump(arguments);
+            } else if ("compile-specs".equals(arguments.getAction())) {
+                performCompileSpecs(arguments);
             }
             combinedListener.done();
 
@@ -110,6 +118,15 @@ public class GalenMain {
         }
     }
 
+    private void applyValidationLimits(GalenArguments arguments) {
+        if (arguments.getMaxErrors() != null) {
+            GalenConfig.getConfig().setProperty(GalenConfig.VALIDATION_MAX_ERRORS, arguments.getMaxErrors().toString());
+        }
+        if (arguments.getTimeBudget() != null) {
+            GalenConfig.getConfig().setProperty(GalenConfig.VALIDATION_TIME_BUDGET, arguments.getTimeBudget().toString());
+        }
+    }
+
     private void performPageDump(GalenArguments arguments) throws SyntaxException {
         SeleniumBrowserFactory browserFactory = new SeleniumBrowserFactory();
         Browser browser = browserFactory.openBrowser();
@@ -141,6 +158,54 @@ public class GalenMain {
         }
     }
 
+    private void performCompileSpecs(GalenArguments arguments) throws IOException {
+        Properties properties = new Properties();
+        if (arguments.getPropertiesFile() != null) {
+            FileReader reader = new FileReader(arguments.getPropertiesFile());
+            try {
+                properties.load(reader);
+            }
+            finally {
+                reader.close();
+            }
+        }
+
+        List<String> specPaths = new LinkedList<String>();
+        for (String path : arguments.getPaths()) {
+            File file = new File(path);
+            if (file.isDirectory()) {
+                specPaths.addAll(CompiledPageSpec.findSpecFiles(file));
+            }
+            else {
+                specPaths.add(path);
+            }
+        }
+
+        boolean compiledDynamicSpecs = false;
+        for (String specPath : specPaths) {
+            try {
+                CompiledPageSpec compiledPageSpec = CompiledPageSpec.compile(specPath, properties);
+                if (compiledPageSpec.isDynamic()) {
+                    System.out.println("Compiled as dynamic: " + specPath);
+                    compiledDynamicSpecs = true;
+                }
+                else {
+                    System.out.println("Compiled: " + specPath);
+                }
+            } catch (Exception ex) {
+                LOG.error("Couldn't compile " + specPath, ex);
+                System.err.println("Couldn't compile " + specPath + ": " + ex.getMessage());
+            }
+        }
+
+        if (compiledDynamicSpecs) {
+            System.out.println(GalenArguments.DYNAMIC_SPECS_NOTE);
+        }
+        if (!GalenConfig.getConfig().shouldLoadCompiledSpecs()) {
+            System.out.println("Compiled specs are not used until \"" + GalenConfig.SPEC_COMPILED_ENABLED + "\" is enabled in config");
+        }
+    }
+
     public void performConfig() throws IOException {
         File file = new File("config");
 
@@ -197,7 +262,7 @@ public class GalenMain {
                     .withTitle("Simple check")
                     .withUrl(arguments.getUrl())
                     .withSize(arguments.getScreenSize())
-                    .withBrowserFactory(new SeleniumBrowserFactory(SeleniumBrowserFactory.FIREFOX))
+                    .withBrowserFactory(createBrowserFactoryForCheck(arguments))
                     .withActions(
                             asList((GalenPageAction) new GalenPageActionCheck().withSpecs(asList(pageSpecPath)).withIncludedTags(arguments.getIncludedTags())
                                     .withExcludedTags(arguments.getExcludedTags()).withOriginalCommand(arguments.getOriginal())))));
@@ -207,13 +272,23 @@ public class GalenMain {
         runTests(new EventHandler(), arguments, galenTests, listener);
     }
 
-    private void verifyArgumentsForPageCheck(GalenArguments arguments) {
-        if (arguments.getUrl() == null) {
-            throw new IllegalArgumentException("Url is not specified");
+    private BrowserFactory createBrowserFactoryForCheck(GalenArguments arguments) {
+        if (arguments.getDump() != null) {
+            return new PageDumpBrowserFactory(arguments.getDump());
         }
+        return new SeleniumBrowserFactory(SeleniumBrowserFactory.FIREFOX);
+    }
+
+    private void verifyArgumentsForPageCheck(GalenArguments arguments) {
+        if (arguments.getDump() == null) {
+            // url and size are not needed when specs are checked against page dump
+            if (arguments.getUrl() == null) {
+                throw new IllegalArgumentException("Url is not specified");
+            }
 
-        if (arguments.getScreenSize() == null) {
-            throw new IllegalArgumentException("Screen size is not specified");
+            if (arguments.getScreenSize() == null) {
+                throw new IllegalArgumentException("Screen size is not specified");
+            }
         }
 
         if (arguments.getPaths().size() < 1) {
@@ -286,25 +361,31 @@ public class GalenMain {
 
     private void runTestsInThreads(final EventHandler eventHandler, List<GalenTest> tests, GalenArguments arguments, final CompleteListener listener,
                                    int amountOfThreads) {
-        ExecutorService executor = Executors.newFixedThreadPool(amountOfThreads);
-
         Pattern filterPattern = createTestFilter(arguments.getFilter());
 
         List<GalenTest> filteredTests = filterTests(tests, eventHandler);
 
         tellBeforeTestSuite(listener, filteredTests);
 
-        List<GalenTestInfo> testInfos = Collections.synchronizedList(new LinkedList<GalenTestInfo>());
-
+        List<GalenTest> testsToRun = new LinkedList<GalenTest>();
         for (final GalenTest test : filteredTests) {
             if (matchesPattern(test.getName(), filterPattern)
                     && matchesSelectedGroups(test, arguments.getGroups())
                     && doesNotMatchExcludedGroups(test, arguments.getExcludedGroups())) {
-                executor.execute(new TestRunnable(test, listener, eventHandler, testInfos));
+                testsToRun.add(test);
             }
         }
-        executor.shutdown();
-        while (!executor.isTerminated()) {
+
+        TestScheduler scheduler = new TestScheduler(amountOfThreads, createTestDurationHistory());
+        List<GalenTestInfo> testInfos = scheduler.run(testsToRun, new TestScheduler.TestExecution() {
+            @Override
+            public GalenTestInfo execute(GalenTest test) {
+                return new TestRunnable(test, listener, eventHandler).execute();
+            }
+        });
+
+        if (GalenConfig.getConfig().shouldUseBrowserPool()) {
+            BrowserPool.getInstance().closeAll();
         }
 
         tellAfterTestSuite(listener, testInfos);
@@ -314,6 +395,14 @@ public class GalenMain {
         cleanData(testInfos);
     }
 
+    private TestDurationHistory createTestDurationHistory() {
+        String durationsFile = GalenConfig.getConfig().readProperty(GalenConfig.TEST_DURATIONS_FILE, "").trim();
+        if (!durationsFile.isEmpty()) {
+            return new TestDurationHistory(new File(durationsFile));
+        }
+        return new TestDurationHistory();
+    }
+
     private void cleanData(List<GalenTestInfo> testInfos) {
         for (GalenTestInfo testInfo : testInfos) {
             if (testInfo.getReport() != null) {
@@ -48,6 +48,10 @@ public class TestRunnable implements Runnable {
         this.testInfos = testInfos;
     }
 
+    public TestRunnable(GalenTest test, CompleteListener listener, EventHandler eventHandler) {
+        this(test, listener, eventHandler, null);
+    }
+
 
     private GalenTestInfo runTest() {
         GalenTestInfo info = new GalenTestInfo(test.getName(), test);
@@ -86,7 +90,17 @@ public class TestRunnable implements Runnable {
 
     @Override
     public void run() {
+        GalenTestInfo info = execute();
+        if (testInfos != null) {
+            testInfos.add(info);
+        }
+    }
 
+    /**
+     * Runs the test and retries it in case of failure if any of retry events allows it
+     * @return information about the last run of test
+     */
+    public GalenTestInfo execute() {
         GalenTestInfo info = null;
         boolean shouldRetry = true;
         int tries = 1;
@@ -100,8 +114,7 @@ public class TestRunnable implements Runnable {
             }
             tries++;
         }
-
-        testInfos.add(info);
+        return info;
     }
 
     private boolean checkIfShouldRetry(GalenTest test, int tries) {
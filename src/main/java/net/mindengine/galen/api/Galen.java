@@ -17,13 +17,20 @@ package net.mindengine.galen.api;
 
 import net.mindengine.galen.browser.Browser;
 import net.mindengine.galen.browser.SeleniumBrowser;
+import net.mindengine.galen.config.GalenConfig;
 import net.mindengine.galen.page.Page;
 import net.mindengine.galen.page.PageElement;
 import net.mindengine.galen.page.Rect;
+import net.mindengine.galen.page.Screenshot;
+import net.mindengine.galen.page.snapshot.SnapshotPage;
 import net.mindengine.galen.reports.LayoutReportListener;
 import net.mindengine.galen.reports.model.LayoutReport;
+import net.mindengine.galen.specs.Spec;
+import net.mindengine.galen.specs.SpecCss;
+import net.mindengine.galen.specs.page.Locator;
 import net.mindengine.galen.specs.reader.page.PageSpec;
-import net.mindengine.galen.specs.reader.page.PageSpecReader;
+import net.mindengine.galen.specs.reader.page.PageSectionWalker;
+import net.mindengine.galen.specs.reader.page.PageSpecCache;
 import net.mindengine.galen.specs.reader.page.TaggedPageSection;
 import net.mindengine.galen.specs.reader.page.SectionFilter;
 import net.mindengine.galen.validation.*;
@@ -37,6 +44,8 @@ import org.slf4j.LoggerFactory;
 import java.io.File;
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static java.util.Arrays.asList;
 
@@ -54,15 +63,12 @@ public class Galen {
     public static LayoutReport checkLayout(Browser browser, List<String> specPaths,
                                            List<String> includedTags, List<String> excludedTags,
                                            Properties properties, ValidationListener validationListener, File screenshotFile) throws IOException {
-        PageSpecReader reader = new PageSpecReader(properties, browser.getPage());
-
-        List<PageSpec> specs = new LinkedList<PageSpec>();
-
-        for (String specPath : specPaths) {
-            specs.add(reader.read(specPath));
-        }
+        // the same page is used for reading and validating specs so that found elements are shared between them
+        Page page = browser.getPage();
+        List<PageSpec> specs = PageSpecCache.getInstance().read(specPaths, properties, page);
+        page.setScreenshot(screenshotFile);
 
-        return checkLayout(browser, specs, includedTags, excludedTags, validationListener, screenshotFile);
+        return checkLayoutForPage(page, browser, specs, includedTags, excludedTags, validationListener);
     }
 
     public static LayoutReport checkLayout(Browser browser, List<PageSpec> specs,
@@ -91,8 +97,9 @@ public class Galen {
         LayoutReport layoutReport = new LayoutReport();
         layoutReport.setIncludedTags(includedTags);
         layoutReport.setExcludedTags(excludedTags);
+        Screenshot screenshot = null;
         try {
-            File screenshot = page.createScreenshot();
+            screenshot = page.createScreenshot();
             if (screenshot != null) {
                 layoutReport.setScreenshot(layoutReport.registerFile("screenshot.png", screenshot));
             }
@@ -105,20 +112,44 @@ public class Galen {
 
 
         List<ValidationResult> allValidationErrorResults = new LinkedList<ValidationResult>();
+        ValidationBudget validationBudget = ValidationBudget.fromConfig();
 
-        for (PageSpec spec : specs) {
+        ExecutorService executor = null;
+        int threads = GalenConfig.getConfig().getValidationThreads();
+        if (GalenConfig.getConfig().shouldValidatePageSnapshot() && threads > 1) {
+            executor = Executors.newFixedThreadPool(threads);
+        }
 
-            SectionFilter sectionFilter = new SectionFilter(includedTags, excludedTags);
-            List<TaggedPageSection> pageSections = mergeSectionsWithSameName(spec.findSections(sectionFilter));
-            SectionValidation sectionValidation = new SectionValidation(pageSections, new PageValidation(browser, page, spec, listener, sectionFilter), listener);
+        try {
+            for (PageSpec spec : specs) {
 
-            List<ValidationResult> results = sectionValidation.check();
-            for (ValidationResult result : results) {
-                if (result.getError() != null) {
-                    allValidationErrorResults.add(result);
+                SectionFilter sectionFilter = new SectionFilter(includedTags, excludedTags);
+
+                Page validatedPage = page;
+                if (GalenConfig.getConfig().shouldValidatePageSnapshot()) {
+                    validatedPage = SnapshotPage.capture(page, spec, sectionFilter);
+                }
+
+                List<TaggedPageSection> pageSections = mergeSectionsWithSameName(spec.findSections(sectionFilter));
+                SectionValidation sectionValidation = new SectionValidation(pageSections, new PageValidation(browser, validatedPage, spec, listener, sectionFilter).withValidationBudget(validationBudget), listener)
+                        .withParallelExecution(executor);
+
+                List<ValidationResult> results = sectionValidation.check();
+                for (ValidationResult result : results) {
+                    if (result.getError() != null) {
+                        allValidationErrorResults.add(result);
+                    }
                 }
             }
         }
+        finally {
+            if (executor != null) {
+                executor.shutdownNow();
+            }
+            if (screenshot != null) {
+                screenshot.releaseImage();
+            }
+        }
 
         layoutReport.setValidationErrorResults(allValidationErrorResults);
 
@@ -183,8 +214,7 @@ public class Galen {
         dumpPage(browser, pageName, specPath, pageDumpPath, maxWidth, maxHeight, new Properties());
     }
     public static void dumpPage(Browser browser, String pageName, String specPath, String pageDumpPath, Integer maxWidth, Integer maxHeight, Properties properties) throws IOException {
-        PageSpecReader reader = new PageSpecReader(properties, browser.getPage());
-        PageSpec pageSpec = reader.read(specPath);
+        PageSpec pageSpec = PageSpecCache.getInstance().read(specPath, properties, browser.getPage());
         dumpPage(browser, pageName, pageSpec, new File(pageDumpPath), maxWidth, maxHeight);
     }
 
@@ -198,22 +228,59 @@ public class Galen {
 
         Set<String> objectNames = pageSpec.getObjects().keySet();
         PageValidation pageValidation = new PageValidation(browser, browser.getPage(), pageSpec, null, null);
+        pageValidation.getPage().preloadObjects(pageSpec.getObjects());
+
+        Map<String, Set<String>> cssPropertiesInSpec = collectCssProperties(pageSpec);
+        List<String> defaultCssProperties = GalenConfig.getConfig().getPageDumpCssProperties();
 
         PageDump pageDump = new PageDump();
         pageDump.setTitle(browser.getPage().getTitle());
         for (String objectName : objectNames) {
             PageElement pageElement = pageValidation.findPageElement(objectName);
 
-            if (pageElement.isVisible() && pageElement.getArea() != null) {
-                PageDump.Element element = new PageDump.Element(objectName, pageElement.getArea().toIntArray(), pageElement.getText());
-
-                if (pageElement.isPresent() && pageElement.isVisible() && isWithinArea(pageElement, maxWidth, maxHeight)) {
-                    element.setHasImage(true);
+            if (pageElement.isPresent() && pageElement.getArea() != null) {
+                boolean visible = pageElement.isVisible();
+                PageDump.Element element = new PageDump.Element(objectName, pageElement.getArea().toIntArray(), visible ? pageElement.getText() : null);
+                element.setVisible(visible);
+
+                if (visible) {
+                    Set<String> cssPropertyNames = new LinkedHashSet<String>(defaultCssProperties);
+                    if (cssPropertiesInSpec.containsKey(objectName)) {
+                        cssPropertyNames.addAll(cssPropertiesInSpec.get(objectName));
+                    }
+                    for (String cssPropertyName : cssPropertyNames) {
+                        String value = pageElement.getCssProperty(cssPropertyName);
+                        if (value != null) {
+                            element.getCssProperties().put(cssPropertyName, value);
+                        }
+                    }
+
+                    if (isWithinArea(pageElement, maxWidth, maxHeight)) {
+                        element.setHasImage(true);
+                    }
                 }
                 pageDump.addElement(element);
             }
         }
 
+        for (String specialObjectName : asList("screen", "viewport")) {
+            try {
+                PageElement specialObject = browser.getPage().getSpecialObject(specialObjectName);
+                if (specialObject != null && specialObject.getArea() != null) {
+                    pageDump.addSpecialObject(new PageDump.Element(specialObjectName, specialObject.getArea().toIntArray(), null));
+                }
+            }
+            catch (Exception ex) {
+                LOG.trace("Couldn't dump special object " + specialObjectName, ex);
+            }
+        }
+
+        Page page = pageValidation.getPage();
+        page.preloadObjectCounts(pageSpec.getMultiObjects().values());
+        for (Locator locator : pageSpec.getMultiObjects().values()) {
+            pageDump.getObjectCounts().put(locator.prettyString(), page.getObjectCount(locator));
+        }
+
         pageDump.setPageName(pageName);
         pageDump.exportAsJson(new File(reportFolder.getAbsoluteFile() + File.separator + "page.json"));
         pageDump.exportAsHtml(pageName, new File(reportFolder.getAbsoluteFile() + File.separator + "page.html"));
@@ -225,6 +292,25 @@ public class Galen {
         copyResource("/pagedump/galen-pagedump.css", new File(reportFolder.getAbsolutePath() + File.separator + "galen-pagedump.css"));
     }
 
+    /**
+     * Collects names of css properties that are checked in the page spec for each object
+     */
+    private static Map<String, Set<String>> collectCssProperties(PageSpec pageSpec) {
+        final Map<String, Set<String>> cssProperties = new HashMap<String, Set<String>>();
+        new PageSectionWalker(pageSpec, new PageSectionWalker.SpecVisitor() {
+            @Override
+            public void visit(String objectName, Spec spec) {
+                if (spec instanceof SpecCss) {
+                    if (!cssProperties.containsKey(objectName)) {
+                        cssProperties.put(objectName, new HashSet<String>());
+                    }
+                    cssProperties.get(objectName).add(((SpecCss) spec).getCssPropertyName());
+                }
+            }
+        }).walk(pageSpec.getSections());
+        return cssProperties;
+    }
+
     private static void copyResource(String resourceName, File destFile) throws IOException {
         String value = IOUtils.toString(Galen.class.getResourceAsStream(resourceName));
         FileUtils.writeStringToFile(destFile, value);
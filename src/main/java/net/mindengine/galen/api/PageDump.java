@@ -17,11 +17,14 @@ package net.mindengine.galen.api;
 
 import java.awt.image.BufferedImage;
 import java.io.File;
+import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 import net.mindengine.galen.browser.Browser;
+import net.mindengine.galen.page.Screenshot;
 import net.mindengine.rainbow4j.Rainbow4J;
 
 import org.apache.commons.io.FileUtils;
@@ -30,6 +33,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 public class PageDump {
@@ -39,6 +44,31 @@ public class PageDump {
     private String pageName;
     private String title;
     private Map<String, Element> items = new HashMap<String, Element>();
+    private Map<String, Element> specialObjects = new HashMap<String, Element>();
+    private Map<String, Integer> objectCounts = new LinkedHashMap<String, Integer>();
+
+    /**
+     * Loads page dump from the page.json file in the given folder
+     * @param dumpFolder - a folder where the page dump was exported
+     */
+    public static PageDump loadFrom(File dumpFolder) throws IOException {
+        File jsonFile = new File(dumpFolder, "page.json");
+        if (!jsonFile.exists()) {
+            throw new FileNotFoundException("Can't find page dump: " + jsonFile.getAbsolutePath());
+        }
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        PageDump pageDump = objectMapper.readValue(jsonFile, PageDump.class);
+
+        for (Map.Entry<String, Element> item : pageDump.getItems().entrySet()) {
+            item.getValue().setObjectName(item.getKey());
+        }
+        for (Map.Entry<String, Element> specialObject : pageDump.getSpecialObjects().entrySet()) {
+            specialObject.getValue().setObjectName(specialObject.getKey());
+        }
+        return pageDump;
+    }
 
     public void setTitle(String title) {
         this.title = title;
@@ -60,6 +90,29 @@ public class PageDump {
         this.items = items;
     }
 
+    public Map<String, Element> getSpecialObjects() {
+        return specialObjects;
+    }
+
+    public void setSpecialObjects(Map<String, Element> specialObjects) {
+        this.specialObjects = specialObjects;
+    }
+
+    public void addSpecialObject(Element element) {
+        specialObjects.put(element.getObjectName(), element);
+    }
+
+    /**
+     * @return amount of found objects for each locator of multi-objects. Keys are pretty strings of locators
+     */
+    public Map<String, Integer> getObjectCounts() {
+        return objectCounts;
+    }
+
+    public void setObjectCounts(Map<String, Integer> objectCounts) {
+        this.objectCounts = objectCounts;
+    }
+
     public void exportAsJson(File file) throws IOException {
         makeSureFileExists(file);
         ObjectMapper objectMapper = new ObjectMapper();
@@ -90,11 +143,11 @@ public class PageDump {
 
     public void exportAllScreenshots(Browser browser, File reportFolder) throws IOException {
 
-        File screenshotOriginalFile = browser.createScreenshot();
+        Screenshot screenshot = browser.createScreenshot();
 
-        FileUtils.copyFile(screenshotOriginalFile, new File(reportFolder.getAbsolutePath() + File.separator + "page.png"));
+        screenshot.saveTo(new File(reportFolder.getAbsolutePath() + File.separator + "page.png"));
 
-        BufferedImage image = Rainbow4J.loadImage(screenshotOriginalFile.getAbsolutePath());
+        BufferedImage image = screenshot.getImage();
 
 
         File objectsFolder = new File(reportFolder.getAbsolutePath() + File.separator + "objects");
@@ -130,6 +183,12 @@ public class PageDump {
         private int[] area;
         private String text;
         private boolean hasImage = false;
+        private boolean visible = true;
+        @JsonInclude(JsonInclude.Include.NON_EMPTY)
+        private Map<String, String> cssProperties = new HashMap<String, String>();
+
+        public Element() {
+        }
 
         public Element(String objectName, int[] area, String text) {
             setObjectName(objectName);
@@ -168,5 +227,21 @@ public class PageDump {
         public boolean getHasImage() {
             return hasImage;
         }
+
+        public boolean isVisible() {
+            return visible;
+        }
+
+        public void setVisible(boolean visible) {
+            this.visible = visible;
+        }
+
+        public Map<String, String> getCssProperties() {
+            return cssProperties;
+        }
+
+        public void setCssProperties(Map<String, String> cssProperties) {
+            this.cssProperties = cssProperties;
+        }
     }
 }
@@ -16,9 +16,9 @@
 package net.mindengine.galen.browser;
 
 import java.awt.Dimension;
-import java.io.File;
 
 import net.mindengine.galen.page.Page;
+import net.mindengine.galen.page.Screenshot;
 
 public interface Browser {
 
@@ -43,9 +43,9 @@ public interface Browser {
     Dimension getScreenSize();
 
     /**
-     * Makes a screenshot in a temporary folder
-     * @return File instance for the created screenshot
+     * Makes a screenshot and keeps it in memory
+     * @return Screenshot which is written to a temporary file only when it is requested
      */
-    File createScreenshot();
+    Screenshot createScreenshot();
 
 }
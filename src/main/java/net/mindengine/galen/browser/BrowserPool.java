@@ -0,0 +1,193 @@
+/*******************************************************************************
+* Copyright 2015 Ivan Shubin http://mindengine.net
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*   http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.browser;
+
+import java.awt.Dimension;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import net.mindengine.galen.config.GalenConfig;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps opened browsers so that they could be reused by other tests instead of starting a new browser each time.
+ * Browsers are grouped by their factories, so the same browser is only given to a test
+ * which uses an equal browser factory.
+ * Before a browser is put back to the pool its cookies and storage are cleared for the current page
+ * and its window is resized back to the size it had when it was opened.
+ * Browsers that fail to reset or that are not responding anymore are closed.
+ */
+public class BrowserPool {
+
+    private final static Logger LOG = LoggerFactory.getLogger(BrowserPool.class);
+
+    private static final String JS_CLEAR_STORAGE = "try { window.localStorage.clear(); } catch (e) {}\n"
+            + "try { window.sessionStorage.clear(); } catch (e) {}";
+
+    private static final BrowserPool instance = new BrowserPool(GalenConfig.getConfig().getBrowserPoolSize());
+
+    private final int maxSizePerFactory;
+
+    private final Map<BrowserFactory, LinkedList<Browser>> idleBrowsers = new HashMap<BrowserFactory, LinkedList<Browser>>();
+
+    private final Map<Browser, Dimension> initialWindowSizes = new IdentityHashMap<Browser, Dimension>();
+
+    public BrowserPool(int maxSizePerFactory) {
+        this.maxSizePerFactory = maxSizePerFactory;
+    }
+
+    public static BrowserPool getInstance() {
+        return instance;
+    }
+
+    /**
+     * Takes an idle browser which was opened by an equal browser factory or opens a new one
+     */
+    public Browser lease(BrowserFactory browserFactory) {
+        Browser browser = takeIdleBrowser(browserFactory);
+        while (browser != null) {
+            if (isHealthy(browser)) {
+                return browser;
+            }
+            evict(browser);
+            browser = takeIdleBrowser(browserFactory);
+        }
+
+        browser = browserFactory.openBrowser();
+        rememberWindowSize(browser);
+        return browser;
+    }
+
+    /**
+     * Resets the browser and puts it back to the pool. If the pool is full or the browser could not be reset
+     * the browser is closed
+     */
+    public void release(BrowserFactory browserFactory, Browser browser) {
+        if (!reset(browser)) {
+            evict(browser);
+            return;
+        }
+
+        synchronized (this) {
+            LinkedList<Browser> browsers = idleBrowsers.get(browserFactory);
+            if (browsers == null) {
+                browsers = new LinkedList<Browser>();
+                idleBrowsers.put(browserFactory, browsers);
+            }
+            if (browsers.size() < maxSizePerFactory) {
+                browsers.add(browser);
+                return;
+            }
+        }
+        evict(browser);
+    }
+
+    /**
+     * Closes all idle browsers
+     */
+    public void closeAll() {
+        List<Browser> browsers = new LinkedList<Browser>();
+        synchronized (this) {
+            for (LinkedList<Browser> factoryBrowsers : idleBrowsers.values()) {
+                browsers.addAll(factoryBrowsers);
+            }
+            idleBrowsers.clear();
+        }
+
+        for (Browser browser : browsers) {
+            evict(browser);
+        }
+    }
+
+    public synchronized int getIdleBrowsersCount(BrowserFactory browserFactory) {
+        LinkedList<Browser> browsers = idleBrowsers.get(browserFactory);
+        if (browsers != null) {
+            return browsers.size();
+        }
+        return 0;
+    }
+
+    private synchronized Browser takeIdleBrowser(BrowserFactory browserFactory) {
+        LinkedList<Browser> browsers = idleBrowsers.get(browserFactory);
+        if (browsers != null && !browsers.isEmpty()) {
+            return browsers.removeFirst();
+        }
+        return null;
+    }
+
+    private void rememberWindowSize(Browser browser) {
+        try {
+            Dimension windowSize = browser.getScreenSize();
+            synchronized (this) {
+                initialWindowSizes.put(browser, windowSize);
+            }
+        }
+        catch (RuntimeException ex) {
+            LOG.trace("Couldn't get window size of browser", ex);
+        }
+    }
+
+    private boolean isHealthy(Browser browser) {
+        try {
+            browser.getUrl();
+            return true;
+        }
+        catch (RuntimeException ex) {
+            LOG.trace("Browser is not responding and will be closed", ex);
+            return false;
+        }
+    }
+
+    private boolean reset(Browser browser) {
+        try {
+            if (browser instanceof SeleniumBrowser) {
+                ((SeleniumBrowser) browser).getDriver().manage().deleteAllCookies();
+            }
+            browser.executeJavascript(JS_CLEAR_STORAGE);
+            browser.load("about:blank");
+
+            Dimension windowSize;
+            synchronized (this) {
+                windowSize = initialWindowSizes.get(browser);
+            }
+            if (windowSize != null) {
+                browser.changeWindowSize(windowSize);
+            }
+            return true;
+        }
+        catch (RuntimeException ex) {
+            LOG.trace("Couldn't reset browser", ex);
+            return false;
+        }
+    }
+
+    private void evict(Browser browser) {
+        synchronized (this) {
+            initialWindowSizes.remove(browser);
+        }
+        try {
+            browser.quit();
+        }
+        catch (RuntimeException ex) {
+            LOG.trace("Couldn't quit browser", ex);
+        }
+    }
+}
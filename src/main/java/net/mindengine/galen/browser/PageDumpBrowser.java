@@ -0,0 +1,104 @@
+/*******************************************************************************
+* Copyright 2015 Ivan Shubin http://mindengine.net
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*   http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.browser;
+
+import java.awt.Dimension;
+import java.io.File;
+import java.io.IOException;
+
+import net.mindengine.galen.api.PageDump;
+import net.mindengine.galen.page.Page;
+import net.mindengine.galen.page.PageElement;
+import net.mindengine.galen.page.Screenshot;
+import net.mindengine.galen.page.dump.PageDumpPage;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A browser which doesn't open any real browser but serves a page that was stored with {@link net.mindengine.galen.api.Galen#dumpPage}.
+ * It is used for re-checking specs against a page dump without launching browser and loading the page.
+ */
+public class PageDumpBrowser implements Browser {
+
+    private final static Logger LOG = LoggerFactory.getLogger(PageDumpBrowser.class);
+
+    private final PageDump pageDump;
+    private final PageDumpPage page;
+
+    public PageDumpBrowser(PageDump pageDump, Screenshot screenshot) {
+        this.pageDump = pageDump;
+        this.page = new PageDumpPage(pageDump, screenshot);
+    }
+
+    /**
+     * Loads page dump from the folder where it was exported by {@link net.mindengine.galen.api.Galen#dumpPage}
+     */
+    public static PageDumpBrowser load(File dumpFolder) throws IOException {
+        PageDump pageDump = PageDump.loadFrom(dumpFolder);
+
+        File screenshotFile = new File(dumpFolder, "page.png");
+        Screenshot screenshot = screenshotFile.exists() ? Screenshot.fromFile(screenshotFile) : null;
+        return new PageDumpBrowser(pageDump, screenshot);
+    }
+
+    @Override
+    public void quit() {
+    }
+
+    @Override
+    public void changeWindowSize(Dimension screenSize) {
+        LOG.debug("Page dump browser can't change window size");
+    }
+
+    @Override
+    public void load(String url) {
+        LOG.debug("Page dump browser can't load urls");
+    }
+
+    @Override
+    public Object executeJavascript(String javascript) {
+        throw new UnsupportedOperationException("Javascript can't be executed on page dump");
+    }
+
+    @Override
+    public Page getPage() {
+        return page;
+    }
+
+    @Override
+    public void refresh() {
+    }
+
+    @Override
+    public String getUrl() {
+        return pageDump.getPageName();
+    }
+
+    @Override
+    public Dimension getScreenSize() {
+        PageElement viewport = page.getSpecialObject("viewport");
+        if (viewport != null) {
+            return new Dimension(viewport.getWidth(), viewport.getHeight());
+        }
+        return null;
+    }
+
+    @Override
+    public Screenshot createScreenshot() {
+        return page.createScreenshot();
+    }
+}
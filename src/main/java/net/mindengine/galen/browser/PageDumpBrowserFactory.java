@@ -0,0 +1,70 @@
+/*******************************************************************************
+* Copyright 2015 Ivan Shubin http://mindengine.net
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*   http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.browser;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.apache.commons.lang3.builder.EqualsBuilder;
+import org.apache.commons.lang3.builder.HashCodeBuilder;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+public class PageDumpBrowserFactory implements BrowserFactory {
+
+    private final String pageDumpPath;
+
+    public PageDumpBrowserFactory(String pageDumpPath) {
+        this.pageDumpPath = pageDumpPath;
+    }
+
+    @Override
+    public Browser openBrowser() {
+        try {
+            return PageDumpBrowser.load(new File(pageDumpPath));
+        } catch (IOException e) {
+            throw new RuntimeException("Couldn't load page dump from " + pageDumpPath, e);
+        }
+    }
+
+    public String getPageDumpPath() {
+        return pageDumpPath;
+    }
+
+    @Override
+    public int hashCode() {
+        return new HashCodeBuilder().append(pageDumpPath).toHashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == null) {
+            return false;
+        }
+        if (obj == this) {
+            return true;
+        }
+        if (!(obj instanceof PageDumpBrowserFactory)) {
+            return false;
+        }
+        PageDumpBrowserFactory rhs = (PageDumpBrowserFactory) obj;
+        return new EqualsBuilder().append(pageDumpPath, rhs.pageDumpPath).isEquals();
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this).append("pageDumpPath", pageDumpPath).toString();
+    }
+}
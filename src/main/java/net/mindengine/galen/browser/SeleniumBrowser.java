@@ -16,12 +16,12 @@
 package net.mindengine.galen.browser;
 
 import java.awt.Dimension;
-import java.io.File;
 import java.io.IOException;
 
 
 import net.mindengine.galen.config.GalenConfig;
 import net.mindengine.galen.page.Page;
+import net.mindengine.galen.page.Screenshot;
 import net.mindengine.galen.page.selenium.SeleniumPage;
 import net.mindengine.galen.utils.GalenUtils;
 
@@ -77,10 +77,10 @@ public class SeleniumBrowser implements Browser {
     }
 
     @Override
-    public File createScreenshot() {
+    public Screenshot createScreenshot() {
         try {
             if (GalenConfig.getConfig().getBooleanProperty(GalenConfig.SCREENSHOT_FULLPAGE, false)) {
-                return GalenUtils.makeFullScreenshot(driver);
+                return GalenUtils.makeFullPageScreenshot(driver);
             }
             else return makeSimpleScreenshot();
         } catch (Exception e) {
@@ -88,8 +88,8 @@ public class SeleniumBrowser implements Browser {
         }
     }
     
-    private File makeSimpleScreenshot() throws IOException {
-        return GalenUtils.takeScreenshot(driver);
+    private Screenshot makeSimpleScreenshot() throws IOException {
+        return GalenUtils.makeScreenshot(driver);
     }
     
     @Override
@@ -18,6 +18,8 @@ package net.mindengine.galen.browser;
 import java.util.List;
 import java.util.Set;
 
+import net.mindengine.galen.metrics.WebDriverCommandCounter;
+
 import org.openqa.selenium.By;
 import org.openqa.selenium.JavascriptExecutor;
 import org.openqa.selenium.NoSuchElementException;
@@ -37,12 +39,14 @@ public class WebDriverWrapper {
     
     
     public void close() {
+        WebDriverCommandCounter.count();
         driver.close();
     }
 
     
     public WebElementWrapper findElement(By by) {
         try {
+            WebDriverCommandCounter.count();
             return new WebElementWrapper(driver.findElement(by));
         }
         catch (NoSuchElementException e) {
@@ -52,6 +56,7 @@ public class WebDriverWrapper {
 
     
     public WebElementWrapper[] findElements(By by) {
+        WebDriverCommandCounter.count();
         List<WebElement> elementsList = driver.findElements(by);
         return convertToArray(elementsList);
     }
@@ -70,26 +75,31 @@ public class WebDriverWrapper {
     
     
     public void get(String url) {
+        WebDriverCommandCounter.count();
         driver.get(url);
     }
 
     
     public String getCurrentUrl() {
+        WebDriverCommandCounter.count();
         return driver.getCurrentUrl();
     }
 
     
     public String getPageSource() {
+        WebDriverCommandCounter.count();
         return driver.getPageSource();
     }
 
     
     public String getTitle() {
+        WebDriverCommandCounter.count();
         return driver.getTitle();
     }
 
     
     public String getWindowHandle() {
+        WebDriverCommandCounter.count();
         return driver.getWindowHandle();
     }
     
@@ -98,6 +108,7 @@ public class WebDriverWrapper {
     }
 
     public Object executeScript(String script, Object[] args) {
+        WebDriverCommandCounter.count();
         return ((JavascriptExecutor)driver).executeScript(script, args);
     }
     
@@ -105,10 +116,12 @@ public class WebDriverWrapper {
         return executeAsyncScript(script, new Object[]{});
     }
     public Object executeAsyncScript(String script, Object[] args) {
+        WebDriverCommandCounter.count();
         return ((JavascriptExecutor)driver).executeAsyncScript(script, args);
     }
     
     public String[] getWindowHandles() {
+        WebDriverCommandCounter.count();
         Set<String> handlesSet = driver.getWindowHandles();
         if (handlesSet != null) {
             return handlesSet.toArray(new String[]{});
@@ -128,6 +141,7 @@ public class WebDriverWrapper {
 
     
     public void quit() {
+        WebDriverCommandCounter.count();
         driver.quit();
     }
 
@@ -15,6 +15,8 @@
 ******************************************************************************/
 package net.mindengine.galen.browser;
 
+import net.mindengine.galen.metrics.WebDriverCommandCounter;
+
 import org.openqa.selenium.By;
 import org.openqa.selenium.Dimension;
 import org.openqa.selenium.Point;
@@ -29,63 +31,78 @@ public class WebElementWrapper {
     }
 
     public void click() {
+        WebDriverCommandCounter.count();
         webElement.click();
     }
 
     public void submit() {
+        WebDriverCommandCounter.count();
         webElement.submit();
     }
 
     public void sendKeys(String keys) {
+        WebDriverCommandCounter.count();
         webElement.sendKeys(keys);
     }
 
     
     public void clear() {
+        WebDriverCommandCounter.count();
         webElement.clear();
     }
 
     public String getTagName() {
+        WebDriverCommandCounter.count();
         return webElement.getTagName();
     }
 
     public String getAttribute(String name) {
+        WebDriverCommandCounter.count();
         return webElement.getAttribute(name);
     }
 
     public boolean isSelected() {
+        WebDriverCommandCounter.count();
         return webElement.isSelected();
     }
 
     public boolean isEnabled() {
+        WebDriverCommandCounter.count();
         return webElement.isEnabled();
     }
 
     public String getText() {
+        WebDriverCommandCounter.count();
         return webElement.getText();
     }
 
     public WebElementWrapper[] findElements(By by) {
+        WebDriverCommandCounter.count();
         return WebDriverWrapper.convertToArray(webElement.findElements(by));
     }
 
     public WebElementWrapper findElement(By by) {
+        WebDriverCommandCounter.count();
         return new WebElementWrapper(webElement.findElement(by));
     }
 
     public boolean isDisplayed() {
+        WebDriverCommandCounter.count();
         return webElement.isDisplayed();
     }
 
     public Point getLocation() {
+        WebDriverCommandCounter.count();
         return webElement.getLocation();
     }
 
     public Dimension getSize() {
+        WebDriverCommandCounter.count();
         return webElement.getSize();
     }
 
     public String getCssValue(String propertyName) {
+        WebDriverCommandCounter.count();
         return webElement.getCssValue(propertyName);
     }
 
@@ -42,8 +42,34 @@ public class GalenConfig {
     public static final String SCREENSHOT_FULLPAGE_SCROLLWAIT = "galen.browser.screenshots.fullPage.scrollWait";
     public static final String SPEC_IMAGE_TOLERANCE = "galen.spec.image.tolerance";
     public static final String SPEC_IMAGE_ERROR_RATE = "galen.spec.image.error";
+    // max size in megabytes of decoded sample images kept in memory for image specs, set to zero to turn off caching
+    public static final String SPEC_IMAGE_CACHE_SIZE = "galen.spec.image.cache.size";
     public static final String SPEC_GLOBAL_VISIBILITY_CHECK = "galen.spec.global.visibility";
+    // fetches location, size and visibility of all page objects in a single javascript call
+    public static final String PAGE_BULK_RESOLVE = "galen.browser.page.bulkResolve";
+    // captures page objects into memory before validation so that specs are checked without accessing the browser
+    public static final String VALIDATION_SNAPSHOT = "galen.validation.snapshot";
+    // amount of threads for checking specs against page snapshot
+    public static final String VALIDATION_THREADS = "galen.validation.threads";
+    // stops layout validation after the given amount of errors, set to zero to check all specs
+    public static final String VALIDATION_MAX_ERRORS = "galen.validation.maxErrors";
+    // max time in milliseconds for a single layout check after which the rest of specs are skipped, set to zero to turn off
+    public static final String VALIDATION_TIME_BUDGET = "galen.validation.timeBudget";
+    // max amount of parsed page specs that are kept in memory, set to zero to turn off caching
+    public static final String SPEC_CACHE_SIZE = "galen.spec.cache.size";
+    // loads page specs from files created with "galen compile-specs" instead of parsing them while they are up to date
+    public static final String SPEC_COMPILED_ENABLED = "galen.spec.compiled.enabled";
 
+    // reuses opened browsers between page tests instead of starting a new browser for each of them
+    public static final String BROWSER_POOL_ENABLED = "galen.browser.pool.enabled";
+    // max amount of idle browsers kept in pool for each browser type
+    public static final String BROWSER_POOL_SIZE = "galen.browser.pool.size";
+    // file where durations of tests are stored so that the longest tests are started first when running in parallel
+    public static final String TEST_DURATIONS_FILE = "galen.test.durations.file";
+    // css properties that are stored in page dump for each visible object in addition to the ones checked in spec
+    public static final String PAGEDUMP_CSS_PROPERTIES = "galen.pagedump.css.properties";
+    // adds durations of specs, page actions and browser startup to reports
+    public static final String REPORTS_TIMING = "galen.reports.timing";
     public static final String TEST_JS_SUFFIX = "galen.test.js.file.suffix";
     public static final String TEST_SUFFIX = "galen.test.file.suffix";
     private int rangeApproximation;
@@ -196,6 +222,55 @@ public class GalenConfig {
         return getBooleanProperty(GalenConfig.SPEC_GLOBAL_VISIBILITY_CHECK, true);
     }
 
+    public boolean shouldResolveObjectsInBulk() {
+        return getBooleanProperty(GalenConfig.PAGE_BULK_RESOLVE, false);
+    }
+
+    public boolean shouldValidatePageSnapshot() {
+        return getBooleanProperty(GalenConfig.VALIDATION_SNAPSHOT, false);
+    }
+
+    public int getValidationThreads() {
+        return getIntProperty(GalenConfig.VALIDATION_THREADS, 1, 1, 256);
+    }
+
+    public int getValidationMaxErrors() {
+        return getIntProperty(GalenConfig.VALIDATION_MAX_ERRORS, 0, 0, Integer.MAX_VALUE);
+    }
+
+    public int getValidationTimeBudget() {
+        return getIntProperty(GalenConfig.VALIDATION_TIME_BUDGET, 0, 0, Integer.MAX_VALUE);
+    }
+
+    public int getSpecCacheSize() {
+        return getIntProperty(GalenConfig.SPEC_CACHE_SIZE, 100, 0, 100000);
+    }
+
+    public boolean shouldLoadCompiledSpecs() {
+        return getBooleanProperty(GalenConfig.SPEC_COMPILED_ENABLED, false);
+    }
+
+    public boolean shouldUseBrowserPool() {
+        return getBooleanProperty(GalenConfig.BROWSER_POOL_ENABLED, false);
+    }
+
+    public int getBrowserPoolSize() {
+        return getIntProperty(GalenConfig.BROWSER_POOL_SIZE, 4, 1, 1000);
+    }
+
+    public long getImageCacheSizeInBytes() {
+        return getIntProperty(GalenConfig.SPEC_IMAGE_CACHE_SIZE, 128, 0, 65536) * 1024L * 1024L;
+    }
+
+    public List<String> getPageDumpCssProperties() {
+        return converCommaSeparatedList(readProperty(PAGEDUMP_CSS_PROPERTIES,
+                "font-size,font-family,font-weight,font-style,color,background-color,text-align,text-decoration"));
+    }
+
+    public boolean shouldReportTiming() {
+        return getBooleanProperty(GalenConfig.REPORTS_TIMING, false);
+    }
+
     public int getImageSpecDefaultTolerance() {
         return getIntProperty(GalenConfig.SPEC_IMAGE_TOLERANCE, 25);
     }
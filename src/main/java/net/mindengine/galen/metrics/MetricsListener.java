@@ -0,0 +1,39 @@
+/*******************************************************************************
+* Copyright 2015 Ivan Shubin http://mindengine.net
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*   http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.metrics;
+
+import net.mindengine.galen.browser.BrowserFactory;
+import net.mindengine.galen.suite.GalenPageAction;
+import net.mindengine.galen.validation.PageValidation;
+
+/**
+ * Receives durations of checked specs, page actions and browser startup.
+ * Any validation listener which also implements this interface gets these events
+ */
+public interface MetricsListener {
+
+    void onSpecTiming(PageValidation pageValidation, SpecTiming specTiming);
+
+    /**
+     * @param time - duration of page action in milliseconds
+     */
+    void onPageActionTiming(GalenPageAction action, long time);
+
+    /**
+     * @param time - duration of browser startup in milliseconds
+     */
+    void onBrowserStartTiming(BrowserFactory browserFactory, long time);
+}
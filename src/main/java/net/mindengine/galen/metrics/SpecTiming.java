@@ -0,0 +1,123 @@
+/*******************************************************************************
+* Copyright 2015 Ivan Shubin http://mindengine.net
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*   http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.metrics;
+
+import org.apache.commons.lang3.builder.EqualsBuilder;
+import org.apache.commons.lang3.builder.HashCodeBuilder;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+/**
+ * Time spent on checking a single spec together with the amount of WebDriver commands it issued
+ */
+public class SpecTiming {
+
+    private String objectName;
+    private String specType;
+    private String spec;
+    private double time;
+    private long webDriverCommands;
+
+    public SpecTiming() {
+    }
+
+    public SpecTiming(String objectName, String specType, String spec, double time, long webDriverCommands) {
+        this.objectName = objectName;
+        this.specType = specType;
+        this.spec = spec;
+        this.time = time;
+        this.webDriverCommands = webDriverCommands;
+    }
+
+    public String getObjectName() {
+        return objectName;
+    }
+
+    public void setObjectName(String objectName) {
+        this.objectName = objectName;
+    }
+
+    public String getSpecType() {
+        return specType;
+    }
+
+    public void setSpecType(String specType) {
+        this.specType = specType;
+    }
+
+    public String getSpec() {
+        return spec;
+    }
+
+    public void setSpec(String spec) {
+        this.spec = spec;
+    }
+
+    /**
+     * @return time in milliseconds with fractions
+     */
+    public double getTime() {
+        return time;
+    }
+
+    public void setTime(double time) {
+        this.time = time;
+    }
+
+    public long getWebDriverCommands() {
+        return webDriverCommands;
+    }
+
+    public void setWebDriverCommands(long webDriverCommands) {
+        this.webDriverCommands = webDriverCommands;
+    }
+
+    @Override
+    public int hashCode() {
+        return new HashCodeBuilder().append(objectName).append(specType).append(spec).append(time).append(webDriverCommands).toHashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == null) {
+            return false;
+        }
+        if (obj == this) {
+            return true;
+        }
+        if (!(obj instanceof SpecTiming)) {
+            return false;
+        }
+        SpecTiming rhs = (SpecTiming) obj;
+        return new EqualsBuilder()
+                .append(objectName, rhs.objectName)
+                .append(specType, rhs.specType)
+                .append(spec, rhs.spec)
+                .append(time, rhs.time)
+                .append(webDriverCommands, rhs.webDriverCommands)
+                .isEquals();
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this)
+                .append("objectName", objectName)
+                .append("specType", specType)
+                .append("spec", spec)
+                .append("time", time)
+                .append("webDriverCommands", webDriverCommands)
+                .toString();
+    }
+}
@@ -0,0 +1,48 @@
+/*******************************************************************************
+* Copyright 2015 Ivan Shubin http://mindengine.net
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*   http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.metrics;
+
+/**
+ * Counts commands that Galen sends to WebDriver in the current thread
+ * so that it could be measured how many browser round trips each spec makes
+ */
+public class WebDriverCommandCounter {
+
+    private static final ThreadLocal<long[]> commands = new ThreadLocal<long[]>() {
+        @Override
+        protected long[] initialValue() {
+            return new long[1];
+        }
+    };
+
+    private WebDriverCommandCounter() {
+    }
+
+    public static void count() {
+        count(1);
+    }
+
+    public static void count(int amount) {
+        commands.get()[0] += amount;
+    }
+
+    /**
+     * @return amount of commands sent to WebDriver by the current thread so far
+     */
+    public static long getCount() {
+        return commands.get()[0];
+    }
+}
@@ -17,6 +17,8 @@ package net.mindengine.galen.page;
 
 import java.awt.image.BufferedImage;
 import java.io.File;
+import java.util.Collection;
+import java.util.Map;
 
 import net.mindengine.galen.specs.page.Locator;
 
@@ -30,6 +32,25 @@ public interface Page {
 
     int getObjectCount(Locator locator);
 
+    /**
+     * Resolves all specified objects at once so that further calls to getObject would not need to access the browser.
+     * Implementations that cannot do it efficiently are allowed to ignore this call
+     * @param objects - map of object names and their locators
+     */
+    void preloadObjects(Map<String, Locator> objects);
+
+    /**
+     * Finds elements for all specified multi-object locators at once so that further calls to getObjectCount
+     * and to getObject for their indexed objects would not need to search for them again.
+     * Implementations that cannot do it efficiently are allowed to ignore this call
+     * @param locators - locators of multi-objects
+     */
+    void preloadObjectCounts(Collection<Locator> locators);
+
+    /**
+     * @return a page in which objects are searched inside the main object
+     * or null if the page can't provide objects of components (e.g. a page loaded from page dump)
+     */
     Page createObjectContextPage(Locator mainObjectLocator);
 
     /**
@@ -47,9 +68,9 @@ public interface Page {
 
     /**
      * Creates a new screenshot and returns it if there was no screenshot provided via setScreenshot method.
-     * @return
+     * @return a screenshot which is kept in memory until its file is requested
      */
-    File createScreenshot();
+    Screenshot createScreenshot();
 
     String getTitle();
 
@@ -57,5 +78,9 @@ public interface Page {
 
     void switchToParentFrame();
 
+    /**
+     * @return a page in which objects are searched inside the frame
+     * or null if the page can't provide objects of frames (e.g. a page loaded from page dump)
+     */
     Page createFrameContext(PageElement mainObject);
 }
@@ -0,0 +1,130 @@
+/*******************************************************************************
+* Copyright 2015 Ivan Shubin http://mindengine.net
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*   http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.page;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+
+import net.mindengine.rainbow4j.Rainbow4J;
+
+import org.apache.commons.io.FileUtils;
+
+/**
+ * Screenshot of a page which is kept in memory. It could be created from raw png bytes,
+ * a decoded image or a file. The image is decoded only once when it is requested
+ * and the screenshot is written to disk only when the file is really needed (e.g. for reports)
+ */
+public class Screenshot {
+
+    private byte[] pngBytes;
+    private BufferedImage image;
+    private File file;
+    private boolean temporaryFile = false;
+
+    private Screenshot(byte[] pngBytes, BufferedImage image, File file) {
+        this.pngBytes = pngBytes;
+        this.image = image;
+        this.file = file;
+    }
+
+    public static Screenshot fromPng(byte[] pngBytes) {
+        return new Screenshot(pngBytes, null, null);
+    }
+
+    public static Screenshot fromPng(byte[] pngBytes, BufferedImage decodedImage) {
+        return new Screenshot(pngBytes, decodedImage, null);
+    }
+
+    public static Screenshot fromImage(BufferedImage image) {
+        return new Screenshot(null, image, null);
+    }
+
+    public static Screenshot fromFile(File file) {
+        return new Screenshot(null, null, file);
+    }
+
+    /**
+     * @return decoded image of screenshot. The same instance is returned on each call so it should not be modified
+     */
+    public synchronized BufferedImage getImage() {
+        if (image == null) {
+            try {
+                if (pngBytes != null) {
+                    image = Rainbow4J.loadImage(new ByteArrayInputStream(pngBytes));
+                }
+                else {
+                    image = Rainbow4J.loadImage(file.getAbsolutePath());
+                }
+            } catch (IOException e) {
+                throw new RuntimeException("Couldn't decode screenshot", e);
+            }
+        }
+        return image;
+    }
+
+    /**
+     * Writes the screenshot to a temporary file if it was not yet saved on disk
+     * @return png file of screenshot
+     */
+    public synchronized File getFile() throws IOException {
+        if (file == null) {
+            File tempFile = File.createTempFile("screenshot", ".png");
+            saveTo(tempFile);
+            file = tempFile;
+            temporaryFile = true;
+        }
+        return file;
+    }
+
+    public synchronized void saveTo(File targetFile) throws IOException {
+        if (file != null) {
+            FileUtils.copyFile(file, targetFile);
+        }
+        else if (pngBytes != null) {
+            FileUtils.writeByteArrayToFile(targetFile, pngBytes);
+        }
+        else {
+            Rainbow4J.saveImage(image, targetFile);
+        }
+    }
+
+    /**
+     * Drops the decoded image so that only png bytes or a file are kept in memory.
+     * A screenshot which was created from a decoded image is written to a temporary file first.
+     * The image is decoded again if it is requested later
+     */
+    public synchronized void releaseImage() throws IOException {
+        if (image != null) {
+            if (pngBytes == null) {
+                getFile();
+            }
+            image = null;
+        }
+    }
+
+    /**
+     * Removes temporary file if it was created for this screenshot
+     */
+    public synchronized void cleanup() {
+        if (temporaryFile) {
+            FileUtils.deleteQuietly(file);
+            file = null;
+            temporaryFile = false;
+        }
+    }
+}
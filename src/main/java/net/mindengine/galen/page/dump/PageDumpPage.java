@@ -0,0 +1,164 @@
+/*******************************************************************************
+* Copyright 2015 Ivan Shubin http://mindengine.net
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*   http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.page.dump;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import net.mindengine.galen.api.PageDump;
+import net.mindengine.galen.page.AbsentPageElement;
+import net.mindengine.galen.page.Page;
+import net.mindengine.galen.page.PageElement;
+import net.mindengine.galen.page.Rect;
+import net.mindengine.galen.page.Screenshot;
+import net.mindengine.galen.page.snapshot.SnapshotPageElement;
+import net.mindengine.galen.specs.page.Locator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A page which is loaded from a page dump (page.json and page.png) so that specs could be checked without a browser.
+ * Objects that were not stored in the dump are treated as absent on page.
+ * Objects of components and frames are not stored in page dump so component specs are skipped
+ */
+public class PageDumpPage implements Page {
+
+    private final static Logger LOG = LoggerFactory.getLogger(PageDumpPage.class);
+
+    private final PageDump pageDump;
+    private final Map<String, PageElement> objects = new HashMap<String, PageElement>();
+    private final Map<String, PageElement> specialObjects = new HashMap<String, PageElement>();
+    private Screenshot screenshot;
+
+    public PageDumpPage(PageDump pageDump, Screenshot screenshot) {
+        this.pageDump = pageDump;
+        this.screenshot = screenshot;
+
+        for (PageDump.Element element : pageDump.getItems().values()) {
+            objects.put(element.getObjectName(), toPageElement(element));
+        }
+        for (PageDump.Element element : pageDump.getSpecialObjects().values()) {
+            specialObjects.put(element.getObjectName(), toPageElement(element));
+        }
+    }
+
+    private static PageElement toPageElement(PageDump.Element element) {
+        int[] area = element.getArea();
+        return new SnapshotPageElement(element.getObjectName(), true, element.isVisible(),
+                new Rect(area[0], area[1], area[2], area[3]), element.getText(), element.getCssProperties());
+    }
+
+    @Override
+    public PageElement getObject(Locator objectLocator) {
+        throw new UnsupportedOperationException("Objects can only be fetched by name from page dump");
+    }
+
+    @Override
+    public PageElement getObject(String objectName, Locator objectLocator) {
+        PageElement pageElement = objects.get(objectName);
+        if (pageElement != null) {
+            return pageElement;
+        }
+        return new AbsentPageElement();
+    }
+
+    @Override
+    public synchronized PageElement getSpecialObject(String objectName) {
+        PageElement specialObject = specialObjects.get(objectName);
+        if (specialObject == null && ("screen".equals(objectName) || "viewport".equals(objectName))) {
+            // older page dumps do not contain special objects so the screenshot size is used instead
+            BufferedImage image = getScreenshotImage();
+            if (image != null) {
+                specialObject = new SnapshotPageElement(objectName, true, true,
+                        new Rect(0, 0, image.getWidth(), image.getHeight()), null, new HashMap<String, String>());
+                specialObjects.put(objectName, specialObject);
+            }
+        }
+        return specialObject;
+    }
+
+    @Override
+    public int getObjectCount(Locator locator) {
+        Integer count = pageDump.getObjectCounts().get(locator.prettyString());
+        if (count != null) {
+            return count;
+        }
+        else throw new RuntimeException("Amount of objects for locator \"" + locator.prettyString() + "\" is not stored in page dump");
+    }
+
+    @Override
+    public void preloadObjects(Map<String, Locator> objects) {
+    }
+
+    @Override
+    public void preloadObjectCounts(Collection<Locator> locators) {
+    }
+
+    /**
+     * @return always null as objects of components are not stored in page dump
+     */
+    @Override
+    public Page createObjectContextPage(Locator mainObjectLocator) {
+        LOG.warn("Skipping component \"" + mainObjectLocator.prettyString() + "\" as components are not stored in page dump");
+        return null;
+    }
+
+    @Override
+    public synchronized void setScreenshot(File screenshotFile) {
+        if (screenshotFile != null) {
+            this.screenshot = Screenshot.fromFile(screenshotFile);
+        }
+    }
+
+    @Override
+    public synchronized BufferedImage getScreenshotImage() {
+        if (screenshot != null) {
+            return screenshot.getImage();
+        }
+        return null;
+    }
+
+    @Override
+    public synchronized Screenshot createScreenshot() {
+        return screenshot;
+    }
+
+    @Override
+    public String getTitle() {
+        return pageDump.getTitle();
+    }
+
+    @Override
+    public void switchToFrame(PageElement mainObject) {
+    }
+
+    @Override
+    public void switchToParentFrame() {
+    }
+
+    /**
+     * @return always null as objects of frames are not stored in page dump
+     */
+    @Override
+    public Page createFrameContext(PageElement mainObject) {
+        LOG.warn("Skipping frame as frames are not stored in page dump");
+        return null;
+    }
+}
@@ -17,43 +17,118 @@ package net.mindengine.galen.page.selenium;
 
 import java.awt.image.BufferedImage;
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 
 import net.mindengine.galen.browser.SeleniumBrowser;
+import net.mindengine.galen.config.GalenConfig;
+import net.mindengine.galen.metrics.WebDriverCommandCounter;
 import net.mindengine.galen.page.AbsentPageElement;
 import net.mindengine.galen.page.Page;
 import net.mindengine.galen.page.PageElement;
 import net.mindengine.galen.page.Rect;
+import net.mindengine.galen.page.Screenshot;
 import net.mindengine.galen.specs.page.Locator;
-import net.mindengine.rainbow4j.Rainbow4J;
 
 import org.openqa.selenium.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static java.util.Arrays.asList;
 
 public class SeleniumPage implements Page {
 
+    private final static Logger LOG = LoggerFactory.getLogger(SeleniumPage.class);
+
+    /**
+     * Common part of bulk scripts: takes an optional context element and a list of locators
+     * and defines a function for finding all elements by locator type and value
+     */
+    private static final String JS_FIND_ALL = "var context = arguments[0], locators = arguments[1], root = context || document, result = [];" +
+            "function findAll(type, value) {" +
+                "if (type == 'css') { return root.querySelectorAll(value); }" +
+                "else if (type == 'id') {" +
+                    "var element = document.getElementById(value);" +
+                    "return (element && (!context || context.contains(element))) ? [element] : [];" +
+                "}" +
+                "else if (type == 'xpath') {" +
+                    "var snapshot = document.evaluate(value, root, null, XPathResult.ORDERED_NODE_SNAPSHOT_TYPE, null), list = [];" +
+                    "for (var i = 0; i < snapshot.snapshotLength; i++) { list.push(snapshot.snapshotItem(i)); }" +
+                    "return list;" +
+                "}" +
+                "return [];" +
+            "}";
+
+    /**
+     * Takes an optional context element and a list of locators (type, value, index)
+     * and returns for each of them either null (if element is absent)
+     * or an array of element, left, top, width, height and visibility
+     */
+    private static final String JS_RESOLVE_OBJECTS = JS_FIND_ALL +
+            "function isVisible(element, rect) {" +
+                "if (rect.width <= 0 || rect.height <= 0) { return false; }" +
+                "if (window.getComputedStyle(element).visibility == 'hidden') { return false; }" +
+                "for (var node = element; node && node.nodeType == 1; node = node.parentNode) {" +
+                    "var style = window.getComputedStyle(node);" +
+                    "if (style.display == 'none' || style.opacity == '0') { return false; }" +
+                "}" +
+                "return true;" +
+            "}" +
+            "var scrollLeft = window.pageXOffset || document.documentElement.scrollLeft," +
+                "scrollTop = window.pageYOffset || document.documentElement.scrollTop;" +
+            "for (var i = 0; i < locators.length; i++) {" +
+                "var elements = findAll(locators[i][0], locators[i][1]), index = Math.max(locators[i][2] - 1, 0);" +
+                "if (index < elements.length) {" +
+                    "var element = elements[index], rect = element.getBoundingClientRect();" +
+                    "result.push([element, Math.round(rect.left + scrollLeft), Math.round(rect.top + scrollTop)," +
+                        "Math.round(rect.width), Math.round(rect.height), isVisible(element, rect)]);" +
+                "}" +
+                "else { result.push(null); }" +
+            "}" +
+            "return result;";
+
+    /**
+     * Takes an optional context element and a list of locators (type, value)
+     * and returns for each of them an array of all found elements
+     */
+    private static final String JS_FIND_ALL_ELEMENTS = JS_FIND_ALL +
+            "for (var i = 0; i < locators.length; i++) {" +
+                "result.push(Array.prototype.slice.call(findAll(locators[i][0], locators[i][1])));" +
+            "}" +
+            "return result;";
+
     private WebDriver driver;
     
     private Map<String, List<PageElement>> cachedElementsList = new HashMap<String, List<PageElement>>();
     private Map<String, PageElement> cachedPageElements = new HashMap<String, PageElement>();
-    
+    private Map<String, PageElement> preloadedElements = new HashMap<String, PageElement>();
+    private final WebElementCache elementCache;
+
+    private WebElement frameContext;
     private WebElement objectContext;
     private PageElement parentObject;
 
-    private BufferedImage cachedScreenshotImage;
-    private File cachedScreenshotFile;
+    private Screenshot cachedScreenshot;
     private int offsetLeft = 0;
     private int offsetTop = 0;
 
 
     public SeleniumPage(WebDriver driver) {
-        this.driver = driver;
+        this(driver, new WebElementCache(), null, null);
     }
     
     public SeleniumPage(WebDriver driver, Locator objectContextLocator) {
+        this(driver, new WebElementCache(), null, objectContextLocator);
+    }
+
+    private SeleniumPage(WebDriver driver, WebElementCache elementCache, WebElement frameContext, Locator objectContextLocator) {
         this.driver = driver;
+        this.elementCache = elementCache;
+        this.frameContext = frameContext;
         setObjectContext(objectContextLocator);
     }
 
@@ -68,14 +143,14 @@ public class SeleniumPage implements Page {
             int index = objectContextLocator.getIndex();
             if (index > 1) {
                 index = index - 1;
-                List<WebElement> elements = driver.findElements(by);
+                List<WebElement> elements = findWebElements(null, objectContextLocator);
                 if (index >= elements.size()) {
                     throw new RuntimeException("Incorrect locator for object context. Index out of range");
                 }
                 objectContext = elements.get(index);
             }
             else {
-                objectContext = driver.findElement(by);
+                objectContext = findWebElement(null, objectContextLocator);
             }
 
 
@@ -92,6 +167,11 @@ public class SeleniumPage implements Page {
 
     @Override
     public PageElement getObject(String objectName, Locator objectLocator) {
+        PageElement preloadedElement = preloadedElements.get(objectName);
+        if (preloadedElement != null) {
+            return preloadedElement;
+        }
+
         int index = objectLocator.getIndex() - 1;
         
         if (index >= 0) {
@@ -106,13 +186,11 @@ public class SeleniumPage implements Page {
         List<PageElement> pageElements = cachedElementsList.get(objectName);
         
         if (pageElements == null) {
-            By by = by(objectLocator);
-            if (by == null) {
+            List<WebElement> webElements = findWebElements(objectContext, objectLocator);
+            if (webElements == null) {
                 return null;
             }
-            
-            List<WebElement> webElements = driverFindElements(by);
-            
+
             pageElements = new LinkedList<PageElement>();
             int i = 1;
             for (WebElement webElement : webElements) {
@@ -132,8 +210,51 @@ public class SeleniumPage implements Page {
         
     }
 
-    private List<WebElement> driverFindElements(By by) {
-        if (objectContext == null) {
+    /**
+     * Finds all elements for the locator ignoring its index.
+     * The found elements are kept so that multi-object count and its indexed objects are searched only once
+     */
+    private List<WebElement> findWebElements(WebElement context, Locator locator) {
+        List<WebElement> webElements = elementCache.getElementList(frameContext, context, locator);
+        if (webElements == null) {
+            By by = by(locator);
+            if (by == null) {
+                return null;
+            }
+            webElements = driverFindElements(context, by);
+            elementCache.putElementList(frameContext, context, locator, webElements);
+        }
+        return webElements;
+    }
+
+    /**
+     * Finds the first element for the locator. Absent elements are cached as well
+     * @throws NoSuchElementException in case the element is not present on page
+     */
+    private WebElement findWebElement(WebElement context, Locator locator) {
+        By by = by(locator);
+        if (elementCache.hasElement(frameContext, context, locator)) {
+            WebElement webElement = elementCache.getElement(frameContext, context, locator);
+            if (webElement == null) {
+                throw new NoSuchElementException("Cannot locate an element using " + by);
+            }
+            return webElement;
+        }
+
+        try {
+            WebElement webElement = driverFindElement(context, by);
+            elementCache.putElement(frameContext, context, locator, webElement);
+            return webElement;
+        }
+        catch (NoSuchElementException e) {
+            elementCache.putElement(frameContext, context, locator, null);
+            throw e;
+        }
+    }
+
+    private List<WebElement> driverFindElements(WebElement context, By by) {
+        WebDriverCommandCounter.count();
+        if (context == null) {
             try {
                 return driver.findElements(by);
             } catch (NullPointerException e) {
@@ -143,16 +264,17 @@ public class SeleniumPage implements Page {
             }
         }
         else {
-            return objectContext.findElements(by);
+            return context.findElements(by);
         }
     }
 
-    private WebElement driverFindElement(By by) {
-        if (objectContext == null) {
+    private WebElement driverFindElement(WebElement context, By by) {
+        WebDriverCommandCounter.count();
+        if (context == null) {
             return driver.findElement(by);
         }
         else {
-            return objectContext.findElement(by);
+            return context.findElement(by);
         }
     }
     
@@ -179,7 +301,7 @@ public class SeleniumPage implements Page {
         }
         
         try {
-            WebElement webElement = driverFindElement(by);
+            WebElement webElement = findWebElement(objectContext, objectLocator);
             pageElement = new WebPageElement(objectName, webElement, objectLocator).withOffset(offsetLeft, offsetTop);
         }
         catch (NoSuchElementException e) {
@@ -222,59 +344,191 @@ public class SeleniumPage implements Page {
 
     @Override
     public int getObjectCount(Locator locator) {
-        return driverFindElements(by(locator)).size();
+        List<WebElement> webElements = findWebElements(objectContext, locator);
+        if (webElements == null) {
+            throw new RuntimeException("Cannot convert locator: " + locator.getLocatorType() + " " + locator.getLocatorValue());
+        }
+        return webElements.size();
+    }
+
+    @Override
+    public void preloadObjectCounts(Collection<Locator> locators) {
+        if (!GalenConfig.getConfig().shouldResolveObjectsInBulk() || !(driver instanceof JavascriptExecutor)) {
+            return;
+        }
+
+        List<Locator> foundLocators = new ArrayList<Locator>();
+        List<List<Object>> scriptArguments = new ArrayList<List<Object>>();
+
+        for (Locator locator : locators) {
+            List<Object> scriptArgument = asList((Object)locator.getLocatorType(), locator.getLocatorValue());
+            if (!elementCache.hasElementList(frameContext, objectContext, locator) && !scriptArguments.contains(scriptArgument) && by(locator) != null) {
+                foundLocators.add(locator);
+                scriptArguments.add(scriptArgument);
+            }
+        }
+
+        if (foundLocators.isEmpty()) {
+            return;
+        }
+
+        Object result;
+        try {
+            WebDriverCommandCounter.count();
+            result = ((JavascriptExecutor) driver).executeScript(JS_FIND_ALL_ELEMENTS, objectContext, scriptArguments);
+        }
+        catch (WebDriverException e) {
+            LOG.trace("Couldn't find multi-objects in bulk", e);
+            return;
+        }
+
+        if (result instanceof List && ((List<?>) result).size() == foundLocators.size()) {
+            List<?> foundLists = (List<?>) result;
+            for (int i = 0; i < foundLocators.size(); i++) {
+                List<WebElement> webElements = convertFoundElements(foundLists.get(i));
+                if (webElements != null) {
+                    elementCache.putElementList(frameContext, objectContext, foundLocators.get(i), webElements);
+                }
+            }
+        }
+    }
+
+    private List<WebElement> convertFoundElements(Object foundElements) {
+        if (foundElements instanceof List) {
+            List<WebElement> webElements = new ArrayList<WebElement>();
+            for (Object element : (List<?>) foundElements) {
+                if (element instanceof WebElement) {
+                    webElements.add((WebElement) element);
+                }
+                else {
+                    return null;
+                }
+            }
+            return webElements;
+        }
+        return null;
+    }
+
+    @Override
+    public void preloadObjects(Map<String, Locator> objects) {
+        if (!GalenConfig.getConfig().shouldResolveObjectsInBulk() || !(driver instanceof JavascriptExecutor)) {
+            return;
+        }
+
+        List<String> objectNames = new ArrayList<String>();
+        List<Locator> objectLocators = new ArrayList<Locator>();
+        List<List<Object>> scriptArguments = new ArrayList<List<Object>>();
+
+        for (Map.Entry<String, Locator> object : objects.entrySet()) {
+            Locator locator = object.getValue();
+            if (!preloadedElements.containsKey(object.getKey()) && by(locator) != null) {
+                objectNames.add(object.getKey());
+                objectLocators.add(locator);
+                scriptArguments.add(asList((Object)locator.getLocatorType(), locator.getLocatorValue(), locator.getIndex()));
+            }
+        }
+
+        if (objectNames.isEmpty()) {
+            return;
+        }
+
+        Object result;
+        try {
+            WebDriverCommandCounter.count();
+            result = ((JavascriptExecutor) driver).executeScript(JS_RESOLVE_OBJECTS, objectContext, scriptArguments);
+        }
+        catch (WebDriverException e) {
+            LOG.trace("Couldn't resolve page objects in bulk", e);
+            return;
+        }
+
+        if (result instanceof List && ((List<?>) result).size() == objectNames.size()) {
+            List<?> resolvedObjects = (List<?>) result;
+            for (int i = 0; i < objectNames.size(); i++) {
+                PageElement pageElement = convertResolvedObject(objectNames.get(i), objectLocators.get(i), resolvedObjects.get(i));
+                if (pageElement != null) {
+                    preloadedElements.put(objectNames.get(i), pageElement);
+                }
+            }
+        }
+    }
+
+    private PageElement convertResolvedObject(String objectName, Locator locator, Object resolvedObject) {
+        if (resolvedObject == null) {
+            return new AbsentPageElement();
+        }
+        else if (resolvedObject instanceof List && ((List<?>) resolvedObject).size() == 6) {
+            List<?> data = (List<?>) resolvedObject;
+            if (data.get(0) instanceof WebElement) {
+                Rect area = new Rect(toInt(data.get(1)), toInt(data.get(2)), toInt(data.get(3)), toInt(data.get(4)));
+                return new WebPageElement(objectName, (WebElement) data.get(0), locator)
+                        .withPreloadedData(area, Boolean.TRUE.equals(data.get(5)))
+                        .withOffset(offsetLeft, offsetTop);
+            }
+        }
+        return null;
+    }
+
+    private int toInt(Object value) {
+        return ((Number) value).intValue();
     }
 
     @Override
     public Page createObjectContextPage(Locator objectContextLocator) {
-        return new SeleniumPage(this.driver, objectContextLocator);
+        return new SeleniumPage(this.driver, elementCache, frameContext, objectContextLocator);
     }
 
     @Override
-    public File createScreenshot() {
-        if (this.cachedScreenshotFile == null) {
-            cachedScreenshotFile = new SeleniumBrowser(driver).createScreenshot();
+    public Screenshot createScreenshot() {
+        if (this.cachedScreenshot == null) {
+            WebDriverCommandCounter.count();
+            cachedScreenshot = new SeleniumBrowser(driver).createScreenshot();
         }
 
-        return this.cachedScreenshotFile;
+        return this.cachedScreenshot;
     }
 
     @Override
     public void setScreenshot(File screenshotFile) {
-        this.cachedScreenshotFile = screenshotFile;
+        if (screenshotFile != null) {
+            this.cachedScreenshot = Screenshot.fromFile(screenshotFile);
+        }
+        else {
+            this.cachedScreenshot = null;
+        }
     }
 
     @Override
     public BufferedImage getScreenshotImage() {
-        if (this.cachedScreenshotImage == null) {
-            try {
-                cachedScreenshotImage = Rainbow4J.loadImage(createScreenshot().getAbsolutePath());
-            } catch (Exception e) {
-                throw new RuntimeException("Couldn't take screenshot for page", e);
-            }
+        try {
+            return createScreenshot().getImage();
+        } catch (Exception e) {
+            throw new RuntimeException("Couldn't take screenshot for page", e);
         }
-        return this.cachedScreenshotImage;
     }
 
     @Override
     public String getTitle() {
+        WebDriverCommandCounter.count();
         return driver.getTitle();
     }
 
     @Override
     public void switchToFrame(PageElement mainObject) {
         WebPageElement webPageElement = (WebPageElement)mainObject;
+        WebDriverCommandCounter.count();
         driver.switchTo().frame(webPageElement.getWebElement());
     }
 
     @Override
     public void switchToParentFrame() {
+        WebDriverCommandCounter.count();
         driver.switchTo().parentFrame();
     }
 
     @Override
     public Page createFrameContext(PageElement frameElement) {
-        SeleniumPage framePage = new SeleniumPage(driver);
+        SeleniumPage framePage = new SeleniumPage(driver, elementCache, ((WebPageElement) frameElement).getWebElement(), null);
 
         Rect mainObjectArea = frameElement.getArea();
         framePage.setOffset(mainObjectArea.getLeft(), mainObjectArea.getTop());
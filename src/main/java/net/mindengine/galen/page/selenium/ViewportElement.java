@@ -17,6 +17,7 @@ package net.mindengine.galen.page.selenium;
 
 import java.util.List;
 
+import net.mindengine.galen.metrics.WebDriverCommandCounter;
 import net.mindengine.galen.page.PageElement;
 import net.mindengine.galen.page.Rect;
 
@@ -34,6 +35,7 @@ public class ViewportElement extends PageElement {
     @SuppressWarnings("unchecked")
     @Override
     public Rect calculateArea() {
+        WebDriverCommandCounter.count();
         List<Long> size = (List<Long>)((JavascriptExecutor)driver).executeScript("return [window.innerWidth" +
                     "|| document.documentElement.clientWidth" + 
                     "|| document.body.clientWidth," +
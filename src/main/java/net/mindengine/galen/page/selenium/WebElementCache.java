@@ -0,0 +1,111 @@
+/*******************************************************************************
+* Copyright 2015 Ivan Shubin http://mindengine.net
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*   http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.page.selenium;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.mindengine.galen.specs.page.Locator;
+
+import org.apache.commons.lang3.builder.EqualsBuilder;
+import org.apache.commons.lang3.builder.HashCodeBuilder;
+import org.openqa.selenium.WebElement;
+
+/**
+ * Keeps web elements that were found during a single layout check so that the same locator is never searched twice
+ * within the same context. The cache is created together with the root {@link SeleniumPage} and is shared
+ * with all of its component and frame sub-pages. {@link net.mindengine.galen.browser.SeleniumBrowser#getPage()}
+ * creates a new root page on every call, so the cache never outlives page actions that could change the DOM.
+ */
+public class WebElementCache {
+
+    private final Map<Key, WebElement> elements = new HashMap<Key, WebElement>();
+    private final Map<Key, List<WebElement>> elementLists = new HashMap<Key, List<WebElement>>();
+
+    /**
+     * @param frame - frame element in which the search was done or null for the main document
+     * @param context - element inside which the search was done or null for the whole document
+     */
+    public boolean hasElement(WebElement frame, WebElement context, Locator locator) {
+        return elements.containsKey(new Key(frame, context, locator, locator.getIndex()));
+    }
+
+    /**
+     * Returns the cached element or null if it was cached as absent
+     */
+    public WebElement getElement(WebElement frame, WebElement context, Locator locator) {
+        return elements.get(new Key(frame, context, locator, locator.getIndex()));
+    }
+
+    public void putElement(WebElement frame, WebElement context, Locator locator, WebElement element) {
+        elements.put(new Key(frame, context, locator, locator.getIndex()), element);
+    }
+
+    /**
+     * Returns all elements found by the locator type and value (its index is ignored) or null if they were not cached yet
+     */
+    public List<WebElement> getElementList(WebElement frame, WebElement context, Locator locator) {
+        return elementLists.get(new Key(frame, context, locator, 0));
+    }
+
+    public void putElementList(WebElement frame, WebElement context, Locator locator, List<WebElement> elementList) {
+        elementLists.put(new Key(frame, context, locator, 0), elementList);
+    }
+
+    public boolean hasElementList(WebElement frame, WebElement context, Locator locator) {
+        return elementLists.containsKey(new Key(frame, context, locator, 0));
+    }
+
+    private static class Key {
+        private final WebElement frame;
+        private final WebElement context;
+        private final String locatorType;
+        private final String locatorValue;
+        private final int index;
+
+        private Key(WebElement frame, WebElement context, Locator locator, int index) {
+            this.frame = frame;
+            this.context = context;
+            this.locatorType = locator.getLocatorType();
+            this.locatorValue = locator.getLocatorValue();
+            this.index = index;
+        }
+
+        @Override
+        public int hashCode() {
+            return new HashCodeBuilder().append(frame).append(context).append(locatorType).append(locatorValue).append(index).toHashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key rhs = (Key) obj;
+            return new EqualsBuilder()
+                    .append(frame, rhs.frame)
+                    .append(context, rhs.context)
+                    .append(locatorType, rhs.locatorType)
+                    .append(locatorValue, rhs.locatorValue)
+                    .append(index, rhs.index)
+                    .isEquals();
+        }
+    }
+}
@@ -15,6 +15,7 @@
 ******************************************************************************/
 package net.mindengine.galen.page.selenium;
 
+import net.mindengine.galen.metrics.WebDriverCommandCounter;
 import net.mindengine.galen.page.PageElement;
 import net.mindengine.galen.page.Rect;
 import net.mindengine.galen.specs.page.CorrectionsRect;
@@ -42,6 +43,7 @@ public class WebPageElement extends PageElement {
     @Override
     public Rect calculateArea() {
         if (cachedArea == null) {   
+            WebDriverCommandCounter.count(2);
             Point location = getWebElement().getLocation();
             Dimension size = getWebElement().getSize();
             cachedArea = new Rect(location.getX(), location.getY(), size.getWidth(), size.getHeight());
@@ -53,6 +55,19 @@ public class WebPageElement extends PageElement {
         return cachedArea;
     }
 
+    /**
+     * Fills the element with location, size and visibility that were fetched beforehand
+     * so that they are not requested from the browser again
+     */
+    public WebPageElement withPreloadedData(Rect area, boolean visible) {
+        cachedArea = area;
+        if (getLocator() != null && getLocator().getCorrections() != null) {
+            cachedArea = correctedRect(cachedArea, getLocator().getCorrections());
+        }
+        cachedVisibility = visible;
+        return this;
+    }
+
     private Rect correctedRect(Rect rect, CorrectionsRect corrections) {
         return new Rect(corrections.getLeft().correct(rect.getLeft()),
                 corrections.getTop().correct(rect.getTop()),
@@ -70,6 +85,7 @@ public class WebPageElement extends PageElement {
     @Override
     public boolean isVisible() {
         if (cachedVisibility == null) {
+            WebDriverCommandCounter.count();
             cachedVisibility = getWebElement().isDisplayed();
         }
         return cachedVisibility;
@@ -122,6 +138,7 @@ public class WebPageElement extends PageElement {
     @Override
     public String getText() {
         WebElement webElement = getWebElement();
+        WebDriverCommandCounter.count(2);
         if ("input".equals(webElement.getTagName().toLowerCase())) {
             String value = webElement.getAttribute("value");
             if (value == null) {
@@ -135,6 +152,7 @@ public class WebPageElement extends PageElement {
 
     @Override
     public String getCssProperty(String cssPropertyName) {
+        WebDriverCommandCounter.count();
         return getWebElement().getCssValue(cssPropertyName);
     }
 
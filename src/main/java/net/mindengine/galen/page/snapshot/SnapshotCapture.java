@@ -0,0 +1,238 @@
+/*******************************************************************************
+* Copyright 2015 Ivan Shubin http://mindengine.net
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*   http://www.apache.org/licenses/LICENSE-2.0
+* 
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.page.snapshot;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import net.mindengine.galen.page.Page;
+import net.mindengine.galen.page.PageElement;
+import net.mindengine.galen.page.Screenshot;
+import net.mindengine.galen.specs.Spec;
+import net.mindengine.galen.specs.SpecColorScheme;
+import net.mindengine.galen.specs.SpecComponent;
+import net.mindengine.galen.specs.SpecCss;
+import net.mindengine.galen.specs.SpecImage;
+import net.mindengine.galen.specs.SpecText;
+import net.mindengine.galen.specs.page.Locator;
+import net.mindengine.galen.specs.reader.page.PageSectionWalker;
+import net.mindengine.galen.specs.reader.page.PageSpec;
+import net.mindengine.galen.specs.reader.page.PageSpecCache;
+import net.mindengine.galen.specs.reader.page.SectionFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Walks through all sections of page spec in order to find out what should be taken from the live page
+ * (texts, css properties, screenshot and component sub-pages) and then copies it to a {@link SnapshotPage}
+ */
+class SnapshotCapture {
+
+    private final static Logger LOG = LoggerFactory.getLogger(SnapshotCapture.class);
+
+    private static final String[] SPECIAL_OBJECTS = {"screen", "viewport", "parent"};
+
+    private final Page page;
+    private final SectionFilter sectionFilter;
+
+    private final Set<String> objectsWithText = new HashSet<String>();
+    private final Map<String, Set<String>> objectsCssProperties = new HashMap<String, Set<String>>();
+    private final Map<String, List<SpecComponent>> objectsComponents = new LinkedHashMap<String, List<SpecComponent>>();
+    private boolean needsScreenshotImage = false;
+
+    SnapshotCapture(Page page, SectionFilter sectionFilter) {
+        this.page = page;
+        this.sectionFilter = sectionFilter;
+    }
+
+    SnapshotPage capture(PageSpec pageSpec) {
+        SnapshotPage snapshot = new SnapshotPage(page, page.getTitle(), takeScreenshot());
+        captureInto(snapshot, pageSpec);
+
+        if (needsScreenshotImage) {
+            snapshot.setScreenshotImage(page.getScreenshotImage());
+        }
+        return snapshot;
+    }
+
+    private void captureInto(SnapshotPage snapshot, PageSpec pageSpec) {
+        page.preloadObjectCounts(pageSpec.getMultiObjects().values());
+        for (Map.Entry<String, Locator> multiObject : pageSpec.getMultiObjects().entrySet()) {
+            int count = page.getObjectCount(multiObject.getValue());
+            snapshot.addObjectCount(multiObject.getValue(), count);
+            pageSpec.updateMultiObject(multiObject.getKey(), multiObject.getValue(), count);
+        }
+
+        page.preloadObjects(pageSpec.getObjects());
+
+        new PageSectionWalker(pageSpec, new PageSectionWalker.SpecVisitor() {
+            @Override
+            public void visit(String objectName, Spec spec) {
+                collectSpec(objectName, spec);
+            }
+        }).walk(pageSpec.findSections(sectionFilter));
+
+        for (Map.Entry<String, Locator> object : pageSpec.getObjects().entrySet()) {
+            String objectName = object.getKey();
+            snapshot.addObject(objectName, copyElement(objectName, page.getObject(objectName, object.getValue())));
+        }
+
+        for (String objectName : SPECIAL_OBJECTS) {
+            captureSpecialObject(snapshot, objectName);
+        }
+
+        for (Map.Entry<String, List<SpecComponent>> component : objectsComponents.entrySet()) {
+            for (SpecComponent spec : component.getValue()) {
+                captureComponent(snapshot, pageSpec, component.getKey(), spec);
+            }
+        }
+    }
+
+    private void captureComponent(SnapshotPage snapshot, PageSpec pageSpec, String objectName, SpecComponent spec) {
+        Locator locator = pageSpec.getObjectLocator(objectName);
+        if (locator == null) {
+            return;
+        }
+
+        PageElement liveElement = page.getObject(objectName, locator);
+        if (liveElement == null || !liveElement.isPresent() || !liveElement.isVisible()) {
+            return;
+        }
+
+        if (spec.isFrame()) {
+            PageElement snapshotElement = snapshot.getObject(objectName, locator);
+            Page framePage = page.createFrameContext(liveElement);
+            if (framePage == null) {
+                snapshot.addFrameContextPage(snapshotElement, null);
+                return;
+            }
+            try {
+                SnapshotPage frameSnapshot = new SnapshotCapture(framePage, sectionFilter).capture(readComponentSpec(framePage, spec));
+                snapshot.addFrameContextPage(snapshotElement, frameSnapshot);
+            }
+            finally {
+                page.switchToParentFrame();
+            }
+        }
+        else {
+            SnapshotPage contextSnapshot = snapshot.findObjectContextPage(locator);
+            Page contextPage = page.createObjectContextPage(locator);
+            if (contextPage == null) {
+                return;
+            }
+            SnapshotCapture contextCapture = new SnapshotCapture(contextPage, sectionFilter);
+
+            if (contextSnapshot == null) {
+                contextSnapshot = contextCapture.capture(readComponentSpec(contextPage, spec));
+                snapshot.addObjectContextPage(locator, contextSnapshot);
+            }
+            else {
+                // the same object might be checked with different component specs
+                contextCapture.captureInto(contextSnapshot, readComponentSpec(contextPage, spec));
+                if (contextCapture.needsScreenshotImage) {
+                    contextSnapshot.setScreenshotImage(contextPage.getScreenshotImage());
+                }
+            }
+        }
+    }
+
+    private PageSpec readComponentSpec(Page componentPage, SpecComponent spec) {
+        try {
+            return PageSpecCache.getInstance().read(spec.getSpecPath(), spec.getProperties(), componentPage);
+        } catch (IOException e) {
+            throw new RuntimeException(e.getMessage(), e);
+        }
+    }
+
+    private Screenshot takeScreenshot() {
+        try {
+            return page.createScreenshot();
+        }
+        catch (Exception ex) {
+            LOG.error("Couldn't take screenshot for page snapshot", ex);
+            return null;
+        }
+    }
+
+    private void captureSpecialObject(SnapshotPage snapshot, String objectName) {
+        try {
+            PageElement specialObject = page.getSpecialObject(objectName);
+            if (specialObject != null) {
+                snapshot.addSpecialObject(objectName, copyElement(objectName, specialObject));
+            }
+        }
+        catch (RuntimeException ex) {
+            LOG.trace("Special object \"" + objectName + "\" is not available on page", ex);
+        }
+    }
+
+    private PageElement copyElement(String objectName, PageElement pageElement) {
+        if (pageElement == null) {
+            return null;
+        }
+
+        boolean present = pageElement.isPresent();
+        boolean visible = present && pageElement.isVisible();
+        String text = null;
+        Map<String, String> cssProperties = new HashMap<String, String>();
+
+        if (present) {
+            if (objectsWithText.contains(objectName)) {
+                text = pageElement.getText();
+            }
+            Set<String> cssPropertyNames = objectsCssProperties.get(objectName);
+            if (cssPropertyNames != null) {
+                for (String cssPropertyName : cssPropertyNames) {
+                    cssProperties.put(cssPropertyName, pageElement.getCssProperty(cssPropertyName));
+                }
+            }
+        }
+
+        return new SnapshotPageElement(objectName, present, visible, present ? pageElement.getArea() : null, text, cssProperties);
+    }
+
+    private void collectSpec(String objectName, Spec spec) {
+        if (spec instanceof SpecCss) {
+            Set<String> cssPropertyNames = objectsCssProperties.get(objectName);
+            if (cssPropertyNames == null) {
+                cssPropertyNames = new HashSet<String>();
+                objectsCssProperties.put(objectName, cssPropertyNames);
+            }
+            cssPropertyNames.add(((SpecCss) spec).getCssPropertyName());
+        }
+        else if (spec instanceof SpecText) {
+            objectsWithText.add(objectName);
+        }
+        else if (spec instanceof SpecComponent) {
+            List<SpecComponent> components = objectsComponents.get(objectName);
+            if (components == null) {
+                components = new LinkedList<SpecComponent>();
+                objectsComponents.put(objectName, components);
+            }
+            components.add((SpecComponent) spec);
+        }
+        else if (spec instanceof SpecImage || spec instanceof SpecColorScheme) {
+            needsScreenshotImage = true;
+        }
+    }
+}
@@ -0,0 +1,203 @@
+/*******************************************************************************
+* Copyright 2015 Ivan Shubin http://mindengine.net
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*   http://www.apache.org/licenses/LICENSE-2.0
+* 
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.page.snapshot;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import net.mindengine.galen.page.Page;
+import net.mindengine.galen.page.PageElement;
+import net.mindengine.galen.page.Screenshot;
+import net.mindengine.galen.specs.page.Locator;
+import net.mindengine.galen.specs.reader.page.PageSpec;
+import net.mindengine.galen.specs.reader.page.SectionFilter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A frozen in-memory copy of a page which was captured from a live page with {@link #capture(Page, PageSpec, SectionFilter)}.
+ * It contains everything that is needed for validation of the given page spec
+ * so the validation does not make any calls to the browser. Objects which were not captured
+ * (e.g. the ones that are only resolved by locator during validation) are taken from the live page.
+ */
+public class SnapshotPage implements Page {
+
+    private final static Logger LOG = LoggerFactory.getLogger(SnapshotPage.class);
+
+    private final Page livePage;
+    private final String title;
+    private final Map<String, PageElement> objects = new HashMap<String, PageElement>();
+    private final Map<String, PageElement> specialObjects = new HashMap<String, PageElement>();
+    private final Map<String, Integer> objectCounts = new HashMap<String, Integer>();
+    private final Map<String, SnapshotPage> objectContextPages = new HashMap<String, SnapshotPage>();
+    private final Map<PageElement, SnapshotPage> frameContextPages = new IdentityHashMap<PageElement, SnapshotPage>();
+
+    private Screenshot screenshot;
+    private BufferedImage screenshotImage;
+
+    SnapshotPage(Page livePage, String title, Screenshot screenshot) {
+        this.livePage = livePage;
+        this.title = title;
+        this.screenshot = screenshot;
+    }
+
+    /**
+     * Captures all objects from the given page which are needed for validation of the page spec
+     * @param page - a live page from which all the data will be taken
+     * @param pageSpec - a page spec which is going to be validated against the snapshot
+     * @param sectionFilter - a filter for sections that will be validated. If null then all sections will be captured
+     * @return
+     */
+    public static SnapshotPage capture(Page page, PageSpec pageSpec, SectionFilter sectionFilter) {
+        return new SnapshotCapture(page, sectionFilter).capture(pageSpec);
+    }
+
+    @Override
+    public PageElement getObject(Locator objectLocator) {
+        LOG.debug("Taking object \"" + objectLocator.prettyString() + "\" from live page");
+        return livePage.getObject(objectLocator);
+    }
+
+    @Override
+    public PageElement getObject(String objectName, Locator objectLocator) {
+        if (objects.containsKey(objectName)) {
+            return objects.get(objectName);
+        }
+        LOG.debug("Object \"" + objectName + "\" was not captured in page snapshot, taking it from live page");
+        return livePage.getObject(objectName, objectLocator);
+    }
+
+    @Override
+    public PageElement getSpecialObject(String objectName) {
+        if ("parent".equals(objectName) && !specialObjects.containsKey(objectName)) {
+            throw new RuntimeException("There is no parent object defined on page");
+        }
+        return specialObjects.get(objectName);
+    }
+
+    @Override
+    public int getObjectCount(Locator locator) {
+        Integer count = objectCounts.get(locatorKey(locator));
+        if (count != null) {
+            return count;
+        }
+        LOG.debug("Amount of objects for locator \"" + locator.prettyString() + "\" was not captured in page snapshot, taking it from live page");
+        return livePage.getObjectCount(locator);
+    }
+
+    @Override
+    public void preloadObjects(Map<String, Locator> objects) {
+    }
+
+    @Override
+    public void preloadObjectCounts(Collection<Locator> locators) {
+    }
+
+    @Override
+    public Page createObjectContextPage(Locator mainObjectLocator) {
+        SnapshotPage page = findObjectContextPage(mainObjectLocator);
+        if (page != null) {
+            return page;
+        }
+        LOG.debug("Object context \"" + mainObjectLocator.prettyString() + "\" was not captured in page snapshot, taking it from live page");
+        return livePage.createObjectContextPage(mainObjectLocator);
+    }
+
+    @Override
+    public void setScreenshot(File screenshotFile) {
+        if (screenshotFile != null) {
+            synchronized (this) {
+                this.screenshot = Screenshot.fromFile(screenshotFile);
+                this.screenshotImage = null;
+            }
+        }
+    }
+
+    @Override
+    public synchronized BufferedImage getScreenshotImage() {
+        if (screenshotImage == null && screenshot != null) {
+            try {
+                screenshotImage = screenshot.getImage();
+            } catch (Exception e) {
+                throw new RuntimeException("Couldn't load screenshot for page snapshot", e);
+            }
+        }
+        return screenshotImage;
+    }
+
+    @Override
+    public synchronized Screenshot createScreenshot() {
+        return screenshot;
+    }
+
+    @Override
+    public String getTitle() {
+        return title;
+    }
+
+    @Override
+    public void switchToFrame(PageElement mainObject) {
+    }
+
+    @Override
+    public void switchToParentFrame() {
+    }
+
+    @Override
+    public Page createFrameContext(PageElement frameElement) {
+        if (frameContextPages.containsKey(frameElement)) {
+            return frameContextPages.get(frameElement);
+        }
+        else throw new RuntimeException("Frame was not captured in page snapshot");
+    }
+
+    void addObject(String objectName, PageElement pageElement) {
+        objects.put(objectName, pageElement);
+    }
+
+    void addSpecialObject(String objectName, PageElement pageElement) {
+        specialObjects.put(objectName, pageElement);
+    }
+
+    void addObjectCount(Locator locator, int count) {
+        objectCounts.put(locatorKey(locator), count);
+    }
+
+    void addObjectContextPage(Locator locator, SnapshotPage page) {
+        objectContextPages.put(locatorKey(locator), page);
+    }
+
+    void addFrameContextPage(PageElement frameElement, SnapshotPage page) {
+        frameContextPages.put(frameElement, page);
+    }
+
+    SnapshotPage findObjectContextPage(Locator locator) {
+        return objectContextPages.get(locatorKey(locator));
+    }
+
+    synchronized void setScreenshotImage(BufferedImage screenshotImage) {
+        this.screenshotImage = screenshotImage;
+    }
+
+    private static String locatorKey(Locator locator) {
+        return locator.getLocatorType() + ":" + locator.getIndex() + ":" + locator.getLocatorValue();
+    }
+}
@@ -0,0 +1,109 @@
+/*******************************************************************************
+* Copyright 2015 Ivan Shubin http://mindengine.net
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*   http://www.apache.org/licenses/LICENSE-2.0
+* 
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.page.snapshot;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import net.mindengine.galen.page.PageElement;
+import net.mindengine.galen.page.Rect;
+
+/**
+ * An immutable copy of a page element which was taken from a live page.
+ * It never accesses the browser so it is safe to use it from multiple threads
+ */
+public class SnapshotPageElement extends PageElement {
+
+    private final String objectName;
+    private final boolean present;
+    private final boolean visible;
+    private final Rect area;
+    private final String text;
+    private final Map<String, String> cssProperties;
+
+    public SnapshotPageElement(String objectName, boolean present, boolean visible, Rect area, String text, Map<String, String> cssProperties) {
+        this.objectName = objectName;
+        this.present = present;
+        this.visible = visible;
+        this.area = area;
+        this.text = text;
+        this.cssProperties = Collections.unmodifiableMap(new HashMap<String, String>(cssProperties));
+    }
+
+    @Override
+    protected Rect calculateArea() {
+        return area;
+    }
+
+    @Override
+    public boolean isPresent() {
+        return present;
+    }
+
+    @Override
+    public boolean isVisible() {
+        return visible;
+    }
+
+    @Override
+    public int getWidth() {
+        return area != null ? area.getWidth() : 0;
+    }
+
+    @Override
+    public int getHeight() {
+        return area != null ? area.getHeight() : 0;
+    }
+
+    @Override
+    public int getLeft() {
+        return area != null ? area.getLeft() : 0;
+    }
+
+    @Override
+    public int getTop() {
+        return area != null ? area.getTop() : 0;
+    }
+
+    @Override
+    public String getText() {
+        if (text == null && present) {
+            throw new RuntimeException("Text of object \"" + objectName + "\" was not captured in page snapshot");
+        }
+        return text != null ? text : "";
+    }
+
+    @Override
+    public String getCssProperty(String cssPropertyName) {
+        if (present && !cssProperties.containsKey(cssPropertyName)) {
+            throw new RuntimeException("Css property \"" + cssPropertyName + "\" of object \"" + objectName + "\" was not captured in page snapshot");
+        }
+        return cssProperties.get(cssPropertyName);
+    }
+
+    public String getObjectName() {
+        return objectName;
+    }
+
+    public Map<String, String> getCssProperties() {
+        return cssProperties;
+    }
+
+    public String getCapturedText() {
+        return text;
+    }
+}
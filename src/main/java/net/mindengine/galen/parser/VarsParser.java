@@ -15,20 +15,15 @@
 ******************************************************************************/
 package net.mindengine.galen.parser;
 
-import net.mindengine.galen.specs.reader.StringCharReader;
 import net.mindengine.galen.suite.reader.Context;
 
 import java.util.Properties;
 
 public class VarsParser {
 
-    private static final int PARSING_TEXT = 0;
-    private static final int PARSING_PARAM = 1;
     private final VarsParserJsProcessor jsProcessor;
 
     private Context context;
-
-    private int state = PARSING_TEXT;
     private Properties properties;
    
 
@@ -43,42 +38,18 @@ public class VarsParser {
     }
 
     public String parse(String templateText) {
-        StringCharReader reader = new StringCharReader(templateText);
-        
-        StringBuffer buffer = new StringBuffer();
-        
-        StringBuffer currentExpression = new StringBuffer();
-        
-        while(reader.hasMore()) {
-            char symbol = reader.next();
-            if (state ==  PARSING_TEXT) {
-                if (symbol == '$' && reader.currentSymbol() == '{') {
-                    state = PARSING_PARAM;
-                    currentExpression = new StringBuffer();
-                    reader.next();
-                }
-                else if(symbol=='\\' && reader.currentSymbol() == '$') {
-                    buffer.append('$');
-                    reader.next();
-                }
-                else {
-                    buffer.append(symbol);
-                }
+        if (templateText.indexOf('$') < 0) {
+            return templateText;
+        }
+
+        VarsTemplate template = VarsTemplate.compile(templateText);
+        StringBuilder buffer = new StringBuilder(templateText.length());
+        for (int i = 0; i < template.getSegmentsCount(); i++) {
+            if (template.isExpression(i)) {
+                buffer.append(getExpressionValue(template.getSegment(i), context).toString());
             }
-            else if (state ==  PARSING_PARAM) {
-                if (symbol == '}') {
-                    String expression = currentExpression.toString().trim();
-                    Object value = getExpressionValue(expression, context);
-                    if (value == null) {
-                        value = "";
-                    }
-                    buffer.append(value.toString());
-                    state = PARSING_TEXT;
-                }
-                else {
-                    currentExpression.append(symbol);
-                }
-                
+            else {
+                buffer.append(template.getSegment(i));
             }
         }
         return buffer.toString();
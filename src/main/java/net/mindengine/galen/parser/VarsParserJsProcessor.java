@@ -16,9 +16,9 @@
 package net.mindengine.galen.parser;
 
 import net.mindengine.galen.javascript.JsFunctionLoad;
-import net.mindengine.galen.specs.reader.page.PageSpec;
 import net.mindengine.galen.specs.reader.page.PageSpecReader;
 import net.mindengine.galen.suite.reader.Context;
+import net.mindengine.galen.utils.LruCache;
 
 import org.apache.commons.io.IOUtils;
 import org.mozilla.javascript.*;
@@ -29,15 +29,31 @@ import java.io.File;
 import java.io.IOException;
 import java.util.Map;
 
+/**
+ * Processes javascript expressions of page specs. All processors share the same sealed scope
+ * with standard objects and pre-compiled GalenSpecProcessing.js library, so every processor only creates
+ * a lightweight child scope for its own functions and variables. Expressions are compiled once and
+ * the compiled scripts are shared between all processors.
+ * A processor which loads javascript files gets its own unsealed standard objects,
+ * so that user scripts could extend built-in prototypes without affecting other processors.
+ */
 public class VarsParserJsProcessor {
 
     private final static Logger LOG = LoggerFactory.getLogger(VarsParserJsProcessor.class);
 
+    private static final String LIBRARY_SCRIPT = "/js/GalenSpecProcessing.js";
+    private static final int MAX_COMPILED_SCRIPTS = 1000;
+
+    private static final LruCache<String, Script> compiledScripts = new LruCache<String, Script>(MAX_COMPILED_SCRIPTS);
+
+    private static Script libraryScript;
+    private static ScriptableObject sharedScope;
+
     private final VarsParserJsFunctions jsFunctions;
 
     private Context varsContext;
-    private org.mozilla.javascript.Context cx;
-    private ImporterTopLevel scope;
+    private ReaderScope scope;
+    private boolean privateStandardObjects = false;
     private JsFunctionLoad jsFunctionLoad = new JsFunctionLoad();
     private final PageSpecReader pageSpecReader;
 
@@ -48,13 +64,64 @@ public class VarsParserJsProcessor {
         initJsProcessor();
     }
 
+    /**
+     * Returns the scope with standard objects and all functions of GalenSpecProcessing.js.
+     * It is created only once and is sealed so that it could be safely shared between threads
+     */
+    private static synchronized ScriptableObject getSharedScope() {
+        if (sharedScope == null) {
+            org.mozilla.javascript.Context cx = enterContext();
+            try {
+                ImporterTopLevel scope = new ImporterTopLevel(cx, true);
+                libraryScript = compileInterpreted(cx, readScriptFromResources(LIBRARY_SCRIPT), LIBRARY_SCRIPT);
+                libraryScript.exec(cx, scope);
+                scope.sealObject();
+                sharedScope = scope;
+            }
+            finally {
+                org.mozilla.javascript.Context.exit();
+            }
+        }
+        return sharedScope;
+    }
+
+    /**
+     * Replaces the shared scope of this processor with its own scope which has unsealed standard objects.
+     * It is done only once and only before javascript files are loaded, because sealed objects
+     * of the shared scope could not be modified by user scripts
+     */
+    private void usePrivateStandardObjects(org.mozilla.javascript.Context cx) {
+        if (!privateStandardObjects) {
+            ImporterTopLevel privateScope = new ImporterTopLevel(cx);
+            libraryScript.exec(cx, privateScope);
+            scope.setPrototype(privateScope);
+            privateStandardObjects = true;
+        }
+    }
+
     @SuppressWarnings("serial")
     private void initJsProcessor() {
-        this.cx = org.mozilla.javascript.Context.enter();
-        this.scope = new ImporterTopLevel(cx);
+        ScriptableObject shared = getSharedScope();
+
+        org.mozilla.javascript.Context cx = enterContext();
+        try {
+            this.scope = new ReaderScope();
+            scope.setPrototype(shared);
+            scope.setParentScope(null);
+
+            Scriptable javaImporter = ScriptableObject.getClassPrototype(shared, "JavaImporter");
+            scope.defineProperty("importClass", javaImporter.get("importClass", javaImporter), ScriptableObject.DONTENUM);
+            scope.defineProperty("importPackage", javaImporter.get("importPackage", javaImporter), ScriptableObject.DONTENUM);
 
-        ScriptableObject.putProperty(scope, "_pageSpec", org.mozilla.javascript.Context.javaToJS(pageSpecReader, scope));
-        executeScript(readScriptFromResources(("/js/GalenSpecProcessing.js")));
+            Object jsPageSpec = org.mozilla.javascript.Context.javaToJS(pageSpecReader, scope);
+            ScriptableObject.putProperty(scope, "_pageSpec", jsPageSpec);
+
+            Function createRule = (Function) ScriptableObject.getProperty(shared, "_createRule");
+            ScriptableObject.putProperty(scope, "rule", createRule.call(cx, scope, scope, new Object[]{jsPageSpec}));
+        }
+        finally {
+            org.mozilla.javascript.Context.exit();
+        }
 
         if (jsFunctions != null) {
             scope.defineProperty("count", new BaseFunction() {
@@ -106,22 +173,57 @@ public class VarsParserJsProcessor {
                 }
             }, ScriptableObject.DONTENUM);
 
-            scope.defineProperty("load", new JsFunctionLoad(), ScriptableObject.DONTENUM);
+            scope.defineProperty("load", new JsFunctionLoad() {
+                @Override
+                public Object call(org.mozilla.javascript.Context cx, Scriptable scope, Scriptable thisObj, Object[] args) {
+                    usePrivateStandardObjects(cx);
+                    return super.call(cx, scope, thisObj, args);
+                }
+            }, ScriptableObject.DONTENUM);
         }
 
     }
 
-    private String readScriptFromResources(String path) {
+    private static org.mozilla.javascript.Context enterContext() {
+        return org.mozilla.javascript.Context.enter();
+    }
+
+    /**
+     * Compiles script in interpreted mode. Expressions are short and most of them are executed only a few times,
+     * so interpreting them is faster than generating a class for each of them
+     */
+    private static Script compileInterpreted(org.mozilla.javascript.Context cx, String script, String sourceName) {
+        int optimizationLevel = cx.getOptimizationLevel();
+        cx.setOptimizationLevel(-1);
+        try {
+            return cx.compileString(script, sourceName, 1, null);
+        }
+        finally {
+            cx.setOptimizationLevel(optimizationLevel);
+        }
+    }
+
+    private static String readScriptFromResources(String path) {
         try {
-            return IOUtils.toString(getClass().getResourceAsStream(path));
+            return IOUtils.toString(VarsParserJsProcessor.class.getResourceAsStream(path));
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
     }
 
+    private static Script compileScript(org.mozilla.javascript.Context cx, String script) {
+        Script compiledScript = compiledScripts.get(script);
+        if (compiledScript == null) {
+            compiledScript = compileInterpreted(cx, script, "<cmd>");
+            compiledScripts.put(script, compiledScript);
+        }
+        return compiledScript;
+    }
+
     private String executeScript(String script) {
+        org.mozilla.javascript.Context cx = enterContext();
         try {
-            Object returnedObject = cx.evaluateString(scope, script, "<cmd>", 1, null);
+            Object returnedObject = compileScript(cx, script).exec(cx, scope);
             if (returnedObject != null) {
                 if (returnedObject instanceof Double) {
                     return Integer.toString(((Double) returnedObject).intValue());
@@ -134,24 +236,16 @@ public class VarsParserJsProcessor {
             LOG.error("Unknown error during processing javascript expressions.", ex);
             return null;
         }
+        finally {
+            org.mozilla.javascript.Context.exit();
+        }
     }
 
     public String process(String expression) {
-        resetAllVariablesFromContext();
         return executeScript(expression);
     }
 
-    private void resetAllVariablesFromContext() {
-        if (varsContext != null) {
-            for (Map.Entry<String, Object> parameter : varsContext.getParameters().entrySet()) {
-                if (!conflictsWithFunctionNames(parameter.getKey())) {
-                    ScriptableObject.putProperty(scope, parameter.getKey(), parameter.getValue());
-                }
-            }
-        }
-    }
-
-    private boolean conflictsWithFunctionNames(String name) {
+    private static boolean conflictsWithFunctionNames(String name) {
         if (name.equals("count")) {
             return true;
         }
@@ -176,6 +270,51 @@ public class VarsParserJsProcessor {
             fullPath = contextPath + File.separator + filePath;
         }
 
-        jsFunctionLoad.load(fullPath, this.cx, this.scope);
+        org.mozilla.javascript.Context cx = enterContext();
+        try {
+            usePrivateStandardObjects(cx);
+            jsFunctionLoad.load(fullPath, cx, scope);
+        }
+        finally {
+            org.mozilla.javascript.Context.exit();
+        }
+    }
+
+    /**
+     * Top level scope of a single processor. Variables of vars context are not copied into it
+     * but are looked up only when an expression refers to them, so they always have their latest values.
+     * Names which are not found here are taken from the shared scope before imported packages are checked,
+     * same as it would be with a regular top level scope
+     */
+    @SuppressWarnings("serial")
+    private class ReaderScope extends ImporterTopLevel {
+
+        @Override
+        public Object get(String name, Scriptable start) {
+            if (varsContext != null && !conflictsWithFunctionNames(name)) {
+                Map<String, Object> parameters = varsContext.getParameters();
+                if (parameters.containsKey(name)) {
+                    return parameters.get(name);
+                }
+            }
+
+            if (super.has(name, start)) {
+                return super.get(name, start);
+            }
+
+            Scriptable prototype = getPrototype();
+            if (prototype != null && ScriptableObject.hasProperty(prototype, name)) {
+                return NOT_FOUND;
+            }
+            return super.get(name, start);
+        }
+
+        @Override
+        public boolean has(String name, Scriptable start) {
+            if (varsContext != null && !conflictsWithFunctionNames(name) && varsContext.getParameters().containsKey(name)) {
+                return true;
+            }
+            return super.has(name, start);
+        }
     }
 }
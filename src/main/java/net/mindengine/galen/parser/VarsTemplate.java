@@ -0,0 +1,116 @@
+/*******************************************************************************
+* Copyright 2015 Ivan Shubin http://mindengine.net
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*   http://www.apache.org/licenses/LICENSE-2.0
+* 
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.parser;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import net.mindengine.galen.utils.LruCache;
+
+/**
+ * A template text split into literal text and ${...} expressions. Templates are compiled only once
+ * for the same text and are shared between all parsers, so they should not depend on any context.
+ */
+public class VarsTemplate {
+
+    private static final int MAX_COMPILED_TEMPLATES = 10000;
+
+    private static final LruCache<String, VarsTemplate> compiledTemplates = new LruCache<String, VarsTemplate>(MAX_COMPILED_TEMPLATES);
+
+    private final String[] segments;
+    private final boolean[] expressions;
+
+    private VarsTemplate(List<String> segments, List<Boolean> expressions) {
+        this.segments = segments.toArray(new String[segments.size()]);
+        this.expressions = new boolean[expressions.size()];
+        for (int i = 0; i < this.expressions.length; i++) {
+            this.expressions[i] = expressions.get(i);
+        }
+    }
+
+    /**
+     * Returns a compiled template for the given text. The same instance is returned for the same text
+     */
+    public static VarsTemplate compile(String templateText) {
+        VarsTemplate template = compiledTemplates.get(templateText);
+        if (template == null) {
+            template = parse(templateText);
+            compiledTemplates.put(templateText, template);
+        }
+        return template;
+    }
+
+    /**
+     * Splits text into segments. "\$" is turned into "$" and an expression which is not closed with "}"
+     * is dropped together with the rest of the text
+     */
+    private static VarsTemplate parse(String templateText) {
+        List<String> segments = new ArrayList<String>();
+        List<Boolean> expressions = new ArrayList<Boolean>();
+
+        StringBuilder text = new StringBuilder();
+        int length = templateText.length();
+        int i = 0;
+        while (i < length) {
+            char symbol = templateText.charAt(i);
+            char nextSymbol = i + 1 < length ? templateText.charAt(i + 1) : 0;
+
+            if (symbol == '$' && nextSymbol == '{') {
+                int end = templateText.indexOf('}', i + 2);
+                if (end < 0) {
+                    break;
+                }
+                addText(segments, expressions, text);
+                segments.add(templateText.substring(i + 2, end).trim());
+                expressions.add(true);
+                i = end + 1;
+            }
+            else if (symbol == '\\' && nextSymbol == '$') {
+                text.append('$');
+                i += 2;
+            }
+            else {
+                text.append(symbol);
+                i++;
+            }
+        }
+        addText(segments, expressions, text);
+        return new VarsTemplate(segments, expressions);
+    }
+
+    private static void addText(List<String> segments, List<Boolean> expressions, StringBuilder text) {
+        if (text.length() > 0) {
+            segments.add(text.toString());
+            expressions.add(false);
+            text.setLength(0);
+        }
+    }
+
+    public int getSegmentsCount() {
+        return segments.length;
+    }
+
+    /**
+     * Returns either literal text or trimmed expression that was written inside ${}
+     */
+    public String getSegment(int index) {
+        return segments[index];
+    }
+
+    public boolean isExpression(int index) {
+        return expressions[index];
+    }
+}
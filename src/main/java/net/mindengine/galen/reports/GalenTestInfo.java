@@ -20,6 +20,7 @@ import java.util.Date;
 import java.util.List;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 
 import net.mindengine.galen.tests.GalenEmptyTest;
 import net.mindengine.galen.tests.GalenTest;
@@ -36,6 +37,12 @@ public class GalenTestInfo {
     private Date startedAt = new Date();
     private Date endedAt = new Date();
 
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long queueWaitTime;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long runTime;
+
     @JsonIgnore
     private GalenTest test;
     
@@ -89,6 +96,28 @@ public class GalenTestInfo {
         this.endedAt = endedAt;
     }
 
+    /**
+     * @return time in millis which test spent in the queue before it was started or null if it was not scheduled
+     */
+    public Long getQueueWaitTime() {
+        return queueWaitTime;
+    }
+
+    public void setQueueWaitTime(Long queueWaitTime) {
+        this.queueWaitTime = queueWaitTime;
+    }
+
+    /**
+     * @return time in millis which test was running including all its retries or null if it was not scheduled
+     */
+    public Long getRunTime() {
+        return runTime;
+    }
+
+    public void setRunTime(Long runTime) {
+        this.runTime = runTime;
+    }
+
     public GalenTest getTest() {
         return test;
     }
@@ -20,6 +20,10 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Stack;
 
+import net.mindengine.galen.browser.BrowserFactory;
+import net.mindengine.galen.config.GalenConfig;
+import net.mindengine.galen.metrics.MetricsListener;
+import net.mindengine.galen.metrics.SpecTiming;
 import net.mindengine.galen.reports.model.*;
 import net.mindengine.galen.reports.nodes.TestReportNode;
 import net.mindengine.galen.specs.Spec;
@@ -27,7 +31,7 @@ import net.mindengine.galen.specs.page.PageSection;
 import net.mindengine.galen.suite.GalenPageAction;
 import net.mindengine.galen.validation.*;
 
-public class LayoutReportListener implements ValidationListener {
+public class LayoutReportListener implements ValidationListener, MetricsListener, SkippedSpecListener {
 
     private Stack<LayoutReportStack> reportStack = new Stack<LayoutReportStack>();
     private LayoutReport rootLayoutReport;
@@ -130,6 +134,17 @@ public class LayoutReportListener implements ValidationListener {
 
     }
 
+    @Override
+    public void onSpecSkipped(PageValidation pageValidation, String objectName, Spec originalSpec, String reason) {
+        currentReport().getCurrentSpec().setSkipped(true);
+
+        if (rootLayoutReport.getValidationStopReason() == null) {
+            rootLayoutReport.setValidationStopReason(reason);
+        }
+        Integer skippedSpecs = rootLayoutReport.getSkippedSpecs();
+        rootLayoutReport.setSkippedSpecs(skippedSpecs != null ? skippedSpecs + 1 : 1);
+    }
+
     @Override
     public void onSpecGroup(PageValidation pageValidation, String specGroupName) {
         LayoutSpecGroup specGroup = new LayoutSpecGroup();
@@ -183,6 +198,28 @@ public class LayoutReportListener implements ValidationListener {
     }
 
 
+    @Override
+    public void onSpecTiming(PageValidation pageValidation, SpecTiming specTiming) {
+        if (GalenConfig.getConfig().shouldReportTiming()) {
+            LayoutReport layoutReport = currentReport().getLayoutReport();
+            if (layoutReport.getTiming() == null) {
+                layoutReport.setTiming(new LayoutTiming());
+            }
+            layoutReport.getTiming().addSpecTiming(specTiming);
+        }
+    }
+
+    @Override
+    public void onPageActionTiming(GalenPageAction action, long time) {
+        // not needed here
+    }
+
+    @Override
+    public void onBrowserStartTiming(BrowserFactory browserFactory, long time) {
+        // not needed here
+    }
+
+
     private LayoutReportStack currentReport() {
         return reportStack.peek();
     }
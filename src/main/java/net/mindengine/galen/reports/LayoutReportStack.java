@@ -59,6 +59,10 @@ public class LayoutReportStack {
         return sectionStack.peek();
     }
 
+    public LayoutReport getLayoutReport() {
+        return layoutReport;
+    }
+
     public LayoutObject getCurrentObject() {
         return currentObject;
     }
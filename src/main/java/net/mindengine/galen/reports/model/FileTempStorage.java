@@ -15,6 +15,7 @@
 ******************************************************************************/
 package net.mindengine.galen.reports.model;
 
+import net.mindengine.galen.page.Screenshot;
 import org.apache.commons.io.FileUtils;
 
 import java.io.File;
@@ -31,6 +32,7 @@ public class FileTempStorage {
 
     private final String storageName;
     private Map<String, File> files = new HashMap<String, File>();
+    private Map<String, Screenshot> screenshots = new HashMap<String, Screenshot>();
     private List<FileTempStorage> childStorages = new LinkedList<FileTempStorage>();
 
     private static long _uniqueId = 0;
@@ -51,6 +53,15 @@ public class FileTempStorage {
     }
 
 
+    /**
+     * Registers a screenshot which is kept in memory and is written to disk only when all files are copied
+     */
+    public String registerFile(String fileName, Screenshot screenshot) {
+        String uniqueName = storageName + "-" + getUniqueId() + "-" + fileName;
+        screenshots.put(uniqueName, screenshot);
+        return uniqueName;
+    }
+
     public Map<String, File> getFiles() {
         return files;
     }
@@ -60,6 +71,10 @@ public class FileTempStorage {
             FileUtils.copyFile(entry.getValue(), new File(dir.getAbsolutePath() + File.separator + entry.getKey()));
         }
 
+        for (Map.Entry<String, Screenshot> entry : screenshots.entrySet()) {
+            entry.getValue().saveTo(new File(dir.getAbsolutePath() + File.separator + entry.getKey()));
+        }
+
         for (FileTempStorage storage : childStorages) {
             storage.copyAllFilesTo(dir);
         }
@@ -85,5 +100,10 @@ public class FileTempStorage {
             FileUtils.deleteQuietly(file);
         }
         this.files.clear();
+
+        for (Screenshot screenshot : this.screenshots.values()) {
+            screenshot.cleanup();
+        }
+        this.screenshots.clear();
     }
 }
@@ -16,7 +16,9 @@
 package net.mindengine.galen.reports.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 
+import net.mindengine.galen.page.Screenshot;
 import net.mindengine.galen.validation.ValidationResult;
 import net.mindengine.rainbow4j.Rainbow4J;
 
@@ -40,6 +42,16 @@ public class LayoutReport {
 
     private String screenshot;
 
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private LayoutTiming timing;
+
+    // Reason why the rest of specs were skipped, e.g. when the max amount of errors was reached
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String validationStopReason;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer skippedSpecs;
+
     @JsonIgnore
     private List<ValidationResult> validationErrorResults;
 
@@ -78,6 +90,30 @@ public class LayoutReport {
         this.screenshot = screenshot;
     }
 
+    public LayoutTiming getTiming() {
+        return timing;
+    }
+
+    public void setTiming(LayoutTiming timing) {
+        this.timing = timing;
+    }
+
+    public String getValidationStopReason() {
+        return validationStopReason;
+    }
+
+    public void setValidationStopReason(String validationStopReason) {
+        this.validationStopReason = validationStopReason;
+    }
+
+    public Integer getSkippedSpecs() {
+        return skippedSpecs;
+    }
+
+    public void setSkippedSpecs(Integer skippedSpecs) {
+        this.skippedSpecs = skippedSpecs;
+    }
+
     public void setValidationErrorResults(List<ValidationResult> validationErrorResults) {
         this.validationErrorResults = validationErrorResults;
     }
@@ -156,4 +192,8 @@ public class LayoutReport {
         return fileStorage.registerFile(fileName, file);
 
     }
+
+    public String registerFile(String fileName, Screenshot screenshot) {
+        return fileStorage.registerFile(fileName, screenshot);
+    }
 }
@@ -18,6 +18,7 @@ package net.mindengine.galen.reports.model;
 import java.util.LinkedList;
 import java.util.List;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import net.mindengine.galen.reports.nodes.TestReportNode;
 import net.mindengine.galen.specs.reader.Place;
 
@@ -33,6 +34,10 @@ public class LayoutSpec {
     private List<String> highlight = new LinkedList<String>();
     private LayoutImageComparison imageComparison;
 
+    // Set to true if the spec was not checked because validation was stopped
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Boolean skipped;
+
     // Here it will temporarily store sub objects that will be later picked up by spec
     private LayoutReport subLayout;
 
@@ -85,6 +90,14 @@ public class LayoutSpec {
         this.subLayout = subLayout;
     }
 
+    public Boolean getSkipped() {
+        return skipped;
+    }
+
+    public void setSkipped(Boolean skipped) {
+        this.skipped = skipped;
+    }
+
     public LayoutImageComparison getImageComparison() {
         return imageComparison;
     }
@@ -0,0 +1,89 @@
+/*******************************************************************************
+* Copyright 2015 Ivan Shubin http://mindengine.net
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*   http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.reports.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import net.mindengine.galen.metrics.SpecTiming;
+
+/**
+ * Timing section of layout report: total time and WebDriver commands of all checked specs
+ * together with the slowest of them
+ */
+public class LayoutTiming {
+
+    public static final int MAX_SLOWEST_SPECS = 10;
+
+    private double time = 0;
+    private long webDriverCommands = 0;
+    private int specs = 0;
+    private List<SpecTiming> slowestSpecs = new ArrayList<SpecTiming>();
+
+    public void addSpecTiming(SpecTiming specTiming) {
+        time += specTiming.getTime();
+        webDriverCommands += specTiming.getWebDriverCommands();
+        specs++;
+
+        slowestSpecs.add(specTiming);
+        Collections.sort(slowestSpecs, new Comparator<SpecTiming>() {
+            @Override
+            public int compare(SpecTiming a, SpecTiming b) {
+                return Double.compare(b.getTime(), a.getTime());
+            }
+        });
+        if (slowestSpecs.size() > MAX_SLOWEST_SPECS) {
+            slowestSpecs.remove(slowestSpecs.size() - 1);
+        }
+    }
+
+    /**
+     * @return total time in milliseconds of all checked specs
+     */
+    public double getTime() {
+        return time;
+    }
+
+    public void setTime(double time) {
+        this.time = time;
+    }
+
+    public long getWebDriverCommands() {
+        return webDriverCommands;
+    }
+
+    public void setWebDriverCommands(long webDriverCommands) {
+        this.webDriverCommands = webDriverCommands;
+    }
+
+    public int getSpecs() {
+        return specs;
+    }
+
+    public void setSpecs(int specs) {
+        this.specs = specs;
+    }
+
+    public List<SpecTiming> getSlowestSpecs() {
+        return slowestSpecs;
+    }
+
+    public void setSlowestSpecs(List<SpecTiming> slowestSpecs) {
+        this.slowestSpecs = slowestSpecs;
+    }
+}
@@ -91,7 +91,8 @@ public class LayoutReportNode extends TestReportNode {
             if (spec.getSubLayout() != null && spec.getSubLayout().getSections() != null) {
                fetchStatisticForSections(spec.getSubLayout().getSections(), testStatistic);
             }
-            else {
+            // skipped specs were not checked so they are neither passed nor failed
+            else if (!Boolean.TRUE.equals(spec.getSkipped())) {
                 testStatistic.setTotal(testStatistic.getTotal() + 1);
 
                 if (spec.getStatus() == Status.WARN) {
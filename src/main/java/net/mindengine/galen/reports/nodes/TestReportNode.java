@@ -16,6 +16,7 @@
 package net.mindengine.galen.reports.nodes;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonValue;
 import net.mindengine.galen.reports.TestStatistic;
 import net.mindengine.galen.reports.model.FileTempStorage;
@@ -39,6 +40,9 @@ public class TestReportNode {
     private List<String> attachments;
     private Date time = new Date();
 
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long duration;
+
     public TestReportNode(FileTempStorage fileStorage) {
         this.fileStorage = fileStorage;
     }
@@ -56,6 +60,17 @@ public class TestReportNode {
         this.time = time;
     }
 
+    /**
+     * @return duration in milliseconds of the reported action or null if it was not measured
+     */
+    public Long getDuration() {
+        return duration;
+    }
+
+    public void setDuration(Long duration) {
+        this.duration = duration;
+    }
+
     public TestReportNode withAttachment(String name, File file) {
         if (attachments == null) {
             attachments = new LinkedList<String>();
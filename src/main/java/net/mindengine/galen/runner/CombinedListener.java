@@ -18,6 +18,9 @@ package net.mindengine.galen.runner;
 import java.util.LinkedList;
 import java.util.List;
 
+import net.mindengine.galen.browser.BrowserFactory;
+import net.mindengine.galen.metrics.MetricsListener;
+import net.mindengine.galen.metrics.SpecTiming;
 import net.mindengine.galen.validation.ValidationResult;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -28,8 +31,9 @@ import net.mindengine.galen.specs.page.PageSection;
 import net.mindengine.galen.suite.GalenPageAction;
 import net.mindengine.galen.tests.GalenTest;
 import net.mindengine.galen.validation.PageValidation;
+import net.mindengine.galen.validation.SkippedSpecListener;
 
-public class CombinedListener implements CompleteListener {
+public class CombinedListener implements CompleteListener, MetricsListener, SkippedSpecListener {
 
     private final static Logger LOG = LoggerFactory.getLogger(CombinedListener.class);
 
@@ -266,4 +270,60 @@ public class CombinedListener implements CompleteListener {
             }
         }
     }
+
+    @Override
+    public void onSpecSkipped(PageValidation pageValidation, String objectName, Spec spec, String reason) {
+        for (CompleteListener listener : listeners) {
+            if (listener instanceof SkippedSpecListener) {
+                try {
+                    ((SkippedSpecListener) listener).onSpecSkipped(pageValidation, objectName, spec, reason);
+                }
+                catch (Exception ex) {
+                    LOG.trace("Unknown error during skipped spec", ex);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void onSpecTiming(PageValidation pageValidation, SpecTiming specTiming) {
+        for (CompleteListener listener : listeners) {
+            if (listener instanceof MetricsListener) {
+                try {
+                    ((MetricsListener) listener).onSpecTiming(pageValidation, specTiming);
+                }
+                catch (Exception ex) {
+                    LOG.trace("Unknown error during spec timing", ex);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void onPageActionTiming(GalenPageAction action, long time) {
+        for (CompleteListener listener : listeners) {
+            if (listener instanceof MetricsListener) {
+                try {
+                    ((MetricsListener) listener).onPageActionTiming(action, time);
+                }
+                catch (Exception ex) {
+                    LOG.trace("Unknown error during page action timing", ex);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void onBrowserStartTiming(BrowserFactory browserFactory, long time) {
+        for (CompleteListener listener : listeners) {
+            if (listener instanceof MetricsListener) {
+                try {
+                    ((MetricsListener) listener).onBrowserStartTiming(browserFactory, time);
+                }
+                catch (Exception ex) {
+                    LOG.trace("Unknown error during browser start timing", ex);
+                }
+            }
+        }
+    }
 }
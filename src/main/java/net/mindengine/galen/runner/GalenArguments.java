@@ -36,6 +36,18 @@ import org.apache.commons.lang3.builder.ToStringBuilder;
 
 public class GalenArguments {
 
+    public static final String DYNAMIC_SPECS_NOTE =
+            "Specs compiled as dynamic use find, findAll or count js functions which depend on page objects.\n"
+            + "Such spec is always parsed as a whole file together with everything it imports,\n"
+            + "even if only one of its sections uses these functions.";
+
+    public static final String COMPILE_SPECS_USAGE =
+            "Usage: galen compile-specs <folder or spec file>... [--properties <properties file>]\n"
+            + "Stores parsed specs in \".compiled\" files next to them. They are used instead of parsing\n"
+            + "when \"galen.spec.compiled.enabled\" is enabled in config and none of their files\n"
+            + "or properties used in them were changed.\n"
+            + DYNAMIC_SPECS_NOTE;
+
     private String action;
     private String javascript;
     private List<String> paths;
@@ -56,6 +68,10 @@ public class GalenArguments {
     private String jsonReport;
     private List<String> groups;
     private List<String> excludedGroups;
+    private String dump;
+    private Integer maxErrors;
+    private Integer timeBudget;
+    private String propertiesFile;
 
     public GalenArguments withAction(String action) {
         this.setAction(action);
@@ -164,6 +180,10 @@ public class GalenArguments {
         options.addOption("H", "max-height", true, "Maximum height for page dump");
         options.addOption("G", "groups", true, "Test groups");
         options.addOption("Q", "excluded-groups", true, "Excluded test groups");
+        options.addOption("d", "dump", true, "Path to page dump against which specs are checked instead of a browser");
+        options.addOption("M", "max-errors", true, "Amount of errors after which layout check is stopped");
+        options.addOption("B", "time-budget", true, "Time in milliseconds after which layout check is stopped");
+        options.addOption("P", "properties", true, "Path to properties file with which specs are compiled");
 
         
         CommandLineParser parser = new PosixParser();
@@ -214,6 +234,10 @@ public class GalenArguments {
         galen.setJsonReport(cmd.getOptionValue("J"));
         galen.setGroups(convertTags(cmd.getOptionValue("G")));
         galen.setExcludedGroups(convertTags(cmd.getOptionValue("Q")));
+        galen.setDump(cmd.getOptionValue("d"));
+        galen.setMaxErrors(parseOptionalInt(cmd.getOptionValue("M")));
+        galen.setTimeBudget(parseOptionalInt(cmd.getOptionValue("B")));
+        galen.setPropertiesFile(cmd.getOptionValue("P"));
 
         verifyArguments(galen);
         return galen;
@@ -265,6 +289,9 @@ public class GalenArguments {
             else if ("dump".equals(galen.getAction())) {
                 return;
             }
+            else if ("compile-specs".equals(galen.getAction())) {
+                verifyCompileSpecsAction(galen);
+            }
             else throw new IllegalArgumentException("Unknown action: " + galen.getAction());
         }
     }
@@ -275,6 +302,12 @@ public class GalenArguments {
         }
     }
 
+    private static void verifyCompileSpecsAction(GalenArguments galen) {
+        if (galen.getPaths() == null || galen.getPaths().isEmpty()) {
+            throw new IllegalArgumentException("Missing spec folders\n" + COMPILE_SPECS_USAGE);
+        }
+    }
+
     private static void verifyTestAction(GalenArguments galen) {
         if (galen.getPaths() == null || galen.getPaths().isEmpty()) {
             throw new IllegalArgumentException("Missing test files");
@@ -352,6 +385,10 @@ public class GalenArguments {
             .append(jsonReport)
             .append(groups)
             .append(excludedGroups)
+            .append(dump)
+            .append(maxErrors)
+            .append(timeBudget)
+            .append(propertiesFile)
             .toHashCode(); //@formatter:on
     }
     
@@ -387,6 +424,10 @@ public class GalenArguments {
             .append(jsonReport, rhs.jsonReport)
             .append(groups, rhs.groups)
             .append(excludedGroups, rhs.excludedGroups)
+            .append(dump, rhs.dump)
+            .append(maxErrors, rhs.maxErrors)
+            .append(timeBudget, rhs.timeBudget)
+            .append(propertiesFile, rhs.propertiesFile)
             .isEquals(); //@formatter:on
     }
     
@@ -411,6 +452,10 @@ public class GalenArguments {
             .append("jsonReport", jsonReport)
             .append("groups", groups)
             .append("excludedGroups", excludedGroups)
+            .append("dump", dump)
+            .append("maxErrors", maxErrors)
+            .append("timeBudget", timeBudget)
+            .append("propertiesFile", propertiesFile)
             .toString(); //@formatter:on
     }
 
@@ -513,6 +558,58 @@ public class GalenArguments {
         return export;
     }
 
+    public GalenArguments withDump(String dump) {
+        setDump(dump);
+        return this;
+    }
+
+    public String getDump() {
+        return dump;
+    }
+
+    public void setDump(String dump) {
+        this.dump = dump;
+    }
+
+    public GalenArguments withMaxErrors(Integer maxErrors) {
+        setMaxErrors(maxErrors);
+        return this;
+    }
+
+    public Integer getMaxErrors() {
+        return maxErrors;
+    }
+
+    public void setMaxErrors(Integer maxErrors) {
+        this.maxErrors = maxErrors;
+    }
+
+    public GalenArguments withTimeBudget(Integer timeBudget) {
+        setTimeBudget(timeBudget);
+        return this;
+    }
+
+    public Integer getTimeBudget() {
+        return timeBudget;
+    }
+
+    public void setTimeBudget(Integer timeBudget) {
+        this.timeBudget = timeBudget;
+    }
+
+    public GalenArguments withPropertiesFile(String propertiesFile) {
+        setPropertiesFile(propertiesFile);
+        return this;
+    }
+
+    public String getPropertiesFile() {
+        return propertiesFile;
+    }
+
+    public void setPropertiesFile(String propertiesFile) {
+        this.propertiesFile = propertiesFile;
+    }
+
     public GalenArguments withMaxWidth(Integer maxWidth) {
         setMaxWidth(maxWidth);
         return this;
@@ -21,6 +21,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import net.mindengine.galen.browser.Browser;
+import net.mindengine.galen.browser.BrowserFactory;
+import net.mindengine.galen.browser.BrowserPool;
+import net.mindengine.galen.config.GalenConfig;
 import net.mindengine.galen.reports.TestReport;
 import net.mindengine.galen.suite.GalenPageTest;
 import net.mindengine.galen.tests.GalenBasicTest;
@@ -65,7 +68,14 @@ public class GalenBasicTestRunner {
             report.gotoRoot();
             report.sectionStart(pageTest.getTitle());
             
-            Browser browser = pageTest.getBrowserFactory().openBrowser();
+            long startTime = System.currentTimeMillis();
+            Browser browser = openBrowser(pageTest.getBrowserFactory());
+            long time = System.currentTimeMillis() - startTime;
+
+            pageRunner.onBrowserStartTiming(pageTest.getBrowserFactory(), time);
+            if (GalenConfig.getConfig().shouldReportTiming()) {
+                report.info("Browser started").setDuration(time);
+            }
 
             try {
                 pageRunner.run(browser, pageTest);
@@ -75,13 +85,29 @@ public class GalenBasicTestRunner {
                 report.error(ex);
             }
             
-            browser.quit();
+            closeBrowser(pageTest.getBrowserFactory(), browser);
             report.sectionEnd();
         }
         
         return report;
     }
 
+    private Browser openBrowser(BrowserFactory browserFactory) {
+        if (GalenConfig.getConfig().shouldUseBrowserPool()) {
+            return BrowserPool.getInstance().lease(browserFactory);
+        }
+        return browserFactory.openBrowser();
+    }
+
+    private void closeBrowser(BrowserFactory browserFactory, Browser browser) {
+        if (GalenConfig.getConfig().shouldUseBrowserPool()) {
+            BrowserPool.getInstance().release(browserFactory, browser);
+        }
+        else {
+            browser.quit();
+        }
+    }
+
     public ValidationListener getValidationListener() {
         return validationListener;
     }
@@ -16,12 +16,18 @@
 package net.mindengine.galen.runner;
 
 import net.mindengine.galen.browser.Browser;
+import net.mindengine.galen.browser.BrowserFactory;
+import net.mindengine.galen.config.GalenConfig;
+import net.mindengine.galen.metrics.MetricsListener;
+import net.mindengine.galen.metrics.SpecTiming;
 import net.mindengine.galen.reports.TestReport;
+import net.mindengine.galen.reports.nodes.TestReportNode;
 import net.mindengine.galen.specs.Spec;
 import net.mindengine.galen.specs.page.PageSection;
 import net.mindengine.galen.suite.GalenPageAction;
 import net.mindengine.galen.suite.GalenPageTest;
 import net.mindengine.galen.validation.PageValidation;
+import net.mindengine.galen.validation.SkippedSpecListener;
 import net.mindengine.galen.validation.ValidationListener;
 import net.mindengine.galen.validation.ValidationResult;
 
@@ -30,7 +36,7 @@ import net.mindengine.galen.validation.ValidationResult;
  * @author ishubin
  *
  */
-public class GalenPageRunner implements ValidationListener {
+public class GalenPageRunner implements ValidationListener, MetricsListener, SkippedSpecListener {
 
     private ValidationListener validationListener;
     private TestReport report;
@@ -65,9 +71,16 @@ public class GalenPageRunner implements ValidationListener {
         for (GalenPageAction action : pageTest.getActions()) {
             tellBeforeAction(action);
             
-            report.sectionStart(action.getOriginalCommand());
+            TestReportNode actionNode = report.sectionStart(action.getOriginalCommand());
+            long startTime = System.currentTimeMillis();
             executeAction(browser, pageTest, action);
-            
+            long time = System.currentTimeMillis() - startTime;
+
+            onPageActionTiming(action, time);
+            if (GalenConfig.getConfig().shouldReportTiming()) {
+                actionNode.setDuration(time);
+            }
+
             report.sectionEnd();
             tellAfterAction(action);
         }
@@ -189,6 +202,34 @@ public class GalenPageRunner implements ValidationListener {
         }
     }
 
+    @Override
+    public void onSpecSkipped(PageValidation pageValidation, String objectName, Spec spec, String reason) {
+        if (validationListener instanceof SkippedSpecListener) {
+            ((SkippedSpecListener) validationListener).onSpecSkipped(pageValidation, objectName, spec, reason);
+        }
+    }
+
+    @Override
+    public void onSpecTiming(PageValidation pageValidation, SpecTiming specTiming) {
+        if (validationListener instanceof MetricsListener) {
+            ((MetricsListener) validationListener).onSpecTiming(pageValidation, specTiming);
+        }
+    }
+
+    @Override
+    public void onPageActionTiming(GalenPageAction action, long time) {
+        if (validationListener instanceof MetricsListener) {
+            ((MetricsListener) validationListener).onPageActionTiming(action, time);
+        }
+    }
+
+    @Override
+    public void onBrowserStartTiming(BrowserFactory browserFactory, long time) {
+        if (validationListener instanceof MetricsListener) {
+            ((MetricsListener) validationListener).onBrowserStartTiming(browserFactory, time);
+        }
+    }
+
     public TestReport getReport() {
         return report;
     }
@@ -0,0 +1,141 @@
+/*******************************************************************************
+* Copyright 2015 Ivan Shubin http://mindengine.net
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*   http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.runner;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+import net.mindengine.galen.tests.GalenTest;
+
+import org.apache.commons.io.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Stores durations of previously executed tests so that the longest tests could be started first.
+ * Durations are kept in a properties file (test name = duration in millis) if it was specified.
+ */
+public class TestDurationHistory {
+
+    private final static Logger LOG = LoggerFactory.getLogger(TestDurationHistory.class);
+
+    private final Map<String, Long> durations = new ConcurrentHashMap<String, Long>();
+
+    private final File file;
+
+    public TestDurationHistory() {
+        this(null);
+    }
+
+    public TestDurationHistory(File file) {
+        this.file = file;
+        if (file != null && file.exists()) {
+            load(file);
+        }
+    }
+
+    private void load(File file) {
+        Properties properties = new Properties();
+        InputStream is = null;
+        try {
+            is = new FileInputStream(file);
+            properties.load(is);
+        } catch (IOException e) {
+            LOG.error("Couldn't read test durations from " + file.getAbsolutePath(), e);
+        } finally {
+            IOUtils.closeQuietly(is);
+        }
+
+        for (String testName : properties.stringPropertyNames()) {
+            try {
+                durations.put(testName, Long.parseLong(properties.getProperty(testName).trim()));
+            }
+            catch (NumberFormatException e) {
+                LOG.trace("Incorrect duration for test: " + testName, e);
+            }
+        }
+    }
+
+    public Long getDuration(String testName) {
+        return durations.get(testName);
+    }
+
+    public void recordDuration(String testName, long duration) {
+        if (testName != null) {
+            durations.put(testName, duration);
+        }
+    }
+
+    /**
+     * Sorts tests so that the longest ones come first. Tests without history are put
+     * in front of them as they might be the longest ones. Otherwise the original order is kept
+     */
+    public List<GalenTest> sortLongestFirst(List<GalenTest> tests) {
+        List<GalenTest> sortedTests = new ArrayList<GalenTest>(tests);
+        Collections.sort(sortedTests, new Comparator<GalenTest>() {
+            @Override
+            public int compare(GalenTest left, GalenTest right) {
+                return durationForSorting(right).compareTo(durationForSorting(left));
+            }
+        });
+        return sortedTests;
+    }
+
+    private Long durationForSorting(GalenTest test) {
+        Long duration = test.getName() != null ? durations.get(test.getName()) : null;
+        if (duration == null) {
+            return Long.MAX_VALUE;
+        }
+        return duration;
+    }
+
+    /**
+     * Saves all durations to the file which was given in constructor
+     */
+    public void save() {
+        if (file != null) {
+            Properties properties = new Properties();
+            for (Map.Entry<String, Long> duration : durations.entrySet()) {
+                properties.setProperty(duration.getKey(), duration.getValue().toString());
+            }
+
+            OutputStream os = null;
+            try {
+                File parentDir = file.getAbsoluteFile().getParentFile();
+                if (parentDir != null && !parentDir.exists()) {
+                    parentDir.mkdirs();
+                }
+                os = new FileOutputStream(file);
+                properties.store(os, "Durations of Galen tests in milliseconds");
+            } catch (IOException e) {
+                LOG.error("Couldn't save test durations to " + file.getAbsolutePath(), e);
+            } finally {
+                IOUtils.closeQuietly(os);
+            }
+        }
+    }
+}
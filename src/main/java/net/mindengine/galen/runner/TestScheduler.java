@@ -0,0 +1,105 @@
+/*******************************************************************************
+* Copyright 2015 Ivan Shubin http://mindengine.net
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*   http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.runner;
+
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import net.mindengine.galen.reports.GalenTestInfo;
+import net.mindengine.galen.tests.GalenTest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs tests in a fixed amount of threads and waits until all of them are finished.
+ * When running in parallel the longest tests (based on {@link TestDurationHistory}) are started first.
+ * For each test it records how long it was waiting in the queue and how long it was running.
+ */
+public class TestScheduler {
+
+    private final static Logger LOG = LoggerFactory.getLogger(TestScheduler.class);
+
+    public interface TestExecution {
+        /**
+         * Runs the test with all its retries
+         * @return information about the last run of test
+         */
+        GalenTestInfo execute(GalenTest test);
+    }
+
+    private final int amountOfThreads;
+    private final TestDurationHistory durationHistory;
+
+    public TestScheduler(int amountOfThreads, TestDurationHistory durationHistory) {
+        if (amountOfThreads < 1) {
+            throw new IllegalArgumentException("Amount of threads should be greater than 0");
+        }
+        this.amountOfThreads = amountOfThreads;
+        this.durationHistory = durationHistory;
+    }
+
+    /**
+     * Runs all tests and blocks until they are finished
+     * @return information of all executed tests in the order they were finished
+     */
+    public List<GalenTestInfo> run(List<GalenTest> tests, final TestExecution testExecution) {
+        final List<GalenTestInfo> testInfos = Collections.synchronizedList(new LinkedList<GalenTestInfo>());
+
+        ExecutorService executor = Executors.newFixedThreadPool(amountOfThreads);
+        try {
+            for (final GalenTest test : orderTests(tests)) {
+                final long queuedAt = System.currentTimeMillis();
+
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        long startedAt = System.currentTimeMillis();
+                        GalenTestInfo info = testExecution.execute(test);
+                        long runTime = System.currentTimeMillis() - startedAt;
+
+                        if (info != null) {
+                            info.setQueueWaitTime(startedAt - queuedAt);
+                            info.setRunTime(runTime);
+                            testInfos.add(info);
+                        }
+                        durationHistory.recordDuration(test.getName(), runTime);
+                    }
+                });
+            }
+            executor.shutdown();
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            LOG.error("Interrupted while waiting for tests to finish", e);
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+
+        durationHistory.save();
+        return testInfos;
+    }
+
+    private List<GalenTest> orderTests(List<GalenTest> tests) {
+        if (amountOfThreads > 1) {
+            return durationHistory.sortLongestFirst(tests);
+        }
+        return tests;
+    }
+}
@@ -32,6 +32,7 @@ public class Range {
     private Double from;
     private Double to;
     private String percentageOfValue;
+    private ValuePath percentageOfValuePath;
     private RangeType rangeType = RangeType.BETWEEN;
     
     public enum RangeType {
@@ -144,6 +145,18 @@ public class Range {
     }
     public void setPercentageOfValue(String percentageOfValue) {
         this.percentageOfValue = percentageOfValue;
+        if (percentageOfValue != null && !percentageOfValue.isEmpty()) {
+            this.percentageOfValuePath = ValuePath.parse(percentageOfValue);
+        }
+        else {
+            this.percentageOfValuePath = null;
+        }
+    }
+    /**
+     * Returns the value path parsed from {@link #getPercentageOfValue()} or null if the range is not a percentage
+     */
+    public ValuePath getPercentageOfValuePath() {
+        return percentageOfValuePath;
     }
     public boolean isPercentage() {
         return percentageOfValue != null && !percentageOfValue.isEmpty();
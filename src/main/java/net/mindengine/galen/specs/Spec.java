@@ -19,7 +19,7 @@ import java.util.Properties;
 
 import net.mindengine.galen.specs.reader.Place;
 
-public abstract class Spec {
+public abstract class Spec implements Cloneable {
     private String originalText;
     private Properties properties;
     private Place place;
@@ -89,4 +89,16 @@ public abstract class Spec {
         setAlias(alias);
         return this;
     }
+
+    /**
+     * Creates a shallow copy of the spec. Parsed parameters (e.g. ranges or locations) are shared with the copy
+     * so they should not be modified
+     */
+    public Spec copy() {
+        try {
+            return (Spec) super.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new RuntimeException(e);
+        }
+    }
 }
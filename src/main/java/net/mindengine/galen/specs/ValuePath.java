@@ -0,0 +1,198 @@
+/*******************************************************************************
+* Copyright 2015 Ivan Shubin http://mindengine.net
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*   http://www.apache.org/licenses/LICENSE-2.0
+* 
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.specs;
+
+import static java.lang.String.format;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import net.mindengine.galen.page.PageElement;
+
+/**
+ * A parsed value path of percentage range (e.g. "screen/width" or "button/area/height").
+ * The path is parsed once when the range is read so that validation only has to read an int field of page element.
+ * Syntax errors are not thrown while parsing but kept until the value path is used, so that they are reported
+ * as spec errors the same way as before.
+ */
+public class ValuePath {
+
+    private static final Map<String, Field> FIELDS = new HashMap<String, Field>();
+    static {
+        for (Field field : Field.values()) {
+            FIELDS.put(field.path, field);
+        }
+    }
+
+    private final String path;
+    private final String objectName;
+    private final Field field;
+    private final String pathError;
+    private final String fieldError;
+
+    private ValuePath(String path, String objectName, Field field, String pathError, String fieldError) {
+        this.path = path;
+        this.objectName = objectName;
+        this.field = field;
+        this.pathError = pathError;
+        this.fieldError = fieldError;
+    }
+
+    public static ValuePath parse(String path) {
+        int index = path.indexOf("/");
+        if (index > 0 && index < path.length() - 1) {
+            String objectName = path.substring(0, index);
+            String fieldPath = path.substring(index + 1);
+            Field field = FIELDS.get(fieldPath);
+            if (field != null) {
+                return new ValuePath(path, objectName, field, null, null);
+            }
+            else {
+                return new ValuePath(path, objectName, null, null, fieldError(fieldPath));
+            }
+        }
+        else {
+            return new ValuePath(path, null, null, format("Value path is incorrect %s", path), null);
+        }
+    }
+
+    private static String fieldError(String fieldPath) {
+        String[] names = fieldPath.split("/", -1);
+        String prefix = null;
+        for (String name : names) {
+            if (name.isEmpty()) {
+                return format("Cannot read path %s", fieldPath);
+            }
+            prefix = prefix == null ? name : prefix + "/" + name;
+            if (!FIELDS.containsKey(prefix) && !Field.PARENT_PATHS.contains(prefix)) {
+                return format("Cannot read field: \"%s\"", name);
+            }
+        }
+        return format("Cannot convert value of \"%s\" to integer", fieldPath);
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * Returns the name of object from which the value should be taken
+     * @throws IllegalArgumentException if the path is incorrect
+     */
+    public String getObjectName() {
+        if (pathError != null) {
+            throw new IllegalArgumentException(pathError);
+        }
+        return objectName;
+    }
+
+    /**
+     * Reads the value from the page element of the object returned by {@link #getObjectName()}
+     * @throws IllegalArgumentException if the field can't be read
+     */
+    public int readValue(PageElement pageElement) {
+        if (pathError != null) {
+            throw new IllegalArgumentException(pathError);
+        }
+        if (fieldError != null) {
+            throw new IllegalArgumentException(fieldError);
+        }
+        return field.read(pageElement);
+    }
+
+    @Override
+    public String toString() {
+        return path;
+    }
+
+    private enum Field {
+        WIDTH("width") {
+            @Override
+            int read(PageElement pageElement) {
+                return pageElement.getWidth();
+            }
+        },
+        HEIGHT("height") {
+            @Override
+            int read(PageElement pageElement) {
+                return pageElement.getHeight();
+            }
+        },
+        LEFT("left") {
+            @Override
+            int read(PageElement pageElement) {
+                return pageElement.getLeft();
+            }
+        },
+        TOP("top") {
+            @Override
+            int read(PageElement pageElement) {
+                return pageElement.getTop();
+            }
+        },
+        OFFSET_LEFT("offsetLeft") {
+            @Override
+            int read(PageElement pageElement) {
+                return pageElement.getOffsetLeft();
+            }
+        },
+        OFFSET_TOP("offsetTop") {
+            @Override
+            int read(PageElement pageElement) {
+                return pageElement.getOffsetTop();
+            }
+        },
+        AREA_WIDTH("area/width") {
+            @Override
+            int read(PageElement pageElement) {
+                return pageElement.getArea().getWidth();
+            }
+        },
+        AREA_HEIGHT("area/height") {
+            @Override
+            int read(PageElement pageElement) {
+                return pageElement.getArea().getHeight();
+            }
+        },
+        AREA_LEFT("area/left") {
+            @Override
+            int read(PageElement pageElement) {
+                return pageElement.getArea().getLeft();
+            }
+        },
+        AREA_TOP("area/top") {
+            @Override
+            int read(PageElement pageElement) {
+                return pageElement.getArea().getTop();
+            }
+        };
+
+        /**
+         * Paths which are not numbers themselves but contain numeric fields
+         */
+        private static final Set<String> PARENT_PATHS = Collections.singleton("area");
+
+        private final String path;
+
+        private Field(String path) {
+            this.path = path;
+        }
+
+        abstract int read(PageElement pageElement);
+    }
+}
@@ -35,6 +35,7 @@ import net.mindengine.galen.page.Rect;
 import net.mindengine.galen.parser.*;
 import net.mindengine.galen.specs.*;
 import net.mindengine.galen.specs.colors.ColorRange;
+import net.mindengine.galen.utils.LruCache;
 import net.mindengine.rainbow4j.filters.*;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.tuple.Pair;
@@ -42,29 +43,49 @@ import org.apache.commons.lang3.tuple.Pair;
 public class SpecReader {
     
     private static final Place NULL_PLACE = null;
+    private static final int MAX_PARSED_SPECS = 10000;
+
+    /**
+     * All spec processors in the order they were added. Used only for spec names which do not start with a known keyword
+     */
+    private static final Map<Pattern, SpecProcessor> specsMap = new LinkedHashMap<Pattern, SpecProcessor>();
+
+    /**
+     * Spec processors by the first word of spec name (e.g. "inside" or "left") so that only their patterns are checked
+     */
+    private static final Map<String, Map<Pattern, SpecProcessor>> specsByKeyword = new HashMap<String, Map<Pattern, SpecProcessor>>();
+
+    /**
+     * Parsed specs by their text and context path. Copies of them are returned for the same spec text
+     * so that the same spec line repeated in many places of page specs is parsed only once
+     */
+    private static final LruCache<String, Spec> parsedSpecs = new LruCache<String, Spec>(MAX_PARSED_SPECS);
+
+    static {
+        initSpecs();
+    }
+
     private Properties properties;
-    private Map<Pattern, SpecProcessor> specsMap = new HashMap<Pattern, SpecProcessor>();
 
     public SpecReader(Properties properties) {
-        initSpecs();
         this.properties = properties;
     }
     
-    private void initSpecs() {
+    private static void initSpecs() {
         
-        putSpec("absent", new SimpleSpecProcessor(new SpecInit() {
+        putSpec("absent", "absent", new SimpleSpecProcessor(new SpecInit() {
             public Spec init() {
                 return new SpecAbsent();
             }
         }));
         
-        putSpec("visible", new SimpleSpecProcessor(new SpecInit() {
+        putSpec("visible", "visible", new SimpleSpecProcessor(new SpecInit() {
             public Spec init() {
                 return new SpecVisible();
             }
         }));
         
-        putSpec("contains(\\s+partly)?", new SpecListProccessor(new SpecListInit() {
+        putSpec("contains", "contains(\\s+partly)?", new SpecListProccessor(new SpecListInit() {
             public Spec init(String specName, List<String> list) {
                 String arguments = specName.substring("contains".length()).trim();
                 
@@ -73,19 +94,19 @@ public class SpecReader {
             }
         }));
         
-        putSpec("width", new SpecComplexProcessor(expectThese(range()), new SpecComplexInit() {
+        putSpec("width", "width", new SpecComplexProcessor(expectThese(range()), new SpecComplexInit() {
             public Spec init(String specName, String paramsText, String contextPath, Object[] args) {
                 return new SpecWidth((Range) args[0]);
             }
         }));
         
-        putSpec("height", new SpecComplexProcessor(expectThese(range()), new SpecComplexInit() {
+        putSpec("height", "height", new SpecComplexProcessor(expectThese(range()), new SpecComplexInit() {
             public Spec init(String specName, String paramsText, String contextPath, Object[] args) {
                 return new SpecHeight((Range) args[0]);
             }
         }));
 
-        putSpec("text\\s+.*", new SpecProcessor() {
+        putSpec("text", "text\\s+.*", new SpecProcessor() {
             @Override
             public Spec processSpec(String specName, String paramsText, String contextPath) {
                 String arguments = specName.substring("text".length()).trim();
@@ -102,7 +123,7 @@ public class SpecReader {
             }
         });
 
-        putSpec("css.*", new SpecProcessor() {
+        putSpec("css", "css.*", new SpecProcessor() {
             @Override
             public Spec processSpec(String specName, String paramsText, String contextPath) {
                 String arguments = specName.substring("css".length()).trim();
@@ -122,7 +143,7 @@ public class SpecReader {
             }
         });
         
-        putSpec("inside.*", new SpecComplexProcessor(expectThese(objectName(), locations()), new SpecComplexInit() {
+        putSpec("inside", "inside.*", new SpecComplexProcessor(expectThese(objectName(), locations()), new SpecComplexInit() {
             @SuppressWarnings("unchecked")
             @Override
             public Spec init(String specName, String paramsText, String contextPath, Object[] args) {
@@ -140,7 +161,7 @@ public class SpecReader {
             }
         }));
         
-        putSpec("near", new SpecComplexProcessor(expectThese(objectName(), locations()), new SpecComplexInit() {
+        putSpec("near", "near", new SpecComplexProcessor(expectThese(objectName(), locations()), new SpecComplexInit() {
             @SuppressWarnings("unchecked")
             @Override
             public Spec init(String specName, String paramsText, String contextPath, Object[] args) {
@@ -154,7 +175,7 @@ public class SpecReader {
             }
         }));
         
-        putSpec("(above|below)", new SpecProcessor() {
+        putSpec("above|below", "(above|below)", new SpecProcessor() {
             @Override
             public Spec processSpec(String specName, String paramsText, String contextPath) throws IOException {
 				
@@ -176,7 +197,7 @@ public class SpecReader {
 			}
         });
 
-        putSpec("(left\\s+of|right\\s+of)", new SpecProcessor() {
+        putSpec("left|right", "(left\\s+of|right\\s+of)", new SpecProcessor() {
             @Override
             public Spec processSpec(String specName, String paramsText, String contextPath) throws IOException {
 
@@ -203,7 +224,7 @@ public class SpecReader {
         });
 
         
-        putSpec("aligned\\s+.*", new SpecObjectAndErrorRateProcessor(new SpecObjectAndErrorRateInit() {
+        putSpec("aligned", "aligned\\s+.*", new SpecObjectAndErrorRateProcessor(new SpecObjectAndErrorRateInit() {
             
             @Override
             public Spec init(String specName, String objectName, Integer errorRate) {
@@ -250,7 +271,7 @@ public class SpecReader {
             }
         }));
         
-        putSpec("centered\\s.*", new SpecObjectAndErrorRateProcessor(new SpecObjectAndErrorRateInit() {
+        putSpec("centered", "centered\\s.*", new SpecObjectAndErrorRateProcessor(new SpecObjectAndErrorRateInit() {
             
             @Override
             public Spec init(String specName, String objectName, Integer errorRate) {
@@ -276,7 +297,7 @@ public class SpecReader {
             }
 		}));
         
-        putSpec("(on\\s.*|on)", new SpecComplexProcessor(expectThese(objectName(), locations()), new SpecComplexInit() {
+        putSpec("on", "(on\\s.*|on)", new SpecComplexProcessor(expectThese(objectName(), locations()), new SpecComplexInit() {
             @SuppressWarnings("unchecked")
             @Override
             public Spec init(String specName, String paramsText, String contextPath, Object[] args) {
@@ -328,7 +349,7 @@ public class SpecReader {
             }
         }));
         
-        putSpec("component.*", new SpecProcessor() {
+        putSpec("component", "component.*", new SpecProcessor() {
             
             @Override
             public Spec processSpec(String specName, String paramsText, String contextPath) throws IOException {
@@ -355,7 +376,7 @@ public class SpecReader {
             }
         });
         
-        putSpec("color\\s+scheme", new SpecComplexProcessor(expectThese(colorRanges()), new SpecComplexInit() {
+        putSpec("color", "color\\s+scheme", new SpecComplexProcessor(expectThese(colorRanges()), new SpecComplexInit() {
             @SuppressWarnings("unchecked")
             @Override
             public Spec init(String specName, String paramsText, String contextPath, Object[] args) {
@@ -371,7 +392,7 @@ public class SpecReader {
             }
         }));
 
-        putSpec("image", new SpecComplexProcessor(expectThese(commaSeparatedRepeatedKeyValues()), new SpecComplexInit() {
+        putSpec("image", "image", new SpecComplexProcessor(expectThese(commaSeparatedRepeatedKeyValues()), new SpecComplexInit() {
             @Override
             public Spec init(String specName, String paramsText, String contextPath, Object[] args) {
                 List<Pair<String, String>> parameters = (List<Pair<String, String>>) args[0];
@@ -438,13 +459,13 @@ public class SpecReader {
 
     }
 
-    private String getSecondWord(String text) {
+    private static String getSecondWord(String text) {
         StringCharReader reader = new StringCharReader(text);
         Expectations.word().read(reader);
         return Expectations.word().read(reader);
     }
 
-    private ImageFilter parseImageFilter(String filterText) {
+    private static ImageFilter parseImageFilter(String filterText) {
         StringCharReader reader = new StringCharReader(filterText);
 
         String filterName = new ExpectWord().read(reader);
@@ -468,7 +489,7 @@ public class SpecReader {
         else throw new SyntaxException("Unknown image filter: " + filterName);
     }
 
-    private Rect parseRect(String text) {
+    private static Rect parseRect(String text) {
         Integer[] numbers = new Integer[4];
 
         StringCharReader reader = new StringCharReader(text);
@@ -479,7 +500,7 @@ public class SpecReader {
         return new Rect(numbers);
     }
 
-    private Integer parseIntegerParameter(String name, String value) {
+    private static Integer parseIntegerParameter(String name, String value) {
         if (StringUtils.isNumeric(value)) {
             return Integer.parseInt(value);
         }
@@ -524,22 +545,70 @@ public class SpecReader {
     }
 
     private Spec readSpecWithParams(String specName, String paramsText, String contextPath) throws IOException {
-        return findMatchingSpec(specName).processSpec(specName, paramsText, contextPath); 
+        // approximate ranges ("~ 100px") depend on the range approximation from config
+        String key = GalenConfig.getConfig().getRangeApproximation() + "\n" + contextPath + "\n" + specName + "\n" + paramsText;
+        Spec parsedSpec = parsedSpecs.get(key);
+        if (parsedSpec == null) {
+            parsedSpec = findMatchingSpec(specName).processSpec(specName, paramsText, contextPath);
+            // image specs take default tolerance and error rate from config so they are always parsed again
+            if (parsedSpec == null || parsedSpec instanceof SpecImage) {
+                return parsedSpec;
+            }
+            parsedSpecs.put(key, parsedSpec);
+        }
+        return parsedSpec.copy();
     }
 
-    private SpecProcessor findMatchingSpec(String specName) {
-        
-        for (Map.Entry<Pattern, SpecProcessor> entry : specsMap.entrySet()) {
+    private static SpecProcessor findMatchingSpec(String specName) {
+        Map<Pattern, SpecProcessor> keywordSpecs = specsByKeyword.get(firstWord(specName));
+        if (keywordSpecs != null) {
+            SpecProcessor specProcessor = findMatchingSpec(keywordSpecs, specName);
+            if (specProcessor != null) {
+                return specProcessor;
+            }
+        }
+
+        SpecProcessor specProcessor = findMatchingSpec(specsMap, specName);
+        if (specProcessor != null) {
+            return specProcessor;
+        }
+        throw new SyntaxException(UNKNOWN_LINE, "Such constraint does not exist: " + specName);
+    }
+
+    private static SpecProcessor findMatchingSpec(Map<Pattern, SpecProcessor> specs, String specName) {
+        for (Map.Entry<Pattern, SpecProcessor> entry : specs.entrySet()) {
             Matcher matcher = entry.getKey().matcher(specName);
             if (matcher.matches()) {
                 return entry.getValue();
             }
         }
-        throw new SyntaxException(UNKNOWN_LINE, "Such constraint does not exist: " + specName);
+        return null;
     }
 
-    private void putSpec(String patternText, SpecProcessor specProcessor) {
-        specsMap.put(Pattern.compile(patternText), specProcessor);
+    private static String firstWord(String specName) {
+        for (int i = 0; i < specName.length(); i++) {
+            if (Character.isWhitespace(specName.charAt(i))) {
+                return specName.substring(0, i);
+            }
+        }
+        return specName;
+    }
+
+    /**
+     * @param keywords - first words of spec names that are matched by the pattern separated with "|"
+     */
+    private static void putSpec(String keywords, String patternText, SpecProcessor specProcessor) {
+        Pattern pattern = Pattern.compile(patternText);
+        specsMap.put(pattern, specProcessor);
+
+        for (String keyword : keywords.split("\\|")) {
+            Map<Pattern, SpecProcessor> keywordSpecs = specsByKeyword.get(keyword);
+            if (keywordSpecs == null) {
+                keywordSpecs = new LinkedHashMap<Pattern, SpecProcessor>();
+                specsByKeyword.put(keyword, keywordSpecs);
+            }
+            keywordSpecs.put(pattern, specProcessor);
+        }
     }
 
     public Properties getProperties() {
@@ -0,0 +1,1293 @@
+/*******************************************************************************
+* Copyright 2015 Ivan Shubin http://mindengine.net
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*   http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.specs.reader.page;
+
+import java.awt.Color;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+
+import net.mindengine.galen.config.GalenConfig;
+import net.mindengine.galen.page.Rect;
+import net.mindengine.galen.specs.Alignment;
+import net.mindengine.galen.specs.Location;
+import net.mindengine.galen.specs.Range;
+import net.mindengine.galen.specs.Side;
+import net.mindengine.galen.specs.Spec;
+import net.mindengine.galen.specs.SpecAbove;
+import net.mindengine.galen.specs.SpecAbsent;
+import net.mindengine.galen.specs.SpecAligned;
+import net.mindengine.galen.specs.SpecBelow;
+import net.mindengine.galen.specs.SpecCentered;
+import net.mindengine.galen.specs.SpecColorScheme;
+import net.mindengine.galen.specs.SpecComplex;
+import net.mindengine.galen.specs.SpecComponent;
+import net.mindengine.galen.specs.SpecContains;
+import net.mindengine.galen.specs.SpecCss;
+import net.mindengine.galen.specs.SpecDirectionPosition;
+import net.mindengine.galen.specs.SpecHeight;
+import net.mindengine.galen.specs.SpecHorizontally;
+import net.mindengine.galen.specs.SpecImage;
+import net.mindengine.galen.specs.SpecInside;
+import net.mindengine.galen.specs.SpecLeftOf;
+import net.mindengine.galen.specs.SpecNear;
+import net.mindengine.galen.specs.SpecOn;
+import net.mindengine.galen.specs.SpecRange;
+import net.mindengine.galen.specs.SpecRightOf;
+import net.mindengine.galen.specs.SpecText;
+import net.mindengine.galen.specs.SpecVertically;
+import net.mindengine.galen.specs.SpecVisible;
+import net.mindengine.galen.specs.SpecWidth;
+import net.mindengine.galen.specs.colors.ColorRange;
+import net.mindengine.galen.specs.page.ConditionalBlock;
+import net.mindengine.galen.specs.page.ConditionalBlockStatement;
+import net.mindengine.galen.specs.page.CorrectionsRect;
+import net.mindengine.galen.specs.page.Locator;
+import net.mindengine.galen.specs.page.ObjectSpecs;
+import net.mindengine.galen.specs.page.PageSection;
+import net.mindengine.galen.specs.page.SpecGroup;
+import net.mindengine.galen.specs.reader.Place;
+import net.mindengine.galen.utils.GalenUtils;
+import net.mindengine.rainbow4j.filters.BlurFilter;
+import net.mindengine.rainbow4j.filters.ContrastFilter;
+import net.mindengine.rainbow4j.filters.DenoiseFilter;
+import net.mindengine.rainbow4j.filters.ImageFilter;
+import net.mindengine.rainbow4j.filters.QuantinizeFilter;
+import net.mindengine.rainbow4j.filters.SaturationFilter;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Page spec which was parsed by "galen compile-specs" and stored in a binary file next to the spec file
+ * (e.g. "homepage.spec.compiled"). The file contains content hashes of all spec and javascript files
+ * that were read together with the spec, so the compiled form is used only as long as none of them was changed.
+ * Specs using page dependent js functions (find, findAll, count) are stored as dynamic without any content
+ * and are always parsed again. This is decided for the whole file: a single use of these functions
+ * in any of its sections or imported specs makes the spec dynamic.
+ * Objects, sections, places and all fields of parsed specs are stored as they are, so loading doesn't parse
+ * anything. As ranges with "~" and default tolerance and error rate of image specs are taken from config
+ * while parsing, the compiled form is also dropped once these config values are changed.
+ */
+public class CompiledPageSpec {
+
+    public static final String FILE_SUFFIX = ".compiled";
+
+    private static final int MAGIC = 0x47534350;
+    private static final int FORMAT_VERSION = 3;
+
+    private static final int SPEC_VISIBLE = 0;
+    private static final int SPEC_ABSENT = 1;
+    private static final int SPEC_CONTAINS = 2;
+    private static final int SPEC_WIDTH = 3;
+    private static final int SPEC_HEIGHT = 4;
+    private static final int SPEC_TEXT = 5;
+    private static final int SPEC_CSS = 6;
+    private static final int SPEC_INSIDE = 7;
+    private static final int SPEC_NEAR = 8;
+    private static final int SPEC_ON = 9;
+    private static final int SPEC_ABOVE = 10;
+    private static final int SPEC_BELOW = 11;
+    private static final int SPEC_LEFT_OF = 12;
+    private static final int SPEC_RIGHT_OF = 13;
+    private static final int SPEC_HORIZONTALLY = 14;
+    private static final int SPEC_VERTICALLY = 15;
+    private static final int SPEC_CENTERED = 16;
+    private static final int SPEC_COLOR_SCHEME = 17;
+    private static final int SPEC_IMAGE = 18;
+    private static final int SPEC_COMPONENT = 19;
+
+    private static final int SECTION_PLAIN = 0;
+    private static final int SECTION_TAGGED = 1;
+
+    private final Map<String, String> inputFiles;
+    private final Map<String, String> usedProperties;
+    private final Map<String, String> allProperties;
+    private final Map<String, String> definedProperties;
+    private final List<String> importedFileIds;
+    private final boolean usesJavascript;
+    private final PageSpec pageSpec;
+
+    private CompiledPageSpec(Map<String, String> inputFiles, Map<String, String> usedProperties, Map<String, String> allProperties,
+                             Map<String, String> definedProperties, List<String> importedFileIds, boolean usesJavascript, PageSpec pageSpec) {
+        this.inputFiles = inputFiles;
+        this.usedProperties = usedProperties;
+        this.allProperties = allProperties;
+        this.definedProperties = definedProperties;
+        this.importedFileIds = importedFileIds;
+        this.usesJavascript = usesJavascript;
+        this.pageSpec = pageSpec;
+    }
+
+    /**
+     * Parses the spec file without a page and stores it next to the spec file
+     * @param specPath - path to spec file
+     * @param properties - properties with which the spec should be read. They are not modified
+     */
+    public static CompiledPageSpec compile(String specPath, Properties properties) throws IOException {
+        RecordingProperties readProperties = new RecordingProperties();
+        if (properties != null) {
+            readProperties.putAll(properties);
+        }
+        Map<String, String> initialProperties = PageSpecCache.toMap(readProperties);
+        readProperties.startRecording();
+
+        PageSpecReader reader = new PageSpecReader(readProperties, null);
+        reader.setLoadCompiledSpecs(false);
+
+        PageSpec pageSpec = null;
+        try {
+            pageSpec = reader.read(specPath);
+        }
+        catch (RuntimeException ex) {
+            if (!reader.hasUsedPageFunctions()) {
+                throw ex;
+            }
+        }
+        readProperties.stopRecording();
+
+        // properties which are found neither in spec properties nor in system properties are taken from javascript
+        boolean usesJavascript = readProperties.getUsedProperties().containsValue(null);
+        Map<String, String> inputFiles = new LinkedHashMap<String, String>();
+        for (String filePath : reader.getLoadedFiles()) {
+            inputFiles.put(filePath, calculateContentHash(filePath));
+            usesJavascript = usesJavascript || filePath.endsWith(".js");
+        }
+
+        CompiledPageSpec compiledPageSpec = new CompiledPageSpec(inputFiles, readProperties.getUsedProperties(),
+                readProperties.isReadEntirely() ? initialProperties : null,
+                PageSpecCache.findDefinedProperties(initialProperties, readProperties),
+                new ArrayList<String>(reader.getProcessedFileIds()), usesJavascript,
+                reader.hasUsedPageFunctions() ? null : pageSpec);
+        compiledPageSpec.write(compiledFileFor(specPath), readProperties);
+        return compiledPageSpec;
+    }
+
+    /**
+     * Loads compiled form of the spec if it exists, all properties the spec has read while compiling
+     * still have the same values and all files it was read from are still the same
+     * @return compiled spec or null if the spec should be parsed
+     */
+    public static CompiledPageSpec load(String specPath, Properties properties) throws IOException {
+        File file = compiledFileFor(specPath);
+        if (!file.isFile()) {
+            return null;
+        }
+
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+        try {
+            return new Reader(in).readCompiledSpec(properties);
+        }
+        finally {
+            IOUtils.closeQuietly(in);
+        }
+    }
+
+    /**
+     * @return paths of all spec files inside the folder and its sub-folders
+     */
+    public static List<String> findSpecFiles(File folder) {
+        List<String> specFiles = new LinkedList<String>();
+        File[] files = folder.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (file.isDirectory()) {
+                    specFiles.addAll(findSpecFiles(file));
+                }
+                else if (file.getName().endsWith(".spec")) {
+                    specFiles.add(file.getPath());
+                }
+            }
+        }
+        Collections.sort(specFiles);
+        return specFiles;
+    }
+
+    public static File compiledFileFor(String specPath) {
+        return new File(specPath + FILE_SUFFIX);
+    }
+
+    /**
+     * @return true if the spec uses page dependent js functions and has to be parsed for every page
+     */
+    public boolean isDynamic() {
+        return pageSpec == null;
+    }
+
+    public PageSpec getPageSpec() {
+        return pageSpec;
+    }
+
+    /**
+     * @return paths of spec and javascript files the spec was read from together with hashes of their content
+     */
+    public Map<String, String> getInputFiles() {
+        return inputFiles;
+    }
+
+    /**
+     * @return ids of spec files which were imported by the spec (see {@link GalenUtils#calculateFileId(String)})
+     */
+    public List<String> getImportedFileIds() {
+        return importedFileIds;
+    }
+
+    /**
+     * @return true if the spec has run any javascript, so the javascript state it leaves
+     * could be used by other specs read after it
+     */
+    public boolean usesJavascript() {
+        return usesJavascript;
+    }
+
+    /**
+     * @return properties that were set in spec (e.g. with "@@ set")
+     */
+    public Map<String, String> getDefinedProperties() {
+        return definedProperties;
+    }
+
+    private static String calculateContentHash(String filePath) throws IOException {
+        InputStream is = GalenUtils.findFileOrResourceAsStream(filePath);
+        if (is == null) {
+            return null;
+        }
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-1");
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = is.read(buffer)) > 0) {
+                md.update(buffer, 0, read);
+            }
+
+            StringBuilder hash = new StringBuilder();
+            for (byte b : md.digest()) {
+                hash.append(String.format("%02x", b));
+            }
+            return hash.toString();
+        }
+        catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+        finally {
+            IOUtils.closeQuietly(is);
+        }
+    }
+
+    /**
+     * Takes the value of a property the same way as it is done in {@link net.mindengine.galen.parser.VarsParser}
+     */
+    private static String readPropertyValue(Properties properties, String name) {
+        String value = properties.getProperty(name);
+        if (value == null) {
+            value = System.getProperty(name);
+        }
+        return value;
+    }
+
+    private static String describeParsingConfig() {
+        GalenConfig config = GalenConfig.getConfig();
+        SpecImage.ErrorRate errorRate = config.getImageSpecDefaultErrorRate();
+        return config.getRangeApproximation() + ";" + config.getImageSpecDefaultTolerance()
+                + ";" + errorRate.getValue() + errorRate.getType();
+    }
+
+    private void write(File file, Properties readerProperties) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+        try {
+            new Writer(out, readerProperties).writeCompiledSpec(this);
+        }
+        finally {
+            IOUtils.closeQuietly(out);
+        }
+    }
+
+
+    /**
+     * Writes strings only once, every next occurrence of the same string is written as its index
+     */
+    private static class Writer {
+        private final DataOutputStream out;
+        private final Properties readerProperties;
+        private final Map<String, Integer> strings = new HashMap<String, Integer>();
+
+        private Writer(DataOutputStream out, Properties readerProperties) {
+            this.out = out;
+            this.readerProperties = readerProperties;
+        }
+
+        void writeCompiledSpec(CompiledPageSpec compiledPageSpec) throws IOException {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            writeString(describeParsingConfig());
+            writeMap(compiledPageSpec.inputFiles);
+            writeMap(compiledPageSpec.usedProperties);
+            writeMap(compiledPageSpec.allProperties);
+            writeMap(compiledPageSpec.definedProperties);
+            writeStrings(compiledPageSpec.importedFileIds);
+            out.writeBoolean(compiledPageSpec.usesJavascript);
+
+            PageSpec pageSpec = compiledPageSpec.pageSpec;
+            out.writeBoolean(pageSpec == null);
+            if (pageSpec != null) {
+                writeLocators(pageSpec.getObjects());
+                writeLocators(pageSpec.getMultiObjects());
+                out.writeInt(pageSpec.getSections().size());
+                for (TaggedPageSection section : pageSpec.getSections()) {
+                    writeSection(section);
+                }
+            }
+        }
+
+        private void writeSection(PageSection section) throws IOException {
+            if (section instanceof TaggedPageSection) {
+                TaggedPageSection taggedSection = (TaggedPageSection) section;
+                out.writeByte(SECTION_TAGGED);
+                writeStrings(taggedSection.getTags());
+
+                List<ConditionalBlock> conditionalBlocks = taggedSection.getConditionalBlocks();
+                out.writeInt(conditionalBlocks != null ? conditionalBlocks.size() : -1);
+                if (conditionalBlocks != null) {
+                    for (ConditionalBlock conditionalBlock : conditionalBlocks) {
+                        writeConditionalBlock(conditionalBlock);
+                    }
+                }
+            }
+            else {
+                out.writeByte(SECTION_PLAIN);
+            }
+
+            writeString(section.getName());
+            writeObjects(section.getObjects());
+
+            List<PageSection> subSections = section.getSections();
+            out.writeInt(subSections != null ? subSections.size() : -1);
+            if (subSections != null) {
+                for (PageSection subSection : subSections) {
+                    writeSection(subSection);
+                }
+            }
+        }
+
+        private void writeConditionalBlock(ConditionalBlock conditionalBlock) throws IOException {
+            List<ConditionalBlockStatement> statements = conditionalBlock.getStatements();
+            out.writeInt(statements != null ? statements.size() : -1);
+            if (statements != null) {
+                for (ConditionalBlockStatement statement : statements) {
+                    out.writeBoolean(statement.isInverted());
+                    writeOptionalSection(statement.getSection());
+                }
+            }
+            writeOptionalSection(conditionalBlock.getBodyObjects());
+            writeOptionalSection(conditionalBlock.getOtherwiseObjects());
+        }
+
+        private void writeOptionalSection(PageSection section) throws IOException {
+            out.writeBoolean(section != null);
+            if (section != null) {
+                writeSection(section);
+            }
+        }
+
+        private void writeObjects(List<ObjectSpecs> objects) throws IOException {
+            out.writeInt(objects != null ? objects.size() : -1);
+            if (objects != null) {
+                for (ObjectSpecs objectSpecs : objects) {
+                    writeString(objectSpecs.getObjectName());
+                    writeSpecs(objectSpecs.getSpecs());
+
+                    List<SpecGroup> specGroups = objectSpecs.getSpecGroups();
+                    out.writeInt(specGroups != null ? specGroups.size() : -1);
+                    if (specGroups != null) {
+                        for (SpecGroup specGroup : specGroups) {
+                            writeString(specGroup.getName());
+                            writeSpecs(specGroup.getSpecs());
+                        }
+                    }
+                }
+            }
+        }
+
+        private void writeSpecs(List<Spec> specs) throws IOException {
+            out.writeInt(specs != null ? specs.size() : -1);
+            if (specs != null) {
+                for (Spec spec : specs) {
+                    writeSpec(spec);
+                }
+            }
+        }
+
+        private void writeSpec(Spec spec) throws IOException {
+            Class<?> specType = spec.getClass();
+            if (specType == SpecVisible.class) {
+                out.writeByte(SPEC_VISIBLE);
+            }
+            else if (specType == SpecAbsent.class) {
+                out.writeByte(SPEC_ABSENT);
+            }
+            else if (specType == SpecContains.class) {
+                out.writeByte(SPEC_CONTAINS);
+                writeStrings(((SpecContains) spec).getChildObjects());
+                out.writeBoolean(((SpecContains) spec).isPartly());
+            }
+            else if (specType == SpecWidth.class || specType == SpecHeight.class) {
+                out.writeByte(specType == SpecWidth.class ? SPEC_WIDTH : SPEC_HEIGHT);
+                writeRange(((SpecRange) spec).getRange());
+            }
+            else if (specType == SpecText.class) {
+                out.writeByte(SPEC_TEXT);
+                writeSpecText((SpecText) spec);
+            }
+            else if (specType == SpecCss.class) {
+                out.writeByte(SPEC_CSS);
+                writeString(((SpecCss) spec).getCssPropertyName());
+                writeSpecText((SpecCss) spec);
+            }
+            else if (specType == SpecInside.class) {
+                out.writeByte(SPEC_INSIDE);
+                writeSpecComplex((SpecComplex) spec);
+                out.writeBoolean(((SpecInside) spec).getPartly());
+            }
+            else if (specType == SpecNear.class) {
+                out.writeByte(SPEC_NEAR);
+                writeSpecComplex((SpecComplex) spec);
+            }
+            else if (specType == SpecOn.class) {
+                out.writeByte(SPEC_ON);
+                writeSpecComplex((SpecComplex) spec);
+                writeEnum(((SpecOn) spec).getSideHorizontal());
+                writeEnum(((SpecOn) spec).getSideVertical());
+            }
+            else if (specType == SpecAbove.class || specType == SpecBelow.class
+                    || specType == SpecLeftOf.class || specType == SpecRightOf.class) {
+                out.writeByte(specType == SpecAbove.class ? SPEC_ABOVE
+                        : specType == SpecBelow.class ? SPEC_BELOW
+                        : specType == SpecLeftOf.class ? SPEC_LEFT_OF : SPEC_RIGHT_OF);
+                writeString(((SpecDirectionPosition) spec).getObject());
+                writeRange(((SpecDirectionPosition) spec).getRange());
+            }
+            else if (specType == SpecHorizontally.class || specType == SpecVertically.class) {
+                out.writeByte(specType == SpecHorizontally.class ? SPEC_HORIZONTALLY : SPEC_VERTICALLY);
+                writeString(((SpecAligned) spec).getObject());
+                writeEnum(((SpecAligned) spec).getAlignment());
+                out.writeInt(((SpecAligned) spec).getErrorRate());
+            }
+            else if (specType == SpecCentered.class) {
+                out.writeByte(SPEC_CENTERED);
+                writeString(((SpecCentered) spec).getObject());
+                writeEnum(((SpecCentered) spec).getAlignment());
+                writeEnum(((SpecCentered) spec).getLocation());
+                out.writeInt(((SpecCentered) spec).getErrorRate());
+            }
+            else if (specType == SpecColorScheme.class) {
+                out.writeByte(SPEC_COLOR_SCHEME);
+                writeColorRanges(((SpecColorScheme) spec).getColorRanges());
+            }
+            else if (specType == SpecImage.class) {
+                out.writeByte(SPEC_IMAGE);
+                writeSpecImage((SpecImage) spec);
+            }
+            else if (specType == SpecComponent.class) {
+                out.writeByte(SPEC_COMPONENT);
+                writeString(((SpecComponent) spec).getSpecPath());
+                out.writeBoolean(((SpecComponent) spec).isFrame());
+            }
+            else {
+                throw new IllegalArgumentException("Can't compile spec: " + specType.getName());
+            }
+
+            writeString(spec.getOriginalText());
+            writeString(spec.getAlias());
+            out.writeBoolean(spec.isOnlyWarn());
+            writePlace(spec.getPlace());
+
+            // specs created in javascript rules are read with their own empty properties
+            boolean readerProperties = spec.getProperties() == this.readerProperties;
+            out.writeBoolean(readerProperties);
+            if (!readerProperties) {
+                writeMap(spec.getProperties() != null ? PageSpecCache.toMap(spec.getProperties()) : null);
+            }
+        }
+
+        private void writeSpecText(SpecText spec) throws IOException {
+            writeEnum(spec.getType());
+            writeString(spec.getText());
+            writeStrings(spec.getOperations());
+        }
+
+        private void writeSpecComplex(SpecComplex spec) throws IOException {
+            writeString(spec.getObject());
+
+            List<Location> locations = spec.getLocations();
+            out.writeInt(locations != null ? locations.size() : -1);
+            if (locations != null) {
+                for (Location location : locations) {
+                    writeRange(location.getRange());
+
+                    List<Side> sides = location.getSides();
+                    out.writeInt(sides != null ? sides.size() : -1);
+                    if (sides != null) {
+                        for (Side side : sides) {
+                            writeEnum(side);
+                        }
+                    }
+                }
+            }
+        }
+
+        private void writeColorRanges(List<ColorRange> colorRanges) throws IOException {
+            out.writeInt(colorRanges != null ? colorRanges.size() : -1);
+            if (colorRanges != null) {
+                for (ColorRange colorRange : colorRanges) {
+                    out.writeBoolean(colorRange.getColor() != null);
+                    if (colorRange.getColor() != null) {
+                        out.writeInt(colorRange.getColor().getRGB());
+                    }
+                    writeRange(colorRange.getRange());
+                }
+            }
+        }
+
+        private void writeRange(Range range) throws IOException {
+            out.writeBoolean(range != null);
+            if (range != null) {
+                writeOptionalDouble(range.getFrom());
+                writeOptionalDouble(range.getTo());
+                writeString(range.getPercentageOfValue());
+                writeEnum(range.getRangeType());
+            }
+        }
+
+        private void writeEnum(Enum<?> value) throws IOException {
+            writeString(value != null ? value.name() : null);
+        }
+
+        private void writeSpecImage(SpecImage spec) throws IOException {
+            writeStrings(spec.getImagePaths());
+
+            SpecImage.ErrorRate errorRate = spec.getErrorRate();
+            out.writeBoolean(errorRate != null);
+            if (errorRate != null) {
+                writeOptionalDouble(errorRate.getValue());
+                writeString(errorRate.getType() != null ? errorRate.getType().name() : null);
+            }
+
+            out.writeBoolean(spec.getTolerance() != null);
+            if (spec.getTolerance() != null) {
+                out.writeInt(spec.getTolerance());
+            }
+
+            writeFilters(spec.getOriginalFilters());
+            writeFilters(spec.getSampleFilters());
+            writeFilters(spec.getMapFilters());
+
+            Rect selectedArea = spec.getSelectedArea();
+            out.writeBoolean(selectedArea != null);
+            if (selectedArea != null) {
+                out.writeInt(selectedArea.getLeft());
+                out.writeInt(selectedArea.getTop());
+                out.writeInt(selectedArea.getWidth());
+                out.writeInt(selectedArea.getHeight());
+            }
+            out.writeBoolean(spec.isStretch());
+            out.writeBoolean(spec.isCropIfOutside());
+        }
+
+        private void writeFilters(List<ImageFilter> filters) throws IOException {
+            out.writeInt(filters != null ? filters.size() : -1);
+            if (filters != null) {
+                for (ImageFilter filter : filters) {
+                    if (filter instanceof BlurFilter) {
+                        writeString("blur");
+                        out.writeInt(((BlurFilter) filter).getRadius());
+                    }
+                    else if (filter instanceof DenoiseFilter) {
+                        writeString("denoise");
+                        out.writeInt(((DenoiseFilter) filter).getRadius());
+                    }
+                    else if (filter instanceof SaturationFilter) {
+                        writeString("saturation");
+                        out.writeInt(((SaturationFilter) filter).getLevel());
+                    }
+                    else if (filter instanceof ContrastFilter) {
+                        writeString("contrast");
+                        out.writeInt(((ContrastFilter) filter).getLevel());
+                    }
+                    else if (filter instanceof QuantinizeFilter) {
+                        writeString("quantinize");
+                        out.writeInt(((QuantinizeFilter) filter).getColorsAmount());
+                    }
+                    else {
+                        throw new IllegalArgumentException("Can't compile image filter: " + filter.getClass().getName());
+                    }
+                }
+            }
+        }
+
+        private void writeOptionalDouble(Double value) throws IOException {
+            out.writeBoolean(value != null);
+            if (value != null) {
+                out.writeDouble(value);
+            }
+        }
+
+        private void writePlace(Place place) throws IOException {
+            out.writeBoolean(place != null);
+            if (place != null) {
+                writeString(place.getFilePath());
+                out.writeInt(place.getLineNumber());
+            }
+        }
+
+        private void writeLocators(Map<String, Locator> locators) throws IOException {
+            out.writeInt(locators.size());
+            for (Map.Entry<String, Locator> locator : locators.entrySet()) {
+                writeString(locator.getKey());
+                writeLocator(locator.getValue());
+            }
+        }
+
+        private void writeLocator(Locator locator) throws IOException {
+            writeString(locator.getLocatorType());
+            writeString(locator.getLocatorValue());
+            out.writeInt(locator.getIndex());
+
+            CorrectionsRect corrections = locator.getCorrections();
+            out.writeBoolean(corrections != null);
+            if (corrections != null) {
+                writeCorrection(corrections.getLeft());
+                writeCorrection(corrections.getTop());
+                writeCorrection(corrections.getWidth());
+                writeCorrection(corrections.getHeight());
+            }
+        }
+
+        private void writeCorrection(CorrectionsRect.Correction correction) throws IOException {
+            out.writeBoolean(correction != null);
+            if (correction != null) {
+                out.writeInt(correction.getValue());
+                writeString(correction.getType().name());
+            }
+        }
+
+        private void writeMap(Map<String, String> map) throws IOException {
+            out.writeInt(map != null ? map.size() : -1);
+            if (map != null) {
+                for (Map.Entry<String, String> entry : map.entrySet()) {
+                    writeString(entry.getKey());
+                    writeString(entry.getValue());
+                }
+            }
+        }
+
+        private void writeStrings(List<String> list) throws IOException {
+            out.writeInt(list != null ? list.size() : -1);
+            if (list != null) {
+                for (String text : list) {
+                    writeString(text);
+                }
+            }
+        }
+
+        private void writeString(String text) throws IOException {
+            if (text == null) {
+                out.writeInt(-1);
+            }
+            else {
+                Integer index = strings.get(text);
+                if (index != null) {
+                    out.writeInt(index);
+                }
+                else {
+                    index = strings.size();
+                    strings.put(text, index);
+                    out.writeInt(index);
+
+                    byte[] bytes = text.getBytes("UTF-8");
+                    out.writeInt(bytes.length);
+                    out.write(bytes);
+                }
+            }
+        }
+    }
+
+
+    private static class Reader {
+        private final DataInputStream in;
+        private final List<String> strings = new ArrayList<String>();
+        private Properties readerProperties;
+
+        private Reader(DataInputStream in) {
+            this.in = in;
+        }
+
+        CompiledPageSpec readCompiledSpec(Properties readerProperties) throws IOException {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                return null;
+            }
+            if (!describeParsingConfig().equals(readString())) {
+                return null;
+            }
+
+            Map<String, String> inputFiles = readMap();
+            for (Map.Entry<String, String> inputFile : inputFiles.entrySet()) {
+                String hash = calculateContentHash(inputFile.getKey());
+                if (hash == null || !hash.equals(inputFile.getValue())) {
+                    return null;
+                }
+            }
+
+            Map<String, String> usedProperties = readMap();
+            for (Map.Entry<String, String> usedProperty : usedProperties.entrySet()) {
+                if (!StringUtils.equals(usedProperty.getValue(), readPropertyValue(readerProperties, usedProperty.getKey()))) {
+                    return null;
+                }
+            }
+            Map<String, String> allProperties = readMap();
+            if (allProperties != null && !allProperties.equals(PageSpecCache.toMap(readerProperties))) {
+                return null;
+            }
+            Map<String, String> definedProperties = readMap();
+            List<String> importedFileIds = readStrings();
+            boolean usesJavascript = in.readBoolean();
+
+            boolean dynamic = in.readBoolean();
+            if (dynamic) {
+                return new CompiledPageSpec(inputFiles, usedProperties, allProperties, definedProperties, importedFileIds, usesJavascript, null);
+            }
+
+            this.readerProperties = readerProperties;
+
+            PageSpec pageSpec = new PageSpec();
+            pageSpec.setObjects(readLocators(new TreeMap<String, Locator>()));
+            pageSpec.setMultiObjects(readLocators(new HashMap<String, Locator>()));
+            int sectionsCount = in.readInt();
+            for (int i = 0; i < sectionsCount; i++) {
+                pageSpec.addSection((TaggedPageSection) readSection());
+            }
+            return new CompiledPageSpec(inputFiles, usedProperties, allProperties, definedProperties, importedFileIds, usesJavascript, pageSpec);
+        }
+
+        private PageSection readSection() throws IOException {
+            PageSection section;
+            if (in.readByte() == SECTION_TAGGED) {
+                TaggedPageSection taggedSection = new TaggedPageSection();
+                taggedSection.setTags(readStrings());
+
+                int conditionalBlocksCount = in.readInt();
+                if (conditionalBlocksCount >= 0) {
+                    List<ConditionalBlock> conditionalBlocks = new LinkedList<ConditionalBlock>();
+                    for (int i = 0; i < conditionalBlocksCount; i++) {
+                        conditionalBlocks.add(readConditionalBlock());
+                    }
+                    taggedSection.setConditionalBlocks(conditionalBlocks);
+                }
+                section = taggedSection;
+            }
+            else {
+                section = new PageSection();
+            }
+
+            section.setName(readString());
+            section.setObjects(readObjects());
+
+            int subSectionsCount = in.readInt();
+            if (subSectionsCount >= 0) {
+                List<PageSection> subSections = new LinkedList<PageSection>();
+                for (int i = 0; i < subSectionsCount; i++) {
+                    subSections.add(readSection());
+                }
+                section.setSections(subSections);
+            }
+            else {
+                section.setSections(null);
+            }
+            return section;
+        }
+
+        private ConditionalBlock readConditionalBlock() throws IOException {
+            ConditionalBlock conditionalBlock = new ConditionalBlock();
+
+            int statementsCount = in.readInt();
+            if (statementsCount >= 0) {
+                List<ConditionalBlockStatement> statements = new LinkedList<ConditionalBlockStatement>();
+                for (int i = 0; i < statementsCount; i++) {
+                    ConditionalBlockStatement statement = new ConditionalBlockStatement();
+                    statement.setInverted(in.readBoolean());
+                    statement.setSection(readOptionalSection());
+                    statements.add(statement);
+                }
+                conditionalBlock.setStatements(statements);
+            }
+            conditionalBlock.setBodyObjects(readOptionalSection());
+            conditionalBlock.setOtherwiseObjects(readOptionalSection());
+            return conditionalBlock;
+        }
+
+        private PageSection readOptionalSection() throws IOException {
+            if (in.readBoolean()) {
+                return readSection();
+            }
+            return null;
+        }
+
+        private List<ObjectSpecs> readObjects() throws IOException {
+            int objectsCount = in.readInt();
+            if (objectsCount < 0) {
+                return null;
+            }
+
+            List<ObjectSpecs> objects = new LinkedList<ObjectSpecs>();
+            for (int i = 0; i < objectsCount; i++) {
+                ObjectSpecs objectSpecs = new ObjectSpecs(readString());
+                objectSpecs.setSpecs(readSpecs());
+
+                int specGroupsCount = in.readInt();
+                if (specGroupsCount >= 0) {
+                    List<SpecGroup> specGroups = new LinkedList<SpecGroup>();
+                    for (int j = 0; j < specGroupsCount; j++) {
+                        SpecGroup specGroup = new SpecGroup();
+                        specGroup.setName(readString());
+                        specGroup.setSpecs(readSpecs());
+                        specGroups.add(specGroup);
+                    }
+                    objectSpecs.setSpecGroups(specGroups);
+                }
+                else {
+                    objectSpecs.setSpecGroups(null);
+                }
+                objects.add(objectSpecs);
+            }
+            return objects;
+        }
+
+        private List<Spec> readSpecs() throws IOException {
+            int specsCount = in.readInt();
+            if (specsCount < 0) {
+                return null;
+            }
+
+            List<Spec> specs = new LinkedList<Spec>();
+            for (int i = 0; i < specsCount; i++) {
+                specs.add(readSpec());
+            }
+            return specs;
+        }
+
+        private Spec readSpec() throws IOException {
+            Spec spec = readSpecFields(in.readByte());
+
+            spec.setOriginalText(readString());
+            spec.setAlias(readString());
+            spec.setOnlyWarn(in.readBoolean());
+            spec.setPlace(readPlace());
+
+            if (in.readBoolean()) {
+                spec.setProperties(readerProperties);
+            }
+            else {
+                spec.setProperties(toProperties(readMap()));
+            }
+            return spec;
+        }
+
+        private Spec readSpecFields(int specType) throws IOException {
+            switch (specType) {
+            case SPEC_VISIBLE:
+                return new SpecVisible();
+            case SPEC_ABSENT:
+                return new SpecAbsent();
+            case SPEC_CONTAINS:
+                List<String> childObjects = readStrings();
+                return new SpecContains(childObjects, in.readBoolean());
+            case SPEC_WIDTH:
+                return new SpecWidth(readRange());
+            case SPEC_HEIGHT:
+                return new SpecHeight(readRange());
+            case SPEC_TEXT:
+                return readSpecText(new SpecText(null, null));
+            case SPEC_CSS:
+                return readSpecText(new SpecCss(readString(), null, null));
+            case SPEC_INSIDE:
+                SpecInside specInside = new SpecInside(readString(), readLocations());
+                specInside.setPartly(in.readBoolean());
+                return specInside;
+            case SPEC_NEAR:
+                return new SpecNear(readString(), readLocations());
+            case SPEC_ON:
+                String object = readString();
+                List<Location> locations = readLocations();
+                Side sideHorizontal = readEnum(Side.class);
+                return new SpecOn(object, sideHorizontal, readEnum(Side.class), locations);
+            case SPEC_ABOVE:
+                return new SpecAbove(readString(), readRange());
+            case SPEC_BELOW:
+                return new SpecBelow(readString(), readRange());
+            case SPEC_LEFT_OF:
+                return new SpecLeftOf(readString(), readRange());
+            case SPEC_RIGHT_OF:
+                return new SpecRightOf(readString(), readRange());
+            case SPEC_HORIZONTALLY:
+            case SPEC_VERTICALLY:
+                String alignedObject = readString();
+                Alignment alignment = readEnum(Alignment.class);
+                SpecAligned specAligned = specType == SPEC_HORIZONTALLY
+                        ? new SpecHorizontally(alignment, alignedObject)
+                        : new SpecVertically(alignment, alignedObject);
+                specAligned.setErrorRate(in.readInt());
+                return specAligned;
+            case SPEC_CENTERED:
+                String centeredObject = readString();
+                SpecCentered.Alignment centeredAlignment = readEnum(SpecCentered.Alignment.class);
+                SpecCentered.Location centeredLocation = readEnum(SpecCentered.Location.class);
+                return new SpecCentered(centeredObject, centeredAlignment, centeredLocation).withErrorRate(in.readInt());
+            case SPEC_COLOR_SCHEME:
+                SpecColorScheme specColorScheme = new SpecColorScheme();
+                specColorScheme.setColorRanges(readColorRanges());
+                return specColorScheme;
+            case SPEC_IMAGE:
+                return readSpecImage();
+            case SPEC_COMPONENT:
+                SpecComponent specComponent = new SpecComponent();
+                specComponent.setSpecPath(readString());
+                specComponent.setFrame(in.readBoolean());
+                return specComponent;
+            default:
+                throw new IOException("Unknown spec type: " + specType);
+            }
+        }
+
+        private SpecText readSpecText(SpecText spec) throws IOException {
+            spec.setType(readEnum(SpecText.Type.class));
+            spec.setText(readString());
+            spec.setOperations(readStrings());
+            return spec;
+        }
+
+        private List<Location> readLocations() throws IOException {
+            int locationsCount = in.readInt();
+            if (locationsCount < 0) {
+                return null;
+            }
+
+            List<Location> locations = new LinkedList<Location>();
+            for (int i = 0; i < locationsCount; i++) {
+                Range range = readRange();
+
+                List<Side> sides = null;
+                int sidesCount = in.readInt();
+                if (sidesCount >= 0) {
+                    sides = new LinkedList<Side>();
+                    for (int j = 0; j < sidesCount; j++) {
+                        sides.add(readEnum(Side.class));
+                    }
+                }
+                locations.add(new Location(range, sides));
+            }
+            return locations;
+        }
+
+        private List<ColorRange> readColorRanges() throws IOException {
+            int colorRangesCount = in.readInt();
+            if (colorRangesCount < 0) {
+                return null;
+            }
+
+            List<ColorRange> colorRanges = new LinkedList<ColorRange>();
+            for (int i = 0; i < colorRangesCount; i++) {
+                Color color = in.readBoolean() ? new Color(in.readInt(), true) : null;
+                colorRanges.add(new ColorRange(color, readRange()));
+            }
+            return colorRanges;
+        }
+
+        private Range readRange() throws IOException {
+            if (in.readBoolean()) {
+                Range range = new Range(readOptionalDouble(), readOptionalDouble());
+                range.setPercentageOfValue(readString());
+                range.setRangeType(readEnum(Range.RangeType.class));
+                return range;
+            }
+            return null;
+        }
+
+        private <T extends Enum<T>> T readEnum(Class<T> type) throws IOException {
+            String name = readString();
+            return name != null ? Enum.valueOf(type, name) : null;
+        }
+
+        private SpecImage readSpecImage() throws IOException {
+            SpecImage spec = new SpecImage();
+            spec.setImagePaths(readStrings());
+
+            if (in.readBoolean()) {
+                Double value = readOptionalDouble();
+                String type = readString();
+                spec.setErrorRate(new SpecImage.ErrorRate(value, type != null ? SpecImage.ErrorRateType.valueOf(type) : null));
+            }
+
+            if (in.readBoolean()) {
+                spec.setTolerance(in.readInt());
+            }
+
+            spec.setOriginalFilters(readFilters());
+            spec.setSampleFilters(readFilters());
+            spec.setMapFilters(readFilters());
+
+            if (in.readBoolean()) {
+                int left = in.readInt();
+                int top = in.readInt();
+                int width = in.readInt();
+                int height = in.readInt();
+                spec.setSelectedArea(new Rect(left, top, width, height));
+            }
+            spec.setStretch(in.readBoolean());
+            spec.setCropIfOutside(in.readBoolean());
+            return spec;
+        }
+
+        private List<ImageFilter> readFilters() throws IOException {
+            int filtersCount = in.readInt();
+            if (filtersCount < 0) {
+                return null;
+            }
+
+            List<ImageFilter> filters = new LinkedList<ImageFilter>();
+            for (int i = 0; i < filtersCount; i++) {
+                String name = readString();
+                int value = in.readInt();
+
+                if ("blur".equals(name)) {
+                    filters.add(new BlurFilter(value));
+                }
+                else if ("denoise".equals(name)) {
+                    filters.add(new DenoiseFilter(value));
+                }
+                else if ("saturation".equals(name)) {
+                    filters.add(new SaturationFilter(value));
+                }
+                else if ("contrast".equals(name)) {
+                    filters.add(new ContrastFilter(value));
+                }
+                else if ("quantinize".equals(name)) {
+                    filters.add(new QuantinizeFilter(value));
+                }
+                else {
+                    throw new IOException("Unknown image filter: " + name);
+                }
+            }
+            return filters;
+        }
+
+        private Double readOptionalDouble() throws IOException {
+            if (in.readBoolean()) {
+                return in.readDouble();
+            }
+            return null;
+        }
+
+        private Place readPlace() throws IOException {
+            if (in.readBoolean()) {
+                String filePath = readString();
+                return new Place(filePath, in.readInt());
+            }
+            return null;
+        }
+
+        private Map<String, Locator> readLocators(Map<String, Locator> locators) throws IOException {
+            int locatorsCount = in.readInt();
+            for (int i = 0; i < locatorsCount; i++) {
+                String name = readString();
+                locators.put(name, readLocator());
+            }
+            return locators;
+        }
+
+        private Locator readLocator() throws IOException {
+            String locatorType = readString();
+            String locatorValue = readString();
+            Locator locator = new Locator(locatorType, locatorValue, in.readInt());
+
+            if (in.readBoolean()) {
+                CorrectionsRect.Correction left = readCorrection();
+                CorrectionsRect.Correction top = readCorrection();
+                CorrectionsRect.Correction width = readCorrection();
+                CorrectionsRect.Correction height = readCorrection();
+                locator.setCorrections(new CorrectionsRect(left, top, width, height));
+            }
+            return locator;
+        }
+
+        private CorrectionsRect.Correction readCorrection() throws IOException {
+            if (in.readBoolean()) {
+                int value = in.readInt();
+                return new CorrectionsRect.Correction(value, CorrectionsRect.Type.valueOf(readString()));
+            }
+            return null;
+        }
+
+        private Map<String, String> readMap() throws IOException {
+            int size = in.readInt();
+            if (size < 0) {
+                return null;
+            }
+
+            Map<String, String> map = new TreeMap<String, String>();
+            for (int i = 0; i < size; i++) {
+                String key = readString();
+                map.put(key, readString());
+            }
+            return map;
+        }
+
+        private List<String> readStrings() throws IOException {
+            int size = in.readInt();
+            if (size < 0) {
+                return null;
+            }
+
+            List<String> list = new LinkedList<String>();
+            for (int i = 0; i < size; i++) {
+                list.add(readString());
+            }
+            return list;
+        }
+
+        private String readString() throws IOException {
+            int index = in.readInt();
+            if (index < 0) {
+                return null;
+            }
+            else if (index < strings.size()) {
+                return strings.get(index);
+            }
+            else {
+                byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                String text = new String(bytes, "UTF-8");
+                strings.add(text);
+                return text;
+            }
+        }
+
+        private static Properties toProperties(Map<String, String> map) {
+            if (map == null) {
+                return null;
+            }
+            Properties properties = new Properties();
+            properties.putAll(map);
+            return properties;
+        }
+    }
+
+
+    /**
+     * Remembers values of all properties which were read by the spec before the spec has defined them itself.
+     * Values of missing properties are taken from system properties, as they are used instead in spec.
+     * Iterating over properties (e.g. in javascript rules) makes the spec depend on all of them
+     */
+    private static class RecordingProperties extends Properties {
+        private static final long serialVersionUID = 1L;
+
+        private final Map<String, String> usedProperties = new TreeMap<String, String>();
+        private final Set<Object> definedNames = new HashSet<Object>();
+        private boolean recording = false;
+        private boolean readEntirely = false;
+
+        void startRecording() {
+            recording = true;
+        }
+
+        void stopRecording() {
+            recording = false;
+        }
+
+        Map<String, String> getUsedProperties() {
+            return usedProperties;
+        }
+
+        boolean isReadEntirely() {
+            return readEntirely;
+        }
+
+        @Override
+        public synchronized Object put(Object key, Object value) {
+            if (recording) {
+                definedNames.add(key);
+            }
+            return super.put(key, value);
+        }
+
+        @Override
+        public String getProperty(String key) {
+            String value = super.getProperty(key);
+            if (recording && !definedNames.contains(key) && !usedProperties.containsKey(key)) {
+                usedProperties.put(key, value != null ? value : System.getProperty(key));
+            }
+            return value;
+        }
+
+        @Override
+        public Set<Map.Entry<Object, Object>> entrySet() {
+            markReadEntirely();
+            return super.entrySet();
+        }
+
+        @Override
+        public Set<Object> keySet() {
+            markReadEntirely();
+            return super.keySet();
+        }
+
+        @Override
+        public Set<String> stringPropertyNames() {
+            markReadEntirely();
+            return super.stringPropertyNames();
+        }
+
+        @Override
+        public Enumeration<?> propertyNames() {
+            markReadEntirely();
+            return super.propertyNames();
+        }
+
+        private void markReadEntirely() {
+            if (recording) {
+                readEntirely = true;
+            }
+        }
+    }
+}
@@ -0,0 +1,112 @@
+/*******************************************************************************
+* Copyright 2015 Ivan Shubin http://mindengine.net
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*   http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.specs.reader.page;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.regex.Pattern;
+
+import net.mindengine.galen.specs.page.Locator;
+import net.mindengine.galen.utils.LruCache;
+
+/**
+ * Finds object names matching wildcard names (e.g. "menu-item-#" or "*-button").
+ * Compiled patterns are shared between all page specs. Found names are remembered
+ * until objects of page spec are changed.
+ */
+public class ObjectNameResolver {
+
+    private static final int MAX_COMPILED_PATTERNS = 1000;
+    private static final String REGEX_SPECIAL_SYMBOLS = "*#.[]()?+{}\\^$|";
+
+    private static final LruCache<String, Pattern> compiledPatterns = new LruCache<String, Pattern>(MAX_COMPILED_PATTERNS);
+
+    private final Map<String, List<String>> foundNames = new HashMap<String, List<String>>();
+    private Map<String, Locator> foundNamesObjects;
+    private int foundNamesObjectsSize;
+    private int foundNamesVersion;
+
+    /**
+     * Returns a compiled pattern for the given regex. The same pattern instance is returned for the same regex
+     */
+    public static Pattern compile(String regex) {
+        Pattern pattern = compiledPatterns.get(regex);
+        if (pattern == null) {
+            pattern = Pattern.compile(regex);
+            compiledPatterns.put(regex, pattern);
+        }
+        return pattern;
+    }
+
+    /**
+     * Returns names of objects that fully match the pattern. The same list is returned for the same pattern
+     * as long as the objects stay the same, so it should not be modified
+     * @param objects - all objects of page spec
+     * @param version - version of objects which should be changed every time an object is added or removed
+     * @param simpleRegex - wildcard name from which the pattern was created. Objects which do not start with its
+     *                    literal part are not checked at all
+     * @param pattern - compiled pattern for the wildcard name
+     */
+    public synchronized List<String> findObjectNames(Map<String, Locator> objects, int version, String simpleRegex, Pattern pattern) {
+        if (objects != foundNamesObjects || objects.size() != foundNamesObjectsSize || version != foundNamesVersion) {
+            foundNames.clear();
+            foundNamesObjects = objects;
+            foundNamesObjectsSize = objects.size();
+            foundNamesVersion = version;
+        }
+
+        List<String> names = foundNames.get(pattern.pattern());
+        if (names == null) {
+            names = new LinkedList<String>();
+            for (String objectName : findObjectNamesWithSamePrefix(objects, simpleRegex)) {
+                if (pattern.matcher(objectName).matches()) {
+                    names.add(objectName);
+                }
+            }
+            names = Collections.unmodifiableList(names);
+            foundNames.put(pattern.pattern(), names);
+        }
+        return names;
+    }
+
+    /**
+     * Returns names of all objects which start with the same text as the given simple regex does before its first special symbol.
+     * If the objects are not sorted (e.g. they were set with setObjects method) then all object names are returned
+     */
+    private static Collection<String> findObjectNamesWithSamePrefix(Map<String, Locator> objects, String simpleRegex) {
+        String prefix = literalPrefix(simpleRegex);
+        if (!prefix.isEmpty() && objects instanceof SortedMap) {
+            return ((SortedMap<String, Locator>) objects).subMap(prefix, prefix + Character.MAX_VALUE).keySet();
+        }
+        else {
+            return objects.keySet();
+        }
+    }
+
+    private static String literalPrefix(String simpleRegex) {
+        for (int i = 0; i < simpleRegex.length(); i++) {
+            if (REGEX_SPECIAL_SYMBOLS.indexOf(simpleRegex.charAt(i)) >= 0) {
+                return simpleRegex.substring(0, i);
+            }
+        }
+        return simpleRegex;
+    }
+}
@@ -0,0 +1,98 @@
+/*******************************************************************************
+* Copyright 2015 Ivan Shubin http://mindengine.net
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*   http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.specs.reader.page;
+
+import java.util.Collection;
+
+import net.mindengine.galen.specs.Spec;
+import net.mindengine.galen.specs.page.ConditionalBlock;
+import net.mindengine.galen.specs.page.ConditionalBlockStatement;
+import net.mindengine.galen.specs.page.ObjectSpecs;
+import net.mindengine.galen.specs.page.PageSection;
+import net.mindengine.galen.specs.page.SpecGroup;
+
+/**
+ * Walks through page sections together with their sub-sections and all sections of conditional blocks
+ * and visits every spec (including the ones in spec groups) for each object it applies to
+ */
+public class PageSectionWalker {
+
+    public interface SpecVisitor {
+        void visit(String objectName, Spec spec);
+    }
+
+    private final PageSpec pageSpec;
+    private final SpecVisitor specVisitor;
+
+    /**
+     * @param pageSpec - page spec which is used for finding all objects matching the object names in sections
+     */
+    public PageSectionWalker(PageSpec pageSpec, SpecVisitor specVisitor) {
+        this.pageSpec = pageSpec;
+        this.specVisitor = specVisitor;
+    }
+
+    public void walk(Collection<? extends PageSection> sections) {
+        for (PageSection section : sections) {
+            walk(section);
+        }
+    }
+
+    public void walk(PageSection section) {
+        if (section.getSections() != null) {
+            walk(section.getSections());
+        }
+
+        if (section.getObjects() != null) {
+            for (ObjectSpecs object : section.getObjects()) {
+                for (String objectName : pageSpec.findAllObjectNames(object.getObjectName())) {
+                    visitSpecs(objectName, object);
+                }
+            }
+        }
+
+        if (section instanceof TaggedPageSection && ((TaggedPageSection) section).getConditionalBlocks() != null) {
+            for (ConditionalBlock block : ((TaggedPageSection) section).getConditionalBlocks()) {
+                walk(block);
+            }
+        }
+    }
+
+    private void walk(ConditionalBlock block) {
+        for (ConditionalBlockStatement statement : block.getStatements()) {
+            walk(statement.getSection());
+        }
+        if (block.getBodyObjects() != null) {
+            walk(block.getBodyObjects());
+        }
+        if (block.getOtherwiseObjects() != null) {
+            walk(block.getOtherwiseObjects());
+        }
+    }
+
+    private void visitSpecs(String objectName, ObjectSpecs object) {
+        for (Spec spec : object.getSpecs()) {
+            specVisitor.visit(objectName, spec);
+        }
+        if (object.getSpecGroups() != null) {
+            for (SpecGroup specGroup : object.getSpecGroups()) {
+                for (Spec spec : specGroup.getSpecs()) {
+                    specVisitor.visit(objectName, spec);
+                }
+            }
+        }
+    }
+}
@@ -19,6 +19,7 @@ import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 import java.util.regex.Pattern;
 
 import net.mindengine.galen.page.Page;
@@ -30,17 +31,41 @@ import net.mindengine.galen.specs.reader.page.rules.RuleParser;
 public class PageSpec {
 
     private static final List<String> EMPTY_TAGS = new LinkedList<String>();
-    private Map<String, Locator> objects = new HashMap<String, Locator>();
+
+    /**
+     * Objects are kept sorted by name so that wildcard names (e.g. "menu-item-*")
+     * are only matched against objects starting with the same prefix
+     */
+    private Map<String, Locator> objects = new TreeMap<String, Locator>();
     private Map<String, Locator> multiObjects = new HashMap<String, Locator>();
     private List<TaggedPageSection> sections = new LinkedList<TaggedPageSection>();
     private List<PageSpecRule> pageSpecRules = new LinkedList<PageSpecRule>();
 
+    private final ObjectNameResolver objectNameResolver = new ObjectNameResolver();
+    private int objectsVersion = 0;
+
+    /**
+     * Creates a copy of this page spec which could be safely modified (e.g. by updating multi-objects for a page)
+     * without affecting the original one.
+     */
+    public PageSpec copy() {
+        PageSpec copy = new PageSpec();
+        copy.objects.putAll(objects);
+        copy.multiObjects.putAll(multiObjects);
+        for (TaggedPageSection section : sections) {
+            copy.sections.add(section.copy());
+        }
+        copy.pageSpecRules.addAll(pageSpecRules);
+        return copy;
+    }
+
     public Map<String, Locator> getObjects() {
         return this.objects;
     }
 
     public void setObjects(Map<String, Locator> objects) {
         this.objects = objects;
+        objectsVersion++;
     }
 
     public List<TaggedPageSection> getSections() {
@@ -57,6 +82,7 @@ public class PageSpec {
 
     public void addObject(String objectName, Locator locator) {
         objects.put(objectName, locator);
+        objectsVersion++;
     }
 
     public Locator getObjectLocator(String objectName) {
@@ -88,16 +114,53 @@ public class PageSpec {
      */
     public List<String> findMatchingObjectNames(String objectNameSimpleRegex) {
         
-        Pattern pattern = Pattern.compile(objectNameSimpleRegex.replace("*", "[a-zA-Z0-9_]+"));
-        List<String> foundObjects = new LinkedList<String>();
-        
-        for (String objectName : objects.keySet()) {
-            if (pattern.matcher(objectName).matches()) {
-                foundObjects.add(objectName);
+        Pattern pattern = ObjectNameResolver.compile(objectNameSimpleRegex.replace("*", "[a-zA-Z0-9_]+"));
+        return new LinkedList<String>(findObjectNames(objectNameSimpleRegex, pattern));
+    }
+
+    /**
+     * Converts comma separated list of object names (which might also contain '*' and '#' symbols)
+     * to a list of all matching objects
+     * @param objectsDefinition - e.g. "header, menu-item-#, *-button"
+     * @return
+     */
+    public List<String> findAllObjectNames(String objectsDefinition) {
+        List<String> objectNames = new LinkedList<String>();
+
+        String names[] = objectsDefinition.split(",");
+
+        for (String name : names) {
+            name = name.trim();
+            if (!name.isEmpty()) {
+                if (isRegularExpression(name)) {
+                    objectNames.addAll(fetchUsingRegex(name));
+                }
+                else {
+                    objectNames.add(name);
+                }
             }
         }
-        
-        return foundObjects;
+        return objectNames;
+    }
+
+    private List<String> fetchUsingRegex(String simpleRegex) {
+        String regex = simpleRegex.replace("#", "[0-9]+").replace("*", "[a-zA-Z0-9_]+");
+        return findObjectNames(simpleRegex, ObjectNameResolver.compile(regex));
+    }
+
+    /**
+     * Finds names of all objects matching the pattern which was created from the given wildcard name.
+     * The returned list should not be modified
+     */
+    public List<String> findObjectNames(String simpleRegex, Pattern pattern) {
+        return objectNameResolver.findObjectNames(objects, objectsVersion, simpleRegex, pattern);
+    }
+
+    private boolean isRegularExpression(String name) {
+        if (name.contains("*") || name.contains("#")) {
+            return true;
+        }
+        else return false;
     }
 
     public Map<String, Locator> getMultiObjects() {
@@ -115,24 +178,28 @@ public class PageSpec {
     
     
     public void updateMultiObjects(Page page) {
+        page.preloadObjectCounts(multiObjects.values());
         for (Map.Entry<String, Locator> object : multiObjects.entrySet()) {
             updateMultiObject(page, object.getKey(), object.getValue());
         }
     }
 
     public void updateMultiObject(Page page,String objectName, Locator objectLocator) {
-        
-        int count = page.getObjectCount(objectLocator);
-        
+        updateMultiObject(objectName, objectLocator, page.getObjectCount(objectLocator));
+    }
+
+    public void updateMultiObject(String objectName, Locator objectLocator, int count) {
         for (int index = 1; index <= count; index++) {
             String singleObjectName = objectName.replace("*", Integer.toString(index));
             Locator newLocator = new Locator(objectLocator.getLocatorType(), objectLocator.getLocatorValue(), index);
             objects.put(singleObjectName, newLocator);
         }
+        objectsVersion++;
     }
 
 	public void merge(PageSpec spec) {
 		objects.putAll(spec.getObjects());
+		objectsVersion++;
 		multiObjects.putAll(spec.getMultiObjects());
 		sections.addAll(spec.getSections());
         pageSpecRules.addAll(spec.getRules());
@@ -0,0 +1,284 @@
+/*******************************************************************************
+* Copyright 2015 Ivan Shubin http://mindengine.net
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*   http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.specs.reader.page;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+import net.mindengine.galen.config.GalenConfig;
+import net.mindengine.galen.page.Page;
+import net.mindengine.galen.utils.LruCache;
+
+/**
+ * Keeps parsed page specs in memory so that the same spec files are not parsed again for every page.
+ * Specs are parsed without a page and then stored as templates. Each call returns a copy of the template
+ * with multi-objects updated for the given page.
+ * Specs that use page dependent js functions (find, findAll, count) can't be shared between pages
+ * so they are always read again.
+ * An entry is dropped as soon as any of the spec or javascript files it was read from is changed.
+ */
+public class PageSpecCache {
+
+    private static final PageSpecCache instance = new PageSpecCache(GalenConfig.getConfig().getSpecCacheSize());
+
+    private final int maxSize;
+
+    private final LruCache<Key, CachedSpec> cachedSpecs;
+
+    public PageSpecCache(int maxSize) {
+        this.maxSize = maxSize;
+        this.cachedSpecs = new LruCache<Key, CachedSpec>(maxSize);
+    }
+
+    public static PageSpecCache getInstance() {
+        return instance;
+    }
+
+    public PageSpec read(String specPath, Properties properties, Page page) throws IOException {
+        return read(Collections.singletonList(specPath), properties, page).get(0);
+    }
+
+    /**
+     * Reads all specs with the same reader, the same way it is done when checking layout with multiple specs
+     * @param specPaths - paths to spec files or resources
+     * @param properties - properties used in specs. Variables defined in specs with "@@ set" are also stored in them
+     * @param page - page for which the specs are read. Could be null
+     * @return a list of page specs which could be safely modified by the caller
+     */
+    public List<PageSpec> read(List<String> specPaths, Properties properties, Page page) throws IOException {
+        if (maxSize <= 0) {
+            return readAll(new PageSpecReader(properties, page), specPaths);
+        }
+
+        if (properties == null) {
+            properties = new Properties();
+        }
+
+        Key key = new Key(specPaths, properties);
+        CachedSpec cachedSpec = getCachedSpec(key);
+
+        if (cachedSpec == null) {
+            return readAndCache(key, specPaths, properties, page);
+        }
+
+        properties.putAll(cachedSpec.definedProperties);
+        if (cachedSpec.dynamic) {
+            return readAll(new PageSpecReader(properties, page), specPaths);
+        }
+        else {
+            return copyTemplates(cachedSpec.templates, page);
+        }
+    }
+
+    private synchronized CachedSpec getCachedSpec(Key key) {
+        CachedSpec cachedSpec = cachedSpecs.get(key);
+        if (cachedSpec != null && cachedSpec.isOutdated()) {
+            cachedSpecs.remove(key);
+            return null;
+        }
+        return cachedSpec;
+    }
+
+    private synchronized void putCachedSpec(Key key, CachedSpec cachedSpec) {
+        cachedSpecs.put(key, cachedSpec);
+    }
+
+    /**
+     * Reads specs for the given page and stores them in cache. If the specs turn out to be dynamic they are returned
+     * as they are. Otherwise they are stored as templates unless their multi-objects were already expanded
+     * for the page, in which case the templates have to be read again without page
+     */
+    private List<PageSpec> readAndCache(Key key, List<String> specPaths, Properties properties, Page page) throws IOException {
+        Map<String, String> initialProperties = toMap(properties);
+        PageSpecReader reader = new PageSpecReader(properties, page);
+
+        List<PageSpec> specs;
+        try {
+            specs = readAll(reader, specPaths);
+        }
+        catch (RuntimeException ex) {
+            if (reader.hasUsedPageFunctions()) {
+                putCachedSpec(key, CachedSpec.dynamic(reader.getLoadedFiles(), findDefinedProperties(initialProperties, properties)));
+            }
+            throw ex;
+        }
+
+        Map<String, String> definedProperties = findDefinedProperties(initialProperties, properties);
+        if (reader.hasUsedPageFunctions()) {
+            putCachedSpec(key, CachedSpec.dynamic(reader.getLoadedFiles(), definedProperties));
+            return specs;
+        }
+
+        if (reader.hasExpandedMultiObjects()) {
+            specs = readAll(new PageSpecReader(properties, null), specPaths);
+        }
+
+        putCachedSpec(key, CachedSpec.template(reader.getLoadedFiles(), definedProperties, specs));
+        return copyTemplates(specs, page);
+    }
+
+    private List<PageSpec> copyTemplates(List<PageSpec> templates, Page page) {
+        List<PageSpec> specs = new LinkedList<PageSpec>();
+        for (PageSpec template : templates) {
+            PageSpec pageSpec = template.copy();
+            if (page != null) {
+                pageSpec.updateMultiObjects(page);
+            }
+            specs.add(pageSpec);
+        }
+        return specs;
+    }
+
+    private static List<PageSpec> readAll(PageSpecReader reader, List<String> specPaths) throws IOException {
+        List<PageSpec> specs = new LinkedList<PageSpec>();
+        for (String specPath : specPaths) {
+            specs.add(reader.read(specPath));
+        }
+        return specs;
+    }
+
+    static Map<String, String> findDefinedProperties(Map<String, String> initialProperties, Properties properties) {
+        Map<String, String> definedProperties = new HashMap<String, String>();
+        for (Map.Entry<String, String> property : toMap(properties).entrySet()) {
+            if (!property.getValue().equals(initialProperties.get(property.getKey()))) {
+                definedProperties.put(property.getKey(), property.getValue());
+            }
+        }
+        return definedProperties;
+    }
+
+    static Map<String, String> toMap(Properties properties) {
+        Map<String, String> map = new TreeMap<String, String>();
+        for (String name : properties.stringPropertyNames()) {
+            map.put(name, properties.getProperty(name));
+        }
+        return map;
+    }
+
+    public synchronized void clear() {
+        cachedSpecs.clear();
+    }
+
+    public synchronized int size() {
+        return cachedSpecs.size();
+    }
+
+
+    private static class Key {
+        private final List<String> specPaths;
+        private final Map<String, String> properties;
+
+        private Key(List<String> specPaths, Properties properties) {
+            this.specPaths = new LinkedList<String>(specPaths);
+            this.properties = toMap(properties);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return specPaths.equals(other.specPaths) && properties.equals(other.properties);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * specPaths.hashCode() + properties.hashCode();
+        }
+    }
+
+
+    private static class CachedSpec {
+        private final Map<String, FileStamp> files = new HashMap<String, FileStamp>();
+        private final Map<String, String> definedProperties;
+        private final List<PageSpec> templates;
+        private final boolean dynamic;
+
+        private CachedSpec(Iterable<String> filePaths, Map<String, String> definedProperties, List<PageSpec> templates, boolean dynamic) {
+            for (String filePath : filePaths) {
+                files.put(filePath, FileStamp.of(filePath));
+            }
+            this.definedProperties = definedProperties;
+            this.templates = templates;
+            this.dynamic = dynamic;
+        }
+
+        static CachedSpec template(Iterable<String> filePaths, Map<String, String> definedProperties, List<PageSpec> templates) {
+            return new CachedSpec(filePaths, definedProperties, templates, false);
+        }
+
+        static CachedSpec dynamic(Iterable<String> filePaths, Map<String, String> definedProperties) {
+            return new CachedSpec(filePaths, definedProperties, null, true);
+        }
+
+        boolean isOutdated() {
+            for (Map.Entry<String, FileStamp> file : files.entrySet()) {
+                if (!file.getValue().equals(FileStamp.of(file.getKey()))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+
+    /**
+     * Modification time and size of a file. Resources from classpath can't change
+     * so they are all considered to have the same stamp
+     */
+    private static class FileStamp {
+        private final long lastModified;
+        private final long length;
+
+        private FileStamp(long lastModified, long length) {
+            this.lastModified = lastModified;
+            this.length = length;
+        }
+
+        static FileStamp of(String filePath) {
+            File file = new File(filePath);
+            if (file.exists()) {
+                return new FileStamp(file.lastModified(), file.length());
+            }
+            return new FileStamp(-1, -1);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof FileStamp)) {
+                return false;
+            }
+            FileStamp other = (FileStamp) obj;
+            return lastModified == other.lastModified && length == other.length;
+        }
+
+        @Override
+        public int hashCode() {
+            return (int) (31 * lastModified + length);
+        }
+    }
+}
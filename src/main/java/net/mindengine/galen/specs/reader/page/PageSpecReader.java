@@ -15,6 +15,7 @@
 ******************************************************************************/
 package net.mindengine.galen.specs.reader.page;
 
+import net.mindengine.galen.config.GalenConfig;
 import net.mindengine.galen.page.Page;
 import net.mindengine.galen.page.PageElement;
 import net.mindengine.galen.parser.*;
@@ -42,11 +43,37 @@ public class PageSpecReader implements VarsParserJsFunctions {
     // Used to store information about spec files that were already loaded
     private Set<String> processedFileIds;
 
+    // All spec and javascript files which were read, including imported ones
+    private Set<String> loadedFiles;
+
+    /*
+     *  Marks that the spec used js functions (find, findAll, count) which depend on page objects
+     *  so the resulting page spec can't be reused for other pages
+     */
+    private boolean[] usedPageFunctions;
+
+    /*
+     *  Marks that multi-objects were expanded for the page the spec was read for
+     */
+    private boolean[] expandedMultiObjects;
+
     /*
      *  This field is needed to look up early building of objects
      *  so they could be used within js functions
      */
     private PageSpec pageSpec;
+    private RuleRegistry ruleRegistry;
+
+    /*
+     *  Compiled specs are only loaded by a root reader. As loading them skips all javascript, a compiled spec
+     *  which has run javascript is only loaded as the first spec of the reader and is parsed again
+     *  before the reader parses any other spec. Other compiled specs are loaded as long as they don't import
+     *  spec files which were already imported by this reader
+     */
+    private boolean loadCompiledSpecs = GalenConfig.getConfig().shouldLoadCompiledSpecs();
+    private boolean readAnySpec = false;
+    private Map<String, CompiledPageSpec> compiledSpecsWithJavascript = new LinkedHashMap<String, CompiledPageSpec>();
+    private PageSpec ruleRegistrySpec;
 
     public PageSpecReader(Properties properties, Page page) {
         if (properties == null) {
@@ -57,6 +84,9 @@ public class PageSpecReader implements VarsParserJsFunctions {
         }
         this.varsContext = new VarsContext(this.properties, this, this);
         this.processedFileIds = new HashSet<String>();
+        this.loadedFiles = new LinkedHashSet<String>();
+        this.usedPageFunctions = new boolean[]{false};
+        this.expandedMultiObjects = new boolean[]{false};
         this.page = page;
     }
 
@@ -71,6 +101,9 @@ public class PageSpecReader implements VarsParserJsFunctions {
         this.varsContext = pageSpecReader.varsContext;
         pageSpecReader.addChild(this);
         this.processedFileIds = pageSpecReader.processedFileIds;
+        this.loadedFiles = pageSpecReader.loadedFiles;
+        this.usedPageFunctions = pageSpecReader.usedPageFunctions;
+        this.expandedMultiObjects = pageSpecReader.expandedMultiObjects;
         this.page = pageSpecReader.page;
     }
 
@@ -84,10 +117,21 @@ public class PageSpecReader implements VarsParserJsFunctions {
 
 
     public PageSpec read(String filePath) throws IOException {
+        if (loadCompiledSpecs && parent == null) {
+            CompiledPageSpec compiledPageSpec = CompiledPageSpec.load(filePath, properties);
+            if (compiledPageSpec != null && !compiledPageSpec.isDynamic() && canReadCompiled(compiledPageSpec)) {
+                return readCompiled(filePath, compiledPageSpec);
+            }
+        }
+        return parse(filePath);
+    }
+
+    private PageSpec parse(String filePath) throws IOException {
         InputStream is = GalenUtils.findFileOrResourceAsStream(filePath);
         if (is == null) {
             throw new FileNotFoundException("Can't find file or resource: " + filePath);
         }
+        loadedFiles.add(filePath);
         return read(is, filePath, GalenUtils.getParentForFile(filePath));
     }
 
@@ -97,6 +141,8 @@ public class PageSpecReader implements VarsParserJsFunctions {
     }
 
     public PageSpec read(InputStream inputStream, String fileLocation, String contextPath) throws IOException {
+        reparseCompiledSpecs();
+        this.readAnySpec = true;
         this.pageSpec = new PageSpec();
 
         PageSpecLineProcessor lineProcessor = new PageSpecLineProcessor(properties, contextPath, this, pageSpec);
@@ -124,7 +170,8 @@ public class PageSpecReader implements VarsParserJsFunctions {
     }
 
     @Override
-    public int count(String regex) {
+    public int count(final String regex) {
+        usedPageFunctions[0] = true;
         final Pattern pattern = GalenUtils.convertObjectNameRegex(regex);
         final Set<String> collectedNames = new HashSet<String>();
 
@@ -133,11 +180,7 @@ public class PageSpecReader implements VarsParserJsFunctions {
             @Override
             public void visit(PageSpecReader pageSpecReader) {
                 if (pageSpecReader.pageSpec != null) {
-                    for (String name : pageSpecReader.pageSpec.getObjects().keySet()) {
-                        if (pattern.matcher(name).matches()) {
-                            collectedNames.add(name);
-                        }
-                    }
+                    collectedNames.addAll(pageSpecReader.pageSpec.findObjectNames(regex, pattern));
                 }
             }
         });
@@ -167,7 +210,8 @@ public class PageSpecReader implements VarsParserJsFunctions {
     }
 
     @Override
-    public JsPageElement[] findAll(String regex) {
+    public JsPageElement[] findAll(final String regex) {
+        usedPageFunctions[0] = true;
         final Pattern pattern = GalenUtils.convertObjectNameRegex(regex);
 
         final ArrayList<JsPageElement> list = new ArrayList<JsPageElement>();
@@ -175,7 +219,7 @@ public class PageSpecReader implements VarsParserJsFunctions {
         visitAllReaders(new Visitor<PageSpecReader>() {
             @Override
             public void visit(PageSpecReader pageSpecReader) {
-                List<JsPageElement> jsElements = pageSpecReader.findJsPageElements(pattern);
+                List<JsPageElement> jsElements = pageSpecReader.findJsPageElements(regex, pattern);
 
                 for (JsPageElement jsPageElement : jsElements) {
                     if (!containsPageElementWithName(list, jsPageElement.name)) {
@@ -207,19 +251,16 @@ public class PageSpecReader implements VarsParserJsFunctions {
         return list;
     }
 
-    private List<JsPageElement> findJsPageElements(Pattern pattern) {
+    private List<JsPageElement> findJsPageElements(String regex, Pattern pattern) {
         List<JsPageElement> list = new LinkedList<JsPageElement>();
 
         if (pageSpec != null) {
-            for (Map.Entry<String, Locator> entry : pageSpec.getObjects().entrySet()) {
-                String objectName = entry.getKey();
-                if (pattern.matcher(objectName).matches()) {
-                    Locator locator = pageSpec.getObjectLocator(objectName);
-                    if (locator != null && page != null) {
-                        PageElement pageElement = page.getObject(objectName, locator);
-                        if (pageElement != null) {
-                            list.add(new JsPageElement(objectName, pageElement));
-                        }
+            for (String objectName : pageSpec.findObjectNames(regex, pattern)) {
+                Locator locator = pageSpec.getObjectLocator(objectName);
+                if (locator != null && page != null) {
+                    PageElement pageElement = page.getObject(objectName, locator);
+                    if (pageElement != null) {
+                        list.add(new JsPageElement(objectName, pageElement));
                     }
                 }
             }
@@ -236,7 +277,12 @@ public class PageSpecReader implements VarsParserJsFunctions {
     }
 
     public void runJavascriptFromFile(String filePath, String contextPath) {
-
+        if (!filePath.startsWith("/") && contextPath != null && !contextPath.isEmpty()) {
+            loadedFiles.add(contextPath + File.separator + filePath);
+        }
+        else {
+            loadedFiles.add(filePath);
+        }
         varsContext.runJavascriptFromFile(filePath, contextPath);
     }
 
@@ -268,17 +314,117 @@ public class PageSpecReader implements VarsParserJsFunctions {
         }
     }
 
+    private boolean canReadCompiled(CompiledPageSpec compiledPageSpec) {
+        if (!readAnySpec) {
+            return true;
+        }
+        if (compiledPageSpec.usesJavascript()) {
+            return false;
+        }
+        for (String fileId : compiledPageSpec.getImportedFileIds()) {
+            if (processedFileIds.contains(fileId)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private PageSpec readCompiled(String filePath, CompiledPageSpec compiledPageSpec) {
+        readAnySpec = true;
+        if (compiledPageSpec.usesJavascript()) {
+            compiledSpecsWithJavascript.put(filePath, compiledPageSpec);
+        }
+        processedFileIds.addAll(compiledPageSpec.getImportedFileIds());
+        loadedFiles.addAll(compiledPageSpec.getInputFiles().keySet());
+        properties.putAll(compiledPageSpec.getDefinedProperties());
+
+        pageSpec = compiledPageSpec.getPageSpec();
+        if (page != null && !pageSpec.getMultiObjects().isEmpty()) {
+            markMultiObjectsExpanded();
+            pageSpec.updateMultiObjects(page);
+        }
+        return pageSpec;
+    }
+
+    /**
+     * Restores javascript state of compiled specs so it could be used by the spec which is going to be parsed
+     */
+    private void reparseCompiledSpecs() throws IOException {
+        if (!compiledSpecsWithJavascript.isEmpty()) {
+            Map<String, CompiledPageSpec> compiledSpecs = new LinkedHashMap<String, CompiledPageSpec>(compiledSpecsWithJavascript);
+            compiledSpecsWithJavascript.clear();
+            for (Map.Entry<String, CompiledPageSpec> compiledSpec : compiledSpecs.entrySet()) {
+                processedFileIds.removeAll(compiledSpec.getValue().getImportedFileIds());
+                parse(compiledSpec.getKey());
+            }
+        }
+    }
+
+    /**
+     * Defines whether specs should be loaded from their compiled form (see {@link CompiledPageSpec}) when it is up to date.
+     * By default it is taken from "galen.spec.compiled.enabled" config property
+     */
+    public void setLoadCompiledSpecs(boolean loadCompiledSpecs) {
+        this.loadCompiledSpecs = loadCompiledSpecs;
+    }
+
     public Page getPage() {
         return page;
     }
 
+    /**
+     * @return paths to all spec and javascript files that were read by this reader and its sub readers
+     */
+    public Set<String> getLoadedFiles() {
+        return loadedFiles;
+    }
+
+    /**
+     * @return true if the spec used js functions that depend on page objects (find, findAll, count)
+     */
+    public boolean hasUsedPageFunctions() {
+        return usedPageFunctions[0];
+    }
+
+    /**
+     * @return true if multi-objects of the spec were expanded for the page of this reader
+     * so the resulting page spec can't be reused for other pages
+     */
+    public boolean hasExpandedMultiObjects() {
+        return expandedMultiObjects[0];
+    }
+
+    Set<String> getProcessedFileIds() {
+        return processedFileIds;
+    }
+
+    void markMultiObjectsExpanded() {
+        expandedMultiObjects[0] = true;
+    }
+
+    /**
+     * @return rules of this reader followed by rules of all its parents
+     */
     public List<PageSpecRule> getRules() {
-        List<PageSpecRule> allRules = pageSpec.getRules();
+        return getRuleRegistry().getAllRules();
+    }
 
-        if (parent != null) {
-            allRules.addAll(parent.getRules());
+    /**
+     * Returns registry of rules defined in this and parent readers. The registry is created again
+     * only when rules were added to this reader or to any of its parents
+     */
+    public RuleRegistry getRuleRegistry() {
+        RuleRegistry parentRegistry = parent != null ? parent.getRuleRegistry() : null;
+        List<PageSpecRule> ownRules = pageSpec != null ? pageSpec.getRules() : Collections.<PageSpecRule>emptyList();
+
+        if (ruleRegistry == null
+                || ruleRegistry.getParent() != parentRegistry
+                || ruleRegistry.getRules().size() != ownRules.size()
+                || ruleRegistrySpec != pageSpec) {
+            ruleRegistry = new RuleRegistry(ownRules, parentRegistry);
+            ruleRegistrySpec = pageSpec;
         }
-        return allRules;
+        return ruleRegistry;
     }
 
 
@@ -0,0 +1,191 @@
+/*******************************************************************************
+* Copyright 2015 Ivan Shubin http://mindengine.net
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*   http://www.apache.org/licenses/LICENSE-2.0
+* 
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.specs.reader.page;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+
+/**
+ * Immutable set of rules of a single page spec reader layered on top of the rules of its parent reader.
+ * Rules are indexed by their literal prefix (the text before the first parameter) so that only the rules
+ * which could match the text are checked with their regular expressions. The rules of this layer are checked
+ * in the order they were defined and before the rules of parent layer.
+ */
+public class RuleRegistry {
+
+    private static final int[] NO_RULES = new int[0];
+
+    private final List<PageSpecRule> rules;
+    private final RuleRegistry parent;
+    private final Map<String, int[]> rulesByPrefix = new HashMap<String, int[]>();
+    private final int[] prefixLengths;
+    private final Map<String, RuleMatch> foundMatches = new ConcurrentHashMap<String, RuleMatch>();
+
+    public RuleRegistry(List<PageSpecRule> rules, RuleRegistry parent) {
+        this.rules = Collections.unmodifiableList(new ArrayList<PageSpecRule>(rules));
+        this.parent = parent;
+
+        Map<String, List<Integer>> positions = new HashMap<String, List<Integer>>();
+        TreeSet<Integer> lengths = new TreeSet<Integer>();
+        for (int i = 0; i < this.rules.size(); i++) {
+            String prefix = literalPrefix(this.rules.get(i));
+            List<Integer> prefixPositions = positions.get(prefix);
+            if (prefixPositions == null) {
+                prefixPositions = new ArrayList<Integer>();
+                positions.put(prefix, prefixPositions);
+            }
+            prefixPositions.add(i);
+            lengths.add(prefix.length());
+        }
+
+        for (Map.Entry<String, List<Integer>> entry : positions.entrySet()) {
+            rulesByPrefix.put(entry.getKey(), toArray(entry.getValue()));
+        }
+        prefixLengths = toArray(lengths);
+    }
+
+    /**
+     * Returns the first rule matching the whole text together with its parameter values
+     * or null if there is no such rule neither in this nor in parent layers
+     */
+    public RuleMatch findMatch(String ruleText) {
+        RuleMatch match = foundMatches.get(ruleText);
+        if (match == null) {
+            match = findOwnMatch(ruleText);
+            if (match == null && parent != null) {
+                match = parent.findMatch(ruleText);
+            }
+            if (match != null) {
+                foundMatches.put(ruleText, match);
+            }
+        }
+        return match;
+    }
+
+    private RuleMatch findOwnMatch(String ruleText) {
+        for (int position : findCandidates(ruleText)) {
+            PageSpecRule rule = rules.get(position);
+            Matcher matcher = rule.getRule().getPattern().matcher(ruleText);
+            if (matcher.matches()) {
+                String[] parameterValues = new String[rule.getRule().getParameters().size()];
+                for (int i = 0; i < parameterValues.length; i++) {
+                    parameterValues[i] = matcher.group(i + 1);
+                }
+                return new RuleMatch(rule, parameterValues);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns positions of rules which literal prefix the text starts with, sorted in the order rules were defined
+     */
+    private int[] findCandidates(String ruleText) {
+        int[] candidates = NO_RULES;
+        boolean merged = false;
+        for (int length : prefixLengths) {
+            if (length > ruleText.length()) {
+                break;
+            }
+            int[] positions = rulesByPrefix.get(ruleText.substring(0, length));
+            if (positions != null) {
+                if (candidates.length == 0) {
+                    candidates = positions;
+                }
+                else {
+                    candidates = concat(candidates, positions);
+                    merged = true;
+                }
+            }
+        }
+        if (merged) {
+            Arrays.sort(candidates);
+        }
+        return candidates;
+    }
+
+    public List<PageSpecRule> getRules() {
+        return rules;
+    }
+
+    public RuleRegistry getParent() {
+        return parent;
+    }
+
+    /**
+     * @return rules of this and all parent layers in the order they are checked
+     */
+    public List<PageSpecRule> getAllRules() {
+        List<PageSpecRule> allRules = new ArrayList<PageSpecRule>(rules);
+        if (parent != null) {
+            allRules.addAll(parent.getAllRules());
+        }
+        return allRules;
+    }
+
+    private static String literalPrefix(PageSpecRule rule) {
+        String prefix = rule.getRule().getLiteralPrefix();
+        if (prefix == null) {
+            return "";
+        }
+        return prefix;
+    }
+
+    private static int[] toArray(Collection<Integer> values) {
+        int[] array = new int[values.size()];
+        int i = 0;
+        for (Integer value : values) {
+            array[i++] = value;
+        }
+        return array;
+    }
+
+    private static int[] concat(int[] first, int[] second) {
+        int[] result = new int[first.length + second.length];
+        System.arraycopy(first, 0, result, 0, first.length);
+        System.arraycopy(second, 0, result, first.length, second.length);
+        return result;
+    }
+
+    public static class RuleMatch {
+        private final PageSpecRule rule;
+        private final String[] parameterValues;
+
+        public RuleMatch(PageSpecRule rule, String[] parameterValues) {
+            this.rule = rule;
+            this.parameterValues = parameterValues;
+        }
+
+        public PageSpecRule getRule() {
+            return rule;
+        }
+
+        /**
+         * Returns value of the parameter with the same index in rule parameters
+         */
+        public String getParameterValue(int index) {
+            return parameterValues[index];
+        }
+    }
+}
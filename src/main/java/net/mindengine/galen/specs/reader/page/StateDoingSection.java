@@ -20,7 +20,6 @@ import static net.mindengine.galen.suite.reader.Line.UNKNOWN_LINE;
 import java.io.IOException;
 import java.util.List;
 import java.util.Properties;
-import java.util.regex.Matcher;
 
 import net.mindengine.galen.parser.Expectations;
 import net.mindengine.galen.parser.MathParser;
@@ -141,20 +140,19 @@ public class StateDoingSection extends State {
         }
 
 
-        for (PageSpecRule rule : getPageSpecReader().getRules()) {
-            Matcher matcher = rule.getRule().getPattern().matcher(ruleText);
-            if (matcher.matches()) {
-                int index = 1;
-                for (String parameterName : rule.getRule().getParameters()) {
-                    varsContext.setProperty(parameterName, matcher.group(index));
-                    index += 1;
-                }
+        RuleRegistry.RuleMatch match = getPageSpecReader().getRuleRegistry().findMatch(ruleText);
+        if (match == null) {
+            throw new SyntaxException("There are no rules matching: " + ruleText);
+        }
 
-                rule.getRuleProcessor().processRule(object, ruleText, varsContext, section, getProperties(), contextPath, pageSpecReader);
-                return;
-            }
+        PageSpecRule rule = match.getRule();
+        int index = 0;
+        for (String parameterName : rule.getRule().getParameters()) {
+            varsContext.setProperty(parameterName, match.getParameterValue(index));
+            index += 1;
         }
-        throw new SyntaxException("There are no rules matching: " + ruleText);
+
+        rule.getRuleProcessor().processRule(object, ruleText, varsContext, section, getProperties(), contextPath, pageSpecReader);
     }
 
 
@@ -129,6 +129,7 @@ public class StateObjectDefinition extends State {
         else {
             
             if (pageSpecReader.getPage() != null) {
+                pageSpecReader.markMultiObjectsExpanded();
                 pageSpec.updateMultiObject(pageSpecReader.getPage(), objectName, locator);
             }
             else {
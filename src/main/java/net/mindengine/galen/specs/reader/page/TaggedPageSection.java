@@ -16,6 +16,7 @@
 package net.mindengine.galen.specs.reader.page;
 
 import net.mindengine.galen.specs.page.ConditionalBlock;
+import net.mindengine.galen.specs.page.ObjectSpecs;
 import net.mindengine.galen.specs.page.PageSection;
 
 import java.util.LinkedList;
@@ -43,6 +44,29 @@ public class TaggedPageSection extends PageSection {
         conditionalBlocks.add(conditionalBlock);
     }
 
+    /**
+     * Creates a copy of this section with its own lists of objects, sub-sections and conditional blocks
+     * so that it could be merged with other sections without affecting the original one.
+     * Specs and sub-sections themselves are shared between copies
+     */
+    public TaggedPageSection copy() {
+        TaggedPageSection copy = new TaggedPageSection();
+        copy.setName(getName());
+        if (tags != null) {
+            copy.setTags(new LinkedList<String>(tags));
+        }
+        if (getObjects() != null) {
+            copy.setObjects(new LinkedList<ObjectSpecs>(getObjects()));
+        }
+        if (getSections() != null) {
+            copy.setSections(new LinkedList<PageSection>(getSections()));
+        }
+        if (conditionalBlocks != null) {
+            copy.setConditionalBlocks(new LinkedList<ConditionalBlock>(conditionalBlocks));
+        }
+        return copy;
+    }
+
     public List<String> getTags() {
         return this.tags;
     }
@@ -25,6 +25,7 @@ import java.util.regex.Pattern;
 public class Rule {
     private Pattern pattern;
     private List<String> parameters = new LinkedList<String>();
+    private String literalPrefix = "";
 
     public Pattern getPattern() {
         return pattern;
@@ -45,4 +46,15 @@ public class Rule {
     public void addParameter(String name) {
         parameters.add(name);
     }
+
+    /**
+     * @return text before the first parameter of the rule, every text matching the rule starts with it
+     */
+    public String getLiteralPrefix() {
+        return literalPrefix;
+    }
+
+    public void setLiteralPrefix(String literalPrefix) {
+        this.literalPrefix = literalPrefix;
+    }
 }
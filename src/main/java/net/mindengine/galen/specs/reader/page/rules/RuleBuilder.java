@@ -61,6 +61,10 @@ public class RuleBuilder {
         public void appendSymbol(char ch) {
             stringBuilder.append(ch);
         }
+
+        public String getText() {
+            return stringBuilder.toString();
+        }
     }
 
     public static class ParameterChunk extends Chunk {
@@ -135,6 +139,10 @@ public class RuleBuilder {
             patternBuilder.append(chunk.build(rule));
         }
         rule.setPattern(Pattern.compile(patternBuilder.toString()));
+
+        if (!chunks.isEmpty() && chunks.get(0) instanceof NormalTextChunk) {
+            rule.setLiteralPrefix(((NormalTextChunk) chunks.get(0)).getText());
+        }
         return rule;
     }
 }
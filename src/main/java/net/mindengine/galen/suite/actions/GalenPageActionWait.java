@@ -131,8 +131,6 @@ public class GalenPageActionWait extends GalenPageAction {
 
     @Override
     public void execute(TestReport report, Browser browser, GalenPageTest pageTest, ValidationListener validationListener) throws Exception {
-        Page page = browser.getPage();
-        
         if (untilElements == null || untilElements.isEmpty()) {
             Thread.sleep(timeout);
         }
@@ -142,13 +140,14 @@ public class GalenPageActionWait extends GalenPageAction {
             int tries = timeout / period;
             while(tries-- > 0) {
                 Thread.sleep(period);
-                if (checkAllConditions(page, null)) {
+                // taking a new page every time as it caches found elements
+                if (checkAllConditions(browser.getPage(), null)) {
                     return;
                 }
             }
             
             StringBuffer results = new StringBuffer();
-            if (!checkAllConditions(page, results)) {
+            if (!checkAllConditions(browser.getPage(), results)) {
                 throw new TimeoutException("Failed waiting for:\n" + results.toString());
             }
         }
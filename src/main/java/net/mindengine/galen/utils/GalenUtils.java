@@ -38,6 +38,8 @@ import net.mindengine.galen.browser.SeleniumBrowser;
 import net.mindengine.galen.browser.SeleniumBrowserFactory;
 import net.mindengine.galen.browser.SeleniumGridBrowserFactory;
 import net.mindengine.galen.config.GalenConfig;
+import net.mindengine.galen.page.Screenshot;
+import net.mindengine.galen.specs.reader.page.ObjectNameResolver;
 import net.mindengine.galen.tests.GalenProperties;
 import net.mindengine.galen.tests.TestSession;
 import net.mindengine.rainbow4j.Rainbow4J;
@@ -97,6 +99,13 @@ public class GalenUtils {
     
     
     public static File makeFullScreenshot(WebDriver driver) throws IOException, InterruptedException {
+        return makeFullPageScreenshot(driver).getFile();
+    }
+
+    /**
+     * Scrolls the page and stitches all its parts into a single screenshot which is kept in memory
+     */
+    public static Screenshot makeFullPageScreenshot(WebDriver driver) throws IOException, InterruptedException {
         // scroll up first
         scrollVerticallyTo(driver, 0);
         byte[] bytes = ((TakesScreenshot)driver).getScreenshotAs(OutputType.BYTES);
@@ -114,8 +123,6 @@ public class GalenUtils {
 
         int scrollHeight = (int)longScrollHeight;
 
-        File file = File.createTempFile("screenshot", ".png");
-
         int adaptedCapturedHeight = (int)(((double)capturedHeight) / devicePixelRatio);
 
         BufferedImage resultingImage;
@@ -158,8 +165,7 @@ public class GalenUtils {
             resultingImage = GalenUtils.resizeScreenshotIfNeeded(driver, resultingImage);
         }
 
-        ImageIO.write(resultingImage, "png", file);
-        return file;
+        return Screenshot.fromImage(resultingImage);
     }
 
 
@@ -283,18 +289,25 @@ public class GalenUtils {
     }
 
     public static File takeScreenshot(WebDriver driver) throws IOException {
-        File file = ((TakesScreenshot)driver).getScreenshotAs(OutputType.FILE);
+        return makeScreenshot(driver).getFile();
+    }
 
+    /**
+     * Takes a screenshot of visible part of page and keeps it in memory
+     */
+    public static Screenshot makeScreenshot(WebDriver driver) throws IOException {
+        byte[] bytes = ((TakesScreenshot)driver).getScreenshotAs(OutputType.BYTES);
 
         if (GalenConfig.getConfig().shouldAutoresizeScreenshots()) {
-            BufferedImage image = Rainbow4J.loadImage(file.getAbsolutePath());
-            File newFile = File.createTempFile("screenshot", ".png");
-            image = GalenUtils.resizeScreenshotIfNeeded(driver, image);
+            BufferedImage image = Rainbow4J.loadImage(new ByteArrayInputStream(bytes));
+            BufferedImage resizedImage = GalenUtils.resizeScreenshotIfNeeded(driver, image);
 
-            Rainbow4J.saveImage(image, newFile);
-            return newFile;
+            if (resizedImage != image) {
+                return Screenshot.fromImage(resizedImage);
+            }
+            return Screenshot.fromPng(bytes, image);
         }
-        else return file;
+        else return Screenshot.fromPng(bytes);
     }
     
     public static Properties loadProperties(String fileName) throws IOException {
@@ -380,7 +393,7 @@ public class GalenUtils {
 
     public static Pattern convertObjectNameRegex(String regex) {
         String jRegex = regex.replace("#", "[0-9]+").replace("*", ".*");
-        return Pattern.compile(jRegex);
+        return ObjectNameResolver.compile(jRegex);
     }
 
 
@@ -18,6 +18,9 @@ package net.mindengine.galen.validation;
 import java.util.LinkedList;
 import java.util.List;
 
+import net.mindengine.galen.browser.BrowserFactory;
+import net.mindengine.galen.metrics.MetricsListener;
+import net.mindengine.galen.metrics.SpecTiming;
 import net.mindengine.galen.runner.GalenPageRunner;
 import net.mindengine.galen.specs.Spec;
 import net.mindengine.galen.specs.page.PageSection;
@@ -25,7 +28,7 @@ import net.mindengine.galen.suite.GalenPageAction;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-public class CombinedValidationListener implements ValidationListener {
+public class CombinedValidationListener implements ValidationListener, MetricsListener, SkippedSpecListener {
 
     private final static Logger LOG = LoggerFactory.getLogger(CombinedValidationListener.class);
 
@@ -203,6 +206,62 @@ public class CombinedValidationListener implements ValidationListener {
 
     }
 
+    @Override
+    public void onSpecSkipped(PageValidation pageValidation, String objectName, Spec spec, String reason) {
+        for (ValidationListener listener: listeners) {
+            if (listener instanceof SkippedSpecListener) {
+                try {
+                    ((SkippedSpecListener) listener).onSpecSkipped(pageValidation, objectName, spec, reason);
+                }
+                catch (Exception ex) {
+                    LOG.error("Unknown error during skipped spec", ex);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void onSpecTiming(PageValidation pageValidation, SpecTiming specTiming) {
+        for (ValidationListener listener: listeners) {
+            if (listener instanceof MetricsListener) {
+                try {
+                    ((MetricsListener) listener).onSpecTiming(pageValidation, specTiming);
+                }
+                catch (Exception ex) {
+                    LOG.error("Unknown error during spec timing", ex);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void onPageActionTiming(GalenPageAction action, long time) {
+        for (ValidationListener listener: listeners) {
+            if (listener instanceof MetricsListener) {
+                try {
+                    ((MetricsListener) listener).onPageActionTiming(action, time);
+                }
+                catch (Exception ex) {
+                    LOG.error("Unknown error during page action timing", ex);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void onBrowserStartTiming(BrowserFactory browserFactory, long time) {
+        for (ValidationListener listener: listeners) {
+            if (listener instanceof MetricsListener) {
+                try {
+                    ((MetricsListener) listener).onBrowserStartTiming(browserFactory, time);
+                }
+                catch (Exception ex) {
+                    LOG.error("Unknown error during browser start timing", ex);
+                }
+            }
+        }
+    }
+
     public void add(ValidationListener validationListener) {
         if (validationListener != null) {
             listeners.add(validationListener);
@@ -18,7 +18,8 @@ package net.mindengine.galen.validation;
 import static java.lang.String.format;
 import static net.mindengine.galen.suite.reader.Line.UNKNOWN_LINE;
 
-import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import net.mindengine.galen.browser.Browser;
 import net.mindengine.galen.page.Page;
@@ -26,6 +27,7 @@ import net.mindengine.galen.page.PageElement;
 import net.mindengine.galen.parser.SyntaxException;
 import net.mindengine.galen.specs.Range;
 import net.mindengine.galen.specs.Spec;
+import net.mindengine.galen.specs.ValuePath;
 import net.mindengine.galen.specs.page.Locator;
 import net.mindengine.galen.specs.reader.page.PageSpec;
 import net.mindengine.galen.specs.reader.page.SectionFilter;
@@ -37,6 +39,8 @@ public class PageValidation {
     private PageSpec pageSpec;
     private ValidationListener validationListener;
     private SectionFilter sectionFilter;
+    private ValidationBudget validationBudget = ValidationBudget.unlimited();
+    private final Map<String, Integer> percentageValues = new ConcurrentHashMap<String, Integer>();
 
     public PageValidation(Browser browser, Page page, PageSpec pageSpec, ValidationListener validationListener, SectionFilter sectionFilter) {
         this.setBrowser(browser);
@@ -52,11 +56,22 @@ public class PageValidation {
 
     public void setPage(Page page) {
         this.page = page;
+        percentageValues.clear();
     }
 
-    @SuppressWarnings({ "rawtypes", "unchecked" })
     public ValidationResult check(String objectName, Spec spec) {
-        SpecValidation specValidation = ValidationFactory.getValidation(spec, this);
+        return check(objectName, spec, null);
+    }
+
+    /**
+     * Checks the spec with the validation that was already resolved for it
+     * @param specValidation - validation for the spec or null if it should be taken from {@link ValidationFactory}
+     */
+    @SuppressWarnings("rawtypes")
+    public ValidationResult check(String objectName, Spec spec, SpecValidation specValidation) {
+        if (specValidation == null) {
+            specValidation = ValidationFactory.getValidation(spec, this);
+        }
 
         ValidationResult result = check(specValidation, objectName, spec);
 
@@ -66,6 +81,7 @@ public class PageValidation {
         return result;
     }
 
+    @SuppressWarnings({ "rawtypes", "unchecked" })
     private ValidationResult check(SpecValidation specValidation, String objectName, Spec spec) {
         try {
             return specValidation.check(this, objectName, spec);
@@ -94,94 +110,53 @@ public class PageValidation {
     }
     
     public Range convertRangeFromPercentageToPixels(Range range) {
-        String valuePath = range.getPercentageOfValue();
-        int index = valuePath.indexOf("/");
-        if (index > 0 && index < valuePath.length() - 1) {
-            String objectName = valuePath.substring(0, index);
-            String fieldPath = valuePath.substring(index + 1);
-            
-            Locator locator = pageSpec.getObjectLocator(objectName);
-            PageElement pageElement = findPageElementOnPage(objectName, locator);
-            
-            if (pageElement != null) {
-                Object objectValue = getObjectValue(pageElement, fieldPath);
-                int value = convertToInt(objectValue);
-                
-                
-                Double valueA = range.getFrom();
-                Double valueB = range.getTo();
-                if (valueA != null) {
-                    valueA = valueA * value / 100.0;
-                }
-                if (valueB != null) {
-                    valueB = valueB * value / 100.0;
-                }
-                
-                return new Range(valueA, valueB).withType(range.getRangeType());
-            }
-            else throw new SyntaxException(UNKNOWN_LINE, format("Locator for object \"%s\" is not specified", objectName));
-        }
-        else throw new SyntaxException(UNKNOWN_LINE, format("Value path is incorrect %s", valuePath));
-    }
+        ValuePath valuePath = range.getPercentageOfValuePath();
+        int value = readValue(valuePath);
 
-    private PageElement findPageElementOnPage(String objectName, Locator locator) {
-        if (locator != null) {
-            return page.getObject(objectName, locator);
+        Double valueA = range.getFrom();
+        Double valueB = range.getTo();
+        if (valueA != null) {
+            valueA = valueA * value / 100.0;
         }
-        else {
-            return page.getSpecialObject(objectName);
+        if (valueB != null) {
+            valueB = valueB * value / 100.0;
         }
+
+        return new Range(valueA, valueB).withType(range.getRangeType());
     }
 
-    private int convertToInt(Object objectValue) {
-        if (objectValue == null) {
-            throw new NullPointerException("The returned value is null");
-        }
-        else {
-            if (objectValue instanceof Integer) {
-                return ((Integer)objectValue).intValue();
-            }
-            else if (objectValue instanceof Double) {
-                return ((Double)objectValue).intValue();
-            }
-            else {
-                throw new SyntaxException(UNKNOWN_LINE, format("Cannot convert value to integer. The obtained value is of %s type", objectValue.getClass()));
-            }
+    /**
+     * Reads the value of percentage range. Values are remembered for the whole validation
+     * as the page doesn't change while it is being validated.
+     */
+    private int readValue(ValuePath valuePath) {
+        Integer cachedValue = percentageValues.get(valuePath.getPath());
+        if (cachedValue != null) {
+            return cachedValue;
         }
-    }
 
-    private Object getObjectValue(Object object, String fieldPath) {
-        int index = fieldPath.indexOf("/");
-        if (index > 0 && index < fieldPath.length() - 1) {
-            
-            String fieldName = fieldPath.substring(0, index);
-            String leftOverPath = fieldPath.substring(index + 1);
-            if (leftOverPath.isEmpty()) {
-                throw new SyntaxException(UNKNOWN_LINE, format("Cannot read path %s", fieldPath));
-            }
-            
-            Object field = getField(object, fieldName);
-            if (field == null) {
-                throw new NullPointerException(format("\"%s\" returned null", fieldName));
-            }
-            return getObjectValue(field, leftOverPath);
+        String objectName;
+        try {
+            objectName = valuePath.getObjectName();
         }
-        else {
-            return getField(object, fieldPath);
+        catch (IllegalArgumentException ex) {
+            throw new SyntaxException(UNKNOWN_LINE, ex.getMessage());
         }
-    }
 
-    private Object getField(Object object, String fieldName) {
-        try {
-            Method getterMethod = object.getClass().getMethod(getterForField(fieldName));
-            return getterMethod.invoke(object);
-        } catch (Exception e) {
-            throw new SyntaxException(UNKNOWN_LINE, format("Cannot read field: \"%s\"", fieldName));
+        PageElement pageElement = findPageElement(objectName);
+        if (pageElement == null) {
+            throw new SyntaxException(UNKNOWN_LINE, format("Locator for object \"%s\" is not specified", objectName));
         }
-    }
 
-    private String getterForField(String fieldName) {
-        return "get" + fieldName.substring(0, 1).toUpperCase() + fieldName.substring(1);
+        int value;
+        try {
+            value = valuePath.readValue(pageElement);
+        }
+        catch (IllegalArgumentException ex) {
+            throw new SyntaxException(UNKNOWN_LINE, ex.getMessage());
+        }
+        percentageValues.put(valuePath.getPath(), value);
+        return value;
     }
 
     public Range convertRange(Range range) {
@@ -209,6 +184,19 @@ public class PageValidation {
         this.sectionFilter = sectionFilter;
     }
 
+    public ValidationBudget getValidationBudget() {
+        return validationBudget;
+    }
+
+    public void setValidationBudget(ValidationBudget validationBudget) {
+        this.validationBudget = validationBudget;
+    }
+
+    public PageValidation withValidationBudget(ValidationBudget validationBudget) {
+        setValidationBudget(validationBudget);
+        return this;
+    }
+
     public Browser getBrowser() {
         return browser;
     }
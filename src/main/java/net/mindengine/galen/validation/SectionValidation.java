@@ -15,12 +15,23 @@
 ******************************************************************************/
 package net.mindengine.galen.validation;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.regex.Pattern;
-
-import net.mindengine.galen.specs.page.*;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import net.mindengine.galen.metrics.MetricsListener;
+import net.mindengine.galen.metrics.SpecTiming;
+import net.mindengine.galen.metrics.WebDriverCommandCounter;
+import net.mindengine.galen.specs.page.PageSection;
 import net.mindengine.galen.specs.reader.page.TaggedPageSection;
+import net.mindengine.galen.validation.ValidationPlan.Instruction;
+import net.mindengine.galen.validation.ValidationPlan.Type;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -32,17 +43,30 @@ public class SectionValidation {
     
     private final static Logger LOG = LoggerFactory.getLogger(SectionValidation.class);
 
-    private static final boolean SHOULD_REPORT = true;
-    private static final boolean SHOULD_NOT_REPORT = false;
-    private static final List<ValidationResult> EMPTY_RESULTS = new LinkedList<ValidationResult>();
-    private static final boolean DONT_TELL_FOR_ITSELF = false;
-    private static final boolean TELL_FOR_ITSELF = true;
-    private List<TaggedPageSection> pageSections;
+    private ValidationPlan validationPlan;
     private PageValidation pageValidation;
     private ValidationListener validationListener;
 
+    private ExecutorService executor;
+    private Map<SpecCheck, Future<ValidationResult>> scheduledChecks = new HashMap<SpecCheck, Future<ValidationResult>>();
+
+    /**
+     * Results of already checked specs. The page does not change during validation,
+     * so the same spec (e.g. in condition of several conditional blocks or in merged sections)
+     * is only checked once for the same object. Every repeated check gets its own copy of the result
+     */
+    private Map<SpecCheck, ValidationResult> checkedSpecs = new HashMap<SpecCheck, ValidationResult>();
+    private Map<SpecCheck, SpecTiming> specTimings = new ConcurrentHashMap<SpecCheck, SpecTiming>();
+
     public SectionValidation(List<TaggedPageSection> pageSections, PageValidation pageValidation, ValidationListener validationListener) {
-        this.pageSections = pageSections;
+        this(ValidationPlan.compile(pageSections), pageValidation, validationListener);
+    }
+
+    /**
+     * @param validationPlan - compiled page sections. The same plan could be used for validating different pages
+     */
+    public SectionValidation(ValidationPlan validationPlan, PageValidation pageValidation, ValidationListener validationListener) {
+        this.validationPlan = validationPlan;
         this.pageValidation = pageValidation;
         this.validationListener = validationListener;
     }
@@ -51,181 +75,279 @@ public class SectionValidation {
         
         //Fetching all multi objects from page before validation
         pageValidation.getPageSpec().updateMultiObjects(pageValidation.getPage());
-        
-        List<ValidationResult> validationResults = new LinkedList<ValidationResult>();
-        
-        for (TaggedPageSection section : pageSections) {
-            validationResults.addAll(checkTaggedSection(section));
+        pageValidation.getPage().preloadObjects(pageValidation.getPageSpec().getObjects());
+
+        Instruction[] instructions = validationPlan.getInstructions();
+        if (executor != null) {
+            schedule(instructions, 0, instructions.length);
         }
+        
+        List<ValidationResult> validationResults = new ArrayList<ValidationResult>();
+        execute(instructions, 0, instructions.length, null, validationResults);
         return validationResults;
     }
 
-    private List<ValidationResult> checkTaggedSection(TaggedPageSection section) {
-        tellBeforeSection(section);
-        List<ValidationResult> validationResult= new LinkedList<ValidationResult>();
-        validationResult.addAll(checkSection(section, DONT_TELL_FOR_ITSELF));
-        
-        List<ConditionalBlock> conditionalBlocks = section.getConditionalBlocks();
-        if (conditionalBlocks != null) {
-            for (ConditionalBlock block : conditionalBlocks) {
-                validationResult.addAll(checkConditionalBlock(block));
-            }
-        }
-        
-        tellAfterSection(section);
-        return validationResult;
+    /**
+     * Enables parallel checking of specs. Should only be used for pages which do not access the browser
+     * (e.g. {@link net.mindengine.galen.page.snapshot.SnapshotPage}).
+     * The specs are checked in the given executor but all results and listener events
+     * are still processed in the original order of the page spec
+     * @param executor
+     * @return
+     */
+    public SectionValidation withParallelExecution(ExecutorService executor) {
+        this.executor = executor;
+        return this;
     }
 
-    private void tellAfterSection(PageSection section) {
-        if (validationListener != null) {
-            validationListener.onAfterSection(pageValidation, section);
+    /**
+     * Executes instructions from the given range and adds all spec errors which should be reported to results
+     * @param objectName - name of the object for which the specs in range are checked
+     */
+    private void execute(Instruction[] instructions, int from, int to, String objectName, List<ValidationResult> results) {
+        int index = from;
+        while (index < to) {
+            Instruction instruction = instructions[index];
+            switch (instruction.type) {
+                case BEFORE_SECTION:
+                    tellBeforeSection(instruction.section);
+                    break;
+                case AFTER_SECTION:
+                    tellAfterSection(instruction.section);
+                    break;
+                case OBJECT:
+                    for (String name : instruction.findObjectNames(pageValidation.getPageSpec())) {
+                        if (instruction.shouldReport) {
+                            tellOnObject(name);
+                        }
+                        execute(instructions, index + 1, instruction.end, name, results);
+                        if (instruction.shouldReport) {
+                            tellOnAfterObject(name);
+                        }
+                    }
+                    index = instruction.end;
+                    continue;
+                case SPEC:
+                    if (pageValidation.getValidationBudget().isExceeded()) {
+                        skipSpec(instruction, objectName);
+                    }
+                    else {
+                        checkSpec(instruction, objectName, results);
+                    }
+                    break;
+                case SPEC_GROUP:
+                    tellOnSpecGroup(instruction.specGroupName);
+                    break;
+                case AFTER_SPEC_GROUP:
+                    tellOnAfterSpecGroup(instruction.specGroupName);
+                    break;
+                case CONDITIONAL_BLOCK:
+                    if (pageValidation.getValidationBudget().isExceeded()) {
+                        // there is no way to know which of the branches should have been checked
+                        // so specs of both of them are reported as skipped
+                        execute(instructions, instruction.bodyStart, instruction.bodyEnd, null, results);
+                        if (instruction.otherwiseStart >= 0) {
+                            execute(instructions, instruction.otherwiseStart, instruction.otherwiseEnd, null, results);
+                        }
+                    }
+                    else if (oneOfConditionsApplies(instructions, instruction)) {
+                        execute(instructions, instruction.bodyStart, instruction.bodyEnd, null, results);
+                    }
+                    else if (instruction.otherwiseStart >= 0) {
+                        execute(instructions, instruction.otherwiseStart, instruction.otherwiseEnd, null, results);
+                    }
+                    index = instruction.end;
+                    continue;
+            }
+            index++;
         }
     }
 
-    private void tellBeforeSection(PageSection section) {
-        if (validationListener != null) {
-            validationListener.onBeforeSection(pageValidation, section);
+    private boolean oneOfConditionsApplies(Instruction[] instructions, Instruction block) {
+        for (int i = 0; i < block.statementStarts.length; i++) {
+            List<ValidationResult> validationResults = new ArrayList<ValidationResult>();
+            execute(instructions, block.statementStarts[i], block.statementEnds[i], null, validationResults);
+
+            boolean statementStatus = doesNotHaveErrors(validationResults);
+            if (block.statementsInverted[i]) {
+                statementStatus = !statementStatus;
+            }
+
+            if (statementStatus) {
+                return true;
+            }
         }
+        return false;
     }
 
-    private List<ValidationResult> checkObjects(List<ObjectSpecs> objects, boolean shouldReport) {
-        List<ValidationResult> validationResults = new LinkedList<ValidationResult>();
-        for (ObjectSpecs object : objects) {
-            List<String> allObjectNames = findAllObjectNames(object.getObjectName());
-            for (String objectName : allObjectNames) {
-                if (shouldReport) {
-                    tellOnObject(objectName);
-                }
-                
-                validationResults.addAll(checkObject(objectName, object.getSpecs(), shouldReport));
+    private void checkSpec(Instruction instruction, String objectName, List<ValidationResult> results) {
+        Spec spec = instruction.spec;
+        if (instruction.shouldReport) {
+            tellBeforeSpec(pageValidation, objectName, spec);
+        }
 
-                checkSpecGroups(objectName, object.getSpecGroups(), shouldReport);
-                
-                if (shouldReport) {
-                    tellOnAfterObject(objectName);
+        ValidationResult result = checkSpec(instruction, objectName);
+        if (result.getError() != null) {
+            if (instruction.collectsResult) {
+                results.add(result);
+            }
+            if (instruction.shouldReport) {
+                if (!result.getError().isOnlyWarn()) {
+                    pageValidation.getValidationBudget().addError();
                 }
+                tellOnSpecError(pageValidation, objectName, spec, result);
             }
         }
-        return validationResults;
+        else if (instruction.shouldReport) {
+            tellOnSpecSuccess(pageValidation, objectName, spec, result);
+        }
     }
 
-    private void checkSpecGroups(String objectName, List<SpecGroup> specGroups, boolean shouldReport) {
-        if (specGroups != null) {
-            for (SpecGroup specGroup : specGroups) {
-                tellOnSpecGroup(specGroup);
-
-                checkObject(objectName, specGroup.getSpecs(), shouldReport);
+    private void skipSpec(Instruction instruction, String objectName) {
+        if (instruction.shouldReport) {
+            tellBeforeSpec(pageValidation, objectName, instruction.spec);
+            tellOnSpecSkipped(objectName, instruction.spec, pageValidation.getValidationBudget().getStopReason());
+        }
+    }
 
-                tellOnAfterSpecGroup(specGroup);
+    /**
+     * Schedules specs of objects from the given range. Specs of conditional block bodies are not scheduled
+     * as only one of them is going to be checked
+     */
+    private void schedule(Instruction[] instructions, int from, int to) {
+        int index = from;
+        while (index < to) {
+            Instruction instruction = instructions[index];
+            if (instruction.type == Type.OBJECT) {
+                for (String name : instruction.findObjectNames(pageValidation.getPageSpec())) {
+                    for (int specIndex = index + 1; specIndex < instruction.end; specIndex++) {
+                        if (instructions[specIndex].type == Type.SPEC) {
+                            scheduleSpec(instructions[specIndex], name);
+                        }
+                    }
+                }
+                index = instruction.end;
+            }
+            else if (instruction.type == Type.CONDITIONAL_BLOCK) {
+                for (int i = 0; i < instruction.statementStarts.length; i++) {
+                    schedule(instructions, instruction.statementStarts[i], instruction.statementEnds[i]);
+                }
+                index = instruction.end;
+            }
+            else {
+                index++;
             }
         }
     }
 
-    private List<ValidationResult> checkConditionalBlock(ConditionalBlock block) {
-        if (oneOfConditionsApplies(block.getStatements())) {
-            return checkSection(block.getBodyObjects(), DONT_TELL_FOR_ITSELF);
-        }
-        else if (block.getOtherwiseObjects() != null) {
-            return checkSection(block.getOtherwiseObjects(), DONT_TELL_FOR_ITSELF);
+    private void scheduleSpec(final Instruction instruction, final String objectName) {
+        // component specs report their own sub layouts to listener so they can only be checked in order
+        if (instruction.specKey != null) {
+            final SpecCheck specCheck = new SpecCheck(objectName, instruction.specKey);
+            if (!scheduledChecks.containsKey(specCheck)) {
+                scheduledChecks.put(specCheck, executor.submit(new Callable<ValidationResult>() {
+                    @Override
+                    public ValidationResult call() throws Exception {
+                        // specs are scheduled up front so the budget could be exceeded while the spec was waiting
+                        if (pageValidation.getValidationBudget().isExceeded()) {
+                            return null;
+                        }
+                        return checkAndMeasure(specCheck, objectName, instruction);
+                    }
+                }));
+            }
         }
-        else return EMPTY_RESULTS;
     }
 
-    private List<ValidationResult> checkSection(PageSection section, boolean tellForItSelf) {
-        if (tellForItSelf) {
-            tellBeforeSection(section);
+    private ValidationResult checkSpec(Instruction instruction, String objectName) {
+        // component specs report their own sub layouts to listener so they should be checked every time
+        if (instruction.specKey == null) {
+            SpecCheck specCheck = new SpecCheck(objectName, null);
+            ValidationResult result = checkAndMeasure(specCheck, objectName, instruction);
+            tellOnSpecTiming(specTimings.remove(specCheck));
+            return result;
         }
 
-        List<ValidationResult> result  = new LinkedList<ValidationResult>();
+        SpecCheck specCheck = new SpecCheck(objectName, instruction.specKey);
+        ValidationResult checkedResult = checkedSpecs.get(specCheck);
+        if (checkedResult != null) {
+            return checkedResult.copy();
+        }
 
-        if (section.getSections() != null) {
-            for (PageSection subSection : section.getSections()) {
-                result.addAll(checkSection(subSection, TELL_FOR_ITSELF));
-            }
+        ValidationResult result = null;
+        Future<ValidationResult> future = scheduledChecks.get(specCheck);
+        if (future != null) {
+            result = waitForResult(future);
         }
+        if (result == null) {
+            result = checkAndMeasure(specCheck, objectName, instruction);
+        }
+        checkedSpecs.put(specCheck, result);
+        tellOnSpecTiming(specTimings.remove(specCheck));
+        return result;
+    }
 
-        result.addAll(checkObjects(section.getObjects(), SHOULD_REPORT));
+    private ValidationResult checkAndMeasure(SpecCheck specCheck, String objectName, Instruction instruction) {
+        Spec spec = instruction.spec;
+        long startTime = System.nanoTime();
+        long startCommands = WebDriverCommandCounter.getCount();
 
-        if (tellForItSelf) {
-            tellAfterSection(section);
-        }
+        ValidationResult result = pageValidation.check(objectName, spec, instruction.specValidation);
 
+        specTimings.put(specCheck, new SpecTiming(objectName, spec.getClass().getSimpleName().replaceFirst("^Spec", ""),
+                spec.getOriginalText(), (System.nanoTime() - startTime) / 1000000.0,
+                WebDriverCommandCounter.getCount() - startCommands));
         return result;
     }
 
-    private boolean oneOfConditionsApplies(List<ConditionalBlockStatement> statements) {
-        for (ConditionalBlockStatement statement : statements) {
-            List<ValidationResult> validationResults = checkSectionSilently(statement.getSection());
-            
-            boolean statementStatus =  doesNotHaveErrors(validationResults);
-            if (statement.isInverted()) {
-                statementStatus = !statementStatus;
+    private void tellOnSpecSkipped(String objectName, Spec spec, String reason) {
+        if (validationListener instanceof SkippedSpecListener) {
+            try {
+                ((SkippedSpecListener) validationListener).onSpecSkipped(pageValidation, objectName, spec, reason);
             }
-            
-            if (statementStatus) {
-                return true;
+            catch (Exception e) {
+                LOG.trace("Unknown error during skipped spec event", e);
             }
         }
-        return false;
     }
 
-    private List<ValidationResult> checkSectionSilently(PageSection section) {
-        List<ValidationResult> result = new LinkedList<ValidationResult>();
-
-        if (section.getSections() != null) {
-            for (PageSection subSection : section.getSections()) {
-                result.addAll(checkSectionSilently(subSection));
+    private void tellOnSpecTiming(SpecTiming specTiming) {
+        if (specTiming != null && validationListener instanceof MetricsListener) {
+            try {
+                ((MetricsListener) validationListener).onSpecTiming(pageValidation, specTiming);
+            }
+            catch (Exception e) {
+                LOG.trace("Unknown error during spec timing event", e);
             }
         }
-
-        result.addAll(checkObjectsSilently(section.getObjects()));
-        return result;
-    }
-
-
-    private List<ValidationResult> checkObjectsSilently(List<ObjectSpecs> objects) {
-        return checkObjects(objects, SHOULD_NOT_REPORT);
     }
 
-    
-    private List<String> findAllObjectNames(String objectsDefinition) {
-        List<String> objectNames = new LinkedList<String>();
-        
-        String names[] = objectsDefinition.split(",");
-        
-        for (String name : names) {
-            name = name.trim();
-            if (!name.isEmpty()) {
-                if (isRegularExpression(name)) {
-                    objectNames.addAll(fetchUsingRegex(name));
-                }
-                else {
-                    objectNames.add(name);
-                }
+    private ValidationResult waitForResult(Future<ValidationResult> future) {
+        try {
+            return future.get();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for spec validation", e);
+        }
+        catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
             }
+            else throw new RuntimeException(e.getCause());
         }
-        return objectNames;
     }
 
-    private List<String> fetchUsingRegex(String simpleRegex) {
-        String regex = simpleRegex.replace("#", "[0-9]+").replace("*", "[a-zA-Z0-9_]+");
-        Pattern pattern = Pattern.compile(regex);
-        
-        List<String> objectNames = new LinkedList<String>();
-        for (String objectName : pageValidation.getPageSpec().getObjects().keySet()) {
-            if (pattern.matcher(objectName).matches()) {
-                objectNames.add(objectName);
-            }
+    private void tellAfterSection(PageSection section) {
+        if (validationListener != null) {
+            validationListener.onAfterSection(pageValidation, section);
         }
-        
-        return objectNames;
     }
 
-    private boolean isRegularExpression(String name) {
-        if (name.contains("*") || name.contains("#")) {
-            return true;
+    private void tellBeforeSection(PageSection section) {
+        if (validationListener != null) {
+            validationListener.onBeforeSection(pageValidation, section);
         }
-        else return false;
     }
 
     private void tellOnAfterObject(String objectName) {
@@ -250,10 +372,10 @@ public class SectionValidation {
         }
     }
 
-    private void tellOnSpecGroup(SpecGroup specGroup) {
+    private void tellOnSpecGroup(String specGroupName) {
         if (validationListener != null) {
             try {
-                validationListener.onSpecGroup(pageValidation, specGroup.getName());
+                validationListener.onSpecGroup(pageValidation, specGroupName);
             }
             catch (Exception e) {
                 LOG.trace("Unknown error during validation of spec group", e);
@@ -261,39 +383,16 @@ public class SectionValidation {
         }
     }
 
-    private void tellOnAfterSpecGroup(SpecGroup specGroup) {
+    private void tellOnAfterSpecGroup(String specGroupName) {
         if (validationListener != null) {
             try {
-                validationListener.onAfterSpecGroup(pageValidation, specGroup.getName());
+                validationListener.onAfterSpecGroup(pageValidation, specGroupName);
             }
             catch (Exception e) {
                 LOG.trace("Unknown error during validation of spec group", e);
             }
         }
     }
-    private List<ValidationResult> checkObject(String objectName, List<Spec> specs, boolean shouldReport) {
-        List<ValidationResult> validationResults = new LinkedList<ValidationResult>();
-        for (Spec spec : specs) {
-
-            if (shouldReport) {
-                tellBeforeSpec(pageValidation, objectName, spec);
-            }
-            
-            ValidationResult result = pageValidation.check(objectName, spec);
-            if (result.getError()!= null) {
-                validationResults.add(result);
-                if (shouldReport) {
-                    tellOnSpecError(pageValidation, objectName, spec, result);
-                }
-            }
-            else if (shouldReport) {
-                tellOnSpecSuccess(pageValidation, objectName, spec, result);
-            }
-        }
-
-        return validationResults;
-    }
-
     private void tellBeforeSpec(PageValidation pageValidation, String objectName, Spec spec) {
         try {
             if (validationListener != null) {
@@ -326,4 +425,35 @@ public class SectionValidation {
         }
     }
 
+    /**
+     * Identifies the check of a spec for an object. Component specs have no spec key
+     * as they are never checked from cache
+     */
+    private static class SpecCheck {
+        private final String objectName;
+        private final ValidationPlan.SpecKey specKey;
+
+        public SpecCheck(String objectName, ValidationPlan.SpecKey specKey) {
+            this.objectName = objectName;
+            this.specKey = specKey;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * objectName.hashCode() + (specKey != null ? specKey.hashCode() : 0);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            if (!(obj instanceof SpecCheck)) {
+                return false;
+            }
+            SpecCheck rhs = (SpecCheck) obj;
+            return objectName.equals(rhs.objectName)
+                    && (specKey == null ? rhs.specKey == null : specKey.equals(rhs.specKey));
+        }
+    }
 }
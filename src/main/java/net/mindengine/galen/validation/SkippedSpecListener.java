@@ -0,0 +1,28 @@
+/*******************************************************************************
+* Copyright 2015 Ivan Shubin http://mindengine.net
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*   http://www.apache.org/licenses/LICENSE-2.0
+* 
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.validation;
+
+import net.mindengine.galen.specs.Spec;
+
+/**
+ * Receives specs which were not checked because the {@link ValidationBudget} was exceeded.
+ * Any validation listener which also implements this interface gets these events right after
+ * {@link ValidationListener#onBeforeSpec} of the skipped spec
+ */
+public interface SkippedSpecListener {
+
+    void onSpecSkipped(PageValidation pageValidation, String objectName, Spec spec, String reason);
+}
@@ -0,0 +1,95 @@
+/*******************************************************************************
+* Copyright 2015 Ivan Shubin http://mindengine.net
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*   http://www.apache.org/licenses/LICENSE-2.0
+* 
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.validation;
+
+import static java.lang.String.format;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.mindengine.galen.config.GalenConfig;
+
+/**
+ * Limits amount of errors and time of a single layout check. Once any of the limits is exceeded
+ * the rest of specs are not checked but reported as skipped.
+ * The same budget is shared by page validations of components so that their errors and time are counted as well.
+ */
+public class ValidationBudget {
+
+    private final int maxErrors;
+    private final long timeBudget;
+    private final long startTime;
+    private final AtomicInteger errors = new AtomicInteger(0);
+    private volatile String stopReason;
+
+    /**
+     * @param maxErrors - amount of errors after which validation is stopped or 0 for no limit
+     * @param timeBudget - time in milliseconds after which validation is stopped or 0 for no limit
+     */
+    public ValidationBudget(int maxErrors, long timeBudget) {
+        this.maxErrors = maxErrors;
+        this.timeBudget = timeBudget;
+        this.startTime = System.nanoTime();
+    }
+
+    public static ValidationBudget unlimited() {
+        return new ValidationBudget(0, 0);
+    }
+
+    public static ValidationBudget fromConfig() {
+        GalenConfig config = GalenConfig.getConfig();
+        return new ValidationBudget(config.getValidationMaxErrors(), config.getValidationTimeBudget());
+    }
+
+    public void addError() {
+        int amount = errors.incrementAndGet();
+        if (maxErrors > 0 && amount >= maxErrors && stopReason == null) {
+            stopReason = format("Validation was stopped after %d error%s", amount, amount > 1 ? "s" : "");
+        }
+    }
+
+    /**
+     * Checks whether any of the limits is exceeded. Once it happens it stays exceeded
+     */
+    public boolean isExceeded() {
+        if (stopReason != null) {
+            return true;
+        }
+        if (timeBudget > 0 && (System.nanoTime() - startTime) / 1000000L > timeBudget) {
+            stopReason = format("Validation was stopped after time budget of %d ms", timeBudget);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the reason why the validation was stopped or null if it was not
+     */
+    public String getStopReason() {
+        return stopReason;
+    }
+
+    public int getErrors() {
+        return errors.get();
+    }
+
+    public int getMaxErrors() {
+        return maxErrors;
+    }
+
+    public long getTimeBudget() {
+        return timeBudget;
+    }
+}
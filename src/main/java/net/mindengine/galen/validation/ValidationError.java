@@ -41,6 +41,15 @@ public class ValidationError {
 
     public ValidationError() {
     }
+
+    /**
+     * Creates a copy of this error with its own list of messages. Image comparison is shared between copies
+     */
+    public ValidationError copy() {
+        ValidationError copy = new ValidationError(messages != null ? new LinkedList<String>(messages) : null, imageComparison);
+        copy.setOnlyWarn(onlyWarn);
+        return copy;
+    }
         
 
     @Override
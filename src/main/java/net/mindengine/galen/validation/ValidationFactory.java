@@ -64,7 +64,7 @@ public class ValidationFactory {
 
     @SuppressWarnings({ "unchecked", "rawtypes" })
     public static SpecValidation<? extends Spec> getValidation(Spec spec, PageValidation pageValidation) {
-        SpecValidation specValidation = ValidationFactory.get().validations.get(spec.getClass());
+        SpecValidation specValidation = findValidation(spec);
         if (specValidation == null) {
             throw new RuntimeException("There is no known validation for spec " + spec.getClass());
         }
@@ -73,4 +73,12 @@ public class ValidationFactory {
         }
     }
 
+    /**
+     * Returns validation for the spec or null if there is no known validation for it
+     */
+    @SuppressWarnings("rawtypes")
+    public static SpecValidation findValidation(Spec spec) {
+        return ValidationFactory.get().validations.get(spec.getClass());
+    }
+
 }
@@ -0,0 +1,316 @@
+/*******************************************************************************
+* Copyright 2015 Ivan Shubin http://mindengine.net
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*   http://www.apache.org/licenses/LICENSE-2.0
+* 
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.validation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import net.mindengine.galen.specs.Spec;
+import net.mindengine.galen.specs.SpecComponent;
+import net.mindengine.galen.specs.page.ConditionalBlock;
+import net.mindengine.galen.specs.page.ConditionalBlockStatement;
+import net.mindengine.galen.specs.page.ObjectSpecs;
+import net.mindengine.galen.specs.page.PageSection;
+import net.mindengine.galen.specs.page.SpecGroup;
+import net.mindengine.galen.specs.reader.page.ObjectNameResolver;
+import net.mindengine.galen.specs.reader.page.PageSpec;
+import net.mindengine.galen.specs.reader.page.TaggedPageSection;
+
+import org.apache.commons.lang3.builder.EqualsBuilder;
+import org.apache.commons.lang3.builder.HashCodeBuilder;
+
+/**
+ * Page sections compiled into a flat list of instructions which is executed by {@link SectionValidation}.
+ * Validations of specs are resolved and object names are split and compiled once, so the same plan
+ * can be checked against any number of pages. The names of multi-objects are still found
+ * for each page as they depend on the page.
+ */
+public class ValidationPlan {
+
+    enum Type {
+        BEFORE_SECTION, AFTER_SECTION, OBJECT, SPEC, SPEC_GROUP, AFTER_SPEC_GROUP, CONDITIONAL_BLOCK
+    }
+
+    private final List<TaggedPageSection> sections;
+    private final Instruction[] instructions;
+
+    private ValidationPlan(List<TaggedPageSection> sections, List<Instruction> instructions) {
+        this.sections = sections;
+        this.instructions = instructions.toArray(new Instruction[instructions.size()]);
+    }
+
+    public static ValidationPlan compile(List<TaggedPageSection> sections) {
+        List<Instruction> instructions = new ArrayList<Instruction>();
+        for (TaggedPageSection section : sections) {
+            compileTaggedSection(instructions, section);
+        }
+        return new ValidationPlan(Collections.unmodifiableList(new ArrayList<TaggedPageSection>(sections)), instructions);
+    }
+
+    public List<TaggedPageSection> getSections() {
+        return sections;
+    }
+
+    Instruction[] getInstructions() {
+        return instructions;
+    }
+
+    private static void compileTaggedSection(List<Instruction> instructions, TaggedPageSection section) {
+        instructions.add(Instruction.section(Type.BEFORE_SECTION, section));
+        compileSection(instructions, section, false, true);
+
+        if (section.getConditionalBlocks() != null) {
+            for (ConditionalBlock block : section.getConditionalBlocks()) {
+                compileConditionalBlock(instructions, block);
+            }
+        }
+        instructions.add(Instruction.section(Type.AFTER_SECTION, section));
+    }
+
+    private static void compileSection(List<Instruction> instructions, PageSection section, boolean tellForItself, boolean shouldReport) {
+        if (tellForItself) {
+            instructions.add(Instruction.section(Type.BEFORE_SECTION, section));
+        }
+
+        if (section.getSections() != null) {
+            for (PageSection subSection : section.getSections()) {
+                compileSection(instructions, subSection, shouldReport, shouldReport);
+            }
+        }
+
+        for (ObjectSpecs object : section.getObjects()) {
+            compileObject(instructions, object, shouldReport);
+        }
+
+        if (tellForItself) {
+            instructions.add(Instruction.section(Type.AFTER_SECTION, section));
+        }
+    }
+
+    private static void compileObject(List<Instruction> instructions, ObjectSpecs object, boolean shouldReport) {
+        Instruction objectInstruction = Instruction.object(object.getObjectName(), shouldReport);
+        instructions.add(objectInstruction);
+
+        for (Spec spec : object.getSpecs()) {
+            instructions.add(Instruction.spec(spec, shouldReport, true));
+        }
+
+        if (object.getSpecGroups() != null) {
+            for (SpecGroup specGroup : object.getSpecGroups()) {
+                instructions.add(Instruction.specGroup(Type.SPEC_GROUP, specGroup.getName()));
+                for (Spec spec : specGroup.getSpecs()) {
+                    instructions.add(Instruction.spec(spec, shouldReport, false));
+                }
+                instructions.add(Instruction.specGroup(Type.AFTER_SPEC_GROUP, specGroup.getName()));
+            }
+        }
+        objectInstruction.end = instructions.size();
+    }
+
+    private static void compileConditionalBlock(List<Instruction> instructions, ConditionalBlock block) {
+        Instruction blockInstruction = Instruction.conditionalBlock(block.getStatements().size());
+        instructions.add(blockInstruction);
+
+        int statementIndex = 0;
+        for (ConditionalBlockStatement statement : block.getStatements()) {
+            blockInstruction.statementStarts[statementIndex] = instructions.size();
+            compileSection(instructions, statement.getSection(), false, false);
+            blockInstruction.statementEnds[statementIndex] = instructions.size();
+            blockInstruction.statementsInverted[statementIndex] = statement.isInverted();
+            statementIndex++;
+        }
+
+        blockInstruction.bodyStart = instructions.size();
+        compileSection(instructions, block.getBodyObjects(), false, true);
+        blockInstruction.bodyEnd = instructions.size();
+
+        if (block.getOtherwiseObjects() != null) {
+            blockInstruction.otherwiseStart = instructions.size();
+            compileSection(instructions, block.getOtherwiseObjects(), false, true);
+            blockInstruction.otherwiseEnd = instructions.size();
+        }
+        blockInstruction.end = instructions.size();
+    }
+
+    static class Instruction {
+        final Type type;
+        final boolean shouldReport;
+
+        /** BEFORE_SECTION, AFTER_SECTION */
+        PageSection section;
+
+        /** OBJECT: object names or wildcard names of object definition and patterns for the wildcard ones */
+        String[] objectNames;
+        Pattern[] objectNamePatterns;
+        List<String> singleObjectName;
+
+        /** OBJECT, CONDITIONAL_BLOCK: index of the first instruction after this block */
+        int end;
+
+        /** SPEC */
+        Spec spec;
+        @SuppressWarnings("rawtypes")
+        SpecValidation specValidation;
+        SpecKey specKey;
+        boolean collectsResult;
+
+        /** SPEC_GROUP, AFTER_SPEC_GROUP */
+        String specGroupName;
+
+        /** CONDITIONAL_BLOCK */
+        int[] statementStarts;
+        int[] statementEnds;
+        boolean[] statementsInverted;
+        int bodyStart;
+        int bodyEnd;
+        int otherwiseStart = -1;
+        int otherwiseEnd = -1;
+
+        private Instruction(Type type, boolean shouldReport) {
+            this.type = type;
+            this.shouldReport = shouldReport;
+        }
+
+        static Instruction section(Type type, PageSection section) {
+            Instruction instruction = new Instruction(type, true);
+            instruction.section = section;
+            return instruction;
+        }
+
+        static Instruction object(String objectsDefinition, boolean shouldReport) {
+            Instruction instruction = new Instruction(Type.OBJECT, shouldReport);
+            List<String> names = new ArrayList<String>();
+            for (String name : objectsDefinition.split(",")) {
+                name = name.trim();
+                if (!name.isEmpty()) {
+                    names.add(name);
+                }
+            }
+            instruction.objectNames = names.toArray(new String[names.size()]);
+            instruction.objectNamePatterns = new Pattern[names.size()];
+            boolean hasPatterns = false;
+            for (int i = 0; i < instruction.objectNames.length; i++) {
+                String name = instruction.objectNames[i];
+                if (name.contains("*") || name.contains("#")) {
+                    instruction.objectNamePatterns[i] = ObjectNameResolver.compile(name.replace("#", "[0-9]+").replace("*", "[a-zA-Z0-9_]+"));
+                    hasPatterns = true;
+                }
+            }
+            if (!hasPatterns && names.size() == 1) {
+                instruction.singleObjectName = Collections.singletonList(names.get(0));
+            }
+            return instruction;
+        }
+
+        static Instruction spec(Spec spec, boolean shouldReport, boolean collectsResult) {
+            Instruction instruction = new Instruction(Type.SPEC, shouldReport);
+            instruction.spec = spec;
+            instruction.specValidation = ValidationFactory.findValidation(spec);
+            instruction.specKey = spec instanceof SpecComponent ? null : new SpecKey(spec);
+            instruction.collectsResult = collectsResult;
+            return instruction;
+        }
+
+        static Instruction specGroup(Type type, String specGroupName) {
+            Instruction instruction = new Instruction(type, true);
+            instruction.specGroupName = specGroupName;
+            return instruction;
+        }
+
+        static Instruction conditionalBlock(int statementsAmount) {
+            Instruction instruction = new Instruction(Type.CONDITIONAL_BLOCK, true);
+            instruction.statementStarts = new int[statementsAmount];
+            instruction.statementEnds = new int[statementsAmount];
+            instruction.statementsInverted = new boolean[statementsAmount];
+            return instruction;
+        }
+
+        /**
+         * Returns names of all objects matching the object definition in the given page spec
+         */
+        List<String> findObjectNames(PageSpec pageSpec) {
+            if (singleObjectName != null) {
+                return singleObjectName;
+            }
+            List<String> names = new LinkedList<String>();
+            for (int i = 0; i < objectNames.length; i++) {
+                if (objectNamePatterns[i] != null) {
+                    names.addAll(pageSpec.findObjectNames(objectNames[i], objectNamePatterns[i]));
+                }
+                else {
+                    names.add(objectNames[i]);
+                }
+            }
+            return names;
+        }
+    }
+
+    /**
+     * Identifies a spec regardless of the object for which it is checked. Specs are compared by their text and the file
+     * they were read from so that the same spec declared in different sections is treated as the same.
+     * Specs without text (e.g. created in code) are only equal to themselves
+     */
+    static class SpecKey {
+        private final Class<?> specClass;
+        private final String specText;
+        private final String specFilePath;
+        private final boolean onlyWarn;
+        private final Spec specWithoutText;
+        private final int hashCode;
+
+        SpecKey(Spec spec) {
+            this.specClass = spec.getClass();
+            this.specText = spec.getOriginalText();
+            this.specFilePath = spec.getPlace() != null ? spec.getPlace().getFilePath() : null;
+            this.onlyWarn = spec.isOnlyWarn();
+            this.specWithoutText = specText == null ? spec : null;
+            this.hashCode = new HashCodeBuilder()
+                    .append(specClass)
+                    .append(specText)
+                    .append(specFilePath)
+                    .append(onlyWarn)
+                    .append(specWithoutText != null ? System.identityHashCode(specWithoutText) : 0)
+                    .toHashCode();
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            if (!(obj instanceof SpecKey)) {
+                return false;
+            }
+            SpecKey rhs = (SpecKey) obj;
+            return specWithoutText == rhs.specWithoutText
+                    && hashCode == rhs.hashCode
+                    && new EqualsBuilder()
+                    .append(specClass, rhs.specClass)
+                    .append(specText, rhs.specText)
+                    .append(specFilePath, rhs.specFilePath)
+                    .append(onlyWarn, rhs.onlyWarn)
+                    .isEquals();
+        }
+    }
+}
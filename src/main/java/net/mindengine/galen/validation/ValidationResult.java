@@ -42,6 +42,14 @@ public class ValidationResult {
         this.error = validationError;
     }
 
+    /**
+     * Creates a copy of this result with its own list of validation objects and its own error
+     */
+    public ValidationResult copy() {
+        return new ValidationResult(validationObjects != null ? new LinkedList<ValidationObject>(validationObjects) : null,
+                error != null ? error.copy() : null);
+    }
+
     public List<ValidationObject> getValidationObjects() {
         return validationObjects;
     }
@@ -0,0 +1,128 @@
+/*******************************************************************************
+* Copyright 2015 Ivan Shubin http://mindengine.net
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*   http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.validation.specs;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.List;
+
+import net.mindengine.rainbow4j.ComparisonOptions;
+
+/**
+ * Counts mismatching pixels of two images the same way as Rainbow4J.compare does
+ * but without building comparison map and filtered images. It reads only the compared areas
+ * and stops as soon as the amount of mismatching pixels exceeds the given limit.
+ * Filters are not supported, so images with filters should be compared with Rainbow4J
+ */
+public class ImageMismatchCounter {
+
+    public static final long NO_LIMIT = Long.MAX_VALUE;
+
+    private ImageMismatchCounter() {
+    }
+
+    public static boolean supports(ComparisonOptions options) {
+        return isEmpty(options.getOriginalFilters())
+                && isEmpty(options.getSampleFilters())
+                && isEmpty(options.getMapFilters());
+    }
+
+    /**
+     * @param maxAllowed - counting stops once the amount of mismatching pixels is bigger than this value
+     * @return amount of mismatching pixels or any value bigger than maxAllowed if the limit was exceeded
+     */
+    public static long countMismatchingPixels(BufferedImage original, BufferedImage sample,
+                                              Rectangle originalArea, Rectangle sampleArea,
+                                              ComparisonOptions options, long maxAllowed) {
+        if (originalArea.x + originalArea.width > original.getWidth() || originalArea.y + originalArea.height > original.getHeight()) {
+            throw new RuntimeException("Specified area is outside for original image");
+        }
+        if (sampleArea.x + sampleArea.width > sample.getWidth() || sampleArea.y + sampleArea.height > sample.getHeight()) {
+            throw new RuntimeException("Specified area is outside for secondary image");
+        }
+
+        int tolerance = Math.max(options.getTolerance(), 0);
+        boolean stretch = options.isStretchToFit();
+
+        int width = originalArea.width;
+        int height = originalArea.height;
+        double widthRatio = (double) sampleArea.width / (double) width;
+        double heightRatio = (double) sampleArea.height / (double) height;
+
+        int[] originalRow = new int[width];
+        int[] sampleRow = new int[sample.getWidth()];
+
+        long mismatches = 0;
+
+        for (int y = 0; y < height; y++) {
+            original.getRGB(originalArea.x, originalArea.y + y, width, 1, originalRow, 0, width);
+
+            int sampleY;
+            if (stretch) {
+                sampleY = Math.min((int) Math.round(y * heightRatio + sampleArea.y), sampleArea.y + sampleArea.height - 1);
+            }
+            else {
+                sampleY = y + sampleArea.y;
+            }
+
+            boolean sampleRowExists = sampleY >= 0 && sampleY < sample.getHeight();
+            if (sampleRowExists) {
+                sample.getRGB(0, sampleY, sample.getWidth(), 1, sampleRow, 0, sample.getWidth());
+            }
+
+            for (int x = 0; x < width; x++) {
+                int sampleX;
+                if (stretch) {
+                    sampleX = Math.min((int) Math.round(x * widthRatio + sampleArea.x), sampleArea.x + sampleArea.width - 1);
+                }
+                else {
+                    sampleX = x + sampleArea.x;
+                }
+
+                // pixels outside of sample image are treated as black, same as in Rainbow4J
+                int sampleColor = 0;
+                if (sampleRowExists && sampleX >= 0 && sampleX < sample.getWidth()) {
+                    sampleColor = sampleRow[sampleX];
+                }
+
+                if (colorDiff(originalRow[x], sampleColor) > tolerance) {
+                    // Rainbow4J doesn't take the last pixel of comparison map into account
+                    boolean isLastPixel = y == height - 1 && x == width - 1;
+                    if (!isLastPixel) {
+                        mismatches++;
+                        if (mismatches > maxAllowed) {
+                            return mismatches;
+                        }
+                    }
+                }
+            }
+        }
+        return mismatches;
+    }
+
+    /**
+     * Color difference as it is calculated in Rainbow4J, which only takes red and green channels into account
+     */
+    private static int colorDiff(int rgb1, int rgb2) {
+        int redDiff = Math.abs(((rgb1 >> 16) & 0xff) - ((rgb2 >> 16) & 0xff));
+        int greenDiff = Math.abs(((rgb1 >> 8) & 0xff) - ((rgb2 >> 8) & 0xff));
+        return redDiff + greenDiff;
+    }
+
+    private static boolean isEmpty(List<?> list) {
+        return list == null || list.isEmpty();
+    }
+}
@@ -0,0 +1,194 @@
+/*******************************************************************************
+* Copyright 2015 Ivan Shubin http://mindengine.net
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*   http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.validation.specs;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+import net.mindengine.galen.config.GalenConfig;
+import net.mindengine.galen.utils.GalenUtils;
+import net.mindengine.rainbow4j.Rainbow4J;
+
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Keeps decoded sample images that are used in image specs so that the same image is not decoded for every check.
+ * The cache is limited by the total amount of bytes taken by decoded images and evicts the least recently used ones.
+ * Images are identified by their path and modification time, so changed files are decoded again.
+ * Each image is decoded by only one thread at a time, other threads which need the same image wait for it.
+ * Cached images are shared between threads and should never be modified.
+ */
+public class SampleImageCache {
+
+    private static final SampleImageCache instance = new SampleImageCache(GalenConfig.getConfig().getImageCacheSizeInBytes());
+
+    private final long maxBytes;
+
+    private final LinkedHashMap<String, BufferedImage> images = new LinkedHashMap<String, BufferedImage>(16, 0.75f, true);
+    private final Map<String, FutureTask<BufferedImage>> pendingImages = new HashMap<String, FutureTask<BufferedImage>>();
+
+    private long usedBytes = 0;
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+
+    public SampleImageCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    public static SampleImageCache getInstance() {
+        return instance;
+    }
+
+    /**
+     * Returns decoded image from cache or decodes it. If the same image is already being decoded
+     * by another thread, waits for it instead of decoding it once again
+     */
+    public BufferedImage loadImage(final String imagePath) throws IOException {
+        String key = createKey(imagePath);
+
+        FutureTask<BufferedImage> decoding;
+        boolean shouldDecode = false;
+
+        synchronized (this) {
+            BufferedImage image = images.get(key);
+            if (image != null) {
+                hits++;
+                return image;
+            }
+
+            decoding = pendingImages.get(key);
+            if (decoding == null) {
+                decoding = new FutureTask<BufferedImage>(new Callable<BufferedImage>() {
+                    @Override
+                    public BufferedImage call() throws Exception {
+                        return decodeImage(imagePath);
+                    }
+                });
+                pendingImages.put(key, decoding);
+                shouldDecode = true;
+                misses++;
+            }
+            else {
+                hits++;
+            }
+        }
+
+        if (shouldDecode) {
+            decoding.run();
+            synchronized (this) {
+                pendingImages.remove(key);
+                BufferedImage image = getDecodedImage(decoding, imagePath);
+                store(key, image);
+                return image;
+            }
+        }
+        return getDecodedImage(decoding, imagePath);
+    }
+
+    private static BufferedImage getDecodedImage(FutureTask<BufferedImage> decoding, String imagePath) throws IOException {
+        try {
+            return decoding.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for image: " + imagePath, e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException("Couldn't decode image: " + imagePath, cause);
+        }
+    }
+
+    protected BufferedImage decodeImage(String imagePath) throws IOException {
+        InputStream stream = GalenUtils.findFileOrResourceAsStream(imagePath);
+        if (stream == null) {
+            throw new FileNotFoundException("Can't find file or resource: " + imagePath);
+        }
+        try {
+            return Rainbow4J.loadImage(stream);
+        } finally {
+            IOUtils.closeQuietly(stream);
+        }
+    }
+
+    private synchronized void store(String key, BufferedImage image) {
+        long imageBytes = sizeOf(image);
+        if (imageBytes > maxBytes || images.containsKey(key)) {
+            return;
+        }
+
+        Iterator<Map.Entry<String, BufferedImage>> it = images.entrySet().iterator();
+        while (usedBytes + imageBytes > maxBytes && it.hasNext()) {
+            usedBytes -= sizeOf(it.next().getValue());
+            it.remove();
+            evictions++;
+        }
+
+        images.put(key, image);
+        usedBytes += imageBytes;
+    }
+
+    private static String createKey(String imagePath) {
+        File file = new File(imagePath);
+        if (file.exists()) {
+            return file.getAbsolutePath() + "|" + file.lastModified() + "|" + file.length();
+        }
+        return "resource:" + imagePath;
+    }
+
+    private static long sizeOf(BufferedImage image) {
+        return 4L * image.getWidth() * image.getHeight();
+    }
+
+    public synchronized void clear() {
+        images.clear();
+        usedBytes = 0;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    public synchronized long getUsedBytes() {
+        return usedBytes;
+    }
+}
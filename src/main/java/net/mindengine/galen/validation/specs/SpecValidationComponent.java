@@ -16,6 +16,7 @@
 package net.mindengine.galen.validation.specs;
 
 import java.io.IOException;
+import java.util.Collections;
 import java.util.List;
 
 import net.mindengine.galen.browser.Browser;
@@ -24,7 +25,7 @@ import net.mindengine.galen.page.PageElement;
 import net.mindengine.galen.specs.SpecComponent;
 import net.mindengine.galen.specs.page.Locator;
 import net.mindengine.galen.specs.reader.page.PageSpec;
-import net.mindengine.galen.specs.reader.page.PageSpecReader;
+import net.mindengine.galen.specs.reader.page.PageSpecCache;
 import net.mindengine.galen.specs.reader.page.SectionFilter;
 import net.mindengine.galen.validation.*;
 import org.slf4j.Logger;
@@ -89,9 +90,12 @@ public class SpecValidationComponent extends SpecValidation<SpecComponent> {
         Page page = pageValidation.getPage();
 
         Page framePage = page.createFrameContext(mainObject);
+        if (framePage == null) {
+            return Collections.emptyList();
+        }
 
         List<ValidationResult> results = checkInsidePage(pageValidation.getBrowser(), framePage, spec,
-                pageValidation.getSectionFilter(), pageValidation.getValidationListener());
+                pageValidation.getSectionFilter(), pageValidation.getValidationListener(), pageValidation.getValidationBudget());
 
         if (spec.isFrame()) {
             page.switchToParentFrame();
@@ -102,18 +106,18 @@ public class SpecValidationComponent extends SpecValidation<SpecComponent> {
 
 
     private List<ValidationResult> checkInsidePage(Browser browser, Page page, SpecComponent spec,
-                                                   SectionFilter sectionFilter, ValidationListener validationListener) {
-        PageSpecReader pageSpecReader = new PageSpecReader(spec.getProperties(), page);
-
+                                                   SectionFilter sectionFilter, ValidationListener validationListener,
+                                                   ValidationBudget validationBudget) {
         PageSpec componentPageSpec;
         try {
-            componentPageSpec = pageSpecReader.read(spec.getSpecPath());
+            componentPageSpec = PageSpecCache.getInstance().read(spec.getSpecPath(), spec.getProperties(), page);
         } catch (IOException e) {
             throw new RuntimeException(e.getMessage(), e);
         }
 
         SectionValidation sectionValidation = new SectionValidation(componentPageSpec.findSections(sectionFilter),
-                new PageValidation(browser, page, componentPageSpec, validationListener, sectionFilter),
+                new PageValidation(browser, page, componentPageSpec, validationListener, sectionFilter)
+                        .withValidationBudget(validationBudget),
                 validationListener);
 
         return sectionValidation.check();
@@ -122,9 +126,12 @@ public class SpecValidationComponent extends SpecValidation<SpecComponent> {
     private List<ValidationResult> checkInsideNormalWebElement(PageValidation pageValidation, String objectName, SpecComponent spec) {
         Locator mainObjectLocator = pageValidation.getPageSpec().getObjectLocator(objectName);
         Page objectContextPage = pageValidation.getPage().createObjectContextPage(mainObjectLocator);
+        if (objectContextPage == null) {
+            return Collections.emptyList();
+        }
 
         return checkInsidePage(pageValidation.getBrowser(), objectContextPage, spec,
-                pageValidation.getSectionFilter(), pageValidation.getValidationListener());
+                pageValidation.getSectionFilter(), pageValidation.getValidationListener(), pageValidation.getValidationBudget());
     }
 
 }
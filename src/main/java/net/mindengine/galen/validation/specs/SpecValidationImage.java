@@ -17,15 +17,13 @@ package net.mindengine.galen.validation.specs;
 
 import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
-import java.io.InputStream;
-import java.util.Iterator;
+import java.util.LinkedList;
 import java.util.List;
 
 import net.mindengine.galen.config.GalenConfig;
 import net.mindengine.galen.page.PageElement;
 import net.mindengine.galen.page.Rect;
 import net.mindengine.galen.specs.SpecImage;
-import net.mindengine.galen.utils.GalenUtils;
 import net.mindengine.galen.validation.*;
 import net.mindengine.rainbow4j.ComparisonOptions;
 import net.mindengine.rainbow4j.ImageCompareResult;
@@ -43,15 +41,21 @@ public class SpecValidationImage extends SpecValidation<SpecImage> {
     private static class ImageCheck {
 
         private final String imagePath;
-        private final double difference;
-        private final ImageCompareResult result;
-        private final String errorMessage;
+        private final BufferedImage sampleImage;
+        private final Rectangle elementArea;
+        private final Rectangle sampleArea;
+        private double difference;
+        private ImageCompareResult result;
 
-        public ImageCheck(String imagePath, double difference, ImageCompareResult result, String errorMessage) {
+        public ImageCheck(String imagePath, BufferedImage sampleImage, Rectangle elementArea, Rectangle sampleArea) {
             this.imagePath = imagePath;
-            this.difference = difference;
-            this.result = result;
-            this.errorMessage = errorMessage;
+            this.sampleImage = sampleImage;
+            this.elementArea = elementArea;
+            this.sampleArea = sampleArea;
+        }
+
+        public boolean isPassed() {
+            return difference <= 0;
         }
     }
 
@@ -75,24 +79,37 @@ public class SpecValidationImage extends SpecValidation<SpecImage> {
         options.setMapFilters(spec.getMapFilters());
         options.setTolerance(tolerance);
 
+        SpecImage.ErrorRate errorRate = spec.getErrorRate();
+        if (errorRate == null) {
+            errorRate = GalenConfig.getConfig().getImageSpecDefaultErrorRate();
+        }
+
         Rect elementArea = pageElement.getArea();
 
-        ImageCheck minCheck = new ImageCheck(spec.getImagePaths().get(0), elementArea.getHeight() * elementArea.getWidth() * 2, null, null);
+        if (spec.getImagePaths().isEmpty()) {
+            throw new ValidationErrorException("There are now images defined to compare with").withValidationObject(new ValidationObject(pageElement.getArea(), objectName));
+        }
 
-        Iterator<String> it = spec.getImagePaths().iterator();
+        List<ValidationObject> objects = asList(new ValidationObject(pageElement.getArea(), objectName));
 
-        if (!it.hasNext()) {
-            throw new ValidationErrorException("There are now images defined to compare with").withValidationObject(new ValidationObject(pageElement.getArea(), objectName));
+        if (elementArea.getWidth() * elementArea.getHeight() == 0) {
+            return new ValidationResult(objects);
         }
 
+        ImageCheck minCheck;
         try {
-            while (minCheck.difference > 0 && it.hasNext()) {
-                String imagePath = it.next();
-
-                ImageCheck imageCheck = checkImages(spec, pageImage, options, elementArea, imagePath);
-                if (imageCheck.difference <= minCheck.difference) {
-                    minCheck = imageCheck;
+            List<ImageCheck> failedChecks = new LinkedList<ImageCheck>();
+            for (String imagePath : spec.getImagePaths()) {
+                ImageCheck imageCheck = checkImages(spec, pageImage, options, errorRate, elementArea, imagePath);
+                if (imageCheck.isPassed()) {
+                    return new ValidationResult(objects);
                 }
+                failedChecks.add(imageCheck);
+            }
+
+            minCheck = findClosestImage(failedChecks, pageImage, options, errorRate);
+            if (minCheck.result == null) {
+                minCheck.result = Rainbow4J.compare(pageImage, minCheck.sampleImage, minCheck.elementArea, minCheck.sampleArea, options);
             }
         } catch (ValidationErrorException ex) {
             LOG.trace("Validation errors during image compare.", ex);
@@ -103,28 +120,42 @@ public class SpecValidationImage extends SpecValidation<SpecImage> {
             throw new ValidationErrorException(ex).withValidationObject(new ValidationObject(pageElement.getArea(), objectName));
         }
 
-        List<ValidationObject> objects = asList(new ValidationObject(pageElement.getArea(), objectName));
+        throw new ValidationErrorException(createErrorMessage(spec, errorRate, minCheck.result))
+                .withValidationObjects(objects)
+                .withImageComparison(new ImageComparison(
+                        minCheck.result.getOriginalFilteredImage(),
+                        minCheck.result.getSampleFilteredImage(),
+                        minCheck.result.getComparisonMap()));
+    }
 
-        if (minCheck.difference > 0) {
-            throw new ValidationErrorException(minCheck.errorMessage)
-                    .withValidationObjects(objects)
-                    .withImageComparison(new ImageComparison(
-                            minCheck.result.getOriginalFilteredImage(),
-                            minCheck.result.getSampleFilteredImage(),
-                            minCheck.result.getComparisonMap()));
+    /**
+     * Picks the failed image check with the smallest difference. Checks that were stopped early
+     * are counted again completely but only if there is more than one image to choose from
+     */
+    private ImageCheck findClosestImage(List<ImageCheck> failedChecks, BufferedImage pageImage, ComparisonOptions options, SpecImage.ErrorRate errorRate) {
+        if (failedChecks.size() == 1) {
+            return failedChecks.get(0);
         }
 
-        return new ValidationResult(objects);
+        ImageCheck minCheck = null;
+        for (ImageCheck imageCheck : failedChecks) {
+            if (imageCheck.result == null) {
+                long totalPixels = ImageMismatchCounter.countMismatchingPixels(pageImage, imageCheck.sampleImage,
+                        imageCheck.elementArea, imageCheck.sampleArea, options, ImageMismatchCounter.NO_LIMIT);
+                imageCheck.difference = calculateDifference(errorRate, totalPixels, imageCheck.elementArea);
+            }
+            if (minCheck == null || imageCheck.difference <= minCheck.difference) {
+                minCheck = imageCheck;
+            }
+        }
+        return minCheck;
     }
 
-
-
-    private ImageCheck checkImages(SpecImage spec, BufferedImage pageImage, ComparisonOptions options, Rect elementArea, String imagePath)
+    private ImageCheck checkImages(SpecImage spec, BufferedImage pageImage, ComparisonOptions options, SpecImage.ErrorRate errorRate, Rect elementArea, String imagePath)
             throws ValidationErrorException {
         BufferedImage sampleImage;
         try {
-            InputStream stream = GalenUtils.findFileOrResourceAsStream(imagePath);
-            sampleImage = Rainbow4J.loadImage(stream);
+            sampleImage = SampleImageCache.getInstance().loadImage(imagePath);
         } catch (Exception ex) {
             LOG.error("Unkown errors during image check.", ex);
             throw new ValidationErrorException("Couldn't load image: " + spec.getImagePaths().get(0));
@@ -143,29 +174,73 @@ public class SpecValidationImage extends SpecValidation<SpecImage> {
             elementArea = cropElementAreaIfOutside(elementArea, pageImage.getWidth(), pageImage.getHeight());
         }
 
-        ImageCompareResult result = Rainbow4J.compare(pageImage, sampleImage, toRectangle(elementArea), sampleArea, options);
+        ImageCheck imageCheck = new ImageCheck(imagePath, sampleImage, toRectangle(elementArea), sampleArea);
 
-        double difference = 0.0;
-        String errorMessage = null;
+        if (ImageMismatchCounter.supports(options)) {
+            long maxAllowedPixels = maxAllowedPixels(errorRate, imageCheck.elementArea);
+            long totalPixels = ImageMismatchCounter.countMismatchingPixels(pageImage, sampleImage, imageCheck.elementArea, sampleArea, options, maxAllowedPixels);
 
-        SpecImage.ErrorRate errorRate = spec.getErrorRate();
-        if (errorRate == null) {
-            errorRate = GalenConfig.getConfig().getImageSpecDefaultErrorRate();
+            if (totalPixels <= maxAllowedPixels) {
+                imageCheck.difference = calculateDifference(errorRate, totalPixels, imageCheck.elementArea);
+            } else {
+                // comparison was stopped early so the exact difference is not known yet
+                imageCheck.difference = Double.MAX_VALUE;
+            }
+        } else {
+            imageCheck.result = Rainbow4J.compare(pageImage, sampleImage, imageCheck.elementArea, sampleArea, options);
+            imageCheck.difference = calculateDifference(errorRate, imageCheck.result.getTotalPixels(), imageCheck.result.getPercentage());
         }
+        return imageCheck;
+    }
 
+    private double calculateDifference(SpecImage.ErrorRate errorRate, long totalPixels, Rectangle elementArea) {
+        return calculateDifference(errorRate, totalPixels, percentage(totalPixels, elementArea));
+    }
+
+    private double calculateDifference(SpecImage.ErrorRate errorRate, long totalPixels, double percentage) {
         if (errorRate.getType() == SpecImage.ErrorRateType.PERCENT) {
-            difference = result.getPercentage() - errorRate.getValue();
-            if (difference > 0) {
-                errorMessage = createErrorMessageForPercentage(msgErrorPrefix(spec.getImagePaths().get(0)), errorRate.getValue(), result.getPercentage());
-            }
+            return percentage - errorRate.getValue();
         } else {
-            difference = result.getTotalPixels() - errorRate.getValue();
-            if (difference > 0) {
-                errorMessage = createErrorMessageForPixels(msgErrorPrefix(spec.getImagePaths().get(0)), errorRate.getValue().intValue(), result.getTotalPixels());
+            return totalPixels - errorRate.getValue();
+        }
+    }
+
+    /**
+     * Finds the biggest amount of mismatching pixels that still passes the given error rate
+     */
+    private long maxAllowedPixels(SpecImage.ErrorRate errorRate, Rectangle elementArea) {
+        if (errorRate.getType() == SpecImage.ErrorRateType.PERCENT) {
+            long area = (long) elementArea.width * elementArea.height;
+            if (area == 0) {
+                return ImageMismatchCounter.NO_LIMIT;
+            }
+
+            long pixels = (long) Math.floor(errorRate.getValue() * area / 100.0);
+            while (pixels >= 0 && percentage(pixels, elementArea) > errorRate.getValue()) {
+                pixels--;
             }
+            while (pixels < area && percentage(pixels + 1, elementArea) <= errorRate.getValue()) {
+                pixels++;
+            }
+            return Math.max(pixels, -1);
+        } else {
+            return Math.max((long) Math.floor(errorRate.getValue()), -1);
         }
+    }
 
-        return new ImageCheck(imagePath, difference, result, errorMessage);
+    /**
+     * Percentage of mismatching pixels calculated the same way as in Rainbow4J
+     */
+    private double percentage(long totalPixels, Rectangle elementArea) {
+        return 100.0 * totalPixels / (double) (elementArea.width * elementArea.height);
+    }
+
+    private String createErrorMessage(SpecImage spec, SpecImage.ErrorRate errorRate, ImageCompareResult result) throws ValidationErrorException {
+        if (errorRate.getType() == SpecImage.ErrorRateType.PERCENT) {
+            return createErrorMessageForPercentage(msgErrorPrefix(spec.getImagePaths().get(0)), errorRate.getValue(), result.getPercentage());
+        } else {
+            return createErrorMessageForPixels(msgErrorPrefix(spec.getImagePaths().get(0)), errorRate.getValue().intValue(), result.getTotalPixels());
+        }
     }
 
     private Rect cropElementAreaIfOutside(Rect elementArea, int width, int height) {
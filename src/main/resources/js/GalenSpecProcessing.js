@@ -1,6 +1,6 @@
-/** This script is used in PageSpecReader **/
+/** This script is used in PageSpecReader. It is compiled once and shared between all page spec readers **/
 /*jslint nomen: true*/
-/*global importClass, net, java, SpecReader, RuleProcessor, PageSection, ObjectSpecs, Properties, SpecGroup, _pageSpec*/
+/*global importClass, net, java, SpecReader, RuleProcessor, PageSection, ObjectSpecs, Properties, SpecGroup*/
 
 importClass(net.mindengine.galen.specs.reader.page.RuleProcessor);
 importClass(net.mindengine.galen.specs.reader.SpecReader);
@@ -39,10 +39,10 @@ function _readSpec(specText) {
 }
 
 /*jslint unparam: true*/
-this.rule = function (ruleExpression, callback) {
+function _addRule(pageSpec, ruleExpression, callback) {
     "use strict";
 
-    _pageSpec.addRuleProcessor(ruleExpression, new RuleProcessor({
+    pageSpec.addRuleProcessor(ruleExpression, new RuleProcessor({
         callback: callback,
 
         processRule: function (object, ruleText, varsContext, section, properties, contextPath, pageSpecReader) {
@@ -114,5 +114,15 @@ this.rule = function (ruleExpression, callback) {
             }
         }
     }));
-};
+}
 
+/**
+ * Creates the "rule" function for the page spec reader. As this script is shared
+ * the reader can't be taken from the global scope and is passed explicitly
+ */
+function _createRule(pageSpec) {
+    "use strict";
+    return function (ruleExpression, callback) {
+        _addRule(pageSpec, ruleExpression, callback);
+    };
+}
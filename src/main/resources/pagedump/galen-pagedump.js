@@ -44,7 +44,7 @@ function initGalenPageDump(pageData) {
     var canvas = $(".image .canvas");
 
     for (objectName in pageData.items) {
-        if (pageData.items.hasOwnProperty(objectName)) {
+        if (pageData.items.hasOwnProperty(objectName) && pageData.items[objectName].visible !== false) {
             var item = pageData.items[objectName];
             item.name = objectName;
             item.id = _pageItems.length;
@@ -27,6 +27,7 @@ import com.google.common.io.Files;
 import net.mindengine.galen.browser.Browser;
 import net.mindengine.galen.components.validation.MockedPage;
 import net.mindengine.galen.page.Page;
+import net.mindengine.galen.page.Screenshot;
 
 public class MockedBrowser implements Browser {
 
@@ -77,7 +78,7 @@ public class MockedBrowser implements Browser {
     }
 
     @Override
-    public File createScreenshot() {
+    public Screenshot createScreenshot() {
         File tempDir = Files.createTempDir();
         
         File file = new File(tempDir.getAbsolutePath() + UUID.randomUUID().toString() + ".png");
@@ -86,7 +87,7 @@ public class MockedBrowser implements Browser {
         } catch (IOException e) {
             e.printStackTrace();
         }
-        return file;
+        return Screenshot.fromFile(file);
     }
 
     public Page getMockedPage() {
@@ -17,12 +17,10 @@ package net.mindengine.galen.components.mocks.driver;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import net.mindengine.galen.utils.GalenUtils;
-import net.mindengine.rainbow4j.Rainbow4J;
+import org.apache.commons.io.FileUtils;
 import org.openqa.selenium.*;
 import org.openqa.selenium.logging.Logs;
 
-import java.awt.image.BufferedImage;
-import java.awt.image.DataBufferByte;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
@@ -211,14 +209,11 @@ public class MockedDriver implements WebDriver, TakesScreenshot, JavascriptExecu
         }
         else if (xOutputType.equals(OutputType.BYTES)) {
             File file = new File(getClass().getResource("/mocks/pages/screenshot.png").getFile());
-
-            BufferedImage image = null;
             try {
-                image = Rainbow4J.loadImage(file.getAbsolutePath());
+                return (X) FileUtils.readFileToByteArray(file);
             } catch (IOException e) {
                 throw new RuntimeException(e);
             }
-            return (X)((DataBufferByte) image.getData().getDataBuffer()).getData();
 
         }
         else throw new RuntimeException("Cannot make screenshot");
@@ -17,11 +17,14 @@ package net.mindengine.galen.components.validation;
 
 import java.awt.image.BufferedImage;
 import java.io.File;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.Map;
 
 import net.mindengine.galen.page.AbsentPageElement;
 import net.mindengine.galen.page.Page;
 import net.mindengine.galen.page.PageElement;
+import net.mindengine.galen.page.Screenshot;
 import net.mindengine.galen.specs.page.Locator;
 
 public class MockedPage implements Page {
@@ -77,6 +80,14 @@ public class MockedPage implements Page {
         return 0;
     }
 
+    @Override
+    public void preloadObjects(Map<String, Locator> objects) {
+    }
+
+    @Override
+    public void preloadObjectCounts(Collection<Locator> locators) {
+    }
+
     @Override
     public Page createObjectContextPage(Locator mainObjectLocator) {
         return null;
@@ -93,7 +104,7 @@ public class MockedPage implements Page {
     }
 
     @Override
-    public File createScreenshot() {
+    public Screenshot createScreenshot() {
         return null;
     }
 
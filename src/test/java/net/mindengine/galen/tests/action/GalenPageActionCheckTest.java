@@ -20,17 +20,24 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
 
 import java.awt.Dimension;
+import java.io.File;
 import java.io.IOException;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import net.mindengine.galen.browser.Browser;
 import net.mindengine.galen.browser.SeleniumBrowser;
 import net.mindengine.galen.components.TestGroups;
 import net.mindengine.galen.components.mocks.driver.MockedDriver;
 import net.mindengine.galen.components.validation.TestValidationListener;
+import net.mindengine.galen.config.GalenConfig;
 import net.mindengine.galen.reports.TestReport;
+import net.mindengine.galen.specs.reader.page.CompiledPageSpec;
 import net.mindengine.galen.suite.GalenPageTest;
 import net.mindengine.galen.suite.actions.GalenPageActionCheck;
+import net.mindengine.galen.tests.TestSession;
 
+import org.apache.commons.io.FileUtils;
 import org.openqa.selenium.WebDriver;
 import org.testng.annotations.Test;
 
@@ -39,6 +46,8 @@ public class GalenPageActionCheckTest {
 
     private static final String TEST_URL = "/GalenPageActionCheckTest/page.json";
 
+    public static final AtomicInteger SPEC_PARSINGS = new AtomicInteger();
+
     @Test public void runsTestSuccessfully_inPredefinedBrowser() throws IOException {
         TestValidationListener validationListener = new TestValidationListener();
         
@@ -103,5 +112,47 @@ public class GalenPageActionCheckTest {
                 "</o menu>\n"
         ));
     }
-    
+
+    @Test public void runsTest_withCompiledSpec_whenSuiteHasOtherProperties() throws IOException {
+        File testFolder = new File("_test_GalenPageActionCheckTest");
+        File specFile = new File(testFolder, "compiled-page.spec");
+        FileUtils.writeStringToFile(specFile, "@@ set parsings ${Packages." + getClass().getName() + ".SPEC_PARSINGS.incrementAndGet()}\n\n"
+                + "=======\nheader  id header\nmenu  id menu\n=======\n\n"
+                + "@ mobile\n-----------------\nheader\n    height: ${headerHeight}\n");
+
+        GalenConfig.getConfig().setProperty(GalenConfig.SPEC_COMPILED_ENABLED, "true");
+        try {
+            Properties compileProperties = new Properties();
+            compileProperties.setProperty("headerHeight", "150 to 185px");
+            CompiledPageSpec.compile(specFile.getPath(), compileProperties);
+            SPEC_PARSINGS.set(0);
+
+            TestSession.register(null).getProperties().getProperties().setProperty("headerHeight", "150 to 185px");
+            TestSession.current().getProperties().getProperties().setProperty("login", "someuser");
+
+            TestValidationListener validationListener = new TestValidationListener();
+            GalenPageActionCheck action = new GalenPageActionCheck()
+                .withIncludedTags(asList("mobile"))
+                .withSpecs(asList(specFile.getPath()));
+
+            Browser browser = new SeleniumBrowser(new MockedDriver());
+            browser.load(TEST_URL);
+            browser.changeWindowSize(new Dimension(400, 800));
+
+            action.execute(new TestReport(), browser, new GalenPageTest(), validationListener);
+
+            assertThat("Spec should not be parsed", SPEC_PARSINGS.get(), is(0));
+            assertThat("Invokations should be", validationListener.getInvokations(), is(
+                    "<o header>\n" +
+                    "<SpecHeight header>\n" +
+                    "<e><msg>\"header\" height is 140px which is not in range of 150 to 185px</msg></e>\n" +
+                    "</o header>\n"
+            ));
+        }
+        finally {
+            GalenConfig.getConfig().setProperty(GalenConfig.SPEC_COMPILED_ENABLED, "false");
+            TestSession.clear();
+            FileUtils.deleteDirectory(testFolder);
+        }
+    }
 }
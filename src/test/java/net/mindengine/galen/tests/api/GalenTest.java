@@ -19,6 +19,8 @@ import com.google.common.io.Files;
 import com.google.gson.JsonParser;
 
 import net.mindengine.galen.api.Galen;
+import net.mindengine.galen.browser.Browser;
+import net.mindengine.galen.browser.PageDumpBrowserFactory;
 import net.mindengine.galen.components.mocks.driver.MockedDriver;
 import net.mindengine.galen.page.Rect;
 import net.mindengine.galen.reports.model.LayoutReport;
@@ -87,6 +89,47 @@ public class GalenTest {
     }
 
 
+    @Test
+    public void checkLayout_shouldTestLayout_againstPageDump_withoutBrowser() throws IOException {
+        String pageDumpPath = Files.createTempDir().getAbsolutePath() + "/pagedump";
+
+        MockedDriver driver = new MockedDriver();
+        driver.get("/mocks/pages/galen4j-sample-page.json");
+        Galen.dumpPage(driver, "test page", "/specs/galen4j/sample-spec-with-error.spec", pageDumpPath);
+
+        // loading a different page so that the check would fail if it used the driver
+        driver.get("/mocks/pages/base-page.json");
+
+        Browser browser = new PageDumpBrowserFactory(pageDumpPath).openBrowser();
+        LayoutReport layoutReport = Galen.checkLayout(browser, asList("/specs/galen4j/sample-spec-with-error.spec"), asList("mobile"), null, new Properties(), null);
+
+        assertThat(browser.getPage().getTitle(), is("My page"));
+        assertThat(layoutReport.getValidationErrorResults(), contains(
+                new ValidationResult(
+                        asList(
+                                new ValidationObject(new Rect(10, 10, 100, 50), "save-button"),
+                                new ValidationObject(new Rect(120, 10, 200, 50), "name-textfield")),
+                        new ValidationError().withMessage("\"save-button\" is 10px left instead of 50px")),
+                new ValidationResult(
+                        asList(
+                                new ValidationObject(new Rect(10, 10, 100, 50), "save-button")),
+                        new ValidationError().withMessage("\"save-button\" text is \"Save\" but should be \"Store\""))));
+    }
+
+    @Test
+    public void checkLayout_shouldSkipComponents_whenCheckingAgainstPageDump() throws IOException {
+        String pageDumpPath = Files.createTempDir().getAbsolutePath() + "/pagedump";
+
+        MockedDriver driver = new MockedDriver();
+        driver.get("/mocks/pages/galen4j-sample-page.json");
+        Galen.dumpPage(driver, "test page", "/specs/galen4j/sample-spec-with-component.spec", pageDumpPath);
+
+        Browser browser = new PageDumpBrowserFactory(pageDumpPath).openBrowser();
+        LayoutReport layoutReport = Galen.checkLayout(browser, asList("/specs/galen4j/sample-spec-with-component.spec"), null, null, new Properties(), null);
+
+        assertThat(layoutReport.getValidationErrorResults().size(), is(0));
+    }
+
     @Test
     public void dumpPage_shouldOnlyStoreScreenshots_thatAreLessThan_theMaxAllowed() throws IOException {
         String pageDumpPath = Files.createTempDir().getAbsolutePath() + "/pagedump";
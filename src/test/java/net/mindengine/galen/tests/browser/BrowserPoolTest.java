@@ -0,0 +1,122 @@
+/*******************************************************************************
+* Copyright 2015 Ivan Shubin http://mindengine.net
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*   http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.tests.browser;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.awt.Dimension;
+
+import net.mindengine.galen.browser.Browser;
+import net.mindengine.galen.browser.BrowserFactory;
+import net.mindengine.galen.browser.BrowserPool;
+import net.mindengine.galen.browser.SeleniumBrowserFactory;
+
+import org.testng.annotations.Test;
+
+public class BrowserPoolTest {
+
+    @Test
+    public void shouldReuse_browser_forEqualFactories_andResetIt() {
+        BrowserPool pool = new BrowserPool(2);
+        Browser browser = mockedBrowser();
+        BrowserFactory factory = mockedFactory(browser);
+
+        Browser leasedBrowser = pool.lease(factory);
+        pool.release(factory, leasedBrowser);
+
+        assertThat(pool.lease(factory), is(sameInstance(browser)));
+        verify(factory, times(1)).openBrowser();
+        verify(browser).load("about:blank");
+        verify(browser).changeWindowSize(new Dimension(1024, 768));
+        verify(browser, never()).quit();
+    }
+
+    @Test
+    public void shouldNotShare_browsers_betweenDifferentFactories() {
+        BrowserPool pool = new BrowserPool(2);
+        BrowserFactory firefox = new SeleniumBrowserFactory(SeleniumBrowserFactory.FIREFOX);
+        Browser browser = mockedBrowser();
+
+        pool.release(firefox, browser);
+
+        assertThat(pool.getIdleBrowsersCount(new SeleniumBrowserFactory(SeleniumBrowserFactory.FIREFOX)), is(1));
+        assertThat(pool.getIdleBrowsersCount(new SeleniumBrowserFactory(SeleniumBrowserFactory.CHROME)), is(0));
+    }
+
+    @Test
+    public void shouldQuit_browsers_whenPoolIsFull() {
+        BrowserPool pool = new BrowserPool(1);
+        Browser firstBrowser = mockedBrowser();
+        Browser secondBrowser = mockedBrowser();
+        BrowserFactory factory = mock(BrowserFactory.class);
+
+        pool.release(factory, firstBrowser);
+        pool.release(factory, secondBrowser);
+
+        assertThat(pool.getIdleBrowsersCount(factory), is(1));
+        verify(firstBrowser, never()).quit();
+        verify(secondBrowser).quit();
+    }
+
+    @Test
+    public void shouldEvict_unhealthyBrowsers() {
+        BrowserPool pool = new BrowserPool(2);
+        Browser deadBrowser = mockedBrowser();
+        Browser newBrowser = mockedBrowser();
+        BrowserFactory factory = mockedFactory(newBrowser);
+
+        pool.release(factory, deadBrowser);
+        when(deadBrowser.getUrl()).thenThrow(new RuntimeException("Session is gone"));
+
+        assertThat(pool.lease(factory), is(not(sameInstance(deadBrowser))));
+        verify(deadBrowser).quit();
+    }
+
+    @Test
+    public void shouldQuit_browser_whenItCouldNotBeReset() {
+        BrowserPool pool = new BrowserPool(2);
+        Browser browser = mockedBrowser();
+        when(browser.executeJavascript(anyString())).thenThrow(new RuntimeException("Browser crashed"));
+        BrowserFactory factory = mock(BrowserFactory.class);
+
+        pool.release(factory, browser);
+
+        assertThat(pool.getIdleBrowsersCount(factory), is(0));
+        verify(browser).quit();
+    }
+
+    private Browser mockedBrowser() {
+        Browser browser = mock(Browser.class);
+        when(browser.getScreenSize()).thenReturn(new Dimension(1024, 768));
+        when(browser.getUrl()).thenReturn("about:blank");
+        return browser;
+    }
+
+    private BrowserFactory mockedFactory(Browser browser) {
+        BrowserFactory factory = mock(BrowserFactory.class);
+        when(factory.openBrowser()).thenReturn(browser);
+        return factory;
+    }
+}
@@ -0,0 +1,108 @@
+/*******************************************************************************
+* Copyright 2015 Ivan Shubin http://mindengine.net
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*   http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.tests.page;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+
+import net.mindengine.galen.page.Screenshot;
+import net.mindengine.rainbow4j.Rainbow4J;
+
+import org.apache.commons.io.FileUtils;
+import org.testng.annotations.Test;
+
+public class ScreenshotTest {
+
+    private static final String SCREENSHOT_PATH = "/mocks/pages/screenshot.png";
+
+    @Test
+    public void shouldDecode_pngBytes_onlyOnce() throws IOException {
+        Screenshot screenshot = Screenshot.fromPng(readScreenshotBytes());
+
+        BufferedImage image = screenshot.getImage();
+
+        assertThat(screenshot.getImage(), is(sameInstance(image)));
+        assertThat(image.getWidth(), is(Rainbow4J.loadImage(getClass().getResource(SCREENSHOT_PATH).getFile()).getWidth()));
+    }
+
+    @Test
+    public void shouldWrite_temporaryFile_onlyWhenRequested_andRemoveItOnCleanup() throws IOException {
+        byte[] bytes = readScreenshotBytes();
+        Screenshot screenshot = Screenshot.fromPng(bytes);
+
+        File file = screenshot.getFile();
+
+        assertThat(screenshot.getFile(), is(file));
+        assertThat(FileUtils.readFileToByteArray(file), is(bytes));
+
+        screenshot.cleanup();
+        assertThat(file.exists(), is(false));
+    }
+
+    @Test
+    public void shouldNotRemove_originalFile_onCleanup() throws IOException {
+        File originalFile = File.createTempFile("screenshot", ".png");
+        originalFile.deleteOnExit();
+        FileUtils.writeByteArrayToFile(originalFile, readScreenshotBytes());
+
+        Screenshot screenshot = Screenshot.fromFile(originalFile);
+        screenshot.cleanup();
+
+        assertThat(originalFile.exists(), is(true));
+    }
+
+    @Test
+    public void shouldRelease_decodedImage_andDecodeItAgain_fromPngBytes() throws IOException {
+        Screenshot screenshot = Screenshot.fromPng(readScreenshotBytes());
+        BufferedImage image = screenshot.getImage();
+
+        screenshot.releaseImage();
+
+        BufferedImage decodedAgain = screenshot.getImage();
+        assertThat(decodedAgain, is(not(sameInstance(image))));
+        assertThat(decodedAgain.getWidth(), is(image.getWidth()));
+        assertThat(decodedAgain.getHeight(), is(image.getHeight()));
+    }
+
+    @Test
+    public void shouldWrite_temporaryFile_whenReleasing_screenshotCreatedFromImage() throws IOException {
+        BufferedImage image = Screenshot.fromPng(readScreenshotBytes()).getImage();
+        Screenshot screenshot = Screenshot.fromImage(image);
+
+        screenshot.releaseImage();
+
+        File file = screenshot.getFile();
+        assertThat(file.exists(), is(true));
+
+        BufferedImage decodedAgain = screenshot.getImage();
+        assertThat(decodedAgain, is(not(sameInstance(image))));
+        assertThat(decodedAgain.getWidth(), is(image.getWidth()));
+        assertThat(decodedAgain.getHeight(), is(image.getHeight()));
+
+        screenshot.cleanup();
+        assertThat(file.exists(), is(false));
+    }
+
+    private byte[] readScreenshotBytes() throws IOException {
+        return FileUtils.readFileToByteArray(new File(getClass().getResource(SCREENSHOT_PATH).getFile()));
+    }
+}
@@ -0,0 +1,161 @@
+/*******************************************************************************
+* Copyright 2015 Ivan Shubin http://mindengine.net
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*   http://www.apache.org/licenses/LICENSE-2.0
+* 
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.tests.page;
+
+import net.mindengine.galen.config.GalenConfig;
+import net.mindengine.galen.page.Page;
+import net.mindengine.galen.page.PageElement;
+import net.mindengine.galen.page.Rect;
+import net.mindengine.galen.page.selenium.SeleniumPage;
+import net.mindengine.galen.specs.page.Locator;
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class SeleniumPageTest {
+
+    @BeforeMethod
+    public void enableBulkResolve() {
+        GalenConfig.getConfig().setProperty(GalenConfig.PAGE_BULK_RESOLVE, "true");
+    }
+
+    @AfterMethod
+    public void disableBulkResolve() {
+        GalenConfig.getConfig().setProperty(GalenConfig.PAGE_BULK_RESOLVE, "false");
+    }
+
+    @Test
+    public void shouldResolveAllObjects_withSingleJavascriptCall() {
+        WebDriver driver = mock(WebDriver.class, withSettings().extraInterfaces(JavascriptExecutor.class));
+        WebElement header = mock(WebElement.class);
+        WebElement menuItem = mock(WebElement.class);
+
+        when(((JavascriptExecutor) driver).executeScript(anyString(), any(), any())).thenReturn(asList(
+                asList(header, 10L, 20L, 300L, 40L, true),
+                asList(menuItem, 15L, 70L, 100L, 20L, false),
+                null
+        ));
+
+        Map<String, Locator> objects = new LinkedHashMap<String, Locator>();
+        objects.put("header", Locator.css("#header"));
+        objects.put("menu-item-2", new Locator("css", ".menu-item", 2));
+        objects.put("popup", Locator.id("popup"));
+
+        SeleniumPage page = new SeleniumPage(driver);
+        page.preloadObjects(objects);
+
+        PageElement headerElement = page.getObject("header", objects.get("header"));
+        PageElement menuItemElement = page.getObject("menu-item-2", objects.get("menu-item-2"));
+        PageElement popupElement = page.getObject("popup", objects.get("popup"));
+
+        assertThat(headerElement.getArea(), is(new Rect(10, 20, 300, 40)));
+        assertThat(headerElement.isVisible(), is(true));
+        assertThat(menuItemElement.getArea(), is(new Rect(15, 70, 100, 20)));
+        assertThat(menuItemElement.isVisible(), is(false));
+        assertThat(popupElement.isPresent(), is(false));
+
+        verify((JavascriptExecutor) driver, times(1)).executeScript(anyString(), any(), any());
+        verify(driver, never()).findElement(any(By.class));
+        verify(driver, never()).findElements(any(By.class));
+        verifyZeroInteractions(header, menuItem);
+    }
+
+    @Test
+    public void shouldCountAllMultiObjects_withSingleJavascriptCall_andReuseFoundElements() {
+        WebDriver driver = mock(WebDriver.class, withSettings().extraInterfaces(JavascriptExecutor.class));
+        WebElement menuItem1 = mock(WebElement.class);
+        WebElement menuItem2 = mock(WebElement.class);
+        WebElement link = mock(WebElement.class);
+
+        when(((JavascriptExecutor) driver).executeScript(anyString(), any(), any())).thenReturn(asList(
+                asList(menuItem1, menuItem2),
+                asList(link),
+                asList()
+        ));
+
+        Locator menuItems = Locator.css(".menu-item");
+        Locator links = Locator.xpath("//a");
+        Locator popups = Locator.id("popup");
+
+        SeleniumPage page = new SeleniumPage(driver);
+        page.preloadObjectCounts(asList(menuItems, links, popups));
+
+        assertThat(page.getObjectCount(menuItems), is(2));
+        assertThat(page.getObjectCount(links), is(1));
+        assertThat(page.getObjectCount(popups), is(0));
+        assertThat(page.getObject("menu-item-2", new Locator("css", ".menu-item", 2)).isPresent(), is(true));
+        assertThat(page.getObject("menu-item-3", new Locator("css", ".menu-item", 3)).isPresent(), is(false));
+
+        verify((JavascriptExecutor) driver, times(1)).executeScript(anyString(), any(), any());
+        verify(driver, never()).findElements(any(By.class));
+    }
+
+    @Test
+    public void shouldShareFoundElements_withComponentPages() {
+        WebDriver driver = mock(WebDriver.class);
+        WebElement card1 = mock(WebElement.class);
+        WebElement card2 = mock(WebElement.class);
+        WebElement title = mock(WebElement.class);
+        when(driver.findElements(By.cssSelector(".card"))).thenReturn(asList(card1, card2));
+        when(card2.findElement(By.cssSelector(".title"))).thenReturn(title);
+
+        Locator cards = Locator.css(".card");
+        SeleniumPage page = new SeleniumPage(driver);
+
+        assertThat(page.getObjectCount(cards), is(2));
+        for (int i = 0; i < 3; i++) {
+            Page componentPage = page.createObjectContextPage(new Locator("css", ".card", 2));
+            assertThat(componentPage.getObject("title", Locator.css(".title")).isPresent(), is(true));
+        }
+
+        verify(driver, times(1)).findElements(By.cssSelector(".card"));
+        verify(card2, times(1)).findElement(By.cssSelector(".title"));
+        verifyZeroInteractions(card1);
+    }
+
+    @Test
+    public void shouldFallback_toLazyResolving_whenScriptReturnsUnexpectedResult() {
+        WebDriver driver = mock(WebDriver.class, withSettings().extraInterfaces(JavascriptExecutor.class));
+        WebElement header = mock(WebElement.class);
+        when(((JavascriptExecutor) driver).executeScript(anyString(), any(), any())).thenReturn(null);
+        when(driver.findElement(any(By.class))).thenReturn(header);
+
+        Map<String, Locator> objects = new HashMap<String, Locator>();
+        objects.put("header", Locator.css("#header"));
+
+        SeleniumPage page = new SeleniumPage(driver);
+        page.preloadObjects(objects);
+        page.getObject("header", objects.get("header"));
+
+        verify(driver, times(1)).findElement(By.cssSelector("#header"));
+    }
+}
@@ -0,0 +1,84 @@
+/*******************************************************************************
+* Copyright 2015 Ivan Shubin http://mindengine.net
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*   http://www.apache.org/licenses/LICENSE-2.0
+* 
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.tests.page;
+
+import net.mindengine.galen.browser.SeleniumBrowser;
+import net.mindengine.galen.components.mocks.driver.MockedDriver;
+import net.mindengine.galen.page.Rect;
+import net.mindengine.galen.page.selenium.SeleniumPage;
+import net.mindengine.galen.page.snapshot.SnapshotPage;
+import net.mindengine.galen.specs.page.Locator;
+import net.mindengine.galen.specs.reader.page.PageSpec;
+import net.mindengine.galen.specs.reader.page.PageSpecReader;
+import net.mindengine.galen.validation.*;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Properties;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+
+public class SnapshotPageTest {
+
+    @Test
+    public void shouldValidateSpecs_againstCapturedPage_withoutAccessingBrowser() throws IOException {
+        MockedDriver driver = new MockedDriver();
+        driver.get("/mocks/pages/galen4j-sample-page.json");
+
+        SeleniumPage livePage = new SeleniumPage(driver);
+        PageSpec pageSpec = new PageSpecReader(new Properties(), livePage).read("/specs/galen4j/sample-spec-with-error.spec");
+
+        SnapshotPage snapshot = SnapshotPage.capture(livePage, pageSpec, null);
+
+        // loading a completely different page so that the validation would fail if it used the browser
+        driver.get("/mocks/pages/base-page.json");
+
+        PageValidation pageValidation = new PageValidation(new SeleniumBrowser(driver), snapshot, pageSpec, null, null);
+        List<ValidationResult> results = new SectionValidation(pageSpec.getSections(), pageValidation, null).check();
+
+        assertThat(snapshot.getTitle(), is("My page"));
+        assertThat(results, contains(
+                new ValidationResult(
+                        asList(
+                                new ValidationObject(new Rect(10, 10, 100, 50), "save-button"),
+                                new ValidationObject(new Rect(120, 10, 200, 50), "name-textfield")),
+                        new ValidationError().withMessage("\"save-button\" is 10px left instead of 50px")),
+                new ValidationResult(
+                        asList(
+                                new ValidationObject(new Rect(10, 10, 100, 50), "save-button")),
+                        new ValidationError().withMessage("\"save-button\" text is \"Save\" but should be \"Store\""))));
+    }
+
+    @Test
+    public void shouldTakeObjects_fromLivePage_whenTheyWereNotCaptured() throws IOException {
+        MockedDriver driver = new MockedDriver();
+        driver.get("/mocks/pages/galen4j-sample-page.json");
+
+        SeleniumPage livePage = new SeleniumPage(driver);
+        PageSpec pageSpec = new PageSpecReader(new Properties(), livePage).read("/specs/galen4j/sample-spec-with-error.spec");
+        pageSpec.getObjects().remove("name-textfield");
+
+        SnapshotPage snapshot = SnapshotPage.capture(livePage, pageSpec, null);
+
+        assertThat(snapshot.getObject("name-textfield", Locator.id("name-textfield")).getArea(), is(new Rect(120, 10, 200, 50)));
+        assertThat(snapshot.getObject(Locator.id("name-textfield")).getArea(), is(new Rect(120, 10, 200, 50)));
+        assertThat(snapshot.getObjectCount(Locator.css(".save-button")), is(1));
+    }
+}
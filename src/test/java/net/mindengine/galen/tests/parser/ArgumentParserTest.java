@@ -194,6 +194,24 @@ public class ArgumentParserTest {
                     .withIncludedTags()
                     .withExcludedTags()
                     .withPaths(asList("some1.spec", "some2.spec"))},
+
+            {args("check", "some1.spec", "--dump", "dumps/home"),
+                new GalenArguments()
+                    .withAction("check")
+                    .withDump("dumps/home")
+                    .withIncludedTags()
+                    .withExcludedTags()
+                    .withPaths(asList("some1.spec"))},
+
+            {args("check", "some1.spec", "--url", "http://mindengine.net", "--max-errors", "1", "--time-budget", "5000"),
+                new GalenArguments()
+                    .withAction("check")
+                    .withUrl("http://mindengine.net")
+                    .withMaxErrors(1)
+                    .withTimeBudget(5000)
+                    .withIncludedTags()
+                    .withExcludedTags()
+                    .withPaths(asList("some1.spec"))},
            
             {args("config"), 
                 new GalenArguments()
@@ -206,7 +224,15 @@ public class ArgumentParserTest {
                     .withUrl("http://mindengine.net")
                     .withExport("export-page-dir")
                     .withMaxWidth(100)
-                    .withMaxHeight(150)}
+                    .withMaxHeight(150)},
+
+            {args("compile-specs", "specs", "--properties", "compile.properties"),
+                new GalenArguments()
+                    .withAction("compile-specs")
+                    .withPaths(asList("specs"))
+                    .withPropertiesFile("compile.properties")
+                    .withIncludedTags()
+                    .withExcludedTags()}
         };
     }
     
@@ -304,7 +330,11 @@ public class ArgumentParserTest {
                   
           {"Missing test files",
               args("test", 
-                  "--htmlreport", "reports")}
+                  "--htmlreport", "reports")},
+
+          {"Missing spec folders\n" + GalenArguments.COMPILE_SPECS_USAGE,
+              args("compile-specs",
+                  "--properties", "compile.properties")}
 
         };
     }
@@ -17,6 +17,7 @@ package net.mindengine.galen.tests.parser;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
 
 import java.util.Properties;
 
@@ -24,6 +25,7 @@ import net.mindengine.galen.parser.JsPageElement;
 import net.mindengine.galen.parser.VarsParser;
 import net.mindengine.galen.parser.VarsParserJsFunctions;
 import net.mindengine.galen.parser.VarsParserJsProcessor;
+import net.mindengine.galen.parser.VarsTemplate;
 import net.mindengine.galen.specs.reader.page.PageSpec;
 import net.mindengine.galen.specs.reader.page.PageSpecReader;
 import net.mindengine.galen.suite.reader.Context;
@@ -71,6 +73,54 @@ public class VarsParserTest {
 
         assertThat(realText, is(" got it from js: qwe-ert"));
     }
+
+    @Test
+    public void shouldUse_latestValuesOfVariables_andKeepFunctions_separateForEveryProcessor() {
+        Context context = new Context().withParameter("name", "John");
+        VarsParser template = new VarsParser(context, EMPTY_PROPERTIES, new VarsParserJsProcessor(context, jsFunctions, EMPTY_PAGE_SPEC_READER));
+        assertThat(template.parse("${load('/specs/customFunction.js')}${customFunction('Hi', name)}"), is("Hi-John"));
+
+        context.putValue("name", "Sarah");
+        assertThat(template.parse("${customFunction('Hi', name)}"), is("Hi-Sarah"));
+
+        Context otherContext = new Context().withParameter("name", "Bob");
+        VarsParser otherTemplate = new VarsParser(otherContext, EMPTY_PROPERTIES, new VarsParserJsProcessor(otherContext, jsFunctions, EMPTY_PAGE_SPEC_READER));
+        assertThat(otherTemplate.parse("${typeof customFunction} ${name}"), is("undefined Bob"));
+    }
+
+    @Test
+    public void shouldCompileTemplate_onlyOnce_intoTextAndExpressions() {
+        VarsTemplate template = VarsTemplate.compile("Hi ${ name }, \\${notExpression} costs $30 ${count('menu-item-*')}");
+
+        assertThat(VarsTemplate.compile("Hi ${ name }, \\${notExpression} costs $30 ${count('menu-item-*')}"), is(sameInstance(template)));
+        assertThat(template.getSegmentsCount(), is(4));
+        assertThat(template.getSegment(0), is("Hi "));
+        assertThat(template.isExpression(0), is(false));
+        assertThat(template.getSegment(1), is("name"));
+        assertThat(template.isExpression(1), is(true));
+        assertThat(template.getSegment(2), is(", ${notExpression} costs $30 "));
+        assertThat(template.isExpression(2), is(false));
+        assertThat(template.getSegment(3), is("count('menu-item-*')"));
+        assertThat(template.isExpression(3), is(true));
+    }
+
+    @Test
+    public void shouldNotKeep_unclosedExpression_forNextTemplates() {
+        Context context = new Context().withParameter("name", "John");
+        VarsParser template = new VarsParser(context, EMPTY_PROPERTIES, new VarsParserJsProcessor(context, jsFunctions, EMPTY_PAGE_SPEC_READER));
+
+        assertThat(template.parse("I have some money ${ 30"), is("I have some money "));
+        assertThat(template.parse("Hi my name is ${name}"), is("Hi my name is John"));
+    }
+
+    @Test
+    public void shouldAllowTo_importJavaClasses_andPackages() {
+        Context context = new Context();
+        VarsParser template = new VarsParser(context, EMPTY_PROPERTIES, new VarsParserJsProcessor(context, jsFunctions, EMPTY_PAGE_SPEC_READER));
+
+        assertThat(template.parse("${importClass(java.lang.StringBuilder); String(new StringBuilder('a').append('b'))}"), is("ab"));
+        assertThat(template.parse("${importPackage(java.util); new ArrayList().size()} ${Math.max(1, 2)}"), is("0 2"));
+    }
     
     
     @DataProvider public Object[][] provideGoodSamples() {
@@ -0,0 +1,125 @@
+/*******************************************************************************
+* Copyright 2015 Ivan Shubin http://mindengine.net
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*   http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.tests.runner;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+
+import net.mindengine.galen.reports.GalenTestInfo;
+import net.mindengine.galen.runner.TestDurationHistory;
+import net.mindengine.galen.runner.TestScheduler;
+import net.mindengine.galen.tests.GalenEmptyTest;
+import net.mindengine.galen.tests.GalenTest;
+
+import org.testng.annotations.Test;
+
+public class TestSchedulerTest {
+
+    @Test
+    public void shouldOrder_longestTestsFirst_andTestsWithoutHistory_beforeThem() {
+        TestDurationHistory history = new TestDurationHistory();
+        history.recordDuration("short", 10L);
+        history.recordDuration("long", 1000L);
+        history.recordDuration("medium", 100L);
+
+        List<GalenTest> sortedTests = history.sortLongestFirst(tests("short", "new", "medium", "long", "another-new"));
+
+        assertThat(names(sortedTests), contains("new", "another-new", "long", "medium", "short"));
+    }
+
+    @Test
+    public void shouldRun_allTests_inParallel() {
+        final List<String> executedTests = Collections.synchronizedList(new LinkedList<String>());
+
+        List<GalenTestInfo> testInfos = new TestScheduler(3, new TestDurationHistory()).run(tests("test-1", "test-2", "test-3", "test-4"), new TestScheduler.TestExecution() {
+            @Override
+            public GalenTestInfo execute(GalenTest test) {
+                sleep(20);
+                executedTests.add(test.getName());
+                return GalenTestInfo.fromString(test.getName());
+            }
+        });
+
+        assertThat(testInfos.size(), is(4));
+        assertThat(executedTests, containsInAnyOrder("test-1", "test-2", "test-3", "test-4"));
+    }
+
+    @Test
+    public void shouldWaitForAllTests_andRecord_queueWaitAndRunTimes() {
+        TestDurationHistory history = new TestDurationHistory();
+
+        List<GalenTestInfo> testInfos = new TestScheduler(1, history).run(tests("test-1", "test-2"), new TestScheduler.TestExecution() {
+            @Override
+            public GalenTestInfo execute(GalenTest test) {
+                sleep(50);
+                return GalenTestInfo.fromString(test.getName());
+            }
+        });
+
+        assertThat(testInfos.size(), is(2));
+        GalenTestInfo secondTest = testInfos.get(1);
+        assertThat(secondTest.getName(), is("test-2"));
+        assertThat(secondTest.getQueueWaitTime(), is(greaterThanOrEqualTo(40L)));
+        assertThat(secondTest.getRunTime(), is(greaterThanOrEqualTo(40L)));
+        assertThat(history.getDuration("test-1"), is(notNullValue()));
+    }
+
+    @Test
+    public void shouldSaveAndLoad_testDurations() throws IOException {
+        File file = File.createTempFile("galen-test-durations", ".properties");
+        file.deleteOnExit();
+
+        TestDurationHistory history = new TestDurationHistory(file);
+        history.recordDuration("Home page test", 1234L);
+        history.save();
+
+        assertThat(new TestDurationHistory(file).getDuration("Home page test"), is(1234L));
+    }
+
+    private static List<GalenTest> tests(String... names) {
+        List<GalenTest> tests = new LinkedList<GalenTest>();
+        for (String name : names) {
+            tests.add(new GalenEmptyTest(name, null));
+        }
+        return tests;
+    }
+
+    private static List<String> names(List<GalenTest> tests) {
+        List<String> names = new LinkedList<String>();
+        for (GalenTest test : tests) {
+            names.add(test.getName());
+        }
+        return names;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,396 @@
+/*******************************************************************************
+* Copyright 2015 Ivan Shubin http://mindengine.net
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*   http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.tests.specs.reader;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.mindengine.galen.config.GalenConfig;
+
+import net.mindengine.galen.specs.Spec;
+import net.mindengine.galen.specs.page.ConditionalBlock;
+import net.mindengine.galen.specs.page.ConditionalBlockStatement;
+import net.mindengine.galen.specs.page.Locator;
+import net.mindengine.galen.specs.page.ObjectSpecs;
+import net.mindengine.galen.specs.page.PageSection;
+import net.mindengine.galen.specs.page.SpecGroup;
+import net.mindengine.galen.specs.reader.Place;
+import net.mindengine.galen.specs.reader.page.CompiledPageSpec;
+import net.mindengine.galen.specs.reader.page.PageSpec;
+import net.mindengine.galen.specs.reader.page.PageSpecReader;
+import net.mindengine.galen.specs.reader.page.TaggedPageSection;
+
+import org.apache.commons.io.FileUtils;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+public class CompiledPageSpecTest {
+
+    private static final String TEST_FOLDER = "_test_CompiledPageSpecTest";
+
+    public static final AtomicInteger SPEC_PARSINGS = new AtomicInteger();
+
+    @BeforeClass
+    public void init() throws IOException {
+        GalenConfig.getConfig().setProperty(GalenConfig.SPEC_COMPILED_ENABLED, "true");
+        FileUtils.copyDirectory(new File(getClass().getResource("/specs").getFile()), new File(TEST_FOLDER, "specs"));
+        FileUtils.copyDirectory(new File(getClass().getResource("/page-spec-with-rules").getFile()), new File(TEST_FOLDER, "page-spec-with-rules"));
+        FileUtils.writeStringToFile(new File(TEST_FOLDER, "specs/spec-with-images.spec"),
+                "=======\nbutton  css .button  @ (0, -1, +10, 20)\nmenu-item-*  css .menu li\n=======\n\n"
+                + "button\n    image: file imgs/button.png, error 4%, tolerance 10, filter blur 2, map-filter denoise 1, area 0 0 10 20, crop-if-outside\n"
+                + "    component: components/button.spec\n"
+                + "    %\"Button should be wide\" width: 100 to 200px\n");
+        FileUtils.writeStringToFile(new File(TEST_FOLDER, "specs/spec-with-all-spec-types.spec"),
+                "=======\nbox  css .box\nmenu  id menu\nbutton  id button\n=======\n\n"
+                + "box\n    visible\n    width: 100% of menu/width\n    height: > 10px\n    text lowercase is: some text\n"
+                + "    css font-size starts: 18px\n    contains partly: menu, button\n    inside partly: menu 10 to 30px left, ~30px top\n"
+                + "    near: button 10px left\n    on top left: menu 10px top right\n    above: button 10 to 20px\n    below: menu\n"
+                + "    left of: button < 5px\n    right of: menu 10px\n    aligned horizontally top: menu 2px\n"
+                + "    aligned vertically all: button\n    centered horizontally inside: menu 25px\n"
+                + "    color scheme: 40 to 50% red, > 10% #ffaa03\n"
+                + "button\n    absent\n");
+    }
+
+    @AfterClass
+    public void removeTestFolder() throws IOException {
+        GalenConfig.getConfig().setProperty(GalenConfig.SPEC_COMPILED_ENABLED, "false");
+        FileUtils.deleteDirectory(new File(TEST_FOLDER));
+    }
+
+    @Test(dataProvider = "specPaths")
+    public void shouldLoad_compiledSpec_sameAsParsedSpec(String specPath) throws IOException {
+        String path = TEST_FOLDER + File.separator + specPath;
+
+        CompiledPageSpec compiledPageSpec = CompiledPageSpec.compile(path, new Properties());
+        assertThat(compiledPageSpec.isDynamic(), is(false));
+        assertThat(CompiledPageSpec.load(path, new Properties()), is(notNullValue()));
+
+        PageSpecReader parsingReader = new PageSpecReader(new Properties(), null);
+        parsingReader.setLoadCompiledSpecs(false);
+        PageSpec parsedSpec = parsingReader.read(path);
+
+        PageSpecReader reader = new PageSpecReader(new Properties(), null);
+        PageSpec loadedSpec = reader.read(path);
+
+        assertThat(describe(loadedSpec), is(describe(parsedSpec)));
+        assertThat(reader.getLoadedFiles(), is(parsingReader.getLoadedFiles()));
+    }
+
+    @DataProvider
+    public Object[][] specPaths() {
+        return new Object[][] {
+            {"specs/spec-sections-advanced.spec"},
+            {"specs/spec-conditional-otherwise.spec"},
+            {"specs/spec-conditional-or.spec"},
+            {"specs/spec-with-aliases.spec"},
+            {"specs/spec-warning-level.spec"},
+            {"specs/spec-with-images.spec"},
+            {"specs/spec-with-all-spec-types.spec"},
+            {"specs/spec-with-javascript-import.spec"},
+            {"page-spec-with-rules/simple-rule-import.spec"},
+            {"page-spec-with-rules/parameterized-rule-object-and-specs.spec"},
+            {"page-spec-with-rules/rules-provided-via-js.spec"}
+        };
+    }
+
+    @Test
+    public void shouldParseSpecAgain_whenImportedFileIsChanged() throws IOException {
+        File mainSpec = new File(TEST_FOLDER, "changing-main.spec");
+        File importedSpec = new File(TEST_FOLDER, "changing-imported.spec");
+        FileUtils.writeStringToFile(mainSpec, "@@ import changing-imported.spec\n=======\nheader  id header\n=======\n");
+        FileUtils.writeStringToFile(importedSpec, "=======\nmenu  id menu\n=======\n");
+
+        CompiledPageSpec.compile(mainSpec.getPath(), new Properties());
+        assertThat(CompiledPageSpec.load(mainSpec.getPath(), new Properties()), is(notNullValue()));
+
+        FileUtils.writeStringToFile(importedSpec, "=======\nmenu  id menu\nfooter  id footer\n=======\n");
+
+        assertThat(CompiledPageSpec.load(mainSpec.getPath(), new Properties()), is(nullValue()));
+        assertThat(new PageSpecReader(new Properties(), null).read(mainSpec.getPath()).getObjects().size(), is(3));
+    }
+
+    @Test
+    public void shouldKeep_propertiesDefinedInSpec_whenLoadingCompiledSpec() throws IOException {
+        File specFile = new File(TEST_FOLDER, "spec-with-variables.spec");
+        FileUtils.writeStringToFile(specFile, "@@ set title Welcome\n\n=======\nheader  id header\n=======\n\nheader\n    text is: ${title}\n");
+
+        CompiledPageSpec.compile(specFile.getPath(), new Properties());
+
+        Properties properties = new Properties();
+        PageSpec pageSpec = new PageSpecReader(properties, null).read(specFile.getPath());
+        assertThat(pageSpec.getSections().get(0).getObjects().get(0).getSpecs().get(0).getOriginalText(), is("text is: Welcome"));
+        assertThat(properties.getProperty("title"), is("Welcome"));
+    }
+
+    @Test
+    public void shouldUse_compiledSpec_onlyWhenUsedPropertiesAreTheSame() throws IOException {
+        File specFile = new File(TEST_FOLDER, "spec-with-used-properties.spec");
+        FileUtils.writeStringToFile(specFile, "=======\nheader  id header\n=======\n\nheader\n    text is: ${greeting}\n    width: ${headerWidth}\n");
+
+        CompiledPageSpec.compile(specFile.getPath(), properties("greeting", "Hello", "headerWidth", "100px"));
+
+        assertThat(CompiledPageSpec.load(specFile.getPath(), properties("greeting", "Hello", "headerWidth", "100px", "login", "someuser")), is(notNullValue()));
+        assertThat(CompiledPageSpec.load(specFile.getPath(), properties("greeting", "Hi", "headerWidth", "100px")), is(nullValue()));
+        assertThat(CompiledPageSpec.load(specFile.getPath(), properties("greeting", "Hello")), is(nullValue()));
+    }
+
+    @Test
+    public void shouldNotUse_compiledSpec_whenUsedSystemPropertyIsChanged() throws IOException {
+        File specFile = new File(TEST_FOLDER, "spec-with-system-property.spec");
+        FileUtils.writeStringToFile(specFile, "=======\nheader  id header\n=======\n\nheader\n    text is: ${compiledPageSpecTest.greeting}\n");
+
+        System.setProperty("compiledPageSpecTest.greeting", "Hello");
+        try {
+            CompiledPageSpec.compile(specFile.getPath(), new Properties());
+            assertThat(CompiledPageSpec.load(specFile.getPath(), new Properties()), is(notNullValue()));
+
+            System.setProperty("compiledPageSpecTest.greeting", "Hi");
+            assertThat(CompiledPageSpec.load(specFile.getPath(), new Properties()), is(nullValue()));
+            assertThat(CompiledPageSpec.load(specFile.getPath(), properties("compiledPageSpecTest.greeting", "Hello")), is(notNullValue()));
+        }
+        finally {
+            System.clearProperty("compiledPageSpecTest.greeting");
+        }
+    }
+
+    @Test
+    public void shouldMarkSpec_asDynamic_whenItUsesPageFunctions() throws IOException {
+        String path = TEST_FOLDER + File.separator + "specs/count-via-js.spec";
+
+        CompiledPageSpec compiledPageSpec = CompiledPageSpec.compile(path, new Properties());
+
+        assertThat(compiledPageSpec.isDynamic(), is(true));
+        assertThat(CompiledPageSpec.load(path, new Properties()).isDynamic(), is(true));
+    }
+
+    @Test
+    public void shouldParse_compiledSpecsAgain_whenReaderReadsAnotherSpec() throws IOException {
+        String specWithScript = TEST_FOLDER + File.separator + "specs/spec-with-javascript-import.spec";
+        File specUsingScript = new File(TEST_FOLDER, "specs/spec-using-imported-javascript.spec");
+        FileUtils.writeStringToFile(specUsingScript, "=======\nheader  id header\n=======\n\nheader\n    text is: ${customFunction(\"a\", \"b\")}\n");
+        CompiledPageSpec.compile(specWithScript, new Properties());
+
+        PageSpecReader reader = new PageSpecReader(new Properties(), null);
+        reader.read(specWithScript);
+        PageSpec pageSpec = reader.read(specUsingScript.getPath());
+
+        assertThat(pageSpec.getSections().get(0).getObjects().get(0).getSpecs().get(0).getOriginalText(), is("text is: a-b"));
+    }
+
+    @Test
+    public void shouldNotLoad_compiledSpecs_whenTheyAreDisabledInConfig() throws IOException {
+        File specFile = new File(TEST_FOLDER, "spec-counting-parsings.spec");
+        FileUtils.writeStringToFile(specFile, "@@ set parsings ${Packages." + getClass().getName() + ".SPEC_PARSINGS.incrementAndGet()}\n\n"
+                + "=======\nheader  id header\n=======\n");
+        CompiledPageSpec.compile(specFile.getPath(), new Properties());
+        SPEC_PARSINGS.set(0);
+
+        GalenConfig.getConfig().setProperty(GalenConfig.SPEC_COMPILED_ENABLED, "false");
+        try {
+            new PageSpecReader(new Properties(), null).read(specFile.getPath());
+        }
+        finally {
+            GalenConfig.getConfig().setProperty(GalenConfig.SPEC_COMPILED_ENABLED, "true");
+        }
+        assertThat(SPEC_PARSINGS.get(), is(1));
+
+        new PageSpecReader(new Properties(), null).read(specFile.getPath());
+        assertThat(SPEC_PARSINGS.get(), is(1));
+    }
+
+    @Test
+    public void shouldNotParse_compiledSpecsAgain_whenReaderReadsAnotherCompiledSpec() throws IOException {
+        File firstSpec = new File(TEST_FOLDER, "first-counting-parsings.spec");
+        File secondSpec = new File(TEST_FOLDER, "second-without-javascript.spec");
+        File parsedSpec = new File(TEST_FOLDER, "third-not-compiled.spec");
+        FileUtils.writeStringToFile(firstSpec, "@@ set parsings ${Packages." + getClass().getName() + ".SPEC_PARSINGS.incrementAndGet()}\n\n"
+                + "=======\nheader  id header\n=======\n");
+        FileUtils.writeStringToFile(secondSpec, "=======\nmenu  id menu\n=======\n\nmenu\n    width: 100px\n");
+        FileUtils.writeStringToFile(parsedSpec, "=======\nfooter  id footer\n=======\n");
+        CompiledPageSpec.compile(firstSpec.getPath(), new Properties());
+        CompiledPageSpec.compile(secondSpec.getPath(), new Properties());
+        SPEC_PARSINGS.set(0);
+
+        PageSpecReader reader = new PageSpecReader(new Properties(), null);
+        reader.read(firstSpec.getPath());
+        reader.read(secondSpec.getPath());
+        assertThat(SPEC_PARSINGS.get(), is(0));
+
+        reader.read(parsedSpec.getPath());
+        assertThat("First spec should be parsed again for its javascript", SPEC_PARSINGS.get(), is(1));
+    }
+
+    @Test
+    public void shouldRead_severalCompiledSpecs_sameAsParsedSpecs() throws IOException {
+        File commonSpec = new File(TEST_FOLDER, "several-common.spec");
+        File firstSpec = new File(TEST_FOLDER, "several-first.spec");
+        File secondSpec = new File(TEST_FOLDER, "several-second.spec");
+        FileUtils.writeStringToFile(commonSpec, "=======\nheader  id header\n=======\n\nheader\n    height: 50px\n");
+        FileUtils.writeStringToFile(firstSpec, "@@ import several-common.spec\n@@ set menuWidth 100px\n\n"
+                + "=======\nmenu  id menu\n=======\n\nmenu\n    width: ${menuWidth}\n");
+        FileUtils.writeStringToFile(secondSpec, "@@ import several-common.spec\n\n"
+                + "=======\nfooter  id footer\n=======\n\nfooter\n    width: ${menuWidth}\n");
+        CompiledPageSpec.compile(firstSpec.getPath(), new Properties());
+        CompiledPageSpec.compile(secondSpec.getPath(), properties("menuWidth", "100px"));
+
+        PageSpecReader parsingReader = new PageSpecReader(new Properties(), null);
+        parsingReader.setLoadCompiledSpecs(false);
+        String parsedSpecs = describe(parsingReader.read(firstSpec.getPath())) + describe(parsingReader.read(secondSpec.getPath()));
+
+        PageSpecReader reader = new PageSpecReader(new Properties(), null);
+        String loadedSpecs = describe(reader.read(firstSpec.getPath())) + describe(reader.read(secondSpec.getPath()));
+
+        assertThat(loadedSpecs, is(parsedSpecs));
+    }
+
+    private static Properties properties(String... namesAndValues) {
+        Properties properties = new Properties();
+        for (int i = 0; i < namesAndValues.length; i += 2) {
+            properties.setProperty(namesAndValues[i], namesAndValues[i + 1]);
+        }
+        return properties;
+    }
+
+    private static String describe(PageSpec pageSpec) {
+        StringBuilder builder = new StringBuilder();
+        describeLocators(builder, "object", pageSpec.getObjects());
+        describeLocators(builder, "multi-object", pageSpec.getMultiObjects());
+        for (TaggedPageSection section : pageSpec.getSections()) {
+            describe(builder, section, "");
+        }
+        return builder.toString();
+    }
+
+    private static void describeLocators(StringBuilder builder, String type, Map<String, Locator> locators) {
+        for (Map.Entry<String, Locator> locator : locators.entrySet()) {
+            builder.append(type).append(' ').append(locator.getKey())
+                    .append(' ').append(locator.getValue().getLocatorType())
+                    .append(' ').append(locator.getValue().getLocatorValue())
+                    .append(' ').append(locator.getValue().getIndex())
+                    .append(' ').append(locator.getValue().getCorrections()).append('\n');
+        }
+    }
+
+    private static void describe(StringBuilder builder, PageSection section, String indentation) {
+        if (section == null) {
+            builder.append(indentation).append("no section\n");
+            return;
+        }
+
+        builder.append(indentation).append("section ").append(section.getName()).append(' ').append(section.getClass().getSimpleName());
+        if (section instanceof TaggedPageSection) {
+            TaggedPageSection taggedSection = (TaggedPageSection) section;
+            builder.append(' ').append(taggedSection.getTags()).append('\n');
+            if (taggedSection.getConditionalBlocks() != null) {
+                for (ConditionalBlock conditionalBlock : taggedSection.getConditionalBlocks()) {
+                    builder.append(indentation).append("  conditional block\n");
+                    for (ConditionalBlockStatement statement : conditionalBlock.getStatements()) {
+                        builder.append(indentation).append("    statement ").append(statement.isInverted()).append('\n');
+                        describe(builder, statement.getSection(), indentation + "      ");
+                    }
+                    describe(builder, conditionalBlock.getBodyObjects(), indentation + "    ");
+                    describe(builder, conditionalBlock.getOtherwiseObjects(), indentation + "    ");
+                }
+            }
+        }
+        else {
+            builder.append('\n');
+        }
+
+        for (ObjectSpecs objectSpecs : section.getObjects()) {
+            builder.append(indentation).append("  object ").append(objectSpecs.getObjectName()).append('\n');
+            describe(builder, objectSpecs.getSpecs(), indentation + "    ");
+            for (SpecGroup specGroup : objectSpecs.getSpecGroups()) {
+                builder.append(indentation).append("    group ").append(specGroup.getName()).append('\n');
+                describe(builder, specGroup.getSpecs(), indentation + "      ");
+            }
+        }
+        for (PageSection subSection : section.getSections()) {
+            describe(builder, subSection, indentation + "  ");
+        }
+    }
+
+    private static String describe(Place place) {
+        return place == null ? null : place.getFilePath() + ":" + place.getLineNumber();
+    }
+
+    /**
+     * Describes all fields declared in the class of the object and its super classes until the given one
+     */
+    private static void describeFields(StringBuilder builder, Object object, Class<?> stopClass) {
+        builder.append(object.getClass().getSimpleName()).append('{');
+        for (Class<?> type = object.getClass(); type != stopClass && type != Object.class; type = type.getSuperclass()) {
+            for (Field field : type.getDeclaredFields()) {
+                if (!Modifier.isStatic(field.getModifiers())) {
+                    field.setAccessible(true);
+                    builder.append(field.getName()).append('=');
+                    try {
+                        describeValue(builder, field.get(object));
+                    } catch (IllegalAccessException e) {
+                        throw new RuntimeException(e);
+                    }
+                    builder.append(' ');
+                }
+            }
+        }
+        builder.append('}');
+    }
+
+    private static void describeValue(StringBuilder builder, Object value) {
+        if (value instanceof List) {
+            builder.append('[');
+            for (Object item : (List<?>) value) {
+                describeValue(builder, item);
+                builder.append(',');
+            }
+            builder.append(']');
+        }
+        else if (value == null || value instanceof Enum || value.getClass().getName().startsWith("java.")) {
+            builder.append(value);
+        }
+        else {
+            describeFields(builder, value, Object.class);
+        }
+    }
+
+    private static void describe(StringBuilder builder, List<Spec> specs, String indentation) {
+        for (Spec spec : specs) {
+            builder.append(indentation).append(spec.getClass().getSimpleName())
+                    .append(" \"").append(spec.getOriginalText()).append('"')
+                    .append(" alias=").append(spec.getAlias())
+                    .append(" onlyWarn=").append(spec.isOnlyWarn())
+                    .append(" place=").append(describe(spec.getPlace()))
+                    .append(" properties=").append(spec.getProperties());
+
+            builder.append(' ');
+            describeFields(builder, spec, Spec.class);
+            builder.append('\n');
+        }
+    }
+}
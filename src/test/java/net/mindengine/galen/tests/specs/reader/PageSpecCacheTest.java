@@ -0,0 +1,137 @@
+/*******************************************************************************
+* Copyright 2015 Ivan Shubin http://mindengine.net
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*   http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.tests.specs.reader;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.mindengine.galen.browser.SeleniumBrowser;
+import net.mindengine.galen.components.mocks.driver.MockedDriver;
+import net.mindengine.galen.page.Page;
+import net.mindengine.galen.specs.reader.page.PageSpec;
+import net.mindengine.galen.specs.reader.page.PageSpecCache;
+import net.mindengine.galen.specs.reader.page.TaggedPageSection;
+import org.apache.commons.io.FileUtils;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+public class PageSpecCacheTest {
+
+    private static final String TEST_FOLDER = "_test_PageSpecCacheTest";
+
+    public static final AtomicInteger DYNAMIC_SPEC_READS = new AtomicInteger();
+
+    @BeforeClass
+    public void init() throws IOException {
+        FileUtils.forceMkdir(new File(TEST_FOLDER));
+    }
+
+    @AfterClass
+    public void removeTestFolder() throws IOException {
+        FileUtils.deleteDirectory(new File(TEST_FOLDER));
+    }
+
+    @Test
+    public void shouldReturn_separateCopies_ofCachedSpec() throws IOException {
+        PageSpecCache cache = new PageSpecCache(10);
+        Page page = new SeleniumBrowser(new MockedDriver("/mocks/pages/galen4j-sample-page.json")).getPage();
+
+        PageSpec first = cache.read("/specs/spec-sections-advanced.spec", new Properties(), page);
+        TaggedPageSection firstSection = first.getSections().get(0);
+        firstSection.mergeSection(first.getSections().get(1));
+        first.getObjects().put("some-new-object", null);
+
+        PageSpec second = cache.read("/specs/spec-sections-advanced.spec", new Properties(), page);
+
+        assertThat(cache.size(), is(1));
+        assertThat(second, is(not(sameInstance(first))));
+        assertThat(second.getObjects(), not(hasKey("some-new-object")));
+        assertThat(second.getSections().get(0).getObjects().size(),
+                is(first.getSections().get(0).getObjects().size() - first.getSections().get(1).getObjects().size()));
+    }
+
+    @Test
+    public void shouldApply_variablesFromSpec_toProperties_whenSpecIsTakenFromCache() throws IOException {
+        PageSpecCache cache = new PageSpecCache(10);
+        File specFile = new File(TEST_FOLDER + File.separator + "spec-with-variables.spec");
+        FileUtils.writeStringToFile(specFile, "@@ set title Welcome\n\n=======\nheader  id header\n=======\n\nheader\n    text is: ${title}\n");
+
+        Properties firstProperties = new Properties();
+        cache.read(specFile.getPath(), firstProperties, null);
+
+        Properties secondProperties = new Properties();
+        cache.read(specFile.getPath(), secondProperties, null);
+
+        assertThat(firstProperties.getProperty("title"), is("Welcome"));
+        assertThat(secondProperties.getProperty("title"), is("Welcome"));
+    }
+
+    @Test
+    public void shouldReadSpecAgain_whenSpecFileIsChanged() throws IOException {
+        PageSpecCache cache = new PageSpecCache(10);
+        File specFile = new File(TEST_FOLDER + File.separator + "changing.spec");
+        FileUtils.writeStringToFile(specFile, "=======\nheader  id header\n=======\n");
+
+        PageSpec first = cache.read(specFile.getPath(), new Properties(), null);
+
+        FileUtils.writeStringToFile(specFile, "=======\nheader  id header\nmenu  id menu\n=======\n");
+
+        PageSpec second = cache.read(specFile.getPath(), new Properties(), null);
+
+        assertThat(first.getObjects().size(), is(1));
+        assertThat(second.getObjects().size(), is(2));
+    }
+
+    @Test
+    public void shouldEvict_leastRecentlyUsedSpecs() throws IOException {
+        PageSpecCache cache = new PageSpecCache(2);
+
+        cache.read("/specs/spec-conditional-simple.spec", new Properties(), null);
+        cache.read("/specs/spec-sections-advanced.spec", new Properties(), null);
+        cache.read("/specs/spec-conditional-simple.spec", new Properties(), null);
+        cache.read("/specs/spec-warning-level.spec", new Properties(), null);
+
+        assertThat(cache.size(), is(2));
+    }
+
+    @Test
+    public void shouldRead_dynamicSpec_onlyOnce_whenItIsReadForTheFirstTime() throws IOException {
+        PageSpecCache cache = new PageSpecCache(10);
+        Page page = new SeleniumBrowser(new MockedDriver("/mocks/pages/galen4j-sample-page.json")).getPage();
+        File specFile = new File(TEST_FOLDER + File.separator + "dynamic.spec");
+        FileUtils.writeStringToFile(specFile, "@@ set reads ${Packages." + getClass().getName() + ".DYNAMIC_SPEC_READS.incrementAndGet()}\n"
+                + "=======\nsave-button  css .save-button\n=======\n\n"
+                + "save-button\n    width: ${find(\"save-button\").width()} px\n");
+        DYNAMIC_SPEC_READS.set(0);
+
+        PageSpec first = cache.read(specFile.getPath(), new Properties(), page);
+        assertThat(DYNAMIC_SPEC_READS.get(), is(1));
+
+        cache.read(specFile.getPath(), new Properties(), page);
+        assertThat(DYNAMIC_SPEC_READS.get(), is(2));
+
+        assertThat(first.getSections().get(0).getObjects().get(0).getSpecs().get(0).getOriginalText(), is("width: 100 px"));
+    }
+}
@@ -0,0 +1,83 @@
+/*******************************************************************************
+* Copyright 2015 Ivan Shubin http://mindengine.net
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*   http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.tests.specs.reader;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import net.mindengine.galen.specs.page.Locator;
+import net.mindengine.galen.specs.reader.page.ObjectNameResolver;
+import net.mindengine.galen.specs.reader.page.PageSpec;
+import org.testng.annotations.Test;
+
+public class PageSpecTest {
+
+    @Test
+    public void shouldFind_objectsByWildcards_onlyAmongObjectsWithSamePrefix() {
+        PageSpec pageSpec = createPageSpec("menu-item-1", "menu-item-2", "menu-item-10", "menu-items", "menu",
+                "header", "main-menu-item-1", "submenu-item-3");
+
+        assertThat(pageSpec.findAllObjectNames("menu-item-#"), containsInAnyOrder("menu-item-1", "menu-item-2", "menu-item-10"));
+        assertThat(pageSpec.findAllObjectNames("menu-*"), containsInAnyOrder("menu-items"));
+        assertThat(pageSpec.findAllObjectNames("*menu-item-#"), containsInAnyOrder("submenu-item-3"));
+        assertThat(pageSpec.findAllObjectNames("header, menu-item-1#"), containsInAnyOrder("header", "menu-item-10"));
+        assertThat(pageSpec.findMatchingObjectNames("menu-item-*"), containsInAnyOrder("menu-item-1", "menu-item-2", "menu-item-10"));
+    }
+
+    @Test
+    public void shouldFind_objectsByWildcards_whenObjectsAreNotSorted() {
+        PageSpec pageSpec = new PageSpec();
+        Map<String, Locator> objects = new HashMap<String, Locator>();
+        objects.put("menu-item-1", Locator.css("#item-1"));
+        objects.put("header", Locator.css("#header"));
+        pageSpec.setObjects(objects);
+
+        assertThat(pageSpec.findAllObjectNames("menu-item-#"), is(asList("menu-item-1")));
+    }
+
+    @Test
+    public void shouldRemember_foundObjectNames_untilObjectsAreChanged() {
+        PageSpec pageSpec = createPageSpec("menu-item-1", "menu-item-2", "header");
+        Pattern pattern = ObjectNameResolver.compile("menu-item-[0-9]+");
+
+        List<String> firstNames = pageSpec.findObjectNames("menu-item-#", pattern);
+        assertThat(pageSpec.findObjectNames("menu-item-#", pattern), is(sameInstance(firstNames)));
+        assertThat(ObjectNameResolver.compile("menu-item-[0-9]+"), is(sameInstance(pattern)));
+
+        pageSpec.updateMultiObject("menu-item-*", Locator.css(".menu-item"), 3);
+        assertThat(pageSpec.findObjectNames("menu-item-#", pattern), contains("menu-item-1", "menu-item-2", "menu-item-3"));
+
+        pageSpec.getObjects().put("menu-item-4", Locator.css("#menu-item-4"));
+        assertThat(pageSpec.findObjectNames("menu-item-#", pattern), contains("menu-item-1", "menu-item-2", "menu-item-3", "menu-item-4"));
+    }
+
+    private PageSpec createPageSpec(String...objectNames) {
+        PageSpec pageSpec = new PageSpec();
+        for (String objectName : objectNames) {
+            pageSpec.addObject(objectName, Locator.css("#" + objectName));
+        }
+        return pageSpec;
+    }
+}
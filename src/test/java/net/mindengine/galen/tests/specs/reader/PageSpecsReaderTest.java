@@ -761,6 +761,21 @@ public class PageSpecsReaderTest {
         assertThat(pageSpec.getSections().get(0).getObjects().get(0).getSpecs().get(0).getOriginalText(), is("text is: some value from-javascript function"));
     }
 
+    @Test
+    public void shouldAllowTo_extendBuiltInPrototypes_inImportedJavascriptFiles() throws IOException {
+        FileUtils.copyFile(new File(getClass().getResource("/specs/spec-with-prototype-extension.spec").getFile()),
+                new File(TEST_FOLDER + File.separator  + "spec-with-prototype-extension.spec"));
+
+        FileUtils.copyFile(new File(getClass().getResource("/specs/stringPrototype.js").getFile()),
+                new File(TEST_FOLDER + File.separator  + "stringPrototype.js"));
+
+        PageSpec pageSpec = new PageSpecReader(new Properties(), EMPTY_PAGE).read(TEST_FOLDER + File.separator + "spec-with-prototype-extension.spec");
+        assertThat(pageSpec.getSections().get(0).getObjects().get(0).getSpecs().get(0).getOriginalText(), is("text is: HELLO!"));
+
+        PageSpec otherPageSpec = readSpec("/specs/spec-without-prototype-extension.spec");
+        assertThat(otherPageSpec.getSections().get(0).getObjects().get(0).getSpecs().get(0).getOriginalText(), is("text is: undefined"));
+    }
+
     @Test
     public void shouldAllowToUse_pageObjectProperties_inJsExpressions_via_findFunction() throws IOException {
         WebDriver driver = new MockedDriver();
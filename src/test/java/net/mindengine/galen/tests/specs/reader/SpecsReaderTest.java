@@ -24,7 +24,9 @@ import static net.mindengine.galen.specs.Side.TOP;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
 
 import java.awt.Color;
 import java.io.IOException;
@@ -39,6 +41,7 @@ import net.mindengine.galen.page.Rect;
 import net.mindengine.galen.parser.SyntaxException;
 import net.mindengine.galen.specs.*;
 import net.mindengine.galen.specs.colors.ColorRange;
+import net.mindengine.galen.specs.reader.Place;
 import net.mindengine.galen.specs.reader.SpecReader;
 
 import net.mindengine.rainbow4j.filters.BlurFilter;
@@ -86,6 +89,23 @@ public class SpecsReaderTest {
         assertThat(locations.size(), is(0));
     }
 
+    @Test
+    public void shouldReadSameSpecText_intoSeparateSpecs_withTheirOwnPlaces() throws IOException {
+        SpecReader specReader = new SpecReader(EMPTY_PROPERTIES);
+        Spec first = specReader.read("inside: object 10px right", ".", new Place("page1.spec", 3));
+        Spec second = specReader.read("inside: object 10px right", ".", new Place("page2.spec", 7));
+
+        assertThat(first, is(not(sameInstance(second))));
+        assertThat(first.getPlace(), is(new Place("page1.spec", 3)));
+        assertThat(second.getPlace(), is(new Place("page2.spec", 7)));
+        assertThat(((SpecInside) second).getLocations(), contains(new Location(Range.exact(10), sides(RIGHT))));
+    }
+
+    @Test(expectedExceptions = {SyntaxException.class}, expectedExceptionsMessageRegExp = "Such constraint does not exist: left from")
+    public void givesError_forUnknownSpec_startingWithKnownKeyword() throws IOException {
+        readSpec("left from: object 10px");
+    }
+
     @Test
     public void shouldReadSpec_inside_object_10px_right() throws IOException {
         Spec spec = readSpec("inside: object 10px right");
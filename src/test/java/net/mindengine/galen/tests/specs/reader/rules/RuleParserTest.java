@@ -49,6 +49,7 @@ public class RuleParserTest {
         Pattern rulePattern = rule.getPattern();
         assertThat(rulePattern.pattern(), is("\\QShould be placed near \\E(.*)\\Q with \\E(.*)\\Q % margin\\E"));
         assertThat(rule.getParameters(), contains("secondObject", "margin"));
+        assertThat(rule.getLiteralPrefix(), is("Should be placed near "));
     }
 
     @Test
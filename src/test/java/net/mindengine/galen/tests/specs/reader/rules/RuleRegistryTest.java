@@ -0,0 +1,76 @@
+/*******************************************************************************
+* Copyright 2015 Ivan Shubin http://mindengine.net
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*   http://www.apache.org/licenses/LICENSE-2.0
+* 
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.tests.specs.reader.rules;
+
+import net.mindengine.galen.specs.reader.page.PageSpecRule;
+import net.mindengine.galen.specs.reader.page.RuleRegistry;
+import net.mindengine.galen.specs.reader.page.rules.RuleParser;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class RuleRegistryTest {
+
+    private static final PageSpecRule SQUARED = rule("squared");
+    private static final PageSpecRule ANY_ALIGNED = rule("%{first} and %{second} are aligned");
+    private static final PageSpecRule SHOULD_ANYTHING = rule("should %{anything}");
+    private static final PageSpecRule SHOULD_BE_NEAR = rule("should be near %{object}");
+    private static final PageSpecRule PARENT_SHOULD_BE_NEAR = rule("should be near %{parentObject}");
+    private static final PageSpecRule PARENT_CENTERED = rule("centered on %{object}");
+
+    @Test
+    public void shouldFind_firstDefinedRule_amongRulesWithDifferentPrefixes() {
+        RuleRegistry registry = new RuleRegistry(Arrays.asList(SQUARED, SHOULD_ANYTHING, SHOULD_BE_NEAR, ANY_ALIGNED), null);
+
+        RuleRegistry.RuleMatch match = registry.findMatch("should be near menu");
+        assertThat(match.getRule(), is(SHOULD_ANYTHING));
+        assertThat(match.getParameterValue(0), is("be near menu"));
+
+        match = registry.findMatch("menu and header are aligned");
+        assertThat(match.getRule(), is(ANY_ALIGNED));
+        assertThat(match.getParameterValue(0), is("menu"));
+        assertThat(match.getParameterValue(1), is("header"));
+
+        assertThat(registry.findMatch("squared").getRule(), is(SQUARED));
+        assertThat(registry.findMatch("squared menu"), is(nullValue()));
+        assertThat(registry.findMatch("s"), is(nullValue()));
+    }
+
+    @Test
+    public void shouldCheck_ownRules_beforeParentRules() {
+        RuleRegistry parent = new RuleRegistry(Arrays.asList(PARENT_SHOULD_BE_NEAR, PARENT_CENTERED), null);
+        RuleRegistry registry = new RuleRegistry(Arrays.asList(SHOULD_BE_NEAR), parent);
+
+        assertThat(registry.findMatch("should be near menu").getRule(), is(SHOULD_BE_NEAR));
+        assertThat(registry.findMatch("centered on menu").getRule(), is(PARENT_CENTERED));
+        assertThat(parent.findMatch("should be near menu").getRule(), is(PARENT_SHOULD_BE_NEAR));
+        assertThat(registry.getAllRules(), contains(SHOULD_BE_NEAR, PARENT_SHOULD_BE_NEAR, PARENT_CENTERED));
+    }
+
+    @Test
+    public void shouldReuse_foundMatches_forTheSameRuleText() {
+        RuleRegistry registry = new RuleRegistry(Arrays.asList(SHOULD_BE_NEAR), null);
+
+        assertThat(registry.findMatch("should be near menu"), is(sameInstance(registry.findMatch("should be near menu"))));
+    }
+
+    private static PageSpecRule rule(String ruleExpression) {
+        return new PageSpecRule(new RuleParser().parse(ruleExpression), null);
+    }
+}
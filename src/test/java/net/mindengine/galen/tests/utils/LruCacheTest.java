@@ -0,0 +1,41 @@
+/*******************************************************************************
+* Copyright 2015 Ivan Shubin http://mindengine.net
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*   http://www.apache.org/licenses/LICENSE-2.0
+* 
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.tests.utils;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+import net.mindengine.galen.utils.LruCache;
+
+import org.testng.annotations.Test;
+
+public class LruCacheTest {
+
+    @Test
+    public void shouldDrop_leastRecentlyUsedEntries_whenMaxSizeIsExceeded() {
+        LruCache<String, Integer> cache = new LruCache<String, Integer>(2);
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.get("a");
+        cache.put("c", 3);
+
+        assertThat(cache.size(), is(2));
+        assertThat(cache.get("a"), is(1));
+        assertThat(cache.get("b"), is(nullValue()));
+        assertThat(cache.get("c"), is(3));
+    }
+}
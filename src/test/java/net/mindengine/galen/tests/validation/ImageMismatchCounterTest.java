@@ -0,0 +1,84 @@
+/*******************************************************************************
+* Copyright 2015 Ivan Shubin http://mindengine.net
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*   http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.tests.validation;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+
+import net.mindengine.galen.validation.specs.ImageMismatchCounter;
+import net.mindengine.rainbow4j.ComparisonOptions;
+import net.mindengine.rainbow4j.ImageCompareResult;
+import net.mindengine.rainbow4j.Rainbow4J;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+public class ImageMismatchCounterTest {
+
+    @Test(dataProvider = "comparisonOptions")
+    public void shouldCount_sameAmountOfPixels_asRainbow4J(int tolerance, boolean stretch) throws IOException {
+        BufferedImage pageImage = loadImage("/imgs/page-screenshot.png");
+        BufferedImage sampleImage = loadImage("/imgs/button-sample-incorrect.png");
+
+        ComparisonOptions options = new ComparisonOptions();
+        options.setTolerance(tolerance);
+        options.setStretchToFit(stretch);
+
+        Rectangle sampleArea = new Rectangle(0, 0, sampleImage.getWidth(), sampleImage.getHeight());
+        Rectangle elementArea = new Rectangle(10, 10, sampleImage.getWidth() + 5, sampleImage.getHeight() + 3);
+
+        ImageCompareResult expected = Rainbow4J.compare(pageImage, sampleImage, elementArea, sampleArea, options);
+        long totalPixels = ImageMismatchCounter.countMismatchingPixels(pageImage, sampleImage, elementArea, sampleArea, options, ImageMismatchCounter.NO_LIMIT);
+
+        assertThat(totalPixels, is(expected.getTotalPixels()));
+    }
+
+    @Test
+    public void shouldStopCounting_whenLimitIsExceeded() throws IOException {
+        BufferedImage pageImage = loadImage("/imgs/page-screenshot.png");
+        BufferedImage sampleImage = loadImage("/imgs/button-sample-incorrect.png");
+
+        ComparisonOptions options = new ComparisonOptions();
+        Rectangle sampleArea = new Rectangle(0, 0, sampleImage.getWidth(), sampleImage.getHeight());
+
+        long allPixels = ImageMismatchCounter.countMismatchingPixels(pageImage, sampleImage, sampleArea, sampleArea, options, ImageMismatchCounter.NO_LIMIT);
+        assertThat(allPixels, is(greaterThan(10L)));
+
+        long limitedPixels = ImageMismatchCounter.countMismatchingPixels(pageImage, sampleImage, sampleArea, sampleArea, options, 10);
+        assertThat(limitedPixels, is(11L));
+        assertThat(limitedPixels, is(lessThan(allPixels)));
+    }
+
+    @DataProvider
+    public Object[][] comparisonOptions() {
+        return new Object[][] {
+            {0, false},
+            {25, false},
+            {0, true},
+            {25, true}
+        };
+    }
+
+    private BufferedImage loadImage(String path) throws IOException {
+        return Rainbow4J.loadImage(getClass().getResource(path).getFile());
+    }
+}
@@ -17,7 +17,19 @@ package net.mindengine.galen.tests.validation;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
+
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+
+import net.mindengine.galen.components.validation.MockedPage;
+import net.mindengine.galen.components.validation.MockedPageElement;
+import net.mindengine.galen.page.PageElement;
+import net.mindengine.galen.parser.SyntaxException;
 import net.mindengine.galen.specs.Range;
+import net.mindengine.galen.specs.page.Locator;
+import net.mindengine.galen.specs.reader.page.PageSpec;
+import net.mindengine.galen.validation.PageValidation;
 
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
@@ -60,4 +72,55 @@ public class RangeTest {
 				{Range.lessThan(10.0), 15.0, false}
 		};
 	}
+
+	@Test
+	public void shouldConvertPercentageRange_andReadReferenceValue_onlyOnce() {
+		final List<String> fetchedObjectNames = new LinkedList<String>();
+		PageValidation pageValidation = createPageValidation(fetchedObjectNames);
+
+		assertThat(pageValidation.convertRange(Range.between(10.0, 20.0).withPercentOf("container/width")), is(Range.between(20.0, 40.0)));
+		assertThat(pageValidation.convertRange(Range.exact(50.0).withPercentOf("container/width")), is(Range.exact(100.0)));
+		assertThat(pageValidation.convertRange(Range.greaterThan(10.0).withPercentOf("container/area/height")), is(Range.greaterThan(10.0)));
+
+		assertThat(fetchedObjectNames.size(), is(2));
+	}
+
+	@Test(dataProvider = "provideIncorrectValuePaths")
+	public void shouldGiveError_forIncorrectValuePath(String valuePath, String expectedMessage) {
+		PageValidation pageValidation = createPageValidation(new LinkedList<String>());
+		try {
+			pageValidation.convertRange(Range.exact(10.0).withPercentOf(valuePath));
+			throw new RuntimeException("Expected SyntaxException");
+		}
+		catch (SyntaxException ex) {
+			assertThat(ex.getMessage(), is(expectedMessage));
+		}
+	}
+
+	@DataProvider
+	public Object[][] provideIncorrectValuePaths() {
+		return new Object[][]{
+				{"container", "Value path is incorrect container"},
+				{"container/", "Value path is incorrect container/"},
+				{"container/size", "Cannot read field: \"size\""},
+				{"container/area/size", "Cannot read field: \"size\""},
+				{"container/area//width", "Cannot read path area//width"},
+				{"unknown/width", "Locator for object \"unknown\" is not specified"}
+		};
+	}
+
+	private PageValidation createPageValidation(final List<String> fetchedObjectNames) {
+		MockedPage page = new MockedPage(new HashMap<String, PageElement>(){{
+			put("container", new MockedPageElement(0, 0, 200, 100));
+		}}) {
+			@Override
+			public PageElement getObject(String objectName, Locator locator) {
+				fetchedObjectNames.add(objectName);
+				return super.getObject(objectName, locator);
+			}
+		};
+		PageSpec pageSpec = new PageSpec();
+		pageSpec.addObject("container", new Locator("css", "#container"));
+		return new PageValidation(null, page, pageSpec, null, null);
+	}
 }
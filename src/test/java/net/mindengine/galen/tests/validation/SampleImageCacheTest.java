@@ -0,0 +1,134 @@
+/*******************************************************************************
+* Copyright 2015 Ivan Shubin http://mindengine.net
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*   http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+******************************************************************************/
+package net.mindengine.galen.tests.validation;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.mindengine.galen.validation.specs.SampleImageCache;
+
+import org.apache.commons.io.FileUtils;
+import org.testng.annotations.Test;
+
+public class SampleImageCacheTest {
+
+    private static final String BUTTON_IMAGE = "/imgs/button-sample-correct.png";
+    private static final String OTHER_BUTTON_IMAGE = "/imgs/button-sample-incorrect.png";
+
+    @Test
+    public void shouldDecode_sameImage_onlyOnce() throws IOException {
+        SampleImageCache cache = new SampleImageCache(10 * 1024 * 1024);
+
+        BufferedImage first = cache.loadImage(BUTTON_IMAGE);
+        BufferedImage second = cache.loadImage(BUTTON_IMAGE);
+
+        assertThat(second, is(sameInstance(first)));
+        assertThat(cache.getMisses(), is(1L));
+        assertThat(cache.getHits(), is(1L));
+        assertThat(cache.getUsedBytes(), is(4L * first.getWidth() * first.getHeight()));
+    }
+
+    @Test
+    public void shouldDecode_sameImage_onlyOnce_whenItIsLoaded_concurrently() throws Exception {
+        final AtomicInteger decodings = new AtomicInteger(0);
+        final SampleImageCache cache = new SampleImageCache(10 * 1024 * 1024) {
+            @Override
+            protected BufferedImage decodeImage(String imagePath) throws IOException {
+                decodings.incrementAndGet();
+                try {
+                    Thread.sleep(200);
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+                return super.decodeImage(imagePath);
+            }
+        };
+        final int threads = 8;
+        final CyclicBarrier barrier = new CyclicBarrier(threads);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<BufferedImage>> futures = new LinkedList<Future<BufferedImage>>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(new Callable<BufferedImage>() {
+                    @Override
+                    public BufferedImage call() throws Exception {
+                        barrier.await();
+                        return cache.loadImage(BUTTON_IMAGE);
+                    }
+                }));
+            }
+
+            BufferedImage first = futures.get(0).get();
+            for (Future<BufferedImage> future : futures) {
+                assertThat(future.get(), is(sameInstance(first)));
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(decodings.get(), is(1));
+        assertThat(cache.getMisses(), is(1L));
+        assertThat(cache.getHits(), is((long) threads - 1));
+    }
+
+    @Test
+    public void shouldEvict_leastRecentlyUsedImages_whenLimitIsReached() throws IOException {
+        SampleImageCache measuringCache = new SampleImageCache(10 * 1024 * 1024);
+        measuringCache.loadImage(BUTTON_IMAGE);
+        measuringCache.loadImage(OTHER_BUTTON_IMAGE);
+
+        SampleImageCache cache = new SampleImageCache(measuringCache.getUsedBytes() - 1);
+        cache.loadImage(BUTTON_IMAGE);
+        cache.loadImage(OTHER_BUTTON_IMAGE);
+        cache.loadImage(OTHER_BUTTON_IMAGE);
+
+        assertThat(cache.getEvictions(), is(1L));
+        assertThat(cache.getHits(), is(1L));
+        assertThat(cache.getMisses(), is(2L));
+    }
+
+    @Test
+    public void shouldDecode_imageAgain_whenFileIsChanged() throws IOException {
+        File imageFile = File.createTempFile("sample-image", ".png");
+        imageFile.deleteOnExit();
+        FileUtils.copyURLToFile(getClass().getResource(BUTTON_IMAGE), imageFile);
+
+        SampleImageCache cache = new SampleImageCache(10 * 1024 * 1024);
+        BufferedImage first = cache.loadImage(imageFile.getPath());
+
+        FileUtils.copyURLToFile(getClass().getResource(OTHER_BUTTON_IMAGE), imageFile);
+        imageFile.setLastModified(imageFile.lastModified() + 2000);
+
+        assertThat(cache.loadImage(imageFile.getPath()), is(not(sameInstance(first))));
+        assertThat(cache.getMisses(), is(2L));
+    }
+}
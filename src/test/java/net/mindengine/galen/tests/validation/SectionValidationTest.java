@@ -16,11 +16,17 @@
 package net.mindengine.galen.tests.validation;
 
 import net.mindengine.galen.browser.Browser;
+import net.mindengine.galen.browser.BrowserFactory;
 import net.mindengine.galen.components.MockedBrowser;
 import net.mindengine.galen.components.validation.MockedInvisiblePageElement;
 import net.mindengine.galen.components.validation.MockedPage;
+import net.mindengine.galen.components.validation.MockedPageElement;
+import net.mindengine.galen.components.validation.TestValidationListener;
+import net.mindengine.galen.metrics.MetricsListener;
+import net.mindengine.galen.metrics.SpecTiming;
 import net.mindengine.galen.page.PageElement;
 import net.mindengine.galen.specs.Spec;
+import net.mindengine.galen.specs.page.Locator;
 import net.mindengine.galen.specs.page.PageSection;
 import net.mindengine.galen.specs.reader.page.PageSpec;
 import net.mindengine.galen.specs.reader.page.PageSpecReader;
@@ -33,10 +39,15 @@ import java.awt.*;
 import java.io.IOException;
 import java.util.*;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
+import static java.util.Arrays.asList;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.hasItems;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
 
 public class SectionValidationTest {
 
@@ -69,6 +80,264 @@ public class SectionValidationTest {
 
     }
 
+    @Test
+    public void shouldReportResults_inOriginalOrder_whenSpecsAreCheckedInParallel() throws IOException {
+        MockedPage page = new MockedPage(new HashMap<String, PageElement>(){{
+            put("textfield", new MockedPageElement(0, 0, 90, 100));
+            put("button-1", new MockedPageElement(0, 0, 200, 100));
+            put("button-2", new MockedPageElement(0, 110, 200, 10));
+        }});
+        PageSpec pageSpec = readPageSpec("/specs/spec-conditional-simple.spec");
+
+        TestValidationListener sequentialListener = new TestValidationListener();
+        List<ValidationResult> sequentialResults = new SectionValidation(pageSpec.getSections(),
+                new PageValidation(null, page, pageSpec, sequentialListener, EMPTY_SECTION_FILTER), sequentialListener).check();
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        TestValidationListener parallelListener = new TestValidationListener();
+        List<ValidationResult> parallelResults;
+        try {
+            parallelResults = new SectionValidation(pageSpec.getSections(),
+                    new PageValidation(null, page, pageSpec, parallelListener, EMPTY_SECTION_FILTER), parallelListener)
+                    .withParallelExecution(executor)
+                    .check();
+        }
+        finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(sequentialResults.size(), is(3));
+        assertThat(parallelResults, is(sequentialResults));
+        assertThat(parallelListener.getInvokations(), is(sequentialListener.getInvokations()));
+    }
+
+    @Test
+    public void shouldCheck_sameSpec_onlyOnce_whenItIsRepeatedInConditionsAndSections() throws IOException {
+        final List<String> fetchedObjectNames = new LinkedList<String>();
+        MockedPage page = new MockedPage(new HashMap<String, PageElement>(){{
+            put("button-1", new MockedPageElement(0, 0, 200, 100));
+            put("button-2", new MockedPageElement(0, 110, 200, 10));
+        }}) {
+            @Override
+            public PageElement getObject(String objectName, Locator locator) {
+                fetchedObjectNames.add(objectName);
+                return super.getObject(objectName, locator);
+            }
+        };
+        PageSpec pageSpec = readPageSpec("/specs/spec-repeated-checks.spec");
+
+        TestValidationListener validationListener = new TestValidationListener();
+        List<ValidationResult> results = new SectionValidation(pageSpec.getSections(),
+                new PageValidation(null, page, pageSpec, validationListener, EMPTY_SECTION_FILTER), validationListener).check();
+
+        assertThat(results.size(), is(0));
+        assertThat(fetchedObjectNames, is(asList("button-1", "button-2", "button-2")));
+    }
+
+    @Test
+    public void shouldReport_separateResults_whenSameFailingSpecIsRepeated() throws IOException {
+        final List<String> fetchedObjectNames = new LinkedList<String>();
+        MockedPage page = new MockedPage(new HashMap<String, PageElement>(){{
+            put("button-2", new MockedPageElement(0, 110, 150, 10));
+        }}) {
+            @Override
+            public PageElement getObject(String objectName, Locator locator) {
+                fetchedObjectNames.add(objectName);
+                return super.getObject(objectName, locator);
+            }
+        };
+        PageSpec pageSpec = readPageSpec("/specs/spec-repeated-errors.spec");
+
+        TestValidationListener validationListener = new TestValidationListener();
+        List<ValidationResult> results = new SectionValidation(pageSpec.getSections(),
+                new PageValidation(null, page, pageSpec, validationListener, EMPTY_SECTION_FILTER), validationListener).check();
+
+        assertThat(fetchedObjectNames, is(asList("button-2")));
+        assertThat(results.size(), is(2));
+        assertThat(results.get(1), is(results.get(0)));
+        assertThat(results.get(1), is(not(sameInstance(results.get(0)))));
+        assertThat(results.get(1).getError(), is(not(sameInstance(results.get(0).getError()))));
+    }
+
+    @Test
+    public void shouldReport_specTimings_onlyOnce_forEveryCheckedSpec() throws IOException {
+        MockedPage page = new MockedPage(new HashMap<String, PageElement>(){{
+            put("button-1", new MockedPageElement(0, 0, 200, 100));
+            put("button-2", new MockedPageElement(0, 110, 200, 10));
+        }});
+        PageSpec pageSpec = readPageSpec("/specs/spec-repeated-checks.spec");
+
+        final List<SpecTiming> specTimings = new LinkedList<SpecTiming>();
+        TestValidationListener validationListener = new MetricsValidationListener(specTimings);
+        new SectionValidation(pageSpec.getSections(),
+                new PageValidation(null, page, pageSpec, validationListener, EMPTY_SECTION_FILTER), validationListener).check();
+
+        List<String> timedSpecs = new LinkedList<String>();
+        for (SpecTiming specTiming : specTimings) {
+            timedSpecs.add(specTiming.getObjectName() + " " + specTiming.getSpecType() + " " + specTiming.getSpec());
+            assertThat(specTiming.getTime() >= 0, is(true));
+        }
+        assertThat(timedSpecs, is(asList(
+                "button-1 Width width: > 100px",
+                "button-2 Height height: 10px",
+                "button-2 Width width: 200px")));
+    }
+
+    @Test
+    public void shouldCheck_differentPages_withTheSameValidationPlan() throws IOException {
+        PageSpec pageSpec = readPageSpec("/specs/spec-repeated-checks.spec");
+        ValidationPlan validationPlan = ValidationPlan.compile(pageSpec.getSections());
+
+        MockedPage validPage = new MockedPage(new HashMap<String, PageElement>(){{
+            put("button-1", new MockedPageElement(0, 0, 200, 100));
+            put("button-2", new MockedPageElement(0, 110, 200, 10));
+        }});
+        MockedPage invalidPage = new MockedPage(new HashMap<String, PageElement>(){{
+            put("button-1", new MockedPageElement(0, 0, 200, 100));
+            put("button-2", new MockedPageElement(0, 110, 150, 20));
+        }});
+
+        TestValidationListener validationListener = new TestValidationListener();
+        List<ValidationResult> validResults = new SectionValidation(validationPlan,
+                new PageValidation(null, validPage, pageSpec, validationListener, EMPTY_SECTION_FILTER), validationListener).check();
+        List<ValidationResult> invalidResults = new SectionValidation(validationPlan,
+                new PageValidation(null, invalidPage, pageSpec, validationListener, EMPTY_SECTION_FILTER), validationListener).check();
+
+        assertThat(validResults.size(), is(0));
+        assertThat(invalidResults.size(), is(2));
+        assertThat(invalidResults.get(0).getError().getMessages(), is(asList("\"button-2\" height is 20px instead of 10px")));
+        assertThat(invalidResults.get(1).getError().getMessages(), is(asList("\"button-2\" width is 150px instead of 200px")));
+    }
+
+    @Test
+    public void shouldStopValidation_andSkipRestOfSpecs_whenMaxErrorsIsReached() throws IOException {
+        List<String> skippedSpecs = new LinkedList<String>();
+        List<ValidationResult> results = checkWithBudget(new ValidationBudget(1, 0), skippedSpecs);
+
+        assertThat(results.size(), is(1));
+        assertThat(results.get(0).getError().getMessages(), is(asList("\"button-1\" width is 200px instead of 100px")));
+        assertThat(skippedSpecs, is(asList(
+                "button-1 height: 50px: Validation was stopped after 1 error",
+                "button-2 width: 200px: Validation was stopped after 1 error")));
+    }
+
+    @Test
+    public void shouldSkipAllSpecs_whenTimeBudgetIsExceeded() throws IOException, InterruptedException {
+        ValidationBudget validationBudget = new ValidationBudget(0, 1);
+        Thread.sleep(10);
+
+        List<String> skippedSpecs = new LinkedList<String>();
+        List<ValidationResult> results = checkWithBudget(validationBudget, skippedSpecs);
+
+        assertThat(results.size(), is(0));
+        assertThat(skippedSpecs, is(asList(
+                "button-1 width: 100px: Validation was stopped after time budget of 1 ms",
+                "button-1 height: 50px: Validation was stopped after time budget of 1 ms",
+                "button-2 width: 200px: Validation was stopped after time budget of 1 ms")));
+    }
+
+    @Test
+    public void shouldNotCheck_scheduledSpecs_whenTimeBudgetIsExceeded_inParallelMode() throws IOException, InterruptedException {
+        final List<String> fetchedObjectNames = Collections.synchronizedList(new LinkedList<String>());
+        MockedPage page = new MockedPage(new HashMap<String, PageElement>(){{
+            put("button-1", new MockedPageElement(0, 0, 200, 100));
+            put("button-2", new MockedPageElement(0, 110, 200, 10));
+        }}) {
+            @Override
+            public PageElement getObject(String objectName, Locator locator) {
+                fetchedObjectNames.add(objectName);
+                return super.getObject(objectName, locator);
+            }
+        };
+        PageSpec pageSpec = readPageSpec("/specs/spec-fail-fast.spec");
+        ValidationBudget validationBudget = new ValidationBudget(0, 1);
+        Thread.sleep(10);
+
+        List<String> skippedSpecs = new LinkedList<String>();
+        TestValidationListener validationListener = new SkippedSpecsValidationListener(skippedSpecs);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<ValidationResult> results;
+        try {
+            results = new SectionValidation(pageSpec.getSections(),
+                    new PageValidation(null, page, pageSpec, validationListener, EMPTY_SECTION_FILTER).withValidationBudget(validationBudget),
+                    validationListener)
+                    .withParallelExecution(executor)
+                    .check();
+        }
+        finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(results.size(), is(0));
+        assertThat(skippedSpecs.size(), is(3));
+        assertThat(fetchedObjectNames.size(), is(0));
+    }
+
+    @Test
+    public void shouldReport_specsOfAllBranches_ofConditionalBlock_asSkipped_whenTimeBudgetIsExceeded() throws IOException, InterruptedException {
+        ValidationBudget validationBudget = new ValidationBudget(0, 1);
+        Thread.sleep(10);
+
+        List<String> skippedSpecs = new LinkedList<String>();
+        List<ValidationResult> results = checkWithBudget("/specs/spec-conditional-otherwise.spec", validationBudget, skippedSpecs);
+
+        assertThat(results.size(), is(0));
+        assertThat(skippedSpecs, is(asList(
+                "button-1 text is: sample text: Validation was stopped after time budget of 1 ms",
+                "button-2 text ends: something: Validation was stopped after time budget of 1 ms")));
+    }
+
+    private List<ValidationResult> checkWithBudget(ValidationBudget validationBudget, final List<String> skippedSpecs) throws IOException {
+        return checkWithBudget("/specs/spec-fail-fast.spec", validationBudget, skippedSpecs);
+    }
+
+    private List<ValidationResult> checkWithBudget(String specPath, ValidationBudget validationBudget, final List<String> skippedSpecs) throws IOException {
+        MockedPage page = new MockedPage(new HashMap<String, PageElement>(){{
+            put("button-1", new MockedPageElement(0, 0, 200, 100));
+            put("button-2", new MockedPageElement(0, 110, 200, 10));
+        }});
+        PageSpec pageSpec = readPageSpec(specPath);
+
+        TestValidationListener validationListener = new SkippedSpecsValidationListener(skippedSpecs);
+        return new SectionValidation(pageSpec.getSections(),
+                new PageValidation(null, page, pageSpec, validationListener, EMPTY_SECTION_FILTER).withValidationBudget(validationBudget),
+                validationListener).check();
+    }
+
+    private static class SkippedSpecsValidationListener extends TestValidationListener implements SkippedSpecListener {
+        private final List<String> skippedSpecs;
+
+        private SkippedSpecsValidationListener(List<String> skippedSpecs) {
+            this.skippedSpecs = skippedSpecs;
+        }
+
+        @Override
+        public void onSpecSkipped(PageValidation pageValidation, String objectName, Spec spec, String reason) {
+            skippedSpecs.add(objectName + " " + spec.getOriginalText() + ": " + reason);
+        }
+    }
+
+    private static class MetricsValidationListener extends TestValidationListener implements MetricsListener {
+        private final List<SpecTiming> specTimings;
+
+        private MetricsValidationListener(List<SpecTiming> specTimings) {
+            this.specTimings = specTimings;
+        }
+
+        @Override
+        public void onSpecTiming(PageValidation pageValidation, SpecTiming specTiming) {
+            specTimings.add(specTiming);
+        }
+
+        @Override
+        public void onPageActionTiming(GalenPageAction pageAction, long time) {
+        }
+
+        @Override
+        public void onBrowserStartTiming(BrowserFactory browserFactory, long time) {
+        }
+    }
+
     private ValidationListener createRecordingListenerForObjectNames(final List<String> validatedObjectNames) {
         return new ValidationListener() {
             @Override
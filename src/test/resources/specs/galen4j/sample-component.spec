@@ -0,0 +1,6 @@
+====================================
+icon     css .icon
+====================================
+
+icon
+    width: 10px
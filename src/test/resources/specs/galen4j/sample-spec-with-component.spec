@@ -0,0 +1,9 @@
+====================================
+save-button     css .save-button
+name-textfield  id  name-textfield
+====================================
+
+
+save-button
+    width: 100px
+    component: sample-component.spec
@@ -0,0 +1,13 @@
+===============================
+button-1     id     button-1
+button-2     id     button-2
+===============================
+
+@ all
+------------------------
+button-1
+    width: 100px
+    height: 50px
+
+button-2
+    width: 200px
@@ -0,0 +1,25 @@
+===============================
+button-1     id     button-1
+button-2     id     button-2
+===============================
+
+@ all
+------------------------
+button-1
+    width: > 100px
+
+@@ if
+button-1
+    width: > 100px
+@@ do
+button-2
+    height: 10px
+@@ end
+
+@@ if
+button-1
+    width: > 100px
+@@ do
+button-2
+    width: 200px
+@@ end
@@ -0,0 +1,13 @@
+===============================
+button-2     id     button-2
+===============================
+
+@ First section
+------------------------
+button-2
+    width: 200px
+
+@ Second section
+------------------------
+button-2
+    width: 200px
@@ -0,0 +1,5 @@
+
+@@import stringPrototype.js
+
+object-name
+    text is: ${"hello".shout()}
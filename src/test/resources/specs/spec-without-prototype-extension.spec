@@ -0,0 +1,3 @@
+
+object-name
+    text is: ${typeof "hello".shout}
@@ -0,0 +1,3 @@
+String.prototype.shout = function () {
+    return this.toUpperCase() + "!";
+};